@@ -1,4 +1,8 @@
 module scalc.core {
+	requires static java.management;
+	requires static jdk.management;
+	requires static jdk.jfr;
+	
 	exports scalc;
 	exports scalc.exceptions;
 	exports scalc.interfaces;
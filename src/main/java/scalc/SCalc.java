@@ -1,26 +1,22 @@
 package scalc;
 
 import scalc.exceptions.CalculationException;
-import scalc.internal.calc.SCalcController;
-import scalc.internal.converter.ToNumberConverter;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 /**
- * The calculator class. Do not create the instance by yourself. Please use SCalcBuilder!
+ * The calculator class. Do not create the instance by yourself. Please use SCalcBuilder!<br/>
+ * The calculator keeps the given parameters until the next calculation, so an instance must not be shared by multiple threads.
+ * Use {@link SCalcFormula} for concurrent calculations.
  */
 public final class SCalc<RETURN_TYPE> {
-	private static final String DEFAULT_PARAM_NAME = "param";
-	
-    private final SCalcOptions<RETURN_TYPE> options;
-    private final Map<String, Number[]> params = new LinkedHashMap<>();
-	private final AtomicInteger paramCounter = new AtomicInteger(0);
+    private final SCalcFormula<RETURN_TYPE> formula;
+    private final SCalcBindings bindings;
 
-    SCalc(SCalcOptions<RETURN_TYPE> options) {
-        this.options = options;
+    SCalc(SCalcFormula<RETURN_TYPE> formula) {
+        this.formula = formula;
+        this.bindings = formula.bindings();
     }
 
     /**
@@ -29,14 +25,9 @@ public final class SCalc<RETURN_TYPE> {
      * @throws CalculationException If any problems occur, the exception will be wrapped ad CalculationException.
      */
     public RETURN_TYPE calc() throws CalculationException {
-        try {
-            RETURN_TYPE result = SCalcController.calc(this);
-            this.reset();
-            return result;
-        } catch (Throwable e) {
-        	String message = String.format("Unexpected error on calculation of expression: %s using params: %s", options.getExpression(), params);
-            throw new CalculationException(message, e);
-        }
+        RETURN_TYPE result = formula.calc(bindings);
+        this.reset();
+        return result;
     }
 	
 	/**
@@ -44,14 +35,7 @@ public final class SCalc<RETURN_TYPE> {
 	 * @param params Params for calculation
 	 */
     public SCalc<RETURN_TYPE> parameter(Map<String, Object> params) {
-		if (params == null || params.isEmpty()) {
-			return this;
-		}
-		
-        for (Map.Entry<String, Object> entry : params.entrySet()) {
-			this.parameter(entry.getKey(), entry.getValue());
-        }
-		
+		bindings.parameter(params);
         return this;
     }
 	
@@ -64,7 +48,8 @@ public final class SCalc<RETURN_TYPE> {
 	 * @param params Params for calculation
 	 */
     public SCalc<RETURN_TYPE> parameter(Object... params) {
-	    return parameter(Function.identity(), params);
+	    bindings.parameter(params);
+	    return this;
     }
 	
 	/**
@@ -77,32 +62,26 @@ public final class SCalc<RETURN_TYPE> {
 	 * @param params Params for calculation
 	 */
     public <T> SCalc<RETURN_TYPE> parameter(Function<T, Object> paramExtractor, Object... params) {
-	    if (params != null && params.length > 0 && params[0] instanceof CharSequence && params.length % 2 == 0) {
-		    for (int i = 0; i < params.length; i += 2) {
-			    if (!(params[i] instanceof String)) {
-				    throw new CalculationException(String.format("Invalid param value: '%s'. Has to be a string.", params[i]));
-			    }
-			    
-			    this.parameter((String)params[i], paramExtractor, params[i + 1]);
-		    }
-	    } else {
-		    this.parameter(DEFAULT_PARAM_NAME + paramCounter.getAndIncrement(), paramExtractor, params);
-	    }
-		
+	    bindings.parameter(paramExtractor, params);
 		return this;
     }
-	
-    private SCalc<RETURN_TYPE> parameter(String name, Object... values) {
-		return parameter(name, Function.identity(), values);
+
+    /**
+     * [OPTIONAL] Parameters named like the properties of the given bean or record. See {@link SCalcBindings#beanParameter(Object)}.
+     * @param bean Bean, record or map to read the properties from
+     */
+    public SCalc<RETURN_TYPE> beanParameter(Object bean) {
+        bindings.beanParameter(bean);
+        return this;
     }
-	
-	private <T> SCalc<RETURN_TYPE> parameter(String name, Function<T, Object> paramExtractor, Object... values) {
-		if (values == null || values.length == 0) {
-			return this;
-		}
-		
-		this.params.put(name, ToNumberConverter.toNumbers(values, paramExtractor, options.getConverters()));
-		
+
+    /**
+     * [OPTIONAL] Parameters named like property paths starting with the given name, e.g. order.lines.amount. See {@link SCalcBindings#beanParameter(String, Object)}.
+     * @param name Name of the bean in the expression
+     * @param bean Bean, record, map or collection of them to read the properties from
+     */
+    public SCalc<RETURN_TYPE> beanParameter(String name, Object bean) {
+        bindings.beanParameter(name, bean);
         return this;
     }
 
@@ -111,15 +90,22 @@ public final class SCalc<RETURN_TYPE> {
      * This method is called automatically after each successful calculation.
      */
     public SCalc<RETURN_TYPE> reset() {
-        this.params.clear();
+        this.bindings.clear();
         return this;
     }
 
     public SCalcOptions<RETURN_TYPE> getOptions() {
-        return options;
+        return formula.getOptions();
     }
+	
+	/**
+	 * Returns the immutable compiled formula of this calculator, which can be shared by multiple threads.
+	 */
+	public SCalcFormula<RETURN_TYPE> getFormula() {
+		return formula;
+	}
 
     public Map<String, Number[]> getParams() {
-        return params;
+        return bindings.getParams();
     }
 }
@@ -0,0 +1,50 @@
+package scalc;
+
+import scalc.exceptions.CalculationException;
+import scalc.internal.calc.BatchResult;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Results of a parallel batch calculation in the order of the given rows.<br/>
+ * Failed rows do not abort the calculation. Their exceptions are available by {@link #getErrors()}.
+ */
+public final class SCalcBatchResult {
+	private final SCalcOptions<?> options;
+	private final BatchResult result;
+	
+	SCalcBatchResult(SCalcOptions<?> options, BatchResult result) {
+		this.options = options;
+		this.result = result;
+	}
+	
+	public int getRowCount() {
+		return result.getRowCount();
+	}
+	
+	/**
+	 * @return Result of each row. Failed rows are NaN.
+	 */
+	public double[] getDoubleResults() {
+		return result.toDoubles();
+	}
+	
+	/**
+	 * @return Result of each row rounded to the result scale. Failed rows and results which are not finite (NaN, Infinity) are null.
+	 */
+	public BigDecimal[] getBigDecimalResults() {
+		return result.toBigDecimals(options.getResultScale(), options.getResultRoundingMode());
+	}
+	
+	public boolean hasErrors() {
+		return !result.getErrors().isEmpty();
+	}
+	
+	/**
+	 * @return Exceptions of the failed rows ordered by row index.
+	 */
+	public Map<Integer, CalculationException> getErrors() {
+		return result.getErrors();
+	}
+}
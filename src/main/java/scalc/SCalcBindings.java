@@ -0,0 +1,164 @@
+package scalc;
+
+import scalc.exceptions.CalculationException;
+import scalc.internal.calc.Parameters;
+import scalc.internal.converter.BeanProperties;
+import scalc.internal.converter.StreamedValues;
+import scalc.internal.converter.ToNumberConverter;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Parameter values for one calculation of a {@link SCalcFormula}. Create the instance by calling {@link SCalcFormula#bindings()}.<br/>
+ * Bindings are cheap to create but not thread-safe. Use one instance per thread or per calculation.
+ */
+public final class SCalcBindings {
+	private static final String DEFAULT_PARAM_NAME = "param";
+	
+	private final SCalcOptions<?> options;
+	private final Parameters params;
+	private int paramCounter = 0;
+	
+	SCalcBindings(SCalcFormula<?> formula) {
+		this(formula.getOptions(), new Parameters(formula.getOptions(), formula.getCompiledExpression()));
+	}
+	
+	SCalcBindings(SCalcOptions<?> options, Parameters params) {
+		this.options = options;
+		this.params = params;
+	}
+	
+	/**
+	 * [OPTIONAL] Map of named parameters to use for calculation. Optional if the expression does not have any params.
+	 * @param params Params for calculation
+	 */
+	public SCalcBindings parameter(Map<String, Object> params) {
+		if (params == null || params.isEmpty()) {
+			return this;
+		}
+		
+		for (Map.Entry<String, Object> entry : params.entrySet()) {
+			this.parameter(entry.getKey(), Function.identity(), entry.getValue());
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * [OPTIONAL] Parameters in form of: <br/>
+	 * - "name1", 10, "name2", 5, ...<br/>
+	 * or<br/>
+	 * - 10, 20, 30, ...<br/>
+	 * Optional if the expression does not have any params.
+	 * @param params Params for calculation
+	 */
+	public SCalcBindings parameter(Object... params) {
+		return parameter(Function.identity(), params);
+	}
+	
+	/**
+	 * [OPTIONAL] Parameters in form of: <br/>
+	 * - "name1", 10, "name2", 5, ...<br/>
+	 * or<br/>
+	 * - 10, 20, 30, ...<br/>
+	 * Optional if the expression does not have any params.
+	 * @param paramExtractor Function to extract nested properties of the given params
+	 * @param params Params for calculation
+	 */
+	public <T> SCalcBindings parameter(Function<T, Object> paramExtractor, Object... params) {
+		if (params != null && params.length > 0 && params[0] instanceof CharSequence && params.length % 2 == 0) {
+			for (int i = 0; i < params.length; i += 2) {
+				if (!(params[i] instanceof String)) {
+					throw new CalculationException(String.format("Invalid param value: '%s'. Has to be a string.", params[i]));
+				}
+				
+				this.parameter((String)params[i], paramExtractor, params[i + 1]);
+			}
+		} else {
+			this.parameter(DEFAULT_PARAM_NAME + paramCounter++, paramExtractor, params);
+		}
+		
+		return this;
+	}
+	
+	private <T> SCalcBindings parameter(String name, Function<T, Object> paramExtractor, Object... values) {
+		if (values == null || values.length == 0) {
+			return this;
+		}
+		
+		if (values.length == 1 && StreamedValues.isStreamed(values[0])) {
+			this.params.put(name, new StreamedValues(values[0], paramExtractor, options.getNumberConverters()));
+		} else if (options.isDoublePrecision()) {
+			this.params.put(name, ToNumberConverter.toDoubles(values.length == 1 ? values[0] : values, paramExtractor, options.getNumberConverters()));
+		} else {
+			this.params.put(name, ToNumberConverter.toBigDecimals(values.length == 1 ? values[0] : values, paramExtractor, options.getNumberConverters()));
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * [OPTIONAL] Binds the properties of the given bean or record to the parameters named like them. A parameter named like a property path,
+	 * e.g. lines.amount, gets the values at the end of the path. Collections and arrays on the path are flattened.<br/>
+	 * Parameters, which are no property of the bean, are not bound. The getters of each class are resolved only once.
+	 * @param bean Bean, record or map to read the properties from
+	 */
+	public SCalcBindings beanParameter(Object bean) {
+		for (String name : params.getNames()) {
+			if (BeanProperties.hasProperty(bean, name)) {
+				this.property(name, bean, name);
+			}
+		}
+		return this;
+	}
+	
+	/**
+	 * [OPTIONAL] Binds the properties of the given bean or record to the parameters named like a property path starting with the given name,
+	 * e.g. order.lines.amount for the name order. Collections and arrays on the path are flattened.
+	 * A parameter named like the given name gets the bean itself, which requires a type converter.
+	 * @param name Name of the bean in the expression
+	 * @param bean Bean, record, map or collection of them to read the properties from
+	 */
+	public SCalcBindings beanParameter(String name, Object bean) {
+		String prefix = name + ".";
+		for (String parameterName : params.getNames()) {
+			if (parameterName.equalsIgnoreCase(name)) {
+				this.parameter(parameterName, Function.identity(), bean);
+			} else if (parameterName.regionMatches(true, 0, prefix, 0, prefix.length())) {
+				this.property(parameterName, bean, parameterName.substring(prefix.length()));
+			}
+		}
+		return this;
+	}
+	
+	private void property(String name, Object bean, String path) {
+		if (options.isDoublePrecision()) {
+			this.params.put(name, BeanProperties.toDoubles(bean, path, options.getNumberConverters()));
+		} else {
+			this.params.put(name, BeanProperties.toBigDecimals(bean, path, options.getNumberConverters()));
+		}
+	}
+	
+	/**
+	 * Removes all parameters, so the bindings can be used for the next calculation.
+	 */
+	public SCalcBindings clear() {
+		this.params.clear();
+		this.paramCounter = 0;
+		return this;
+	}
+	
+	public Map<String, Number[]> getParams() {
+		return params.asMap();
+	}
+	
+	Parameters getParameters() {
+		return params;
+	}
+	
+	@Override
+	public String toString() {
+		return params.toString();
+	}
+}
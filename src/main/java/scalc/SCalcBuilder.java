@@ -4,7 +4,15 @@ import scalc.exceptions.CalculationException;
 import scalc.interfaces.FunctionImpl;
 import scalc.interfaces.INumberConverter;
 import scalc.interfaces.SCalcExpressions;
+import scalc.interfaces.SCalcFunction;
+import scalc.interfaces.SCalcTracer;
+import scalc.internal.calc.CompiledExpression;
+import scalc.internal.calc.SCalcController;
+import scalc.internal.functions.FunctionImplAdapter;
 import scalc.internal.functions.Functions;
+import scalc.internal.metrics.MetricsRecorder;
+import scalc.internal.trace.LoggingTracer;
+import scalc.internal.trace.SampledTracer;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -128,6 +136,30 @@ public final class SCalcBuilder<RETURN_TYPE> {
 		staticUserFunctions.put(functionName, functionImpl);
 	}
 	
+	/**
+	 * Register a global user function which can later be used within your expressions.<br/>
+	 * Attention: This will affect ALL instances of SCalc!
+	 * @param functionName Name of the function. Please use only characters listed in <code>scalc.internal.functions.Functions#FUNCTION_NAME_VALID_CHARS</code>.
+	 * @param functionImpl Function to be executed for calculation
+	 * @param pure If true, the function always returns the same result for the same arguments and has no side effects.
+	 * Its results are cached if the formula uses a {@link #functionCache(SCalcFunctionCache) function cache}.
+	 */
+	public static void registerGlobalUserFunction(String functionName, FunctionImpl functionImpl, boolean pure) {
+		registerGlobalUserFunction(functionName, FunctionImplAdapter.adapt(functionImpl, pure));
+	}
+	
+	/**
+	 * Register a global function which can later be used within your expressions.
+	 * In contrast to {@link #registerGlobalUserFunction(String, FunctionImpl)}, the number of arguments is checked while compiling,
+	 * pure functions are calculated once for constant arguments and a primitive implementation can be used for double precision.<br/>
+	 * Attention: This will affect ALL instances of SCalc! The function can be removed by {@link #removeGlobalUserFunction(String)}.
+	 * @param functionName Name of the function. Please use only characters listed in <code>scalc.internal.functions.Functions#FUNCTION_NAME_VALID_CHARS</code>.
+	 * @param function Function to be executed for calculation
+	 */
+	public static void registerGlobalFunction(String functionName, SCalcFunction function) {
+		registerGlobalUserFunction(functionName, function);
+	}
+	
 	/**
 	 * Remove a global user function which was already registered.<br/>
 	 * Attention: This will affect ALL instances of SCalc!
@@ -302,7 +334,8 @@ public final class SCalcBuilder<RETURN_TYPE> {
     /**
      * [OPTIONAL] Specifies debug mode.<br/>
      * Default: false
-     * @param debug If true, calculation steps are logged to debug logger or if null to system out.
+     * @param debug If true, calculation steps are logged to debug logger or if null to system out. Use {@link #tracer(SCalcTracer)}
+     *              to inspect calculation steps without formatting messages.
      */
     public final SCalcBuilder<RETURN_TYPE> debug(boolean debug) {
         this.options.setDebug(debug);
@@ -341,6 +374,81 @@ public final class SCalcBuilder<RETURN_TYPE> {
         return this;
     }
 
+    /**
+     * [OPTIONAL] Specifies whether the calculation uses primitive doubles instead of BigDecimals.<br/>
+     * This is much faster, but floating point errors are possible and the calculation scale is not used.
+     * For results of type Double and Float the result scale is not used either.
+     * Divisions by zero and invalid function arguments result in Infinity or NaN instead of an exception.<br/>
+     * Default: false
+     * @param doublePrecision If true, the calculation is done on primitive doubles.
+     */
+    public final SCalcBuilder<RETURN_TYPE> doublePrecision(boolean doublePrecision) {
+        this.options.setDoublePrecision(doublePrecision);
+        return this;
+    }
+
+    /**
+     * [OPTIONAL] Specifies whether the expression is compiled to bytecode. Only used together with double precision.<br/>
+     * The generated class evaluates the expression without walking the parsed expression tree.
+     * Requires Java 15 or newer, otherwise the expression is interpreted. Expressions using ALL_PARAMS, single operator expressions,
+     * user functions, debug mode or parameters with multiple values are interpreted as well.<br/>
+     * Default: false
+     * @param bytecodeGeneration If true, the expression is compiled to bytecode if possible.
+     */
+    public final SCalcBuilder<RETURN_TYPE> bytecodeGeneration(boolean bytecodeGeneration) {
+        this.options.setBytecodeGeneration(bytecodeGeneration);
+        return this;
+    }
+
+    /**
+     * [OPTIONAL] Specifies a tracer, which receives the steps of each calculation as typed events, like {@link SCalcTraceBuffer}.<br/>
+     * Without tracer, calculations do not create any events. Traced calculations are interpreted instead of using generated bytecode.<br/>
+     * Default: null (no tracing)
+     * @param tracer Tracer of all calculations
+     */
+    public final SCalcBuilder<RETURN_TYPE> tracer(SCalcTracer tracer) {
+        this.options.setTracer(tracer);
+        return this;
+    }
+
+    /**
+     * [OPTIONAL] Specifies a tracer, which receives the steps of every n-th calculation. All other calculations are not traced at all.<br/>
+     * Default: null (no tracing)
+     * @param tracer Tracer of the sampled calculations
+     * @param sampleRate Trace 1 of this number of calculations
+     */
+    public final SCalcBuilder<RETURN_TYPE> tracer(SCalcTracer tracer, int sampleRate) {
+        if (sampleRate <= 0) {
+            throw new CalculationException(String.format("Sample rate has to be positive: %s", sampleRate));
+        }
+        return tracer(tracer == null || sampleRate == 1 ? tracer : new SampledTracer(tracer, sampleRate));
+    }
+
+    /**
+     * [OPTIONAL] Specifies metrics, which record the compile time, the number of calculations and errors, the latency and the allocations
+     * of the formulas per expression. Use one instance for all builders to get the metrics of all formulas in one place.<br/>
+     * Default: null (no metrics)
+     * @param metrics Metrics to record the calculations of the built formulas in.
+     */
+    public final SCalcBuilder<RETURN_TYPE> metrics(SCalcMetrics metrics) {
+        this.options.setMetrics(metrics);
+        return this;
+    }
+
+    /**
+     * [OPTIONAL] Specifies a cache for results of pure functions.<br/>
+     * Calls of pure user functions (see {@link SCalcFunction#isPure()} and {@link #registerUserFunction(String, FunctionImpl, boolean)})
+     * and of script functions, which only use their parameters, constants and pure functions, are calculated once per combination of arguments.
+     * Use a new cache for a single builder or share one, like {@link SCalcFunctionCache#getGlobal()}, between multiple builders.
+     * Generated bytecode and batch calculations calculate script functions without the cache.<br/>
+     * Default: null (no caching)
+     * @param functionCache Cache to store the function results in.
+     */
+    public final SCalcBuilder<RETURN_TYPE> functionCache(SCalcFunctionCache functionCache) {
+        this.options.setFunctionCache(functionCache);
+        return this;
+    }
+
     /**
      * Register a local type converter for calculation results and parameters.<br/>
      * Your converter class has to have a default constructor to use this method!<br/>
@@ -368,6 +476,28 @@ public final class SCalcBuilder<RETURN_TYPE> {
 		this.customUserFunctions.put(functionName, functionImpl);
 		return this;
 	}
+	
+	/**
+	 * Register a local user function which can later be used within your expressions.
+	 * @param functionName Name of the function. Please use only characters listed in <code>scalc.internal.functions.Functions#FUNCTION_NAME_VALID_CHARS</code>.
+	 * @param functionImpl Function to be executed for calculation
+	 * @param pure If true, the function always returns the same result for the same arguments and has no side effects.
+	 * Its results are cached if the formula uses a {@link #functionCache(SCalcFunctionCache) function cache}.
+	 */
+	public final SCalcBuilder<RETURN_TYPE> registerUserFunction(String functionName, FunctionImpl functionImpl, boolean pure) {
+		return registerUserFunction(functionName, FunctionImplAdapter.adapt(functionImpl, pure));
+	}
+	
+	/**
+	 * Register a local function which can later be used within your expressions.
+	 * In contrast to {@link #registerUserFunction(String, FunctionImpl)}, the number of arguments is checked while compiling,
+	 * pure functions are calculated once for constant arguments and a primitive implementation can be used for double precision.
+	 * @param functionName Name of the function. Please use only characters listed in <code>scalc.internal.functions.Functions#FUNCTION_NAME_VALID_CHARS</code>.
+	 * @param function Function to be executed for calculation
+	 */
+	public final SCalcBuilder<RETURN_TYPE> registerFunction(String functionName, SCalcFunction function) {
+		return registerUserFunction(functionName, function);
+	}
 
     /**
      * Register multiple local type converters for calculation results and parameters.<br/>
@@ -391,21 +521,47 @@ public final class SCalcBuilder<RETURN_TYPE> {
     }
 
     /**
-     * After setting all options for the builder, you can call this method to create a new instance of SCalc.
+     * After setting all options for the builder, you can call this method to create a new instance of SCalc.<br/>
+     * The expression is parsed only once here, so the returned instance should be reused for multiple calculations.
+     * The instance keeps its parameters between the calls, so it must not be shared by multiple threads. Use {@link #compile()} for that.
      * @return A new calculator with the given options.
+     * @throws CalculationException If the expression cannot be parsed.
      */
     public final SCalc<RETURN_TYPE> build() {
+        return new SCalc<>(compile());
+    }
+    
+    /**
+     * After setting all options for the builder, you can call this method to create an immutable compiled formula.<br/>
+     * The formula takes its parameters on each calculation and can be shared by multiple threads without locking.
+     * @return A new formula with the given options.
+     * @throws CalculationException If the expression cannot be parsed.
+     */
+    public final SCalcFormula<RETURN_TYPE> compile() {
         Map<Class<?>, INumberConverter> converters = new HashMap<>();
         converters.putAll(staticConverters);
         converters.putAll(customConverters);
-        options.setConverters(Collections.unmodifiableMap(converters));
 	
 	    Map<String, FunctionImpl> userFunctions = new HashMap<>();
 	    userFunctions.putAll(staticUserFunctions);
 	    userFunctions.putAll(customUserFunctions);
-	    options.setUserFunctions(Collections.unmodifiableMap(userFunctions));
-
-        return new SCalc<>(options);
+	
+	    SCalcOptions<RETURN_TYPE> formulaOptions = options.copy();
+	    formulaOptions.setConverters(Collections.unmodifiableMap(converters));
+	    formulaOptions.setUserFunctions(Collections.unmodifiableMap(userFunctions));
+	    if (formulaOptions.isDebug()) {
+	        formulaOptions.setTracer(new LoggingTracer(formulaOptions.getDebugLogger(), formulaOptions.getTracer()));
+	    }
+	    if (formulaOptions.getMetrics() == null || formulaOptions.getExpression() == null) {
+	        return new SCalcFormula<>(formulaOptions, SCalcController.compile(formulaOptions));
+	    }
+	    
+	    MetricsRecorder metrics = formulaOptions.getMetrics().recorder(formulaOptions.getExpression());
+	    long start = System.nanoTime();
+	    CompiledExpression compiledExpression = SCalcController.compile(formulaOptions);
+	    metrics.compiled(System.nanoTime() - start);
+	    
+	    return new SCalcFormula<>(formulaOptions, compiledExpression.withMetricsRecorder(metrics));
     }
 
     /**
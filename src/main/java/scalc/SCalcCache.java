@@ -0,0 +1,68 @@
+package scalc;
+
+import scalc.internal.calc.ExpressionCache;
+
+/**
+ * Global cache of compiled expressions used by {@link SCalcBuilder#compile()} and {@link SCalcBuilder#build()}.<br/>
+ * Building a formula with an expression and options, which were already compiled, only costs a lookup instead of parsing
+ * the expression again. The cache is keyed by the expression, calculation scale, calculation rounding mode, double precision,
+ * bytecode generation and the registered user functions. If the cache is full, the least recently used expression is evicted.<br/>
+ * Default maximum size: {@value scalc.internal.calc.ExpressionCache#DEFAULT_MAXIMUM_SIZE}
+ */
+public final class SCalcCache {
+	private SCalcCache() { }
+	
+	/**
+	 * Sets the maximum number of cached expressions. Use 0 to disable the cache.<br/>
+	 * Attention: This will affect ALL instances of SCalc!
+	 */
+	public static void setMaximumSize(int maximumSize) {
+		ExpressionCache.getInstance().setMaximumSize(maximumSize);
+	}
+	
+	public static int getMaximumSize() {
+		return ExpressionCache.getInstance().getMaximumSize();
+	}
+	
+	/**
+	 * @return Number of currently cached expressions.
+	 */
+	public static int getSize() {
+		return ExpressionCache.getInstance().getSize();
+	}
+	
+	/**
+	 * @return Number of builds, which used a cached expression.
+	 */
+	public static long getHits() {
+		return ExpressionCache.getInstance().getHits();
+	}
+	
+	/**
+	 * @return Number of builds, which had to parse the expression.
+	 */
+	public static long getMisses() {
+		return ExpressionCache.getInstance().getMisses();
+	}
+	
+	/**
+	 * @return Number of expressions removed because the cache was full.
+	 */
+	public static long getEvictions() {
+		return ExpressionCache.getInstance().getEvictions();
+	}
+	
+	/**
+	 * Removes all cached expressions. Already built formulas are not affected.
+	 */
+	public static void clear() {
+		ExpressionCache.getInstance().clear();
+	}
+	
+	/**
+	 * Resets the hit, miss and eviction counters to 0.
+	 */
+	public static void resetStatistics() {
+		ExpressionCache.getInstance().resetStatistics();
+	}
+}
@@ -0,0 +1,69 @@
+package scalc;
+
+import scalc.internal.calc.Columns;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Columnar parameters for the batch calculation of a {@link SCalcFormula}: One array per parameter name with one value per row.
+ * All columns must have the same number of rows. The arrays are not copied, so do not modify them during the calculation.
+ */
+public final class SCalcColumns {
+	private final Columns columns = new Columns();
+	
+	/**
+	 * Adds the values of the parameter with the given name.
+	 * @param name Name of the parameter
+	 * @param values One value per row
+	 */
+	public SCalcColumns column(String name, double[] values) {
+		columns.put(name, values);
+		return this;
+	}
+	
+	/**
+	 * Adds the values of the parameter with the given name.
+	 * @param name Name of the parameter
+	 * @param values One value per row
+	 */
+	public SCalcColumns column(String name, BigDecimal[] values) {
+		columns.put(name, values);
+		return this;
+	}
+	
+	/**
+	 * Adds the values of all parameters of the given map.
+	 * @param columns One array with one value per row for each parameter name
+	 */
+	public SCalcColumns doubleColumns(Map<String, double[]> columns) {
+		for (Map.Entry<String, double[]> column : columns.entrySet()) {
+			this.column(column.getKey(), column.getValue());
+		}
+		return this;
+	}
+	
+	/**
+	 * Adds the values of all parameters of the given map.
+	 * @param columns One array with one value per row for each parameter name
+	 */
+	public SCalcColumns bigDecimalColumns(Map<String, BigDecimal[]> columns) {
+		for (Map.Entry<String, BigDecimal[]> column : columns.entrySet()) {
+			this.column(column.getKey(), column.getValue());
+		}
+		return this;
+	}
+	
+	public int getRowCount() {
+		return columns.getRowCount();
+	}
+	
+	Columns getColumns() {
+		return columns;
+	}
+	
+	@Override
+	public String toString() {
+		return columns.toString();
+	}
+}
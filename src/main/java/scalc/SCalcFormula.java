@@ -0,0 +1,158 @@
+package scalc;
+
+import scalc.exceptions.CalculationException;
+import scalc.internal.calc.BatchController;
+import scalc.internal.calc.CompiledExpression;
+import scalc.internal.calc.SCalcController;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Immutable compiled calculator. Do not create the instance by yourself. Please use {@link SCalcBuilder#compile()}!<br/>
+ * The formula holds no calculation state, so one instance can be shared and calculated by many threads at the same time.
+ * Parameters are given on each call, either directly or as {@link SCalcBindings}.
+ */
+public final class SCalcFormula<RETURN_TYPE> {
+	private final SCalcOptions<RETURN_TYPE> options;
+	private final CompiledExpression compiledExpression;
+	
+	SCalcFormula(SCalcOptions<RETURN_TYPE> options, CompiledExpression compiledExpression) {
+		this.options = options;
+		this.compiledExpression = compiledExpression;
+	}
+	
+	/**
+	 * Creates new empty bindings for this formula.
+	 */
+	public SCalcBindings bindings() {
+		return new SCalcBindings(this);
+	}
+	
+	/**
+	 * Creates a new session, which keeps its parameters and the results of all subexpressions between calculations.
+	 * Changing a parameter only recalculates the subexpressions depending on it.
+	 */
+	public SCalcSession<RETURN_TYPE> session() {
+		return new SCalcSession<>(this);
+	}
+	
+	/**
+	 * Calculates the formula without any parameters.
+	 * @return Calculation result as double, BigDecimal or whatever you have specified in the builder.
+	 * @throws CalculationException If any problems occur, the exception will be wrapped ad CalculationException.
+	 */
+	public RETURN_TYPE calc() throws CalculationException {
+		return calc(bindings());
+	}
+	
+	/**
+	 * Calculates the formula using the given map of named parameters.
+	 * @param params Params for calculation
+	 * @return Calculation result as double, BigDecimal or whatever you have specified in the builder.
+	 * @throws CalculationException If any problems occur, the exception will be wrapped ad CalculationException.
+	 */
+	public RETURN_TYPE calc(Map<String, Object> params) throws CalculationException {
+		return calc(bindings().parameter(params));
+	}
+	
+	/**
+	 * Calculates the formula using parameters in form of: <br/>
+	 * - "name1", 10, "name2", 5, ...<br/>
+	 * or<br/>
+	 * - 10, 20, 30, ...
+	 * @param params Params for calculation
+	 * @return Calculation result as double, BigDecimal or whatever you have specified in the builder.
+	 * @throws CalculationException If any problems occur, the exception will be wrapped ad CalculationException.
+	 */
+	public RETURN_TYPE calc(Object... params) throws CalculationException {
+		return calc(bindings().parameter(params));
+	}
+	
+	/**
+	 * Calculates the formula using the given bindings. The bindings are not modified.
+	 * @param bindings Bindings created by {@link #bindings()} of this formula
+	 * @return Calculation result as double, BigDecimal or whatever you have specified in the builder.
+	 * @throws CalculationException If any problems occur, the exception will be wrapped ad CalculationException.
+	 */
+	public RETURN_TYPE calc(SCalcBindings bindings) throws CalculationException {
+		if (!bindings.getParameters().isBoundTo(compiledExpression)) {
+			throw new CalculationException("The given bindings were created for another formula.");
+		}
+		
+		try {
+			return SCalcController.calc(options, compiledExpression, bindings.getParameters());
+		} catch (Throwable e) {
+			String message = String.format("Unexpected error on calculation of expression: %s using params: %s", options.getExpression(), bindings);
+			throw new CalculationException(message, e);
+		}
+	}
+	
+	/**
+	 * Calculates the formula for all rows of the given columns at once.<br/>
+	 * Using double precision, the formula is walked only once for the whole batch. Otherwise the results are rounded to the result scale.
+	 * @param columns Columns with one value per row for each parameter
+	 * @return One result per row
+	 * @throws CalculationException If any problems occur, the exception will be wrapped ad CalculationException.
+	 */
+	public double[] calcDoubleBatch(SCalcColumns columns) throws CalculationException {
+		try {
+			return BatchController.calcDoubleBatch(options, compiledExpression, columns.getColumns());
+		} catch (Throwable e) {
+			String message = String.format("Unexpected error on batch calculation of expression: %s using %s", options.getExpression(), columns);
+			throw new CalculationException(message, e);
+		}
+	}
+	
+	/**
+	 * Calculates the formula for all rows of the given columns at once. The results are rounded to the result scale.
+	 * @param columns Columns with one value per row for each parameter
+	 * @return One result per row
+	 * @throws CalculationException If any problems occur, the exception will be wrapped ad CalculationException.
+	 */
+	public BigDecimal[] calcBigDecimalBatch(SCalcColumns columns) throws CalculationException {
+		try {
+			return BatchController.calcBigDecimalBatch(options, compiledExpression, columns.getColumns());
+		} catch (Throwable e) {
+			String message = String.format("Unexpected error on batch calculation of expression: %s using %s", options.getExpression(), columns);
+			throw new CalculationException(message, e);
+		}
+	}
+	
+	/**
+	 * Calculates the formula for all rows of the given columns in parallel on the common ForkJoinPool.
+	 * @param columns Columns with one value per row for each parameter
+	 * @return Results in the order of the rows and the exceptions of failed rows
+	 */
+	public SCalcBatchResult calcParallelBatch(SCalcColumns columns) {
+		return calcParallelBatch(columns, null);
+	}
+	
+	/**
+	 * Calculates the formula for all rows of the given columns in parallel. The rows are split into chunks, which are calculated on the given executor.
+	 * A failed row does not abort the calculation.
+	 * @param columns Columns with one value per row for each parameter
+	 * @param executor Executor to calculate the chunks, like a ForkJoinPool. If null, the common ForkJoinPool is used.
+	 * @return Results in the order of the rows and the exceptions of failed rows
+	 */
+	public SCalcBatchResult calcParallelBatch(SCalcColumns columns, Executor executor) {
+		return new SCalcBatchResult(options, BatchController.calcParallelBatch(options, compiledExpression, columns.getColumns(), executor));
+	}
+	
+	public SCalcOptions<RETURN_TYPE> getOptions() {
+		return options;
+	}
+	
+	/**
+	 * @return Number of occurrences of structurally identical subexpressions (including definitions and script functions),
+	 * which use the result calculated by the first occurrence instead of being calculated again.
+	 */
+	public int getDeduplicatedCount() {
+		return compiledExpression.getDeduplicatedCount();
+	}
+	
+	CompiledExpression getCompiledExpression() {
+		return compiledExpression;
+	}
+}
@@ -0,0 +1,241 @@
+package scalc;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache for results of pure functions, which is used by formulas built with {@link SCalcBuilder#functionCache(SCalcFunctionCache)}.<br/>
+ * Results of pure user functions and of script functions, which only depend on their parameters, are cached by the function and its arguments.
+ * A cache can be used by a single builder or shared by any number of builders, like the {@link #getGlobal() global cache}.<br/>
+ * Lookups do not lock. If the cache is full, the least recently used entries are evicted in batches of an eighth of the maximum size,
+ * so the costs of finding them are spread over many calls.
+ */
+public final class SCalcFunctionCache {
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+	
+	private static final SCalcFunctionCache GLOBAL = new SCalcFunctionCache(DEFAULT_MAXIMUM_SIZE);
+	
+	private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong clock = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+	
+	private volatile int maximumSize;
+	private volatile long expireAfterWriteNanos;
+	
+	/**
+	 * @param maximumSize Maximum number of cached results. 0 disables the cache.
+	 */
+	public SCalcFunctionCache(int maximumSize) {
+		this(maximumSize, null);
+	}
+	
+	/**
+	 * @param maximumSize Maximum number of cached results. 0 disables the cache.
+	 * @param expireAfterWrite Time after which a cached result is calculated again. If null, results do not expire.
+	 */
+	public SCalcFunctionCache(int maximumSize, Duration expireAfterWrite) {
+		setMaximumSize(maximumSize);
+		setExpireAfterWrite(expireAfterWrite);
+	}
+	
+	/**
+	 * @return Cache shared by all builders, which use it. Default maximum size: {@value #DEFAULT_MAXIMUM_SIZE}
+	 */
+	public static SCalcFunctionCache getGlobal() {
+		return GLOBAL;
+	}
+	
+	/**
+	 * @return Cached value of the key or the result of the loader, which is cached afterwards.
+	 * Concurrent calls with the same missing key may call the loader multiple times.
+	 */
+	@SuppressWarnings("unchecked")
+	public <VALUE> VALUE get(Object key, Supplier<VALUE> loader) {
+		if (maximumSize == 0) {
+			misses.increment();
+			return loader.get();
+		}
+		
+		long expireAfterWriteNanos = this.expireAfterWriteNanos;
+		long now = expireAfterWriteNanos > 0 ? System.nanoTime() : 0;
+		
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			if (!entry.isExpired(now, expireAfterWriteNanos)) {
+				hits.increment();
+				entry.lastAccess = clock.incrementAndGet();
+				return (VALUE) entry.value;
+			}
+			if (entries.remove(key, entry)) {
+				expirations.increment();
+			}
+		}
+		
+		misses.increment();
+		VALUE value = loader.get();
+		
+		entries.put(key, new Entry(value, now, clock.incrementAndGet()));
+		if (entries.size() > maximumSize) {
+			evictOverflow();
+		}
+		return value;
+	}
+	
+	private synchronized void evictOverflow() {
+		int size = entries.size();
+		if (size <= maximumSize) {
+			return;
+		}
+		
+		long[] accesses = new long[size];
+		int count = 0;
+		for (Entry entry : entries.values()) {
+			if (count == accesses.length) {
+				break;
+			}
+			accesses[count++] = entry.lastAccess;
+		}
+		Arrays.sort(accesses, 0, count);
+		
+		int evictedCount = Math.min(count, size - maximumSize + maximumSize / 8);
+		long lastEvictedAccess = accesses[Math.max(evictedCount, 1) - 1];
+		long expireAfterWriteNanos = this.expireAfterWriteNanos;
+		long now = expireAfterWriteNanos > 0 ? System.nanoTime() : 0;
+		
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (entry.isExpired(now, expireAfterWriteNanos)) {
+				iterator.remove();
+				expirations.increment();
+			} else if (entry.lastAccess <= lastEvictedAccess) {
+				iterator.remove();
+				evictions.increment();
+			}
+		}
+	}
+	
+	/**
+	 * Removes all cached results.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+	
+	/**
+	 * Resets the hit, miss, eviction and expiration counters to 0.
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+		expirations.reset();
+	}
+	
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+	
+	/**
+	 * @param maximumSize Maximum number of cached results. 0 disables the cache.
+	 */
+	public void setMaximumSize(int maximumSize) {
+		if (maximumSize < 0) {
+			throw new IllegalArgumentException("Maximum size must not be negative: " + maximumSize);
+		}
+		
+		this.maximumSize = maximumSize;
+		if (maximumSize == 0) {
+			entries.clear();
+		} else {
+			evictOverflow();
+		}
+	}
+	
+	/**
+	 * @return Time after which a cached result is calculated again or null if results do not expire.
+	 */
+	public Duration getExpireAfterWrite() {
+		return expireAfterWriteNanos > 0 ? Duration.ofNanos(expireAfterWriteNanos) : null;
+	}
+	
+	/**
+	 * @param expireAfterWrite Time after which a cached result is calculated again. If null or zero, results do not expire.
+	 */
+	public void setExpireAfterWrite(Duration expireAfterWrite) {
+		if (expireAfterWrite != null && expireAfterWrite.isNegative()) {
+			throw new IllegalArgumentException("Expiration must not be negative: " + expireAfterWrite);
+		}
+		
+		this.expireAfterWriteNanos = expireAfterWrite == null ? 0 : expireAfterWrite.toNanos();
+	}
+	
+	/**
+	 * @return Number of currently cached results. Expired results are counted until they are requested or evicted.
+	 */
+	public int getSize() {
+		return entries.size();
+	}
+	
+	/**
+	 * @return Number of calls, which used a cached result.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	/**
+	 * @return Number of calls, which calculated the function.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @return Ratio of hits to all calls between 0 and 1. 0 if the cache was not used yet.
+	 */
+	public double getHitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+	
+	/**
+	 * @return Number of results removed because the cache was full.
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+	
+	/**
+	 * @return Number of results removed because they expired.
+	 */
+	public long getExpirations() {
+		return expirations.sum();
+	}
+	
+	private static final class Entry {
+		private final Object value;
+		private final long writeTime;
+		private volatile long lastAccess;
+		
+		private Entry(Object value, long writeTime, long lastAccess) {
+			this.value = value;
+			this.writeTime = writeTime;
+			this.lastAccess = lastAccess;
+		}
+		
+		private boolean isExpired(long now, long expireAfterWriteNanos) {
+			return expireAfterWriteNanos > 0 && now - writeTime >= expireAfterWriteNanos;
+		}
+	}
+}
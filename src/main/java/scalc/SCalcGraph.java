@@ -0,0 +1,55 @@
+package scalc;
+
+import scalc.internal.calc.FormulaGraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable graph of named formulas, which use the results of other formulas as parameters. Create the instance by using {@link SCalcGraphBuilder}.<br/>
+ * The formulas are sorted topologically when the graph is built. Cyclic dependencies are rejected at this time.
+ * The graph holds no calculation state, so one instance can be shared by many threads. Calculate it by using a {@link SCalcGraphSession}.
+ */
+public final class SCalcGraph {
+	private final FormulaGraph graph;
+	
+	SCalcGraph(FormulaGraph graph) {
+		this.graph = graph;
+	}
+	
+	/**
+	 * Creates a new session, which keeps the inputs and the results of all formulas between calculations.
+	 * Changing an input only recalculates the formulas downstream of it.
+	 */
+	public SCalcGraphSession session() {
+		return new SCalcGraphSession(graph);
+	}
+	
+	/**
+	 * @return Names of all formulas in topological order. Each formula comes after all formulas it depends on.
+	 */
+	public List<String> getFormulaNames() {
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < graph.size(); i++) {
+			names.add(graph.getName(i));
+		}
+		return Collections.unmodifiableList(names);
+	}
+	
+	/**
+	 * @return Names of the formulas, whose results are used by the given formula.
+	 */
+	public List<String> getDependencies(String name) {
+		Integer formula = graph.indexOf(name);
+		if (formula == null) {
+			return Collections.emptyList();
+		}
+		
+		List<String> dependencies = new ArrayList<>();
+		for (int dependency : graph.getDependencies(formula)) {
+			dependencies.add(graph.getName(dependency));
+		}
+		return Collections.unmodifiableList(dependencies);
+	}
+}
@@ -0,0 +1,53 @@
+package scalc;
+
+import scalc.exceptions.CalculationException;
+import scalc.internal.calc.CompiledExpression;
+import scalc.internal.calc.FormulaGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builder of a {@link SCalcGraph}. Each formula is registered by a name. Other formulas use its result by using this name as parameter:
+ * <pre>
+ * SCalcGraph graph = new SCalcGraphBuilder()
+ *     .formula("gross", SCalcBuilder.bigDecimalInstance().expression("net * (1 + rate)").compile())
+ *     .formula("total", SCalcBuilder.bigDecimalInstance().expression("gross + shipping").compile())
+ *     .build();
+ * </pre>
+ */
+public final class SCalcGraphBuilder {
+	private final List<String> names = new ArrayList<>();
+	private final List<SCalcFormula<?>> formulas = new ArrayList<>();
+	
+	/**
+	 * Registers a formula of the graph.
+	 * @param name Name of the formula. Other formulas of the graph get its result by a parameter with this name (case insensitive).
+	 * @param formula Compiled formula
+	 */
+	public SCalcGraphBuilder formula(String name, SCalcFormula<?> formula) {
+		if (name == null || formula == null) {
+			throw new CalculationException("Name and formula of a graph formula have to be given.");
+		}
+		
+		names.add(name);
+		formulas.add(formula);
+		return this;
+	}
+	
+	/**
+	 * Sorts the formulas by their dependencies.
+	 * @return Immutable graph of all registered formulas
+	 * @throws CalculationException If a name is registered twice or the formulas depend on each other cyclically
+	 */
+	public SCalcGraph build() throws CalculationException {
+		List<SCalcOptions<?>> options = new ArrayList<>();
+		List<CompiledExpression> expressions = new ArrayList<>();
+		for (SCalcFormula<?> formula : formulas) {
+			options.add(formula.getOptions());
+			expressions.add(formula.getCompiledExpression());
+		}
+		
+		return new SCalcGraph(new FormulaGraph(names, options, expressions));
+	}
+}
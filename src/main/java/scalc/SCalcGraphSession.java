@@ -0,0 +1,145 @@
+package scalc;
+
+import scalc.exceptions.CalculationException;
+import scalc.internal.calc.FormulaGraph;
+import scalc.internal.calc.GraphCalculation;
+import scalc.internal.converter.ToNumberConverter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Incremental calculation of a {@link SCalcGraph}. Create the instance by calling {@link SCalcGraph#session()}.<br/>
+ * The session keeps its inputs and the results of all formulas between calculations. A calculation only recalculates formulas,
+ * whose inputs changed or which depend on a formula whose result changed. Results are passed to depending formulas without rounding them
+ * to the result scale and without converting them to the return type.<br/>
+ * The session is not thread-safe, but it can calculate independent formulas in parallel on an executor.
+ */
+public final class SCalcGraphSession {
+	private final FormulaGraph graph;
+	private final GraphCalculation calculation;
+	private Object[] results;
+	
+	SCalcGraphSession(FormulaGraph graph) {
+		this.graph = graph;
+		this.calculation = new GraphCalculation(graph);
+	}
+	
+	/**
+	 * Calculates all outdated formulas in the calling thread.
+	 * @return Results of all formulas by their names in topological order
+	 * @throws CalculationException If any problems occur, the exception will be wrapped ad CalculationException.
+	 */
+	public Map<String, Object> calc() throws CalculationException {
+		return calc(null);
+	}
+	
+	/**
+	 * Calculates all outdated formulas on the given executor. Each formula is calculated as soon as all formulas it depends on are calculated,
+	 * so independent formulas are calculated in parallel.
+	 * @param executor Executor to calculate the formulas or null to calculate them in the calling thread
+	 * @return Results of all formulas by their names in topological order
+	 * @throws CalculationException If any problems occur, the exception will be wrapped ad CalculationException.
+	 */
+	public Map<String, Object> calc(Executor executor) throws CalculationException {
+		results = calculation.calc(executor);
+		
+		Map<String, Object> namedResults = new LinkedHashMap<>();
+		for (int i = 0; i < results.length; i++) {
+			namedResults.put(graph.getName(i), results[i]);
+		}
+		return Collections.unmodifiableMap(namedResults);
+	}
+	
+	/**
+	 * @return Result of the formula with the given name of the last calculation or null if it was not calculated yet.
+	 */
+	public Object getResult(String name) {
+		Integer formula = graph.indexOf(name);
+		if (formula == null) {
+			throw new CalculationException(String.format("Unknown formula: %s", name));
+		}
+		return results != null ? results[formula] : null;
+	}
+	
+	/**
+	 * Sets or replaces the given named inputs. All other inputs are kept.
+	 * @param params Inputs for calculation
+	 */
+	public SCalcGraphSession parameter(Map<String, Object> params) {
+		if (params == null || params.isEmpty()) {
+			return this;
+		}
+		
+		for (Map.Entry<String, Object> entry : params.entrySet()) {
+			this.parameter(entry.getKey(), Function.identity(), entry.getValue());
+		}
+		return this;
+	}
+	
+	/**
+	 * Sets or replaces inputs in form of: "name1", 10, "name2", 5, ...<br/>
+	 * All other inputs are kept.
+	 * @param params Inputs for calculation
+	 */
+	public SCalcGraphSession parameter(Object... params) {
+		return parameter(Function.identity(), params);
+	}
+	
+	/**
+	 * Sets or replaces inputs in form of: "name1", 10, "name2", 5, ...<br/>
+	 * All other inputs are kept.
+	 * @param paramExtractor Function to extract nested properties of the given params
+	 * @param params Inputs for calculation
+	 */
+	public <T> SCalcGraphSession parameter(Function<T, Object> paramExtractor, Object... params) {
+		if (params == null || params.length % 2 != 0) {
+			throw new CalculationException("Inputs of a formula graph have to be given in form of: \"name1\", 10, \"name2\", 5, ...");
+		}
+		
+		for (int i = 0; i < params.length; i += 2) {
+			if (!(params[i] instanceof String)) {
+				throw new CalculationException(String.format("Invalid param value: '%s'. Has to be a string.", params[i]));
+			}
+			
+			this.parameter((String)params[i], paramExtractor, params[i + 1]);
+		}
+		return this;
+	}
+	
+	private <T> void parameter(String name, Function<T, Object> paramExtractor, Object... values) {
+		if (values == null || values.length == 0) {
+			return;
+		}
+		
+		calculation.put(name, ToNumberConverter.toBigDecimals(values, paramExtractor, graph.getConverters()));
+	}
+	
+	/**
+	 * Removes all inputs. The formulas are calculated again on the next calculation.
+	 */
+	public SCalcGraphSession clear() {
+		calculation.clear();
+		return this;
+	}
+	
+	/**
+	 * @return Names of the formulas calculated by the last calculation in topological order. All other formulas kept their results.
+	 */
+	public List<String> getRecalculatedFormulas() {
+		List<String> names = new ArrayList<>();
+		for (int formula : calculation.getRecalculated()) {
+			names.add(graph.getName(formula));
+		}
+		return names;
+	}
+	
+	public Map<String, Number[]> getParams() {
+		return Collections.unmodifiableMap(calculation.getInputs());
+	}
+}
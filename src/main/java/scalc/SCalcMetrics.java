@@ -0,0 +1,181 @@
+package scalc;
+
+import scalc.internal.metrics.MetricsRecorder;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Metrics of formulas built with {@link SCalcBuilder#metrics(SCalcMetrics)}, recorded per expression: compile time, number of calculations
+ * and errors, a latency histogram and an estimate of the bytes allocated per calculation. Formulas with the same expression share their metrics.<br/>
+ * Recording does not lock. Use {@link #getSnapshots()} to export the metrics to a monitoring system.
+ * Calculations of single formulas, sessions and formula graphs are recorded, batch calculations are not.
+ */
+public final class SCalcMetrics {
+	public static final int DEFAULT_ALLOCATION_SAMPLE_RATE = 100;
+	
+	private final Map<String, MetricsRecorder> recorders = new ConcurrentHashMap<>();
+	private final int allocationSampleRate;
+	
+	public SCalcMetrics() {
+		this(DEFAULT_ALLOCATION_SAMPLE_RATE);
+	}
+	
+	/**
+	 * @param allocationSampleRate Allocations are measured for 1 of this number of calculations. 0 disables measuring them.
+	 */
+	public SCalcMetrics(int allocationSampleRate) {
+		if (allocationSampleRate < 0) {
+			throw new IllegalArgumentException("Allocation sample rate must not be negative: " + allocationSampleRate);
+		}
+		this.allocationSampleRate = allocationSampleRate;
+	}
+	
+	MetricsRecorder recorder(String expression) {
+		return recorders.computeIfAbsent(expression, key -> new MetricsRecorder(key, allocationSampleRate));
+	}
+	
+	/**
+	 * @return Current metrics of all expressions sorted by expression.
+	 */
+	public Map<String, Snapshot> getSnapshots() {
+		Map<String, Snapshot> snapshots = new TreeMap<>();
+		for (MetricsRecorder recorder : recorders.values()) {
+			Snapshot snapshot = recorder.snapshot();
+			snapshots.put(snapshot.getExpression(), snapshot);
+		}
+		return snapshots;
+	}
+	
+	/**
+	 * @return Current metrics of the expression or null if no formula with this expression was built.
+	 */
+	public Snapshot getSnapshot(String expression) {
+		MetricsRecorder recorder = recorders.get(expression);
+		return recorder == null ? null : recorder.snapshot();
+	}
+	
+	/**
+	 * Sets all metrics to 0. Formulas already built keep recording their metrics.
+	 */
+	public void reset() {
+		for (MetricsRecorder recorder : recorders.values()) {
+			recorder.reset();
+		}
+	}
+	
+	/**
+	 * Metrics of an expression at the time of creating the snapshot. All times are in nanoseconds.
+	 */
+	public static final class Snapshot {
+		private final String expression;
+		private final long compilations;
+		private final long compileTimeNanos;
+		private final long calculations;
+		private final long errors;
+		private final long totalTimeNanos;
+		private final long maxTimeNanos;
+		private final long[] histogram;
+		private final long allocatedBytesPerCalculation;
+		
+		public Snapshot(String expression, long compilations, long compileTimeNanos, long calculations, long errors,
+		                long totalTimeNanos, long maxTimeNanos, long[] histogram, long allocatedBytesPerCalculation) {
+			this.expression = expression;
+			this.compilations = compilations;
+			this.compileTimeNanos = compileTimeNanos;
+			this.calculations = calculations;
+			this.errors = errors;
+			this.totalTimeNanos = totalTimeNanos;
+			this.maxTimeNanos = maxTimeNanos;
+			this.histogram = histogram;
+			this.allocatedBytesPerCalculation = allocatedBytesPerCalculation;
+		}
+		
+		public String getExpression() {
+			return expression;
+		}
+		
+		/**
+		 * @return Number of built formulas, including formulas taken from the expression cache.
+		 */
+		public long getCompilations() {
+			return compilations;
+		}
+		
+		/**
+		 * @return Time spent on building formulas, including parsing and optimizing the expression.
+		 */
+		public long getCompileTimeNanos() {
+			return compileTimeNanos;
+		}
+		
+		/**
+		 * @return Number of calculations, including failed ones.
+		 */
+		public long getCalculations() {
+			return calculations;
+		}
+		
+		public long getErrors() {
+			return errors;
+		}
+		
+		public long getTotalTimeNanos() {
+			return totalTimeNanos;
+		}
+		
+		public long getMeanTimeNanos() {
+			return calculations == 0 ? 0 : totalTimeNanos / calculations;
+		}
+		
+		public long getMaxTimeNanos() {
+			return maxTimeNanos;
+		}
+		
+		/**
+		 * @return Number of calculations per latency bucket. Bucket i counts the calculations taking up to {@link #getBucketUpperBoundNanos(int)}.
+		 */
+		public long[] getHistogram() {
+			return histogram.clone();
+		}
+		
+		/**
+		 * @return Upper bound of the latency bucket. The bounds double from 1 microsecond, the last bucket is unbounded (Long.MAX_VALUE).
+		 */
+		public static long getBucketUpperBoundNanos(int bucket) {
+			return MetricsRecorder.bucketUpperBound(bucket);
+		}
+		
+		/**
+		 * @param percentile Percentile between 0 and 100, e.g. 99
+		 * @return Upper bound of the bucket containing the percentile, limited to the maximum time. 0 if nothing was calculated.
+		 */
+		public long getPercentileNanos(double percentile) {
+			long threshold = (long) Math.ceil(calculations * percentile / 100);
+			long count = 0;
+			for (int i = 0; i < histogram.length; i++) {
+				count += histogram[i];
+				if (count >= threshold && count > 0) {
+					return Math.min(getBucketUpperBoundNanos(i), maxTimeNanos);
+				}
+			}
+			return maxTimeNanos;
+		}
+		
+		/**
+		 * @return Average bytes allocated by the sampled calculations or -1 if allocations were not measured.
+		 */
+		public long getAllocatedBytesPerCalculation() {
+			return allocatedBytesPerCalculation;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("%s: compilations=%s, compileTime=%sns, calculations=%s, errors=%s, mean=%sns, p99=%sns, max=%sns, allocated=%sB, histogram=%s",
+					expression, compilations, compileTimeNanos, calculations, errors, getMeanTimeNanos(), getPercentileNanos(99), maxTimeNanos,
+					allocatedBytesPerCalculation, Arrays.toString(histogram));
+		}
+	}
+}
@@ -2,10 +2,14 @@ package scalc;
 
 import scalc.interfaces.FunctionImpl;
 import scalc.interfaces.INumberConverter;
+import scalc.interfaces.SCalcTracer;
+import scalc.internal.converter.NumberConverters;
 
+import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 public final class SCalcOptions<RETURN_TYPE> {
 	public static final int DEFAULT_SCALE = 10;
@@ -13,16 +17,45 @@ public final class SCalcOptions<RETURN_TYPE> {
 	private Class<RETURN_TYPE> returnType;
     private String expression;
     private Map<Class<?>, INumberConverter> converters;
+    private NumberConverters numberConverters = NumberConverters.NONE;
+    private Function<BigDecimal, RETURN_TYPE> resultConversion;
     private Map<String, FunctionImpl> userFunctions;
     private int resultScale = DEFAULT_SCALE;
     private RoundingMode resultRoundingMode = RoundingMode.HALF_UP;
     private int calculationScale = DEFAULT_SCALE;
     private RoundingMode calculationRoundingMode = RoundingMode.HALF_UP;
     private boolean debug = false;
+    private boolean doublePrecision = false;
+    private boolean bytecodeGeneration = false;
     private Consumer<String> debugLogger = System.out::println;
+    private SCalcFunctionCache functionCache;
+    private SCalcTracer tracer;
+    private SCalcMetrics metrics;
     
     SCalcOptions() { }
     
+    SCalcOptions<RETURN_TYPE> copy() {
+        SCalcOptions<RETURN_TYPE> copy = new SCalcOptions<>();
+        copy.returnType = returnType;
+        copy.expression = expression;
+        copy.converters = converters;
+        copy.numberConverters = numberConverters;
+        copy.resultConversion = resultConversion;
+        copy.userFunctions = userFunctions;
+        copy.resultScale = resultScale;
+        copy.resultRoundingMode = resultRoundingMode;
+        copy.calculationScale = calculationScale;
+        copy.calculationRoundingMode = calculationRoundingMode;
+        copy.debug = debug;
+        copy.doublePrecision = doublePrecision;
+        copy.bytecodeGeneration = bytecodeGeneration;
+        copy.debugLogger = debugLogger;
+        copy.functionCache = functionCache;
+        copy.tracer = tracer;
+        copy.metrics = metrics;
+        return copy;
+    }
+    
     public Class<RETURN_TYPE> getReturnType() {
         return returnType;
     }
@@ -75,8 +108,28 @@ public final class SCalcOptions<RETURN_TYPE> {
         return converters;
     }
 
+    /**
+     * Sets the converters and resolves the conversion of the result for the current return type.
+     * So the return type has to be set before.
+     */
     void setConverters(Map<Class<?>, INumberConverter> converters) {
         this.converters = converters;
+        this.numberConverters = NumberConverters.of(converters);
+        this.resultConversion = numberConverters.resolveResultConversion(returnType);
+    }
+
+    /**
+     * @return Converters for parameters, caching the converter of each parameter class.
+     */
+    NumberConverters getNumberConverters() {
+        return numberConverters;
+    }
+
+    /**
+     * @return Conversion of the rounded result to the return type, resolved when the formula was built.
+     */
+    public Function<BigDecimal, RETURN_TYPE> getResultConversion() {
+        return resultConversion;
     }
     
     public boolean isDebug() {
@@ -87,6 +140,22 @@ public final class SCalcOptions<RETURN_TYPE> {
         this.debug = debug;
     }
     
+    public boolean isDoublePrecision() {
+        return doublePrecision;
+    }
+    
+    void setDoublePrecision(boolean doublePrecision) {
+        this.doublePrecision = doublePrecision;
+    }
+    
+    public boolean isBytecodeGeneration() {
+        return bytecodeGeneration;
+    }
+    
+    void setBytecodeGeneration(boolean bytecodeGeneration) {
+        this.bytecodeGeneration = bytecodeGeneration;
+    }
+    
     public Consumer<String> getDebugLogger() {
         return debugLogger;
     }
@@ -95,6 +164,28 @@ public final class SCalcOptions<RETURN_TYPE> {
         this.debugLogger = debugLogger;
     }
 	
+	/**
+	 * @return Tracer of the calculations or null if calculations are not traced. Includes the logging of the debug mode.
+	 */
+	public SCalcTracer getTracer() {
+		return tracer;
+	}
+	
+	void setTracer(SCalcTracer tracer) {
+		this.tracer = tracer;
+	}
+	
+	/**
+	 * @return Metrics of the formulas or null if no metrics are recorded.
+	 */
+	public SCalcMetrics getMetrics() {
+		return metrics;
+	}
+	
+	void setMetrics(SCalcMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
 	public Map<String, FunctionImpl> getUserFunctions() {
 		return userFunctions;
 	}
@@ -102,4 +193,15 @@ public final class SCalcOptions<RETURN_TYPE> {
 	void setUserFunctions(Map<String, FunctionImpl> userFunctions) {
 		this.userFunctions = userFunctions;
 	}
+	
+	/**
+	 * @return Cache for results of pure functions or null if results are not cached.
+	 */
+	public SCalcFunctionCache getFunctionCache() {
+		return functionCache;
+	}
+	
+	void setFunctionCache(SCalcFunctionCache functionCache) {
+		this.functionCache = functionCache;
+	}
 }
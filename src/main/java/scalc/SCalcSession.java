@@ -0,0 +1,126 @@
+package scalc;
+
+import scalc.exceptions.CalculationException;
+import scalc.internal.calc.IncrementalCalculation;
+import scalc.internal.calc.SCalcController;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Incremental calculation of a {@link SCalcFormula}. Create the instance by calling {@link SCalcFormula#session()}.<br/>
+ * In contrast to {@link SCalc}, the session keeps its parameters after a calculation, so only changed parameters have to be given again.
+ * The results of all subexpressions are kept as well, and a calculation only recalculates the subexpressions depending on parameters,
+ * which were changed since the last calculation. Subexpressions calling functions, which are not pure, are calculated each time.<br/>
+ * Generated bytecode is not used by a session. The session is not thread-safe.
+ */
+public final class SCalcSession<RETURN_TYPE> {
+	private final SCalcFormula<RETURN_TYPE> formula;
+	private final IncrementalCalculation calculation;
+	private final SCalcBindings bindings;
+	
+	SCalcSession(SCalcFormula<RETURN_TYPE> formula) {
+		this.formula = formula;
+		this.calculation = new IncrementalCalculation(formula.getOptions(), formula.getCompiledExpression());
+		this.bindings = new SCalcBindings(formula.getOptions(), calculation.getParameters());
+	}
+	
+	/**
+	 * Calculates the formula with the current parameters.
+	 * @return Calculation result as double, BigDecimal or whatever you have specified in the builder.
+	 * @throws CalculationException If any problems occur, the exception will be wrapped ad CalculationException.
+	 */
+	public RETURN_TYPE calc() throws CalculationException {
+		try {
+			return SCalcController.calc(formula.getOptions(), calculation);
+		} catch (Throwable e) {
+			String message = String.format("Unexpected error on calculation of expression: %s using params: %s", formula.getOptions().getExpression(), bindings);
+			throw new CalculationException(message, e);
+		}
+	}
+	
+	/**
+	 * Sets or replaces the given named parameters. All other parameters are kept.
+	 * @param params Params for calculation
+	 */
+	public SCalcSession<RETURN_TYPE> parameter(Map<String, Object> params) {
+		bindings.parameter(params);
+		return this;
+	}
+	
+	/**
+	 * Sets or replaces parameters in form of: <br/>
+	 * - "name1", 10, "name2", 5, ...<br/>
+	 * or<br/>
+	 * - 10, 20, 30, ...<br/>
+	 * All other parameters are kept. Parameters without name are added as new parameters on each call.
+	 * @param params Params for calculation
+	 */
+	public SCalcSession<RETURN_TYPE> parameter(Object... params) {
+		bindings.parameter(params);
+		return this;
+	}
+	
+	/**
+	 * Sets or replaces parameters in form of: <br/>
+	 * - "name1", 10, "name2", 5, ...<br/>
+	 * or<br/>
+	 * - 10, 20, 30, ...<br/>
+	 * All other parameters are kept. Parameters without name are added as new parameters on each call.
+	 * @param paramExtractor Function to extract nested properties of the given params
+	 * @param params Params for calculation
+	 */
+	public <T> SCalcSession<RETURN_TYPE> parameter(Function<T, Object> paramExtractor, Object... params) {
+		bindings.parameter(paramExtractor, params);
+		return this;
+	}
+	
+	/**
+	 * Sets or replaces the parameters named like the properties of the given bean. See {@link SCalcBindings#beanParameter(Object)}.
+	 * @param bean Bean, record or map to read the properties from
+	 */
+	public SCalcSession<RETURN_TYPE> beanParameter(Object bean) {
+		bindings.beanParameter(bean);
+		return this;
+	}
+	
+	/**
+	 * Sets or replaces the parameters named like property paths starting with the given name. See {@link SCalcBindings#beanParameter(String, Object)}.
+	 * @param name Name of the bean in the expression
+	 * @param bean Bean, record, map or collection of them to read the properties from
+	 */
+	public SCalcSession<RETURN_TYPE> beanParameter(String name, Object bean) {
+		bindings.beanParameter(name, bean);
+		return this;
+	}
+	
+	/**
+	 * Removes all parameters. Results of subexpressions, which do not depend on parameters, are kept.
+	 */
+	public SCalcSession<RETURN_TYPE> clear() {
+		bindings.clear();
+		return this;
+	}
+	
+	/**
+	 * @return Number of subexpressions calculated by the last calculation. All other subexpressions used their result of a previous calculation.
+	 */
+	public int getRecalculatedNodeCount() {
+		return calculation.getRecalculatedCount();
+	}
+	
+	/**
+	 * @return Number of subexpressions, whose results are kept between calculations.
+	 */
+	public int getNodeCount() {
+		return calculation.getSubexpressionCount();
+	}
+	
+	public SCalcFormula<RETURN_TYPE> getFormula() {
+		return formula;
+	}
+	
+	public Map<String, Number[]> getParams() {
+		return bindings.getParams();
+	}
+}
@@ -0,0 +1,256 @@
+package scalc;
+
+import scalc.interfaces.SCalcTrace;
+import scalc.interfaces.SCalcTracer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tracer keeping the steps of the last calculations in memory, so they can be inspected after an error or an unexpected result.
+ * The buffer is bounded: the oldest calculation is replaced by each new one. Combined with sampling by
+ * {@link SCalcBuilder#tracer(scalc.interfaces.SCalcTracer, int)}, it can stay enabled under load.<br/>
+ * Calculations are added after they finished. The buffer can be shared by multiple formulas and threads without locking.
+ */
+public final class SCalcTraceBuffer implements SCalcTracer {
+	private final AtomicReferenceArray<Calculation> calculations;
+	private final AtomicLong sequence = new AtomicLong();
+	
+	/**
+	 * @param capacity Number of kept calculations
+	 */
+	public SCalcTraceBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity of trace buffer has to be positive: " + capacity);
+		}
+		this.calculations = new AtomicReferenceArray<>(capacity);
+	}
+	
+	@Override
+	public SCalcTrace startCalculation(String expression) {
+		return new Recorder(expression);
+	}
+	
+	/**
+	 * @return The kept calculations from the oldest to the latest one.
+	 */
+	public List<Calculation> getCalculations() {
+		List<Calculation> result = new ArrayList<>(calculations.length());
+		for (int i = 0; i < calculations.length(); i++) {
+			Calculation calculation = calculations.get(i);
+			if (calculation != null) {
+				result.add(calculation);
+			}
+		}
+		result.sort(Comparator.comparingLong(Calculation::getSequence));
+		return result;
+	}
+	
+	/**
+	 * Removes all kept calculations.
+	 */
+	public void clear() {
+		for (int i = 0; i < calculations.length(); i++) {
+			calculations.set(i, null);
+		}
+	}
+	
+	/**
+	 * Calculations may finish in another order than they started, so a calculation only replaces an older one in its slot.
+	 * Otherwise a slow calculation could overwrite the latest one.
+	 */
+	private void add(Calculation calculation) {
+		int index = (int) (calculation.sequence % calculations.length());
+		Calculation current = calculations.get(index);
+		while (current == null || current.sequence < calculation.sequence) {
+			if (calculations.compareAndSet(index, current, calculation)) {
+				return;
+			}
+			current = calculations.get(index);
+		}
+	}
+	
+	private class Recorder implements SCalcTrace {
+		private final String expression;
+		private final long timestamp = System.currentTimeMillis();
+		private final List<Step> steps = new ArrayList<>();
+		
+		private Recorder(String expression) {
+			this.expression = expression;
+		}
+		
+		@Override
+		public void term(String operator, BigDecimal left, BigDecimal right, BigDecimal result) {
+			steps.add(new Step(StepType.TERM, operator, new Number[] { left, right }, result));
+		}
+		
+		@Override
+		public void term(String operator, double left, double right, double result) {
+			steps.add(new Step(StepType.TERM, operator, new Number[] { left, right }, result));
+		}
+		
+		@Override
+		public void function(String name, BigDecimal[] arguments, BigDecimal result) {
+			steps.add(new Step(StepType.FUNCTION, name, arguments.clone(), result));
+		}
+		
+		@Override
+		public void function(String name, double[] arguments, double result) {
+			steps.add(new Step(StepType.FUNCTION, name, Arrays.stream(arguments).boxed().toArray(Number[]::new), result));
+		}
+		
+		@Override
+		public void variable(String name, BigDecimal value) {
+			steps.add(new Step(StepType.VARIABLE, name, new Number[0], value));
+		}
+		
+		@Override
+		public void variable(String name, double value) {
+			steps.add(new Step(StepType.VARIABLE, name, new Number[0], value));
+		}
+		
+		@Override
+		public void aggregation(String operator, BigDecimal result) {
+			steps.add(new Step(StepType.AGGREGATION, operator, new Number[0], result));
+		}
+		
+		@Override
+		public void aggregation(String operator, double result) {
+			steps.add(new Step(StepType.AGGREGATION, operator, new Number[0], result));
+		}
+		
+		@Override
+		public void finished(BigDecimal result) {
+			add(new Calculation(sequence.getAndIncrement(), expression, timestamp, steps, result, null));
+		}
+		
+		@Override
+		public void finished(double result) {
+			add(new Calculation(sequence.getAndIncrement(), expression, timestamp, steps, result, null));
+		}
+		
+		@Override
+		public void failed(Throwable error) {
+			add(new Calculation(sequence.getAndIncrement(), expression, timestamp, steps, null, error));
+		}
+	}
+	
+	public enum StepType {
+		TERM,
+		FUNCTION,
+		VARIABLE,
+		AGGREGATION
+	}
+	
+	/**
+	 * Single step of a calculation, like an operator applied to its operands or a function called with its arguments.
+	 */
+	public static final class Step {
+		private final StepType type;
+		private final String name;
+		private final Number[] operands;
+		private final Number result;
+		
+		private Step(StepType type, String name, Number[] operands, Number result) {
+			this.type = type;
+			this.name = name;
+			this.operands = operands;
+			this.result = result;
+		}
+		
+		public StepType getType() {
+			return type;
+		}
+		
+		/**
+		 * @return Operator, function name or variable name
+		 */
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * @return Operands of a term or arguments of a function. Empty for other steps.
+		 */
+		public List<Number> getOperands() {
+			return Collections.unmodifiableList(Arrays.asList(operands));
+		}
+		
+		public Number getResult() {
+			return result;
+		}
+		
+		@Override
+		public String toString() {
+			return type + " " + name + (operands.length == 0 ? "" : " " + Arrays.toString(operands)) + " = " + result;
+		}
+	}
+	
+	/**
+	 * Steps and result of a calculation.
+	 */
+	public static final class Calculation {
+		private final long sequence;
+		private final String expression;
+		private final long timestamp;
+		private final List<Step> steps;
+		private final Number result;
+		private final Throwable error;
+		
+		private Calculation(long sequence, String expression, long timestamp, List<Step> steps, Number result, Throwable error) {
+			this.sequence = sequence;
+			this.expression = expression;
+			this.timestamp = timestamp;
+			this.steps = Collections.unmodifiableList(steps);
+			this.result = result;
+			this.error = error;
+		}
+		
+		/**
+		 * @return Number of calculations added to the buffer before this one
+		 */
+		public long getSequence() {
+			return sequence;
+		}
+		
+		public String getExpression() {
+			return expression;
+		}
+		
+		/**
+		 * @return Start of the calculation in milliseconds since the epoch
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+		
+		public List<Step> getSteps() {
+			return steps;
+		}
+		
+		/**
+		 * @return Result before rounding it to the result scale or null if the calculation failed
+		 */
+		public Number getResult() {
+			return result;
+		}
+		
+		/**
+		 * @return Error of a failed calculation or null
+		 */
+		public Throwable getError() {
+			return error;
+		}
+		
+		@Override
+		public String toString() {
+			return expression + " = " + (error != null ? error : result) + " " + steps;
+		}
+	}
+}
@@ -15,9 +15,8 @@ public class SCalcUtil {
 	public static <RETURN_TYPE> RETURN_TYPE summarizeCollection(Class<RETURN_TYPE> returnType, Collection<?> numbersToSummarize) {
 		return SCalcBuilder.instanceFor(returnType)
 				.sumExpression()
-				.build()
-				.parameter(numbersToSummarize)
-				.calc();
+				.compile()
+				.calc(numbersToSummarize);
 	}
 	
 	/**
@@ -33,11 +32,11 @@ public class SCalcUtil {
 			Collection<INPUT_TYPE> numbersToSummarize,
 			Function<INPUT_TYPE, Object> paramExtractor) {
 		
-		return SCalcBuilder.instanceFor(returnType)
+		SCalcFormula<RETURN_TYPE> formula = SCalcBuilder.instanceFor(returnType)
 				.sumExpression()
-				.build()
-				.parameter(paramExtractor, numbersToSummarize)
-				.calc();
+				.compile();
+		
+		return formula.calc(formula.bindings().parameter(paramExtractor, numbersToSummarize));
 	}
 	
 	/**
@@ -50,9 +49,8 @@ public class SCalcUtil {
 	public static <RETURN_TYPE> RETURN_TYPE summarize(Class<RETURN_TYPE> returnType, Object... numbersToSummarize) {
 		return SCalcBuilder.instanceFor(returnType)
 				.sumExpression()
-				.build()
-				.parameter(numbersToSummarize)
-				.calc();
+				.compile()
+				.calc(numbersToSummarize);
 	}
 	
 	/**
@@ -113,8 +111,7 @@ public class SCalcUtil {
 				.expression("return ALL_PARAMS;")
 				.calculationScale(scale, roundingMode)
 				.resultScale(scale, roundingMode)
-				.build()
-				.parameter(numberToRound)
-				.calc();
+				.compile()
+				.calc(numberToRound);
 	}
 }
@@ -0,0 +1,10 @@
+package scalc.interfaces;
+
+/**
+ * Primitive counterpart of {@link FunctionArguments}. Used if the calculation is done with double precision.
+ */
+public interface DoubleFunctionArguments {
+	int size();
+	
+	double get(int index);
+}
@@ -0,0 +1,13 @@
+package scalc.interfaces;
+
+import java.math.BigDecimal;
+
+/**
+ * Arguments of a function call, scaled to the calculation scale. Arguments with multiple values (like collection parameters)
+ * are already expanded, so the size can differ from the number of arguments written in the expression.
+ */
+public interface FunctionArguments {
+	int size();
+	
+	BigDecimal get(int index);
+}
@@ -0,0 +1,71 @@
+package scalc.interfaces;
+
+import scalc.SCalcOptions;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Function which can be used within expressions. In contrast to {@link FunctionImpl}, the function describes itself,
+ * so the number of arguments is checked when the expression is compiled and the arguments are passed without creating a list.<br/>
+ * Functions can be registered by <code>SCalcBuilder#registerFunction</code> or <code>SCalcBuilder#registerGlobalFunction</code>.
+ */
+public interface SCalcFunction extends FunctionImpl {
+	int UNLIMITED_ARGUMENTS = Integer.MAX_VALUE;
+	
+	BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments);
+	
+	/**
+	 * Default: 0
+	 */
+	default int getMinArguments() {
+		return 0;
+	}
+	
+	/**
+	 * Default: {@link #UNLIMITED_ARGUMENTS}
+	 */
+	default int getMaxArguments() {
+		return UNLIMITED_ARGUMENTS;
+	}
+	
+	/**
+	 * A pure function always returns the same result for the same arguments and has no side effects.
+	 * Calls of pure functions with constant arguments are calculated once while compiling.<br/>
+	 * Default: false
+	 */
+	default boolean isPure() {
+		return false;
+	}
+	
+	/**
+	 * @return True if {@link #callDouble(SCalcOptions, DoubleFunctionArguments)} is implemented.
+	 * Otherwise the arguments are converted to BigDecimal values on calculations with double precision.<br/>
+	 * Default: false
+	 */
+	default boolean isDoubleSupported() {
+		return false;
+	}
+	
+	/**
+	 * Primitive implementation used if the calculation is done with double precision and {@link #isDoubleSupported()} returns true.
+	 */
+	default double callDouble(SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+		throw new UnsupportedOperationException(getClass().getName() + " does not support calculations with double precision.");
+	}
+	
+	@Override
+	default BigDecimal call(SCalcOptions<?> options, List<BigDecimal> functionParams) {
+		return call(options, new FunctionArguments() {
+			@Override
+			public int size() {
+				return functionParams.size();
+			}
+			
+			@Override
+			public BigDecimal get(int index) {
+				return functionParams.get(index);
+			}
+		});
+	}
+}
@@ -0,0 +1,51 @@
+package scalc.interfaces;
+
+import java.math.BigDecimal;
+
+/**
+ * Steps of a single calculation, created by {@link SCalcTracer#startCalculation(String)}.<br/>
+ * Calculations with double precision pass primitive values, all others pass BigDecimal values with the calculation scale.
+ * Steps evaluated while compiling, like constant subexpressions, and results taken from caches are not traced.
+ * All methods do nothing by default.
+ */
+public interface SCalcTrace {
+	/**
+	 * Called for each calculated operator like + or &lt;=.
+	 */
+	default void term(String operator, BigDecimal left, BigDecimal right, BigDecimal result) { }
+	
+	default void term(String operator, double left, double right, double result) { }
+	
+	/**
+	 * Called for each function call, including functions defined within the expression.
+	 */
+	default void function(String name, BigDecimal[] arguments, BigDecimal result) { }
+	
+	default void function(String name, double[] arguments, double result) { }
+	
+	/**
+	 * Called for each variable assigned by a definition expression.
+	 */
+	default void variable(String name, BigDecimal value) { }
+	
+	default void variable(String name, double value) { }
+	
+	/**
+	 * Called for single operator expressions like {@link SCalcExpressions#SUM_EXPRESSION}, which combine all parameters with the operator.
+	 */
+	default void aggregation(String operator, BigDecimal result) { }
+	
+	default void aggregation(String operator, double result) { }
+	
+	/**
+	 * Called after the calculation with its result before rounding it to the result scale.
+	 */
+	default void finished(BigDecimal result) { }
+	
+	default void finished(double result) { }
+	
+	/**
+	 * Called if the calculation fails.
+	 */
+	default void failed(Throwable error) { }
+}
@@ -0,0 +1,15 @@
+package scalc.interfaces;
+
+/**
+ * Receives the steps of calculations as typed events. Register it by <code>SCalcBuilder#tracer</code>.<br/>
+ * Without tracer, calculations do not create any events. With tracer, each calculation asks for a trace first, so tracers can decide
+ * which calculations are traced, like {@link scalc.SCalcTraceBuffer}. Tracers are shared by all threads calculating a formula.
+ */
+public interface SCalcTracer {
+	/**
+	 * Called before each calculation of a formula using this tracer.
+	 * @param expression Expression of the calculated formula
+	 * @return Trace receiving the steps of this calculation or null to skip it. The trace is only used by the calculating thread.
+	 */
+	SCalcTrace startCalculation(String expression);
+}
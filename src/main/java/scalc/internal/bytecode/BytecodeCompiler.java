@@ -0,0 +1,84 @@
+package scalc.internal.bytecode;
+
+import scalc.SCalcOptions;
+import scalc.internal.SCalcLogger;
+import scalc.internal.nodes.Node;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+
+/**
+ * Compiles node trees to hidden classes using <code>Lookup.defineHiddenClass</code>, which is available since Java 15.
+ * The library is compiled for Java 11, so the method is looked up by reflection. If it is missing, expressions are interpreted.
+ */
+public class BytecodeCompiler {
+	private static final String CLASS_NAME = "scalc/internal/bytecode/GeneratedEvaluator";
+	private static final String EVALUATOR_NAME = "scalc/internal/bytecode/DoubleEvaluator";
+	
+	private static final Method DEFINE_HIDDEN_CLASS;
+	private static final Object NO_CLASS_OPTIONS;
+	
+	static {
+		Method defineHiddenClass = null;
+		Object noClassOptions = null;
+		try {
+			Class<?> classOption = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+			noClassOptions = Array.newInstance(classOption, 0);
+			defineHiddenClass = MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class, noClassOptions.getClass());
+		} catch (ReflectiveOperationException e) {
+			// Java < 15: Expressions are interpreted
+		}
+		
+		DEFINE_HIDDEN_CLASS = defineHiddenClass;
+		NO_CLASS_OPTIONS = noClassOptions;
+	}
+	
+	public static boolean isSupported() {
+		return DEFINE_HIDDEN_CLASS != null;
+	}
+	
+	/**
+	 * @return The generated expression or null if hidden classes are not supported or the expression contains nodes,
+	 * which cannot be generated. The expression has to be interpreted in this case.
+	 */
+	public static GeneratedExpression compileDouble(SCalcOptions<?> options, String expression, Node root) {
+		if (!isSupported()) {
+			SCalcLogger.debug(options, "Hidden classes are not supported by this Java version. Expression is interpreted: '%s'", expression);
+			return null;
+		}
+		
+		try {
+			ClassFileWriter classFile = new ClassFileWriter();
+			DoubleCodeGenerator generator = new DoubleCodeGenerator(classFile);
+			ClassFileWriter.Code code = generator.generate(root);
+			byte[] bytes = classFile.toByteArray(CLASS_NAME, EVALUATOR_NAME, "evaluate", "([D)D", code);
+			
+			DoubleEvaluator evaluator = defineEvaluator(bytes);
+			if (evaluator == null) {
+				SCalcLogger.debug(options, "Generated class could not be defined. Expression is interpreted: '%s'", expression);
+				return null;
+			}
+			
+			SCalcLogger.debug(options, "Generated bytecode for expression: '%s'. Size: %s bytes", expression, bytes.length);
+			
+			return new GeneratedExpression(evaluator, generator.getParameters());
+		} catch (DoubleCodeGenerator.NotGeneratableException e) {
+			SCalcLogger.debug(options, "Expression is interpreted: '%s'. Reason: %s", expression, e.getMessage());
+			return null;
+		}
+	}
+	
+	/**
+	 * @return Instance of the generated class or null if the class is rejected by the JVM, so the expression is interpreted instead of failing.
+	 */
+	private static DoubleEvaluator defineEvaluator(byte[] bytes) {
+		try {
+			MethodHandles.Lookup lookup = (MethodHandles.Lookup)DEFINE_HIDDEN_CLASS.invoke(MethodHandles.lookup(), bytes, true, NO_CLASS_OPTIONS);
+			return (DoubleEvaluator)lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+}
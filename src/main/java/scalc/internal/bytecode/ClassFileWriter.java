@@ -0,0 +1,462 @@
+package scalc.internal.bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Minimal writer of a class file with a default constructor and a single method. Branch targets get a full stack map frame,
+ * which only has to describe the class itself, the double array parameter and doubles.
+ */
+class ClassFileWriter {
+	private static final int CLASS_FILE_VERSION = 52;
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+	
+	private static final int TAG_UTF8 = 1;
+	private static final int TAG_DOUBLE = 6;
+	private static final int TAG_CLASS = 7;
+	private static final int TAG_METHODREF = 10;
+	private static final int TAG_NAME_AND_TYPE = 12;
+	
+	private static final int FULL_FRAME = 255;
+	private static final int ITEM_DOUBLE = 3;
+	private static final int ITEM_OBJECT = 7;
+	
+	private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+	private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+	private final Map<String, Integer> constants = new HashMap<>();
+	private int constantCount = 1;
+	
+	int utf8(String value) {
+		return constant("U" + value, () -> {
+			constantPool.writeByte(TAG_UTF8);
+			constantPool.writeUTF(value);
+		}, 1);
+	}
+	
+	int classRef(String internalName) {
+		int name = utf8(internalName);
+		return constant("C" + internalName, () -> {
+			constantPool.writeByte(TAG_CLASS);
+			constantPool.writeShort(name);
+		}, 1);
+	}
+	
+	int methodRef(String owner, String name, String descriptor) {
+		int ownerIndex = classRef(owner);
+		int nameIndex = utf8(name);
+		int descriptorIndex = utf8(descriptor);
+		int nameAndType = constant("N" + name + descriptor, () -> {
+			constantPool.writeByte(TAG_NAME_AND_TYPE);
+			constantPool.writeShort(nameIndex);
+			constantPool.writeShort(descriptorIndex);
+		}, 1);
+		return constant("M" + owner + "." + name + descriptor, () -> {
+			constantPool.writeByte(TAG_METHODREF);
+			constantPool.writeShort(ownerIndex);
+			constantPool.writeShort(nameAndType);
+		}, 1);
+	}
+	
+	int doubleConstant(double value) {
+		return constant("D" + Double.doubleToRawLongBits(value), () -> {
+			constantPool.writeByte(TAG_DOUBLE);
+			constantPool.writeDouble(value);
+		}, 2);
+	}
+	
+	private int constant(String key, ConstantWriter writer, int size) {
+		Integer index = constants.get(key);
+		if (index != null) {
+			return index;
+		}
+		
+		try {
+			writer.write();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		index = constantCount;
+		constantCount += size;
+		constants.put(key, index);
+		return index;
+	}
+	
+	/**
+	 * @return The class file of a final class extending Object, implementing the given interface and having the given public method.
+	 */
+	byte[] toByteArray(String className, String interfaceName, String methodName, String methodDescriptor, Code code) {
+		int thisClass = classRef(className);
+		int superClass = classRef("java/lang/Object");
+		int interfaceClass = classRef(interfaceName);
+		int objectInit = methodRef("java/lang/Object", "<init>", "()V");
+		int initName = utf8("<init>");
+		int initDescriptor = utf8("()V");
+		int name = utf8(methodName);
+		int descriptor = utf8(methodDescriptor);
+		int codeName = utf8("Code");
+		int stackMapTableName = code.frames.isEmpty() ? 0 : utf8("StackMapTable");
+		byte[] stackMapTable = code.frames.isEmpty() ? null : code.toStackMapTable(thisClass, classRef("[D"));
+		
+		if (constantCount > 0xFFFF) {
+			throw new IllegalStateException("Too many constants: " + constantCount);
+		}
+		
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(CLASS_FILE_VERSION);
+			out.writeShort(constantCount);
+			constantPool.flush();
+			constantPoolBytes.writeTo(out);
+			out.writeShort(ACC_FINAL | ACC_SUPER);
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(1);
+			out.writeShort(interfaceClass);
+			out.writeShort(0);
+			out.writeShort(2);
+			
+			Code init = new Code(this, 1);
+			init.aload(0);
+			init.invokespecial(objectInit, 1);
+			init.returnVoid();
+			writeMethod(out, initName, initDescriptor, codeName, init, 0, null);
+			writeMethod(out, name, descriptor, codeName, code, stackMapTableName, stackMapTable);
+			
+			out.writeShort(0);
+			out.flush();
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void writeMethod(DataOutputStream out, int name, int descriptor, int codeName, Code code,
+			int stackMapTableName, byte[] stackMapTable) throws IOException {
+		byte[] bytecode = code.toByteArray();
+		if (bytecode.length > 0xFFFF) {
+			throw new IllegalStateException("Method too large: " + bytecode.length);
+		}
+		
+		out.writeShort(ACC_PUBLIC);
+		out.writeShort(name);
+		out.writeShort(descriptor);
+		out.writeShort(1);
+		out.writeShort(codeName);
+		out.writeInt(12 + bytecode.length + (stackMapTable == null ? 0 : 6 + stackMapTable.length));
+		out.writeShort(code.getMaxStack());
+		out.writeShort(code.getMaxLocals());
+		out.writeInt(bytecode.length);
+		out.write(bytecode);
+		out.writeShort(0);
+		if (stackMapTable == null) {
+			out.writeShort(0);
+		} else {
+			out.writeShort(1);
+			out.writeShort(stackMapTableName);
+			out.writeInt(stackMapTable.length);
+			out.write(stackMapTable);
+		}
+	}
+	
+	private interface ConstantWriter {
+		void write() throws IOException;
+	}
+	
+	/**
+	 * Target of forward jumps. The frame at the target holds the given number of local words and the stack words of the first jump.
+	 */
+	static class Label {
+		private final List<Integer> jumps = new ArrayList<>();
+		private int offset = -1;
+		private int locals = Integer.MAX_VALUE;
+		private int stack = -1;
+	}
+	
+	/**
+	 * Bytecode of a method. Tracks the stack size, counting doubles as two words.
+	 */
+	static class Code {
+		private final ClassFileWriter classFile;
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final List<Label> labels = new ArrayList<>();
+		private final TreeMap<Integer, Label> frames = new TreeMap<>();
+		private int stack;
+		private int maxStack;
+		private int maxLocals;
+		
+		/**
+		 * @param argumentLocals Locals used by <code>this</code> and the arguments of the method, which are reserved even if the code never loads them
+		 */
+		Code(ClassFileWriter classFile, int argumentLocals) {
+			this.classFile = classFile;
+			this.maxLocals = argumentLocals;
+		}
+		
+		void aload(int local) {
+			bytes.write(0x19);
+			bytes.write(local);
+			useLocals(local + 1);
+			push(1);
+		}
+		
+		void invokespecial(int methodRef, int argumentWords) {
+			bytes.write(0xB7);
+			writeShort(methodRef);
+			push(-argumentWords);
+		}
+		
+		void returnVoid() {
+			bytes.write(0xB1);
+		}
+		
+		void dreturn() {
+			bytes.write(0xAF);
+			push(-2);
+		}
+		
+		void dconst(double value) {
+			if (Double.doubleToRawLongBits(value) == 0L) {
+				bytes.write(0x0E);
+			} else if (value == 1.0) {
+				bytes.write(0x0F);
+			} else {
+				bytes.write(0x14);
+				writeShort(classFile.doubleConstant(value));
+			}
+			push(2);
+		}
+		
+		/**
+		 * Loads the element of the double array in local 1.
+		 */
+		void loadArrayElement(int index) {
+			aload(1);
+			bytes.write(0x11);
+			writeShort(index);
+			push(1);
+			bytes.write(0x31);
+		}
+		
+		void dload(int local) {
+			wideLocalInstruction(0x18, local);
+			useLocals(local + 2);
+			push(2);
+		}
+		
+		void dstore(int local) {
+			wideLocalInstruction(0x39, local);
+			useLocals(local + 2);
+			push(-2);
+		}
+		
+		void dadd() {
+			binary(0x63);
+		}
+		
+		void dsub() {
+			binary(0x67);
+		}
+		
+		void dmul() {
+			binary(0x6B);
+		}
+		
+		void ddiv() {
+			binary(0x6F);
+		}
+		
+		void dneg() {
+			bytes.write(0x77);
+		}
+		
+		/**
+		 * Jumps to the target if the double on top of the stack is 0. NaN is not 0, like any other value.
+		 * @param locals Number of local words assigned on every path to the target.
+		 */
+		void ifZero(Label target, int locals) {
+			dconst(0.0);
+			bytes.write(0x97);
+			push(-3);
+			branch(0x99, target, locals);
+		}
+		
+		/**
+		 * Jumps to the target if the double on top of the stack is not 0.
+		 * @param locals Number of local words assigned on every path to the target.
+		 */
+		void ifNotZero(Label target, int locals) {
+			dconst(0.0);
+			bytes.write(0x97);
+			push(-3);
+			branch(0x9A, target, locals);
+		}
+		
+		/**
+		 * @param locals Number of local words assigned on every path to the target.
+		 */
+		void jump(Label target, int locals) {
+			branch(0xA7, target, locals);
+		}
+		
+		/**
+		 * Places the label at the current position. The stack has the size of the jumps to it.
+		 */
+		void mark(Label label) {
+			label.offset = bytes.size();
+			if (label.jumps.isEmpty()) {
+				return;
+			}
+			
+			stack = label.stack;
+			Label frame = frames.get(label.offset);
+			if (frame == null || label.locals < frame.locals) {
+				frames.put(label.offset, label);
+			}
+		}
+		
+		private void branch(int opcode, Label target, int locals) {
+			if (opcode == 0x99 || opcode == 0x9A) {
+				push(-1);
+			}
+			if (target.stack >= 0 && target.stack != stack) {
+				throw new IllegalStateException("Inconsistent stack at jump target: " + target.stack + " and " + stack);
+			}
+			
+			target.stack = stack;
+			target.locals = Math.min(target.locals, locals);
+			target.jumps.add(bytes.size());
+			if (target.jumps.size() == 1) {
+				labels.add(target);
+			}
+			
+			bytes.write(opcode);
+			writeShort(0);
+		}
+		
+		/**
+		 * Calls a static method taking the given number of doubles and returning a double.
+		 */
+		void invokeStatic(String owner, String name, int doubleArguments) {
+			StringBuilder descriptor = new StringBuilder("(");
+			for (int i = 0; i < doubleArguments; i++) {
+				descriptor.append('D');
+			}
+			descriptor.append(")D");
+			
+			bytes.write(0xB8);
+			writeShort(classFile.methodRef(owner, name, descriptor.toString()));
+			push(-2 * doubleArguments + 2);
+		}
+		
+		private void binary(int opcode) {
+			bytes.write(opcode);
+			push(-2);
+		}
+		
+		private void wideLocalInstruction(int opcode, int local) {
+			if (local > 0xFF) {
+				bytes.write(0xC4);
+				bytes.write(opcode);
+				writeShort(local);
+			} else {
+				bytes.write(opcode);
+				bytes.write(local);
+			}
+		}
+		
+		private void writeShort(int value) {
+			bytes.write((value >> 8) & 0xFF);
+			bytes.write(value & 0xFF);
+		}
+		
+		private void push(int words) {
+			stack += words;
+			maxStack = Math.max(maxStack, stack);
+		}
+		
+		private void useLocals(int locals) {
+			maxLocals = Math.max(maxLocals, locals);
+		}
+		
+		/**
+		 * @return The bytecode with the offsets of all jumps.
+		 */
+		byte[] toByteArray() {
+			byte[] bytecode = bytes.toByteArray();
+			for (Label label : labels) {
+				if (label.offset < 0) {
+					throw new IllegalStateException("Jump target was not placed.");
+				}
+				
+				for (int jump : label.jumps) {
+					int offset = label.offset - jump;
+					if (offset > Short.MAX_VALUE) {
+						throw new IllegalStateException("Jump too far: " + offset);
+					}
+					bytecode[jump + 1] = (byte)(offset >> 8);
+					bytecode[jump + 2] = (byte)offset;
+				}
+			}
+			return bytecode;
+		}
+		
+		/**
+		 * @return Content of the StackMapTable attribute with a full frame for each jump target.
+		 */
+		byte[] toStackMapTable(int thisClass, int doubleArrayClass) {
+			try {
+				ByteArrayOutputStream table = new ByteArrayOutputStream();
+				DataOutputStream out = new DataOutputStream(table);
+				out.writeShort(frames.size());
+				
+				int previousOffset = -1;
+				for (Label frame : frames.values()) {
+					out.writeByte(FULL_FRAME);
+					out.writeShort(frame.offset - previousOffset - 1);
+					previousOffset = frame.offset;
+					
+					int doubleLocals = (frame.locals - 2) / 2;
+					out.writeShort(2 + doubleLocals);
+					out.writeByte(ITEM_OBJECT);
+					out.writeShort(thisClass);
+					out.writeByte(ITEM_OBJECT);
+					out.writeShort(doubleArrayClass);
+					for (int i = 0; i < doubleLocals; i++) {
+						out.writeByte(ITEM_DOUBLE);
+					}
+					
+					out.writeShort(frame.stack / 2);
+					for (int i = 0; i < frame.stack / 2; i++) {
+						out.writeByte(ITEM_DOUBLE);
+					}
+				}
+				
+				out.flush();
+				return table.toByteArray();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		
+		int getMaxStack() {
+			return maxStack;
+		}
+		
+		int getMaxLocals() {
+			return maxLocals;
+		}
+	}
+}
@@ -0,0 +1,368 @@
+package scalc.internal.bytecode;
+
+import scalc.internal.functions.AbsFunction;
+import scalc.internal.functions.AvgFunction;
+import scalc.internal.functions.CosFunction;
+import scalc.internal.functions.LnFunction;
+import scalc.internal.functions.LogFunction;
+import scalc.internal.functions.MaxFunction;
+import scalc.internal.functions.MinFunction;
+import scalc.internal.functions.RootFunction;
+import scalc.internal.functions.RoundFunction;
+import scalc.internal.functions.SinFunction;
+import scalc.internal.functions.SumFunction;
+import scalc.internal.functions.TanFunction;
+import scalc.internal.nodes.ConditionalNode;
+import scalc.internal.nodes.FunctionNode;
+import scalc.internal.nodes.LocalVariableNode;
+import scalc.internal.nodes.LogicalNode;
+import scalc.internal.nodes.NegateNode;
+import scalc.internal.nodes.Node;
+import scalc.internal.nodes.NumberNode;
+import scalc.internal.nodes.OperatorNode;
+import scalc.internal.nodes.ParameterNode;
+import scalc.internal.nodes.ProgramNode;
+import scalc.internal.nodes.ScriptFunction;
+import scalc.internal.nodes.ScriptFunctionNode;
+import scalc.internal.nodes.SharedNode;
+import scalc.internal.nodes.VariableNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates bytecode evaluating a node tree on primitive doubles. Only conditions and logical operators branch.
+ * Script functions are inlined at each call, so their parameters and the assigned variables are known while generating.
+ * Predefined functions become static calls. Shared subexpressions are stored in a local on their first calculation.
+ * Nodes which cannot be generated (e.g. ALL_PARAMS or user functions) abort the generation.
+ */
+class DoubleCodeGenerator {
+	private static final String MATH = "java/lang/Math";
+	private static final String INTRINSICS = "scalc/internal/bytecode/Intrinsics";
+	private static final int FIRST_LOCAL = 2;
+	private static final int MAX_LOCALS = 0xFFFF;
+	
+	private final ClassFileWriter.Code code;
+	private final Map<Integer, Integer> parameterIndexes = new HashMap<>();
+	private final List<ParameterNode> parameters = new ArrayList<>();
+	private final Map<Integer, Integer> variableLocals = new HashMap<>();
+	private final Deque<FunctionFrame> functionFrames = new ArrayDeque<>();
+	private Map<SharedNode, Integer> sharedLocals = new HashMap<>();
+	private int nextLocal = FIRST_LOCAL;
+	
+	DoubleCodeGenerator(ClassFileWriter classFile) {
+		this.code = new ClassFileWriter.Code(classFile, FIRST_LOCAL);
+	}
+	
+	/**
+	 * @throws NotGeneratableException If the tree contains nodes which cannot be generated.
+	 */
+	ClassFileWriter.Code generate(Node root) {
+		generateNode(root);
+		code.dreturn();
+		return code;
+	}
+	
+	/**
+	 * @return Parameters read by the generated code in the order of their index within the values array.
+	 */
+	List<ParameterNode> getParameters() {
+		return parameters;
+	}
+	
+	private void generateNode(Node node) {
+		if (node instanceof NumberNode) {
+			code.dconst(((NumberNode)node).getValue().doubleValue());
+		} else if (node instanceof ParameterNode) {
+			generateParameter((ParameterNode)node);
+		} else if (node instanceof NegateNode) {
+			generateNode(((NegateNode)node).getNode());
+			code.dneg();
+		} else if (node instanceof OperatorNode) {
+			generateOperator((OperatorNode)node);
+		} else if (node instanceof LogicalNode) {
+			generateLogical((LogicalNode)node);
+		} else if (node instanceof ConditionalNode) {
+			generateConditional((ConditionalNode)node);
+		} else if (node instanceof VariableNode) {
+			generateVariable((VariableNode)node);
+		} else if (node instanceof LocalVariableNode) {
+			generateLocalVariable((LocalVariableNode)node);
+		} else if (node instanceof ScriptFunctionNode) {
+			generateScriptFunction((ScriptFunctionNode)node);
+		} else if (node instanceof FunctionNode) {
+			generateFunction((FunctionNode)node);
+		} else if (node instanceof ProgramNode) {
+			generateProgram((ProgramNode)node);
+		} else if (node instanceof SharedNode) {
+			generateShared((SharedNode)node);
+		} else {
+			throw new NotGeneratableException(node);
+		}
+	}
+	
+	private void generateParameter(ParameterNode node) {
+		Integer index = parameterIndexes.get(node.getSlot());
+		if (index == null) {
+			index = parameters.size();
+			parameterIndexes.put(node.getSlot(), index);
+			parameters.add(node);
+		}
+		code.loadArrayElement(index);
+	}
+	
+	private void generateOperator(OperatorNode node) {
+		generateNode(node.getLeft());
+		generateNode(node.getRight());
+		
+		switch (node.getOperator()) {
+			case ADD: code.dadd(); break;
+			case SUBTRACT: code.dsub(); break;
+			case MULTIPLY: code.dmul(); break;
+			case DIVIDE: code.ddiv(); break;
+			case POW: code.invokeStatic(MATH, "pow", 2); break;
+			case LESS: code.invokeStatic(INTRINSICS, "less", 2); break;
+			case LESS_OR_EQUAL: code.invokeStatic(INTRINSICS, "lessOrEqual", 2); break;
+			case GREATER: code.invokeStatic(INTRINSICS, "greater", 2); break;
+			case GREATER_OR_EQUAL: code.invokeStatic(INTRINSICS, "greaterOrEqual", 2); break;
+			case EQUAL: code.invokeStatic(INTRINSICS, "equal", 2); break;
+			case NOT_EQUAL: code.invokeStatic(INTRINSICS, "notEqual", 2); break;
+			default: throw new NotGeneratableException(node);
+		}
+	}
+	
+	/**
+	 * The right operand is only calculated if the left one does not determine the result.
+	 */
+	private void generateLogical(LogicalNode node) {
+		int locals = nextLocal;
+		Map<SharedNode, Integer> shared = new HashMap<>(sharedLocals);
+		ClassFileWriter.Label decided = new ClassFileWriter.Label();
+		ClassFileWriter.Label end = new ClassFileWriter.Label();
+		
+		generateNode(node.getLeft());
+		branchIfDecided(node, decided);
+		generateNode(node.getRight());
+		branchIfDecided(node, decided);
+		code.dconst(node.isAnd() ? 1.0 : 0.0);
+		code.jump(end, locals);
+		
+		code.mark(decided);
+		nextLocal = locals;
+		sharedLocals = new HashMap<>(shared);
+		code.dconst(node.isAnd() ? 0.0 : 1.0);
+		code.mark(end);
+	}
+	
+	private void branchIfDecided(LogicalNode node, ClassFileWriter.Label decided) {
+		if (node.isAnd()) {
+			code.ifZero(decided, nextLocal);
+		} else {
+			code.ifNotZero(decided, nextLocal);
+		}
+	}
+	
+	/**
+	 * Each condition jumps over its value if it is false, so only the selected value is calculated. Locals allocated
+	 * within a branch (by inlined script functions or shared subexpressions) are not assigned on the other paths and are reused after it.
+	 */
+	private void generateConditional(ConditionalNode node) {
+		int locals = nextLocal;
+		Map<SharedNode, Integer> shared = new HashMap<>(sharedLocals);
+		ClassFileWriter.Label end = new ClassFileWriter.Label();
+		
+		for (int i = 0; i < node.getConditions().length; i++) {
+			ClassFileWriter.Label next = new ClassFileWriter.Label();
+			generateNode(node.getConditions()[i]);
+			int conditionLocals = nextLocal;
+			Map<SharedNode, Integer> conditionShared = new HashMap<>(sharedLocals);
+			code.ifZero(next, conditionLocals);
+			
+			generateNode(node.getValues()[i]);
+			code.jump(end, locals);
+			
+			code.mark(next);
+			nextLocal = conditionLocals;
+			sharedLocals = conditionShared;
+		}
+		
+		generateNode(node.getOtherwise());
+		code.mark(end);
+		nextLocal = locals;
+		sharedLocals = shared;
+	}
+	
+	/**
+	 * Only the first occurrence on a path calculates the subexpression, later occurrences load the stored result.
+	 */
+	private void generateShared(SharedNode node) {
+		Integer local = sharedLocals.get(node);
+		if (local == null) {
+			generateNode(node.getNode());
+			local = allocateLocal();
+			code.dstore(local);
+			sharedLocals.put(node, local);
+		}
+		code.dload(local);
+	}
+	
+	private void generateVariable(VariableNode node) {
+		Integer local = variableLocals.get(node.getSlot());
+		if (local != null) {
+			code.dload(local);
+		} else if (node.getFallback() != null) {
+			generateNode(node.getFallback());
+		} else {
+			throw new NotGeneratableException(node);
+		}
+	}
+	
+	private void generateLocalVariable(LocalVariableNode node) {
+		FunctionFrame frame = functionFrames.peek();
+		if (frame == null) {
+			throw new NotGeneratableException(node);
+		}
+		
+		if (node.getIndex() < frame.locals.length) {
+			code.dload(frame.locals[node.getIndex()]);
+		} else {
+			generateNode(node.getFallback());
+		}
+	}
+	
+	private void generateScriptFunction(ScriptFunctionNode node) {
+		ScriptFunction function = node.getFunction();
+		Node[] arguments = node.getArguments();
+		if (arguments.length > function.getParameterCount()) {
+			throw new NotGeneratableException(node);
+		}
+		for (FunctionFrame frame : functionFrames) {
+			if (frame.function == function) {
+				throw new NotGeneratableException(node);
+			}
+		}
+		
+		int[] locals = new int[arguments.length];
+		for (int i = 0; i < arguments.length; i++) {
+			generateNode(arguments[i]);
+			locals[i] = allocateLocal();
+			code.dstore(locals[i]);
+		}
+		
+		functionFrames.push(new FunctionFrame(function, locals));
+		generateNode(function.getBody());
+		functionFrames.pop();
+	}
+	
+	private void generateFunction(FunctionNode node) {
+		Object function = node.getFunction();
+		Node[] arguments = node.getArguments();
+		int count = arguments.length;
+		
+		if (function == SumFunction.INSTANCE || function == AvgFunction.INSTANCE) {
+			code.dconst(0.0);
+			for (Node argument : arguments) {
+				generateNode(argument);
+				code.dadd();
+			}
+			if (function == AvgFunction.INSTANCE && count > 0) {
+				code.dconst(count);
+				code.ddiv();
+			}
+		} else if (function == MaxFunction.INSTANCE || function == MinFunction.INSTANCE) {
+			generateFold(arguments, function == MaxFunction.INSTANCE ? "max" : "min");
+		} else if (function == RootFunction.INSTANCE && count == 1) {
+			generateStaticCall(MATH, "sqrt", arguments);
+		} else if (function == RootFunction.INSTANCE && count == 2) {
+			generateNode(arguments[0]);
+			code.dconst(1.0);
+			generateNode(arguments[1]);
+			code.ddiv();
+			code.invokeStatic(MATH, "pow", 2);
+		} else if (function == RoundFunction.INSTANCE && count >= 1 && count <= 3) {
+			generateStaticCall(INTRINSICS, "round", arguments);
+		} else if (count == 1 && function == AbsFunction.INSTANCE) {
+			generateStaticCall(MATH, "abs", arguments);
+		} else if (count == 1 && function == SinFunction.INSTANCE) {
+			generateStaticCall(MATH, "sin", arguments);
+		} else if (count == 1 && function == CosFunction.INSTANCE) {
+			generateStaticCall(MATH, "cos", arguments);
+		} else if (count == 1 && function == TanFunction.INSTANCE) {
+			generateStaticCall(MATH, "tan", arguments);
+		} else if (count == 1 && function == LnFunction.INSTANCE) {
+			generateStaticCall(MATH, "log", arguments);
+		} else if (count == 1 && function == LogFunction.INSTANCE) {
+			generateStaticCall(MATH, "log10", arguments);
+		} else {
+			throw new NotGeneratableException(node);
+		}
+	}
+	
+	private void generateFold(Node[] arguments, String intrinsic) {
+		if (arguments.length == 0) {
+			code.dconst(0.0);
+			return;
+		}
+		
+		generateNode(arguments[0]);
+		for (int i = 1; i < arguments.length; i++) {
+			generateNode(arguments[i]);
+			code.invokeStatic(INTRINSICS, intrinsic, 2);
+		}
+	}
+	
+	private void generateStaticCall(String owner, String name, Node[] arguments) {
+		for (Node argument : arguments) {
+			generateNode(argument);
+		}
+		code.invokeStatic(owner, name, arguments.length);
+	}
+	
+	private void generateProgram(ProgramNode node) {
+		for (ProgramNode.Assignment assignment : node.getAssignments()) {
+			generateNode(assignment.getExpression());
+			
+			Integer local = variableLocals.get(assignment.getSlot());
+			if (local == null) {
+				local = allocateLocal();
+			}
+			code.dstore(local);
+			variableLocals.put(assignment.getSlot(), local);
+		}
+		
+		generateNode(node.getReturnStatement());
+	}
+	
+	private int allocateLocal() {
+		int local = nextLocal;
+		nextLocal += 2;
+		if (nextLocal > MAX_LOCALS) {
+			throw new NotGeneratableException("Too many local variables");
+		}
+		return local;
+	}
+	
+	private static class FunctionFrame {
+		private final ScriptFunction function;
+		private final int[] locals;
+		
+		private FunctionFrame(ScriptFunction function, int[] locals) {
+			this.function = function;
+			this.locals = locals;
+		}
+	}
+	
+	static class NotGeneratableException extends RuntimeException {
+		NotGeneratableException(Node node) {
+			this("Node cannot be generated: " + node);
+		}
+		
+		NotGeneratableException(String message) {
+			super(message, null, false, false);
+		}
+	}
+}
@@ -0,0 +1,11 @@
+package scalc.internal.bytecode;
+
+/**
+ * Expression compiled to bytecode. Implemented by the generated hidden classes.
+ */
+public interface DoubleEvaluator {
+	/**
+	 * @param values Value of each parameter used by the expression in the order of {@link GeneratedExpression#getSlots()}.
+	 */
+	double evaluate(double[] values);
+}
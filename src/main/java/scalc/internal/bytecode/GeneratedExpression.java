@@ -0,0 +1,67 @@
+package scalc.internal.bytecode;
+
+import scalc.internal.calc.EvaluationContext;
+import scalc.internal.nodes.ParameterNode;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Expression compiled to a hidden class. The generated code reads the parameter values from a plain double array,
+ * which is bound from the parameter slots before each calculation.
+ */
+public class GeneratedExpression {
+	private final DoubleEvaluator evaluator;
+	private final int[] slots;
+	private final double[] defaultValues;
+	private final boolean[] required;
+	
+	GeneratedExpression(DoubleEvaluator evaluator, List<ParameterNode> parameters) {
+		this.evaluator = evaluator;
+		this.slots = new int[parameters.size()];
+		this.defaultValues = new double[parameters.size()];
+		this.required = new boolean[parameters.size()];
+		
+		for (int i = 0; i < slots.length; i++) {
+			ParameterNode parameter = parameters.get(i);
+			BigDecimal defaultValue = parameter.getDefaultValue();
+			
+			slots[i] = parameter.getSlot();
+			defaultValues[i] = defaultValue == null ? 0.0 : defaultValue.doubleValue();
+			required[i] = defaultValue == null;
+		}
+	}
+	
+	/**
+	 * @return Values of the parameters used by the generated code or null if the values cannot be used by the generated code,
+	 * because a required parameter is missing or has multiple values. The expression has to be interpreted in this case.
+	 */
+	public double[] bind(EvaluationContext context) {
+		double[] values = new double[slots.length];
+		for (int i = 0; i < slots.length; i++) {
+			double[] parameterValues = context.getDoubleParameter(slots[i]);
+			if (parameterValues == null) {
+				if (required[i] || context.getStreamedParameter(slots[i]) != null) {
+					return null;
+				}
+				values[i] = defaultValues[i];
+			} else if (parameterValues.length == 1) {
+				values[i] = parameterValues[0];
+			} else if (parameterValues.length > 1) {
+				return null;
+			}
+		}
+		return values;
+	}
+	
+	public double evaluate(double[] values) {
+		return evaluator.evaluate(values);
+	}
+	
+	/**
+	 * @return Parameter slots in the order of the values read by the generated code.
+	 */
+	public int[] getSlots() {
+		return slots;
+	}
+}
@@ -0,0 +1,55 @@
+package scalc.internal.bytecode;
+
+import scalc.internal.functions.RoundFunction;
+
+/**
+ * Static helpers called by generated code for predefined functions and comparisons, which have no direct counterpart in java.lang.Math.
+ * The semantics are the same as the primitive implementations of the functions.
+ */
+public final class Intrinsics {
+	private Intrinsics() { }
+	
+	public static double max(double result, double value) {
+		return value > result ? value : result;
+	}
+	
+	public static double min(double result, double value) {
+		return value < result ? value : result;
+	}
+	
+	public static double round(double value) {
+		return RoundFunction.round(value, RoundFunction.DEFAULT_ROUND_SCALE, RoundFunction.DEFAULT_ROUNDING_MODE);
+	}
+	
+	public static double round(double value, double scale) {
+		return RoundFunction.round(value, (int)scale, RoundFunction.DEFAULT_ROUNDING_MODE);
+	}
+	
+	public static double round(double value, double scale, double roundingMode) {
+		return RoundFunction.round(value, (int)scale, (int)roundingMode);
+	}
+	
+	public static double less(double left, double right) {
+		return left < right ? 1.0 : 0.0;
+	}
+	
+	public static double lessOrEqual(double left, double right) {
+		return left <= right ? 1.0 : 0.0;
+	}
+	
+	public static double greater(double left, double right) {
+		return left > right ? 1.0 : 0.0;
+	}
+	
+	public static double greaterOrEqual(double left, double right) {
+		return left >= right ? 1.0 : 0.0;
+	}
+	
+	public static double equal(double left, double right) {
+		return left == right ? 1.0 : 0.0;
+	}
+	
+	public static double notEqual(double left, double right) {
+		return left != right ? 1.0 : 0.0;
+	}
+}
@@ -0,0 +1,170 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+import scalc.exceptions.CalculationException;
+import scalc.internal.SCalcLogger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchController {
+    private static final int MIN_CHUNK_SIZE = 256;
+    private static final int CHUNKS_PER_THREAD = 4;
+    
+    /**
+     * Calculates all rows of the given columns. The results are rounded to the result scale unless using double precision.
+     * @throws CalculationException On the first failed row.
+     */
+    public static double[] calcDoubleBatch(SCalcOptions<?> options, CompiledExpression compiledExpression, Columns columns) {
+        return calcBatch(options, compiledExpression, columns).toDoubles();
+    }
+    
+    /**
+     * Calculates all rows of the given columns. The results are rounded to the result scale.
+     * @throws CalculationException On the first failed row.
+     */
+    public static BigDecimal[] calcBigDecimalBatch(SCalcOptions<?> options, CompiledExpression compiledExpression, Columns columns) {
+        BatchResult result = calcBatch(options, compiledExpression, columns);
+        BigDecimal[] results = result.toBigDecimals(options.getResultScale(), options.getResultRoundingMode());
+        
+        for (int row = 0; row < results.length; row++) {
+            if (results[row] == null) {
+                throw new CalculationException(String.format("Calculation failed in row %s. Result is not a finite number.", row));
+            }
+        }
+        return results;
+    }
+    
+    private static BatchResult calcBatch(SCalcOptions<?> options, CompiledExpression compiledExpression, Columns columns) {
+        BatchResult result = new BatchResult(columns.getRowCount(), options.isDoublePrecision());
+        if (options.isDoublePrecision()) {
+            calcDoubleChunk(options, compiledExpression, columns.toDoubleColumns(), 0, columns.getRowCount(), result, false);
+        } else {
+            calcBigDecimalChunk(options, compiledExpression, columns.toBigDecimalColumns(), 0, columns.getRowCount(), result, false);
+        }
+        
+        SCalcLogger.debug(options,
+                "Calculated batch. Expression: '%s'. Rows: %s",
+                compiledExpression.getExpression(), result.getRowCount());
+        
+        return result;
+    }
+    
+    /**
+     * Splits the rows into chunks, which are calculated on the given executor or the common ForkJoinPool.
+     * Failed rows do not abort the calculation, their exceptions are collected within the result.
+     */
+    public static BatchResult calcParallelBatch(SCalcOptions<?> options, CompiledExpression compiledExpression, Columns columns, Executor executor) {
+        int rowCount = columns.getRowCount();
+        BatchResult result = new BatchResult(rowCount, options.isDoublePrecision());
+        
+        Executor chunkExecutor = executor == null ? ForkJoinPool.commonPool() : executor;
+        int chunkSize = calculateChunkSize(rowCount, chunkExecutor);
+        
+        Map<String, double[]> doubleColumns = options.isDoublePrecision() ? columns.toDoubleColumns() : null;
+        Map<String, BigDecimal[]> bigDecimalColumns = options.isDoublePrecision() ? null : columns.toBigDecimalColumns();
+        
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < rowCount; from += chunkSize) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(from + chunkSize, rowCount);
+            
+            chunks.add(CompletableFuture.runAsync(() -> {
+                if (doubleColumns != null) {
+                    calcDoubleChunk(options, compiledExpression, doubleColumns, chunkFrom, chunkTo, result, true);
+                } else {
+                    calcBigDecimalChunk(options, compiledExpression, bigDecimalColumns, chunkFrom, chunkTo, result, true);
+                }
+            }, chunkExecutor));
+        }
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+        
+        SCalcLogger.debug(options,
+                "Calculated parallel batch. Expression: '%s'. Rows: %s. Chunks: %s. Failed rows: %s",
+                compiledExpression.getExpression(), rowCount, chunks.size(), result.getErrors().size());
+        
+        return result;
+    }
+    
+    private static int calculateChunkSize(int rowCount, Executor executor) {
+        int parallelism = executor instanceof ForkJoinPool
+                ? ((ForkJoinPool)executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        
+        int chunkCount = Math.max(1, parallelism * CHUNKS_PER_THREAD);
+        return Math.max(MIN_CHUNK_SIZE, (rowCount + chunkCount - 1) / chunkCount);
+    }
+    
+    /**
+     * The rows are calculated as columns at once. If this fails, the rows are calculated one by one to find the failed rows.
+     */
+    private static void calcDoubleChunk(
+            SCalcOptions<?> options,
+            CompiledExpression compiledExpression,
+            Map<String, double[]> columns,
+            int from,
+            int to,
+            BatchResult result,
+            boolean collectErrors) {
+        
+        try {
+            result.setResults(from, compiledExpression.evaluateDoubleColumns(options, Columns.slice(columns, from, to), to - from));
+            return;
+        } catch (Throwable e) {
+            if (!collectErrors) {
+                throw e;
+            }
+        }
+        
+        Parameters params = new Parameters(options, compiledExpression);
+        for (int row = from; row < to; row++) {
+            try {
+                params.clear();
+                for (Map.Entry<String, double[]> column : columns.entrySet()) {
+                    params.put(column.getKey(), new double[] { column.getValue()[row] });
+                }
+                
+                result.setResult(row, compiledExpression.evaluateDouble(options, params));
+            } catch (Throwable e) {
+                result.addError(row, new CalculationException(String.format("Calculation failed in row %s.", row), e));
+            }
+        }
+    }
+    
+    /**
+     * BigDecimal arithmetic dominates the costs, so the rows are calculated one by one, reusing the parameter slots.
+     */
+    private static void calcBigDecimalChunk(
+            SCalcOptions<?> options,
+            CompiledExpression compiledExpression,
+            Map<String, BigDecimal[]> columns,
+            int from,
+            int to,
+            BatchResult result,
+            boolean collectErrors) {
+        
+        Parameters params = new Parameters(options, compiledExpression);
+        for (int row = from; row < to; row++) {
+            try {
+                params.clear();
+                for (Map.Entry<String, BigDecimal[]> column : columns.entrySet()) {
+                    params.put(column.getKey(), new BigDecimal[] { column.getValue()[row] });
+                }
+                
+                BigDecimal value = compiledExpression.evaluate(options, params);
+                result.setResult(row, value.setScale(options.getResultScale(), options.getResultRoundingMode()));
+            } catch (Throwable e) {
+                CalculationException error = new CalculationException(String.format("Calculation failed in row %s.", row), e);
+                if (!collectErrors) {
+                    throw error;
+                }
+                result.addError(row, error);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package scalc.internal.calc;
+
+import scalc.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Results of a batch calculation in the order of the rows. Depending on the precision of the calculation the results are
+ * held as doubles or as BigDecimals rounded to the result scale. Failed rows are collected with their exception.
+ */
+public class BatchResult {
+	private final int rowCount;
+	private final double[] doubleResults;
+	private final BigDecimal[] bigDecimalResults;
+	private final Map<Integer, CalculationException> errors = new ConcurrentSkipListMap<>();
+	
+	BatchResult(int rowCount, boolean doublePrecision) {
+		this.rowCount = rowCount;
+		this.doubleResults = doublePrecision ? new double[rowCount] : null;
+		this.bigDecimalResults = doublePrecision ? null : new BigDecimal[rowCount];
+	}
+	
+	void setResults(int from, double[] results) {
+		System.arraycopy(results, 0, doubleResults, from, results.length);
+	}
+	
+	void setResult(int row, double result) {
+		doubleResults[row] = result;
+	}
+	
+	void setResult(int row, BigDecimal result) {
+		bigDecimalResults[row] = result;
+	}
+	
+	void addError(int row, CalculationException error) {
+		if (doubleResults != null) {
+			doubleResults[row] = Double.NaN;
+		}
+		errors.put(row, error);
+	}
+	
+	public int getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * @return Result of each row. Failed rows are NaN.
+	 */
+	public double[] toDoubles() {
+		if (doubleResults != null) {
+			return doubleResults;
+		}
+		
+		double[] results = new double[rowCount];
+		for (int row = 0; row < rowCount; row++) {
+			results[row] = bigDecimalResults[row] == null ? Double.NaN : bigDecimalResults[row].doubleValue();
+		}
+		return results;
+	}
+	
+	/**
+	 * @return Result of each row rounded to the result scale. Failed rows and results which are not finite (NaN, Infinity) are null.
+	 */
+	public BigDecimal[] toBigDecimals(int resultScale, RoundingMode resultRoundingMode) {
+		if (bigDecimalResults != null) {
+			return bigDecimalResults;
+		}
+		
+		BigDecimal[] results = new BigDecimal[rowCount];
+		for (int row = 0; row < rowCount; row++) {
+			double result = doubleResults[row];
+			if (Double.isFinite(result) && !errors.containsKey(row)) {
+				results[row] = BigDecimal.valueOf(result).setScale(resultScale, resultRoundingMode);
+			}
+		}
+		return results;
+	}
+	
+	/**
+	 * @return Exceptions of the failed rows ordered by row.
+	 */
+	public Map<Integer, CalculationException> getErrors() {
+		return Collections.unmodifiableMap(errors);
+	}
+}
@@ -0,0 +1,54 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+import scalc.internal.jfr.FlightRecorderEvents;
+import scalc.internal.metrics.MetricsRecorder;
+
+/**
+ * Measures a single calculation for the metrics of the options and the JDK Flight Recorder.
+ * It is only created if the calculation is measured by one of them, so other calculations do not allocate it.
+ */
+final class CalculationMeasurement {
+	private final SCalcOptions<?> options;
+	private final CompiledExpression compiledExpression;
+	private final MetricsRecorder metrics;
+	private final Object event;
+	private final long startAllocation;
+	private final long startNanos;
+	
+	private CalculationMeasurement(SCalcOptions<?> options, CompiledExpression compiledExpression, MetricsRecorder metrics, Object event) {
+		this.options = options;
+		this.compiledExpression = compiledExpression;
+		this.metrics = metrics;
+		this.event = event;
+		this.startAllocation = metrics == null ? -1 : metrics.startAllocation();
+		this.startNanos = System.nanoTime();
+	}
+	
+	/**
+	 * @param compiledExpression The calculated expression, which holds the recorder of the metrics and identifies it in the events of the Flight Recorder
+	 * @return Started measurement or null if the calculation is not measured.
+	 */
+	static CalculationMeasurement start(SCalcOptions<?> options, CompiledExpression compiledExpression) {
+		MetricsRecorder metrics = compiledExpression.getMetricsRecorder();
+		Object event = FlightRecorderEvents.beginCalculation();
+		if (metrics == null && event == null) {
+			return null;
+		}
+		return new CalculationMeasurement(options, compiledExpression, metrics, event);
+	}
+	
+	void finished() {
+		if (metrics != null) {
+			metrics.finished(startNanos, startAllocation);
+		}
+		FlightRecorderEvents.commitCalculation(event, options, compiledExpression.getId(), false);
+	}
+	
+	void failed() {
+		if (metrics != null) {
+			metrics.failed(startNanos, startAllocation);
+		}
+		FlightRecorderEvents.commitCalculation(event, options, compiledExpression.getId(), true);
+	}
+}
@@ -0,0 +1,150 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * State of a batch calculation on primitive doubles. Every value is a column holding one value per row,
+ * so the compiled expression is walked only once for the whole batch.
+ */
+public class ColumnContext {
+	private final SCalcOptions<?> options;
+	private final int rowCount;
+	private final double[][] parameters;
+	private final Collection<double[]> allParameters;
+	private final double[][] variables;
+	private final double[][] shared;
+	
+	private double[][] locals;
+	
+	ColumnContext(SCalcOptions<?> options, CompiledExpression compiledExpression, Map<String, double[]> columns, int rowCount) {
+		this.options = options;
+		this.rowCount = rowCount;
+		this.parameters = new double[compiledExpression.getSlots().size()][];
+		this.allParameters = columns.values();
+		this.variables = new double[compiledExpression.getVariableCount()][];
+		this.shared = new double[compiledExpression.getSharedCount()][];
+		
+		for (Map.Entry<String, double[]> column : columns.entrySet()) {
+			Integer slot = compiledExpression.getSlot(column.getKey());
+			if (slot != null) {
+				parameters[slot] = column.getValue();
+			}
+		}
+	}
+	
+	private ColumnContext(ColumnContext source, int[] rows) {
+		this.options = source.options;
+		this.rowCount = rows.length;
+		this.parameters = select(source.parameters, rows);
+		this.allParameters = new ArrayList<>(source.allParameters.size());
+		this.variables = select(source.variables, rows);
+		this.shared = select(source.shared, rows);
+		this.locals = source.locals == null ? null : select(source.locals, rows);
+		
+		for (double[] column : source.allParameters) {
+			allParameters.add(select(column, rows));
+		}
+	}
+	
+	/**
+	 * @return Context holding only the given rows of each column, so a branch of a condition can be calculated
+	 * for the rows selecting it. The rows have to be ascending.
+	 */
+	public ColumnContext select(int[] rows) {
+		return rows.length == rowCount ? this : new ColumnContext(this, rows);
+	}
+	
+	private static double[][] select(double[][] columns, int[] rows) {
+		double[][] selected = new double[columns.length][];
+		for (int i = 0; i < columns.length; i++) {
+			selected[i] = columns[i] == null ? null : select(columns[i], rows);
+		}
+		return selected;
+	}
+	
+	private static double[] select(double[] column, int[] rows) {
+		double[] selected = new double[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			selected[i] = column[rows[i]];
+		}
+		return selected;
+	}
+	
+	public SCalcOptions<?> getOptions() {
+		return options;
+	}
+	
+	public int getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * @return New column with the given value in each row.
+	 */
+	public double[] fill(double value) {
+		double[] column = new double[rowCount];
+		Arrays.fill(column, value);
+		return column;
+	}
+	
+	/**
+	 * @return Column of the parameter bound to the given slot or null if no column was given.
+	 */
+	public double[] getParameter(int slot) {
+		return parameters[slot];
+	}
+	
+	/**
+	 * @return All given columns in the order they were added.
+	 */
+	public Collection<double[]> getAllParameters() {
+		return allParameters;
+	}
+	
+	/**
+	 * @return Column of the script variable or null if it was not assigned yet.
+	 */
+	public double[] getVariable(int slot) {
+		return variables[slot];
+	}
+	
+	public void setVariable(int slot, double[] column) {
+		variables[slot] = column;
+	}
+	
+	/**
+	 * @return Column of the shared subexpression or null if it was not calculated yet.
+	 */
+	public double[] getShared(int index) {
+		return shared[index];
+	}
+	
+	public void setShared(int index, double[] column) {
+		shared[index] = column;
+	}
+	
+	/**
+	 * @return Column of the parameter of the currently called script function or null if it was not given.
+	 */
+	public double[] getLocal(int index) {
+		return index < locals.length ? locals[index] : null;
+	}
+	
+	/**
+	 * @return The locals of the caller, which have to be restored by exitFunction.
+	 */
+	public double[][] enterFunction(double[][] locals) {
+		double[][] callerLocals = this.locals;
+		this.locals = locals;
+		return callerLocals;
+	}
+	
+	public void exitFunction(double[][] callerLocals) {
+		this.locals = callerLocals;
+	}
+}
@@ -0,0 +1,92 @@
+package scalc.internal.calc;
+
+import scalc.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parameter values of a batch calculation: One column per parameter name with one value per row.
+ * Columns can be given as BigDecimal[] or double[] and are converted to the type needed by the calculation.
+ */
+public class Columns {
+	private final Map<String, Object> columns = new LinkedHashMap<>();
+	private int rowCount = -1;
+	
+	public void put(String name, double[] column) {
+		putColumn(name, column, column.length);
+	}
+	
+	public void put(String name, BigDecimal[] column) {
+		putColumn(name, column, column.length);
+	}
+	
+	private void putColumn(String name, Object column, int length) {
+		if (rowCount >= 0 && rowCount != length) {
+			throw new CalculationException(String.format("Column '%s' has %s rows, but the other columns have %s rows.", name, length, rowCount));
+		}
+		
+		columns.put(name, column);
+		rowCount = length;
+	}
+	
+	/**
+	 * @return Number of rows or 0 if no column was given.
+	 */
+	public int getRowCount() {
+		return Math.max(rowCount, 0);
+	}
+	
+	/**
+	 * @return Rows of the given range of all columns. The columns are not copied if the range covers all rows.
+	 */
+	static Map<String, double[]> slice(Map<String, double[]> columns, int from, int to) {
+		Map<String, double[]> slice = new LinkedHashMap<>();
+		for (Map.Entry<String, double[]> column : columns.entrySet()) {
+			double[] values = column.getValue();
+			slice.put(column.getKey(), from == 0 && to == values.length ? values : Arrays.copyOfRange(values, from, to));
+		}
+		return slice;
+	}
+	
+	Map<String, double[]> toDoubleColumns() {
+		Map<String, double[]> doubleColumns = new LinkedHashMap<>();
+		for (Map.Entry<String, Object> column : columns.entrySet()) {
+			if (column.getValue() instanceof double[]) {
+				doubleColumns.put(column.getKey(), (double[])column.getValue());
+			} else {
+				BigDecimal[] values = (BigDecimal[])column.getValue();
+				double[] doubles = new double[values.length];
+				for (int i = 0; i < values.length; i++) {
+					doubles[i] = values[i].doubleValue();
+				}
+				doubleColumns.put(column.getKey(), doubles);
+			}
+		}
+		return doubleColumns;
+	}
+	
+	Map<String, BigDecimal[]> toBigDecimalColumns() {
+		Map<String, BigDecimal[]> bigDecimalColumns = new LinkedHashMap<>();
+		for (Map.Entry<String, Object> column : columns.entrySet()) {
+			if (column.getValue() instanceof BigDecimal[]) {
+				bigDecimalColumns.put(column.getKey(), (BigDecimal[])column.getValue());
+			} else {
+				double[] values = (double[])column.getValue();
+				BigDecimal[] bigDecimals = new BigDecimal[values.length];
+				for (int i = 0; i < values.length; i++) {
+					bigDecimals[i] = BigDecimal.valueOf(values[i]);
+				}
+				bigDecimalColumns.put(column.getKey(), bigDecimals);
+			}
+		}
+		return bigDecimalColumns;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%s columns %s with %s rows", columns.size(), columns.keySet(), getRowCount());
+	}
+}
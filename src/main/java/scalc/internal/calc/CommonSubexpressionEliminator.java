@@ -0,0 +1,244 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+import scalc.internal.SCalcLogger;
+import scalc.internal.nodes.AllParamsNode;
+import scalc.internal.nodes.ConditionalNode;
+import scalc.internal.nodes.FunctionNode;
+import scalc.internal.nodes.LogicalNode;
+import scalc.internal.nodes.NegateNode;
+import scalc.internal.nodes.Node;
+import scalc.internal.nodes.NumberNode;
+import scalc.internal.nodes.OperatorNode;
+import scalc.internal.nodes.ParameterNode;
+import scalc.internal.nodes.ProgramNode;
+import scalc.internal.nodes.ScriptFunction;
+import scalc.internal.nodes.ScriptFunctionNode;
+import scalc.internal.nodes.SharedNode;
+import scalc.internal.nodes.VariableNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces structurally identical subexpressions of an optimized tree by a single {@link SharedNode}, which is calculated
+ * once per calculation. This includes the assignments and script functions of definition expressions.<br/>
+ * Only subexpressions with the same result during the whole calculation are shared: operators, conditions and calls of
+ * pure functions on parameters and constants. Script variables (which may be assigned later), parameters of script functions
+ * (which differ per call) and functions which are not pure are never part of a shared subexpression.
+ */
+class CommonSubexpressionEliminator extends NodeRewriter {
+	private static final int NOT_SHAREABLE = -1;
+	
+	private final Map<List<Object>, Integer> ids = new HashMap<>();
+	private final Map<Node, Integer> nodeIds = new IdentityHashMap<>();
+	private final List<Integer> occurrences = new ArrayList<>();
+	private final Map<ScriptFunction, Boolean> pureFunctions = new IdentityHashMap<>();
+	private final Map<ScriptFunction, Boolean> countedFunctions = new IdentityHashMap<>();
+	private final Map<Integer, SharedNode> sharedNodes = new HashMap<>();
+	private int deduplicatedCount;
+	
+	/**
+	 * @return The expression with shared subexpressions. If no subexpression occurs multiple times, the given instance is returned.
+	 */
+	static CompiledExpression eliminate(SCalcOptions<?> options, CompiledExpression compiledExpression) {
+		CommonSubexpressionEliminator eliminator = new CommonSubexpressionEliminator();
+		Node root = compiledExpression.getRoot();
+		
+		eliminator.identify(root);
+		eliminator.count(root);
+		if (!eliminator.hasCommonSubexpressions()) {
+			return compiledExpression;
+		}
+		
+		Node sharedRoot = eliminator.rewrite(root);
+		
+		SCalcLogger.debug(options,
+				"Shared common subexpressions. Expression: '%s'. Shared subexpressions: %s. Deduplicated occurrences: %s",
+				compiledExpression.getExpression(), eliminator.sharedNodes.size(), eliminator.deduplicatedCount);
+		
+		return compiledExpression.withSharedSubexpressions(sharedRoot, eliminator.sharedNodes.size(), eliminator.deduplicatedCount);
+	}
+	
+	/**
+	 * Assigns the same id to structurally identical subexpressions.
+	 * @return Id of the given node or NOT_SHAREABLE if its result may change during a calculation.
+	 */
+	private int identify(Node node) {
+		Integer knownId = nodeIds.get(node);
+		if (knownId != null) {
+			return knownId;
+		}
+		
+		if (node instanceof ScriptFunctionNode) {
+			isPure(((ScriptFunctionNode) node).getFunction());
+		}
+		
+		Node[] children = children(node);
+		int[] childIds = new int[children.length];
+		boolean shareableChildren = true;
+		for (int i = 0; i < children.length; i++) {
+			childIds[i] = identify(children[i]);
+			shareableChildren &= childIds[i] != NOT_SHAREABLE;
+		}
+		
+		int id = NOT_SHAREABLE;
+		if (node instanceof NumberNode) {
+			id = id("number", ((NumberNode) node).getValue());
+		} else if (node instanceof ParameterNode) {
+			id = id("parameter", ((ParameterNode) node).getSlot());
+		} else if (node instanceof AllParamsNode) {
+			id = id("all");
+		} else if (!shareableChildren) {
+			id = NOT_SHAREABLE;
+		} else if (node instanceof NegateNode) {
+			id = id("negate", childIds);
+		} else if (node instanceof OperatorNode) {
+			id = id(((OperatorNode) node).getOperator(), childIds);
+		} else if (node instanceof LogicalNode) {
+			id = id(((LogicalNode) node).isAnd() ? LogicalNode.AND : LogicalNode.OR, childIds);
+		} else if (node instanceof ConditionalNode) {
+			id = id("condition", childIds);
+		} else if (node instanceof FunctionNode) {
+			FunctionNode functionNode = (FunctionNode) node;
+			id = functionNode.getFunction().isPure() ? id(functionNode.getFunction(), childIds) : NOT_SHAREABLE;
+		} else if (node instanceof ScriptFunctionNode) {
+			ScriptFunction function = ((ScriptFunctionNode) node).getFunction();
+			id = isPure(function) ? id(function, childIds) : NOT_SHAREABLE;
+		} else if (node instanceof ProgramNode) {
+			for (ScriptFunction function : ((ProgramNode) node).getFunctions()) {
+				isPure(function);
+			}
+		}
+		
+		nodeIds.put(node, id);
+		return id;
+	}
+	
+	private int id(Object type, Object value) {
+		return id(Arrays.asList(type, value));
+	}
+	
+	private int id(Object type, int... childIds) {
+		List<Object> key = new ArrayList<>(childIds.length + 1);
+		key.add(type);
+		for (int childId : childIds) {
+			key.add(childId);
+		}
+		return id(key);
+	}
+	
+	private int id(List<Object> key) {
+		Integer id = ids.get(key);
+		if (id == null) {
+			id = occurrences.size();
+			ids.put(key, id);
+			occurrences.add(0);
+		}
+		return id;
+	}
+	
+	/**
+	 * A script function is pure if its body only uses its parameters, given parameters, constants and pure functions.
+	 * Recursive calls are assumed to be pure while the body is checked.
+	 */
+	private boolean isPure(ScriptFunction function) {
+		Boolean pure = pureFunctions.get(function);
+		if (pure != null) {
+			return pure;
+		}
+		
+		pureFunctions.put(function, true);
+		identify(function.getBody());
+		pure = isPure(function.getBody());
+		pureFunctions.put(function, pure);
+		return pure;
+	}
+	
+	private boolean isPure(Node node) {
+		if (node instanceof VariableNode) {
+			return false;
+		} else if (node instanceof FunctionNode && !((FunctionNode) node).getFunction().isPure()) {
+			return false;
+		} else if (node instanceof ScriptFunctionNode && !isPure(((ScriptFunctionNode) node).getFunction())) {
+			return false;
+		}
+		
+		for (Node child : children(node)) {
+			if (!isPure(child)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Counts the occurrences of each subexpression. The children of a repeated occurrence are not counted,
+	 * because they are not calculated again.
+	 */
+	private void count(Node node) {
+		int id = nodeIds.get(node);
+		if (id != NOT_SHAREABLE && isComposite(node)) {
+			int count = occurrences.get(id) + 1;
+			occurrences.set(id, count);
+			if (count > 1) {
+				return;
+			}
+		}
+		
+		for (Node child : children(node)) {
+			count(child);
+		}
+		
+		if (node instanceof ScriptFunctionNode) {
+			countFunction(((ScriptFunctionNode) node).getFunction());
+		} else if (node instanceof ProgramNode) {
+			for (ScriptFunction function : ((ProgramNode) node).getFunctions()) {
+				countFunction(function);
+			}
+		}
+	}
+	
+	private void countFunction(ScriptFunction function) {
+		if (countedFunctions.put(function, true) == null) {
+			count(function.getBody());
+		}
+	}
+	
+	private boolean hasCommonSubexpressions() {
+		for (int count : occurrences) {
+			if (count > 1) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@Override
+	Node rewrite(Node node) {
+		int id = nodeIds.get(node);
+		if (id == NOT_SHAREABLE || !isComposite(node) || occurrences.get(id) < 2) {
+			return rewriteChildren(node);
+		}
+		
+		SharedNode sharedNode = sharedNodes.get(id);
+		if (sharedNode == null) {
+			sharedNode = new SharedNode(sharedNodes.size(), rewriteChildren(node));
+			sharedNodes.put(id, sharedNode);
+		} else {
+			deduplicatedCount++;
+		}
+		return sharedNode;
+	}
+	
+	/**
+	 * Leaves are never shared, because reading them is not more expensive than reading a shared result.
+	 */
+	private static boolean isComposite(Node node) {
+		return !(node instanceof NumberNode || node instanceof ParameterNode || node instanceof AllParamsNode);
+	}
+}
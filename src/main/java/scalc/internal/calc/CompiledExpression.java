@@ -0,0 +1,259 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+import scalc.interfaces.SCalcTrace;
+import scalc.internal.bytecode.GeneratedExpression;
+import scalc.internal.metrics.MetricsRecorder;
+import scalc.internal.nodes.Node;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable result of parsing an expression. Parameters are resolved to slots, so a calculation only has to bind
+ * the parameter values and walk the node tree.<br/>
+ * Predefined constants may be folded into the optimized tree. If a calculation overwrites one of these constants by
+ * a parameter, the original tree is used instead.
+ */
+public class CompiledExpression {
+	private static final int[] NO_SLOTS = new int[0];
+	private static final AtomicLong NEXT_ID = new AtomicLong();
+	
+	private final long id;
+	private final String expression;
+	private final Node root;
+	private final Node originalRoot;
+	private final int[] foldedConstantSlots;
+	private final Map<String, Integer> slots;
+	private final Map<String, Integer> exactSlots;
+	private final int variableCount;
+	private final int sharedCount;
+	private final int deduplicatedCount;
+	private final GeneratedExpression generatedExpression;
+	private final MetricsRecorder metricsRecorder;
+	
+	CompiledExpression(String expression, Node root, Map<String, Integer> slots, int variableCount) {
+		this(NEXT_ID.incrementAndGet(), expression, root, root, NO_SLOTS, Collections.unmodifiableMap(slots), variableCount, 0, 0, null, null);
+	}
+	
+	private CompiledExpression(
+			long id,
+			String expression,
+			Node root,
+			Node originalRoot,
+			int[] foldedConstantSlots,
+			Map<String, Integer> slots,
+			int variableCount,
+			int sharedCount,
+			int deduplicatedCount,
+			GeneratedExpression generatedExpression,
+			MetricsRecorder metricsRecorder) {
+		
+		this.id = id;
+		this.expression = expression;
+		this.root = root;
+		this.originalRoot = originalRoot;
+		this.foldedConstantSlots = foldedConstantSlots;
+		this.slots = slots;
+		this.exactSlots = new HashMap<>(slots);
+		this.variableCount = variableCount;
+		this.sharedCount = sharedCount;
+		this.deduplicatedCount = deduplicatedCount;
+		this.generatedExpression = generatedExpression;
+		this.metricsRecorder = metricsRecorder;
+	}
+	
+	/**
+	 * @return Copy of this expression, which uses the given optimized tree unless one of the folded constants is given as parameter.
+	 */
+	CompiledExpression withOptimizedRoot(Node optimizedRoot, int[] foldedConstantSlots) {
+		return new CompiledExpression(id, expression, optimizedRoot, originalRoot, foldedConstantSlots, slots, variableCount,
+				sharedCount, deduplicatedCount, generatedExpression, metricsRecorder);
+	}
+	
+	/**
+	 * @param sharedCount Number of shared nodes, which store their result per calculation.
+	 * @param deduplicatedCount Number of occurrences of subexpressions, which are not calculated again.
+	 * @return Copy of this expression using the given tree, in which common subexpressions are replaced by shared nodes.
+	 */
+	CompiledExpression withSharedSubexpressions(Node sharedRoot, int sharedCount, int deduplicatedCount) {
+		return new CompiledExpression(id, expression, sharedRoot, originalRoot, foldedConstantSlots, slots, variableCount,
+				sharedCount, deduplicatedCount, generatedExpression, metricsRecorder);
+	}
+	
+	/**
+	 * @return Copy of this expression, which uses the given generated code for calculations on primitive doubles if possible.
+	 */
+	CompiledExpression withGeneratedExpression(GeneratedExpression generatedExpression) {
+		return new CompiledExpression(id, expression, root, originalRoot, foldedConstantSlots, slots, variableCount,
+				sharedCount, deduplicatedCount, generatedExpression, metricsRecorder);
+	}
+	
+	/**
+	 * @return Copy of this expression, whose calculations are recorded by the given recorder. Compiled expressions may be shared
+	 * by the expression cache, so the recorder of a formula is only added to its own copy.
+	 */
+	public CompiledExpression withMetricsRecorder(MetricsRecorder metricsRecorder) {
+		return new CompiledExpression(id, expression, root, originalRoot, foldedConstantSlots, slots, variableCount,
+				sharedCount, deduplicatedCount, generatedExpression, metricsRecorder);
+	}
+	
+	public BigDecimal evaluate(SCalcOptions<?> options, Parameters parameters) {
+		EvaluationContext context = new EvaluationContext(options, parameters, variableCount, sharedCount);
+		SCalcTrace trace = context.getTrace();
+		if (trace == null) {
+			return evaluate(context, parameters);
+		}
+		
+		try {
+			BigDecimal result = evaluate(context, parameters);
+			trace.finished(result);
+			return result;
+		} catch (RuntimeException e) {
+			trace.failed(e);
+			throw e;
+		}
+	}
+	
+	private BigDecimal evaluate(EvaluationContext context, Parameters parameters) {
+		if (isConstantGiven(parameters)) {
+			return originalRoot.evaluate(context);
+		}
+		return root.evaluate(context);
+	}
+	
+	public double evaluateDouble(SCalcOptions<?> options, Parameters parameters) {
+		EvaluationContext context = new EvaluationContext(options, parameters, variableCount, sharedCount);
+		SCalcTrace trace = context.getTrace();
+		if (trace == null) {
+			return evaluateDouble(context, parameters);
+		}
+		
+		try {
+			double result = evaluateDouble(context, parameters);
+			trace.finished(result);
+			return result;
+		} catch (RuntimeException e) {
+			trace.failed(e);
+			throw e;
+		}
+	}
+	
+	/**
+	 * Traced calculations are interpreted, because the generated code does not report its steps.
+	 */
+	private double evaluateDouble(EvaluationContext context, Parameters parameters) {
+		if (isConstantGiven(parameters)) {
+			return originalRoot.evaluateDouble(context);
+		}
+		
+		if (generatedExpression != null && context.getTrace() == null) {
+			double[] values = generatedExpression.bind(context);
+			if (values != null) {
+				return generatedExpression.evaluate(values);
+			}
+		}
+		return root.evaluateDouble(context);
+	}
+	
+	/**
+	 * Evaluates all rows of the given columns at once on primitive doubles.
+	 * @param columns Column of values per parameter name in the order they were added.
+	 */
+	public double[] evaluateDoubleColumns(SCalcOptions<?> options, Map<String, double[]> columns, int rowCount) {
+		ColumnContext context = new ColumnContext(options, this, columns, rowCount);
+		for (int slot : foldedConstantSlots) {
+			if (context.getParameter(slot) != null) {
+				return originalRoot.evaluateDoubleColumn(context);
+			}
+		}
+		return root.evaluateDoubleColumn(context);
+	}
+	
+	boolean isConstantGiven(Parameters parameters) {
+		for (int slot : foldedConstantSlots) {
+			if (parameters.isBound(slot)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return Unique id of the parsed expression, which is kept by its optimized copies.
+	 */
+	public long getId() {
+		return id;
+	}
+	
+	public String getExpression() {
+		return expression;
+	}
+	
+	/**
+	 * @return The generated code or null if the expression is interpreted.
+	 */
+	public GeneratedExpression getGeneratedExpression() {
+		return generatedExpression;
+	}
+	
+	/**
+	 * @return Recorder of the metrics of the formula or null if no metrics are recorded.
+	 */
+	public MetricsRecorder getMetricsRecorder() {
+		return metricsRecorder;
+	}
+	
+	/**
+	 * @return The optimized tree.
+	 */
+	public Node getRoot() {
+		return root;
+	}
+	
+	/**
+	 * @return The tree as parsed from the expression.
+	 */
+	public Node getOriginalRoot() {
+		return originalRoot;
+	}
+	
+	/**
+	 * @return Slot of the parameter with the given (case insensitive) name or null if the expression does not use the parameter.
+	 * Names spelled like in the expression are found by hash without comparing them character by character.
+	 */
+	public Integer getSlot(String name) {
+		Integer slot = exactSlots.get(name);
+		return slot != null ? slot : slots.get(name);
+	}
+	
+	/**
+	 * @return Case insensitive mapping of parameter names to their slots.
+	 */
+	public Map<String, Integer> getSlots() {
+		return slots;
+	}
+	
+	int getVariableCount() {
+		return variableCount;
+	}
+	
+	int getSharedCount() {
+		return sharedCount;
+	}
+	
+	/**
+	 * @return Number of occurrences of common subexpressions, which use the result of the first occurrence instead of being calculated again.
+	 */
+	public int getDeduplicatedCount() {
+		return deduplicatedCount;
+	}
+	
+	@Override
+	public String toString() {
+		return root.toString();
+	}
+}
@@ -1,136 +1,128 @@
 package scalc.internal.calc;
 
-import scalc.SCalc;
 import scalc.SCalcOptions;
 import scalc.exceptions.CalculationException;
-import scalc.interfaces.FunctionImpl;
 import scalc.internal.SCalcLogger;
+import scalc.internal.nodes.Node;
+import scalc.internal.nodes.ProgramNode;
+import scalc.internal.nodes.ProgramNode.Assignment;
+import scalc.internal.nodes.ScriptFunction;
 
-import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static scalc.internal.calc.ExpressionResolver.resolveExpression;
-
 public class DefinitionExpressionController {
     static final String EXPRESSION_SEPARATOR = ";";
     static final String ASSIGNMENT_SEPARATOR = "=";
     static final String RETURN_KEYWORD = "return";
     
     private static final Pattern FUNCTION_NAME_AND_PARAMS_PATTERN = Pattern.compile("(.*?)\\((.*?)\\)");
+    /**
+     * Single "=", which is not part of a comparison operator like "==".
+     */
+    private static final Pattern ASSIGNMENT_SEPARATOR_PATTERN = Pattern.compile("(?<![<>!=])" + ASSIGNMENT_SEPARATOR + "(?!=)");
     
-    static BigDecimal parseDefinitionExpression(SCalc<?> sCalc) {
-        SCalcOptions<?> options = sCalc.getOptions();
-        Map<String, Number[]> customParams = new LinkedHashMap<>(sCalc.getParams());
-        Map<String, FunctionImpl> customFunctions = new HashMap<>();
-
-        String[] definitions = options.getExpression().split(EXPRESSION_SEPARATOR);
-        for (String definition : definitions) {
-            if (definition.trim().startsWith(RETURN_KEYWORD)) {
-                return calculateReturnStatement(options, customParams, customFunctions, definition);
+    /**
+     * Compiles all definitions of the script once: variable assignments, function bodies with their own parameters
+     * and the return statement. Definitions after the return statement are ignored.
+     */
+    public static CompiledExpression compileDefinitionExpression(SCalcOptions<?> options, String expression) {
+        List<Definition> definitions = splitDefinitions(expression);
+        
+        SymbolTable symbols = new SymbolTable(options);
+        List<ScriptFunction> functions = new ArrayList<>();
+        for (Definition definition : definitions) {
+            if (definition.isFunction()) {
+                functions.add(declareFunction(symbols, definition));
+            } else if (!definition.isReturnStatement()) {
+                symbols.declareVariable(definition.name);
+            }
+        }
+        
+        List<Assignment> assignments = new ArrayList<>();
+        int functionIndex = 0;
+        for (Definition definition : definitions) {
+            if (definition.isReturnStatement()) {
+                Node returnStatement = new SCalcParser(definition.expression, symbols).parse();
+                ProgramNode program = new ProgramNode(assignments.toArray(new Assignment[0]), functions, returnStatement);
+                CompiledExpression compiledExpression = new CompiledExpression(expression, program, symbols.getSlots(), symbols.getVariableCount());
+                
+                SCalcLogger.debug(options,
+                        "Compiled definition expression. Expression: '%s'. Compiled expression: '%s'",
+                        expression, compiledExpression);
+                
+                return compiledExpression;
+            } else if (definition.isFunction()) {
+                ScriptFunction function = functions.get(functionIndex++);
+                symbols.enterFunction(function);
+                function.setBody(new SCalcParser(definition.expression, symbols).parse());
+                symbols.exitFunction();
             } else {
-                assignVariableOrFunction(options, customParams, customFunctions, definition);
+                Node node = new SCalcParser(definition.expression, symbols).parse();
+                assignments.add(new Assignment(definition.name, symbols.declareVariable(definition.name), node));
+                symbols.markAssigned(definition.name);
             }
         }
 
         throw new CalculationException("No 'return ...' statement was found on the given expression.");
     }
-
-    private static BigDecimal calculateReturnStatement(
-            SCalcOptions<?> options,
-            Map<String, Number[]> customParams,
-            Map<String, FunctionImpl> customFunctions,
-            String definition) {
-
-        String expression = definition.trim().substring(RETURN_KEYWORD.length()).trim();
-        String resolvedExpression = resolveExpression(options, expression, customParams);
-        SCalcExecutor executor = new SCalcExecutor(resolvedExpression, options, customFunctions);
-        BigDecimal result = executor.parse();
     
-        SCalcLogger.debug(options,
-                "Calculated return statement. Expression: '%s'. Resolved expression: '%s'. Result: %s",
-                expression, resolvedExpression, result);
-        
-        return result;
+    static boolean isDefinitionExpression(String expression) {
+        return expression.contains(EXPRESSION_SEPARATOR);
     }
-
-    private static void assignVariableOrFunction(
-            SCalcOptions<?> options,
-            Map<String, Number[]> customParams,
-            Map<String, FunctionImpl> customFunctions,
-            String definition) {
-
-        String[] assignment = definition.split(ASSIGNMENT_SEPARATOR);
-        if (assignment.length != 2) {
-            throw new CalculationException("Definitions cannot have more than 2 parts.");
-        } else {
-            String variableOrFunctionName = assignment[0].trim();
-            String expression = assignment[1].trim();
-
-            boolean isFunction = variableOrFunctionName.contains("(") && variableOrFunctionName.contains(")");
-            boolean isVariable = !isFunction;
-
-            if (isVariable) {
-                assignVariable(options, customParams, customFunctions, variableOrFunctionName, expression);
-            } else {
-                assignFunction(customParams, customFunctions, variableOrFunctionName, expression);
+    
+    private static List<Definition> splitDefinitions(String expression) {
+        List<Definition> definitions = new ArrayList<>();
+        
+        for (String definition : expression.split(EXPRESSION_SEPARATOR)) {
+            if (definition.trim().startsWith(RETURN_KEYWORD)) {
+                definitions.add(new Definition(null, definition.trim().substring(RETURN_KEYWORD.length()).trim()));
+                return definitions;
             }
+            
+            String[] assignment = ASSIGNMENT_SEPARATOR_PATTERN.split(definition);
+            if (assignment.length != 2) {
+                throw new CalculationException("Definitions cannot have more than 2 parts.");
+            }
+            
+            definitions.add(new Definition(assignment[0].trim(), assignment[1].trim()));
         }
+        
+        return definitions;
     }
-
-    private static void assignFunction(
-            final Map<String, Number[]> customParams,
-            final Map<String, FunctionImpl> customFunctions,
-            final String functionName,
-            final String expression) {
-
-        Matcher matcher = FUNCTION_NAME_AND_PARAMS_PATTERN.matcher(functionName);
+    
+    private static ScriptFunction declareFunction(SymbolTable symbols, Definition definition) {
+        Matcher matcher = FUNCTION_NAME_AND_PARAMS_PATTERN.matcher(definition.name);
         if (!matcher.find()) {
-            throw new CalculationException("Function definition invalid: " + functionName);
+            throw new CalculationException("Function definition invalid: " + definition.name);
         }
-
-        final String name = matcher.group(1);
-        final String[] parameterNames = matcher.group(2).split(",");
-
-        customFunctions.put(name, (options, functionParams) -> {
-            Map<String, Number[]> functionParamsAsMap = new LinkedHashMap<>(customParams);
-            for (int i = 0; i < functionParams.size(); i++) {
-                String paramName = parameterNames[i].trim();
-                BigDecimal paramValue = functionParams.get(i);
-
-                functionParamsAsMap.put(paramName, new Number[] { paramValue });
-            }
-
-            String resolvedExpression = resolveExpression(options, expression, functionParamsAsMap);
-            SCalcExecutor executor = new SCalcExecutor(resolvedExpression, options, customFunctions);
-            BigDecimal result = executor.parse();
-    
-            SCalcLogger.debug(options,
-                    "Calculated function: '%s'. Expression: '%s'. Resolved expression: '%s'. Result: %s",
-                    functionName, expression, resolvedExpression, result);
-            
-            return result;
-        });
+        
+        String name = matcher.group(1).trim();
+        String[] parameterNames = matcher.group(2).split(",");
+        for (int i = 0; i < parameterNames.length; i++) {
+            parameterNames[i] = parameterNames[i].trim();
+        }
+        
+        return symbols.declareFunction(name, parameterNames);
     }
-
-    private static void assignVariable(
-            SCalcOptions<?> options,
-            Map<String, Number[]> customParams,
-            Map<String, FunctionImpl> customFunctions,
-            String variableName,
-            String expression) {
-
-        String resolvedExpression = resolveExpression(options, expression, customParams);
-        SCalcExecutor executor = new SCalcExecutor(resolvedExpression, options, customFunctions);
-        BigDecimal result = executor.parse();
     
-        SCalcLogger.debug(options,
-                "Calculated variable: '%s'. Expression: '%s'. Resolved expression: '%s'. Result: %s",
-                variableName, expression, resolvedExpression, result);
+    private static class Definition {
+        private final String name;
+        private final String expression;
         
-        customParams.put(variableName, new Number[] { result });
+        private Definition(String name, String expression) {
+            this.name = name;
+            this.expression = expression;
+        }
+        
+        private boolean isReturnStatement() {
+            return name == null;
+        }
+        
+        private boolean isFunction() {
+            return name != null && name.contains("(") && name.contains(")");
+        }
     }
 }
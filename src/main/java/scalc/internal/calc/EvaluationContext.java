@@ -0,0 +1,239 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+import scalc.interfaces.SCalcTrace;
+import scalc.interfaces.SCalcTracer;
+import scalc.internal.converter.StreamedValues;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * State of a single calculation. Provides the parameter values bound to the slots of a compiled expression
+ * and holds the values of script variables, shared subexpressions and the parameters of the currently called script function.
+ */
+public class EvaluationContext {
+	private static final BigDecimal[] NO_SHARED = new BigDecimal[0];
+	private static final double[] NO_DOUBLE_SHARED = new double[0];
+	private static final boolean[] NO_CALCULATED_SHARED = new boolean[0];
+	
+	private final SCalcOptions<?> options;
+	private final Parameters parameters;
+	private final BigDecimal[] variables;
+	private final double[] doubleVariables;
+	private final boolean[] assignedDoubleVariables;
+	private final BigDecimal[] shared;
+	private final double[] doubleShared;
+	private final boolean[] calculatedDoubleShared;
+	private final SCalcTrace trace;
+	
+	private BigDecimal[] locals;
+	private double[] doubleLocals;
+	private int calculatedSharedCount;
+	
+	/**
+	 * Context of evaluations while compiling, which are never traced.
+	 */
+	EvaluationContext(SCalcOptions<?> options, Parameters parameters, int variableCount) {
+		this(options, parameters, variableCount, NO_SHARED, NO_DOUBLE_SHARED, NO_CALCULATED_SHARED, null);
+	}
+	
+	EvaluationContext(SCalcOptions<?> options, Parameters parameters, int variableCount, int sharedCount) {
+		this(options, parameters, variableCount,
+				options.isDoublePrecision() || sharedCount == 0 ? NO_SHARED : new BigDecimal[sharedCount],
+				!options.isDoublePrecision() || sharedCount == 0 ? NO_DOUBLE_SHARED : new double[sharedCount],
+				!options.isDoublePrecision() || sharedCount == 0 ? NO_CALCULATED_SHARED : new boolean[sharedCount],
+				startTrace(options));
+	}
+	
+	/**
+	 * Context using the given results of shared subexpressions, which may already contain results of previous calculations.
+	 * @param trace Trace of the calculation or null if it is not traced
+	 */
+	EvaluationContext(SCalcOptions<?> options, Parameters parameters, int variableCount,
+	                  BigDecimal[] shared, double[] doubleShared, boolean[] calculatedDoubleShared, SCalcTrace trace) {
+		this.options = options;
+		this.trace = trace;
+		this.parameters = parameters;
+		this.shared = shared;
+		this.doubleShared = doubleShared;
+		this.calculatedDoubleShared = calculatedDoubleShared;
+		
+		if (options.isDoublePrecision()) {
+			this.variables = null;
+			this.doubleVariables = new double[variableCount];
+			this.assignedDoubleVariables = new boolean[variableCount];
+		} else {
+			this.variables = new BigDecimal[variableCount];
+			this.doubleVariables = null;
+			this.assignedDoubleVariables = null;
+		}
+	}
+	
+	/**
+	 * @return Trace of the calculation or null if the tracer of the options skipped it or there is no tracer.
+	 */
+	static SCalcTrace startTrace(SCalcOptions<?> options) {
+		SCalcTracer tracer = options.getTracer();
+		return tracer == null ? null : tracer.startCalculation(options.getExpression());
+	}
+	
+	public SCalcOptions<?> getOptions() {
+		return options;
+	}
+	
+	/**
+	 * @return Trace receiving the steps of this calculation or null if it is not traced.
+	 */
+	public SCalcTrace getTrace() {
+		return trace;
+	}
+	
+	/**
+	 * @return Values of the parameter bound to the given slot (scaled to the calculation scale) or null if no parameter was given.
+	 */
+	public BigDecimal[] getParameter(int slot) {
+		return parameters.getSlotValues(slot);
+	}
+	
+	/**
+	 * @return Values of all given parameters in the order they were added.
+	 */
+	public Collection<BigDecimal[]> getAllParameters() {
+		return parameters.getAllValues();
+	}
+	
+	/**
+	 * @return Streamed values of the parameter bound to the given slot or null if the parameter was not given as stream.
+	 */
+	public StreamedValues getStreamedParameter(int slot) {
+		return parameters.getSlotStream(slot);
+	}
+	
+	/**
+	 * @return Values of all parameters in the order they were added, given as BigDecimal[], double[] or {@link StreamedValues}.
+	 */
+	public Collection<Object> getAllParametersInOrder() {
+		return parameters.getAllInOrder();
+	}
+	
+	/**
+	 * @return Streamed values of all parameters given as stream in the order they were added.
+	 */
+	public Collection<StreamedValues> getAllStreamedParameters() {
+		return parameters.getAllStreams();
+	}
+	
+	/**
+	 * @return Value of the script variable or null if it was not assigned yet.
+	 */
+	public BigDecimal getVariable(int slot) {
+		return variables[slot];
+	}
+	
+	public void setVariable(int slot, BigDecimal value) {
+		variables[slot] = value;
+	}
+	
+	/**
+	 * @return Result of the shared subexpression or null if it was not calculated yet.
+	 */
+	public BigDecimal getShared(int index) {
+		return shared[index];
+	}
+	
+	public void setShared(int index, BigDecimal value) {
+		shared[index] = value;
+		calculatedSharedCount++;
+	}
+	
+	/**
+	 * @return Value of the parameter of the currently called script function or null if it was not given.
+	 */
+	public BigDecimal getLocal(int index) {
+		return index < locals.length ? locals[index] : null;
+	}
+	
+	/**
+	 * @return The locals of the caller, which have to be restored by exitFunction.
+	 */
+	public BigDecimal[] enterFunction(BigDecimal[] locals) {
+		BigDecimal[] callerLocals = this.locals;
+		this.locals = locals;
+		return callerLocals;
+	}
+	
+	public void exitFunction(BigDecimal[] callerLocals) {
+		this.locals = callerLocals;
+	}
+	
+	/**
+	 * @return Values of the parameter bound to the given slot or null if no parameter was given. Only used with double precision.
+	 */
+	public double[] getDoubleParameter(int slot) {
+		return parameters.getDoubleSlotValues(slot);
+	}
+	
+	/**
+	 * @return Values of all given parameters in the order they were added. Only used with double precision.
+	 */
+	public Collection<double[]> getAllDoubleParameters() {
+		return parameters.getAllDoubleValues();
+	}
+	
+	public boolean isDoubleVariableAssigned(int slot) {
+		return assignedDoubleVariables[slot];
+	}
+	
+	public double getDoubleVariable(int slot) {
+		return doubleVariables[slot];
+	}
+	
+	public void setDoubleVariable(int slot, double value) {
+		doubleVariables[slot] = value;
+		assignedDoubleVariables[slot] = true;
+	}
+	
+	public boolean isDoubleSharedCalculated(int index) {
+		return calculatedDoubleShared[index];
+	}
+	
+	public double getDoubleShared(int index) {
+		return doubleShared[index];
+	}
+	
+	public void setDoubleShared(int index, double value) {
+		doubleShared[index] = value;
+		calculatedDoubleShared[index] = true;
+		calculatedSharedCount++;
+	}
+	
+	/**
+	 * @return Number of shared subexpressions calculated within this context.
+	 */
+	int getCalculatedSharedCount() {
+		return calculatedSharedCount;
+	}
+	
+	public boolean isDoubleLocalGiven(int index) {
+		return index < doubleLocals.length;
+	}
+	
+	public double getDoubleLocal(int index) {
+		return doubleLocals[index];
+	}
+	
+	/**
+	 * @param locals Parameters given to the script function. Missing trailing parameters are not part of the array.
+	 * @return The locals of the caller, which have to be restored by exitDoubleFunction.
+	 */
+	public double[] enterDoubleFunction(double[] locals) {
+		double[] callerLocals = this.doubleLocals;
+		this.doubleLocals = locals;
+		return callerLocals;
+	}
+	
+	public void exitDoubleFunction(double[] callerLocals) {
+		this.doubleLocals = callerLocals;
+	}
+}
@@ -0,0 +1,209 @@
+package scalc.internal.calc;
+
+import scalc.SCalcFunctionCache;
+import scalc.SCalcOptions;
+import scalc.interfaces.FunctionImpl;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of compiled expressions shared by all builders. Compiled expressions are immutable, so the same instance
+ * can be used by any number of formulas. The key contains the expression and all options, which are used while parsing.<br/>
+ * Lookups do not lock. If the cache is full, the least recently used expressions are evicted on insert.
+ */
+public class ExpressionCache {
+	public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+	
+	private static final ExpressionCache INSTANCE = new ExpressionCache(DEFAULT_MAXIMUM_SIZE);
+	
+	private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong clock = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	private volatile int maximumSize;
+	
+	ExpressionCache(int maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+	
+	public static ExpressionCache getInstance() {
+		return INSTANCE;
+	}
+	
+	/**
+	 * @return Cached expression for the given options or the result of the compiler, which is cached afterwards.
+	 */
+	CompiledExpression get(SCalcOptions<?> options, Function<SCalcOptions<?>, CompiledExpression> compiler) {
+		if (maximumSize <= 0) {
+			misses.increment();
+			return compiler.apply(options);
+		}
+		
+		Key key = new Key(options);
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			hits.increment();
+			entry.lastAccess = clock.incrementAndGet();
+			return entry.compiledExpression;
+		}
+		
+		misses.increment();
+		CompiledExpression compiledExpression = compiler.apply(options);
+		
+		Entry existing = entries.putIfAbsent(key, new Entry(compiledExpression, clock.incrementAndGet()));
+		if (existing != null) {
+			return existing.compiledExpression;
+		}
+		
+		if (entries.size() > maximumSize) {
+			evictOverflow();
+		}
+		return compiledExpression;
+	}
+	
+	/**
+	 * Evicts the least recently used eighth of the cache at once under a lock, so concurrent misses of a full cache
+	 * do not scan all entries for each inserted expression.
+	 */
+	private synchronized void evictOverflow() {
+		int size = entries.size();
+		if (size <= maximumSize) {
+			return;
+		}
+		
+		long[] accesses = new long[size];
+		int count = 0;
+		for (Entry entry : entries.values()) {
+			if (count == accesses.length) {
+				break;
+			}
+			accesses[count++] = entry.lastAccess;
+		}
+		Arrays.sort(accesses, 0, count);
+		
+		int evictedCount = Math.min(count, size - maximumSize + maximumSize / 8);
+		long lastEvictedAccess = accesses[Math.max(evictedCount, 1) - 1];
+		
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().lastAccess <= lastEvictedAccess) {
+				iterator.remove();
+				evictions.increment();
+			}
+		}
+	}
+	
+	public void clear() {
+		entries.clear();
+	}
+	
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+	
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+	
+	/**
+	 * @param maximumSize Maximum number of cached expressions. 0 disables the cache.
+	 */
+	public void setMaximumSize(int maximumSize) {
+		if (maximumSize < 0) {
+			throw new IllegalArgumentException("Maximum size must not be negative: " + maximumSize);
+		}
+		
+		this.maximumSize = maximumSize;
+		if (maximumSize == 0) {
+			entries.clear();
+		} else {
+			evictOverflow();
+		}
+	}
+	
+	public int getSize() {
+		return entries.size();
+	}
+	
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	public long getEvictions() {
+		return evictions.sum();
+	}
+	
+	private static final class Entry {
+		private final CompiledExpression compiledExpression;
+		private volatile long lastAccess;
+		
+		private Entry(CompiledExpression compiledExpression, long lastAccess) {
+			this.compiledExpression = compiledExpression;
+			this.lastAccess = lastAccess;
+		}
+	}
+	
+	/**
+	 * Options which change the compiled expression. Result scale, return type and converters are only used after the
+	 * calculation and debug logging reads the options of the formula, so they are not part of the key.
+	 * User functions and the function cache are compared by identity of their implementations.
+	 */
+	private static final class Key {
+		private final String expression;
+		private final int calculationScale;
+		private final RoundingMode calculationRoundingMode;
+		private final boolean doublePrecision;
+		private final boolean bytecodeGeneration;
+		private final Map<String, FunctionImpl> userFunctions;
+		private final SCalcFunctionCache functionCache;
+		private final int hashCode;
+		
+		private Key(SCalcOptions<?> options) {
+			this.expression = options.getExpression();
+			this.calculationScale = options.getCalculationScale();
+			this.calculationRoundingMode = options.getCalculationRoundingMode();
+			this.doublePrecision = options.isDoublePrecision();
+			this.bytecodeGeneration = options.isBytecodeGeneration() && !options.isDebug();
+			this.userFunctions = options.getUserFunctions();
+			this.functionCache = options.getFunctionCache();
+			this.hashCode = Objects.hash(expression, calculationScale, calculationRoundingMode, doublePrecision, bytecodeGeneration, userFunctions,
+					System.identityHashCode(functionCache));
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key)) return false;
+			
+			Key key = (Key) o;
+			return calculationScale == key.calculationScale &&
+					doublePrecision == key.doublePrecision &&
+					bytecodeGeneration == key.bytecodeGeneration &&
+					functionCache == key.functionCache &&
+					calculationRoundingMode == key.calculationRoundingMode &&
+					expression.equals(key.expression) &&
+					Objects.equals(userFunctions, key.userFunctions);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
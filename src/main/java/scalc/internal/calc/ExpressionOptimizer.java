@@ -0,0 +1,364 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+import scalc.exceptions.CalculationException;
+import scalc.internal.nodes.ConditionalNode;
+import scalc.internal.nodes.FunctionNode;
+import scalc.internal.nodes.LocalVariableNode;
+import scalc.internal.nodes.LogicalNode;
+import scalc.internal.nodes.NegateNode;
+import scalc.internal.nodes.Node;
+import scalc.internal.nodes.NumberNode;
+import scalc.internal.nodes.Operator;
+import scalc.internal.nodes.OperatorNode;
+import scalc.internal.nodes.ParameterNode;
+import scalc.internal.nodes.ProgramNode;
+import scalc.internal.nodes.ProgramNode.Assignment;
+import scalc.internal.nodes.ScriptFunction;
+import scalc.internal.nodes.ScriptFunctionNode;
+import scalc.internal.nodes.VariableNode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Simplifies a compiled expression tree once after parsing. The original tree is not modified.
+ * <ul>
+ *     <li>Predefined constants (like PI) are replaced by their values.</li>
+ *     <li>Operators, negations and pure functions without parameters are calculated, e.g. <code>sin(PI / 2)</code>.</li>
+ *     <li>Conditions with constant results are replaced by the selected value.</li>
+ *     <li>Identities like <code>x * 1</code>, <code>x / 1</code>, <code>x + 0</code> and <code>x - 0</code> are removed,
+ *     if the result is exactly the same, including the scale of BigDecimal values.</li>
+ * </ul>
+ * Functions which are not pure are never calculated while compiling, because they might not return the same result for the same parameters.
+ */
+class ExpressionOptimizer {
+	private final SCalcOptions<?> options;
+	private final EvaluationContext context;
+	private final Map<ScriptFunction, ScriptFunction> functions = new IdentityHashMap<>();
+	private final Set<Integer> foldedConstantSlots = new TreeSet<>();
+	
+	private ExpressionOptimizer(SCalcOptions<?> options) {
+		this.options = options;
+		this.context = new EvaluationContext(options, null, 0);
+	}
+	
+	/**
+	 * @return The optimized expression. If the expression is not changed, the given instance is returned.
+	 */
+	static CompiledExpression optimize(SCalcOptions<?> options, CompiledExpression compiledExpression) {
+		ExpressionOptimizer optimizer = new ExpressionOptimizer(options);
+		Node root = optimizer.optimize(compiledExpression.getRoot());
+		
+		if (root == compiledExpression.getRoot()) {
+			return compiledExpression;
+		}
+		
+		int[] foldedConstantSlots = optimizer.foldedConstantSlots.stream().mapToInt(Integer::intValue).toArray();
+		return compiledExpression.withOptimizedRoot(root, foldedConstantSlots);
+	}
+	
+	private Node optimize(Node node) {
+		if (node instanceof ParameterNode) {
+			return optimizeParameter((ParameterNode) node);
+		} else if (node instanceof NegateNode) {
+			return optimizeNegate((NegateNode) node);
+		} else if (node instanceof OperatorNode) {
+			return optimizeOperator((OperatorNode) node);
+		} else if (node instanceof LogicalNode) {
+			return optimizeLogical((LogicalNode) node);
+		} else if (node instanceof ConditionalNode) {
+			return optimizeConditional((ConditionalNode) node);
+		} else if (node instanceof FunctionNode) {
+			return optimizeFunction((FunctionNode) node);
+		} else if (node instanceof ScriptFunctionNode) {
+			return optimizeScriptFunctionCall((ScriptFunctionNode) node);
+		} else if (node instanceof ProgramNode) {
+			return optimizeProgram((ProgramNode) node);
+		}
+		return node;
+	}
+	
+	private Node optimizeParameter(ParameterNode node) {
+		if (node.getDefaultValue() == null) {
+			return node;
+		}
+		
+		// Constants can still be overwritten by a parameter with the same name. The original tree is used in this case.
+		foldedConstantSlots.add(node.getSlot());
+		return new NumberNode(node.getDefaultValue());
+	}
+	
+	private Node optimizeNegate(NegateNode node) {
+		Node child = optimize(node.getNode());
+		Node optimized = child == node.getNode() ? node : new NegateNode(child);
+		return child instanceof NumberNode ? fold(optimized) : optimized;
+	}
+	
+	private Node optimizeOperator(OperatorNode node) {
+		Node left = optimize(node.getLeft());
+		Node right = optimize(node.getRight());
+		Node optimized = left == node.getLeft() && right == node.getRight() ? node : new OperatorNode(node.getOperator(), left, right);
+		
+		if (left instanceof NumberNode && right instanceof NumberNode) {
+			return fold(optimized);
+		}
+		return removeIdentity(node.getOperator(), left, right, optimized);
+	}
+	
+	/**
+	 * Folded if the left operand is constant and either determines the result or the right operand is constant too.
+	 */
+	private Node optimizeLogical(LogicalNode node) {
+		Node left = optimize(node.getLeft());
+		Node right = optimize(node.getRight());
+		Node optimized = left == node.getLeft() && right == node.getRight() ? node : new LogicalNode(node.isAnd(), left, right);
+		
+		if (left instanceof NumberNode && (right instanceof NumberNode || isTrue(left) != node.isAnd())) {
+			return fold(optimized);
+		}
+		return optimized;
+	}
+	
+	/**
+	 * Cases with a constant false condition are removed. A constant true condition makes its value the last one.
+	 */
+	private Node optimizeConditional(ConditionalNode node) {
+		List<Node> conditions = new ArrayList<>();
+		List<Node> values = new ArrayList<>();
+		Node otherwise = null;
+		boolean changed = false;
+		
+		for (int i = 0; i < node.getConditions().length && otherwise == null; i++) {
+			Node condition = optimize(node.getConditions()[i]);
+			Node value = optimize(node.getValues()[i]);
+			changed |= condition != node.getConditions()[i] || value != node.getValues()[i];
+			
+			if (!(condition instanceof NumberNode)) {
+				conditions.add(condition);
+				values.add(value);
+			} else if (isTrue(condition)) {
+				otherwise = value;
+				changed = true;
+			} else {
+				changed = true;
+			}
+		}
+		
+		if (otherwise == null) {
+			otherwise = optimize(node.getOtherwise());
+			changed |= otherwise != node.getOtherwise();
+		}
+		
+		if (conditions.isEmpty()) {
+			return otherwise;
+		}
+		return changed ? new ConditionalNode(node.getName(), conditions.toArray(new Node[0]), values.toArray(new Node[0]), otherwise) : node;
+	}
+	
+	private Node optimizeFunction(FunctionNode node) {
+		Node[] arguments = optimizeAll(node.getArguments());
+		Node optimized = node;
+		if (arguments != node.getArguments()) {
+			try {
+				optimized = new FunctionNode(node.getName(), node.getFunction(), arguments);
+			} catch (CalculationException e) {
+				// Folded constants may fail the argument count check, which is only relevant if the constants are not overridden
+				return node;
+			}
+		}
+		
+		if (node.getFunction().isPure() && areNumbers(arguments)) {
+			return fold(optimized);
+		}
+		return optimized;
+	}
+	
+	private Node optimizeScriptFunctionCall(ScriptFunctionNode node) {
+		ScriptFunction function = optimizeScriptFunction(node.getFunction());
+		Node[] arguments = optimizeAll(node.getArguments());
+		
+		if (function == node.getFunction() && arguments == node.getArguments()) {
+			return node;
+		}
+		return new ScriptFunctionNode(function, arguments);
+	}
+	
+	private Node optimizeProgram(ProgramNode node) {
+		boolean changed = false;
+		
+		List<ScriptFunction> programFunctions = new ArrayList<>();
+		for (ScriptFunction function : node.getFunctions()) {
+			ScriptFunction optimized = optimizeScriptFunction(function);
+			programFunctions.add(optimized);
+			changed |= optimized != function;
+		}
+		
+		Assignment[] assignments = new Assignment[node.getAssignments().length];
+		for (int i = 0; i < assignments.length; i++) {
+			Assignment assignment = node.getAssignments()[i];
+			Node expression = optimize(assignment.getExpression());
+			
+			assignments[i] = expression == assignment.getExpression() ? assignment : new Assignment(assignment.getName(), assignment.getSlot(), expression);
+			changed |= expression != assignment.getExpression();
+		}
+		
+		Node returnStatement = optimize(node.getReturnStatement());
+		changed |= returnStatement != node.getReturnStatement();
+		
+		return changed ? new ProgramNode(assignments, programFunctions, returnStatement) : node;
+	}
+	
+	/**
+	 * Script functions are copied with an optimized body. Calls of the same function share the copy, which is registered
+	 * before its body is optimized, so recursive calls are resolved as well.
+	 */
+	private ScriptFunction optimizeScriptFunction(ScriptFunction function) {
+		ScriptFunction optimized = functions.get(function);
+		if (optimized != null) {
+			return optimized;
+		}
+		
+		optimized = new ScriptFunction(function.getName(), function.getParameterNames());
+		functions.put(function, optimized);
+		optimized.setBody(optimize(function.getBody()));
+		return optimized;
+	}
+	
+	private Node[] optimizeAll(Node[] nodes) {
+		Node[] optimized = null;
+		for (int i = 0; i < nodes.length; i++) {
+			Node node = optimize(nodes[i]);
+			if (node != nodes[i] && optimized == null) {
+				optimized = nodes.clone();
+			}
+			if (optimized != null) {
+				optimized[i] = node;
+			}
+		}
+		return optimized == null ? nodes : optimized;
+	}
+	
+	/**
+	 * Calculates the given node without parameters. If the calculation fails (e.g. division by zero) or has no finite result,
+	 * the node is kept, so the error occurs on calculation as before.
+	 */
+	private Node fold(Node node) {
+		try {
+			if (options.isDoublePrecision()) {
+				double value = node.evaluateDouble(context);
+				return Double.isFinite(value) ? new NumberNode(BigDecimal.valueOf(value)) : node;
+			}
+			return new NumberNode(node.evaluate(context));
+		} catch (RuntimeException e) {
+			return node;
+		}
+	}
+	
+	private Node removeIdentity(Operator operator, Node left, Node right, Node node) {
+		switch (operator) {
+			case ADD:
+				if (isZero(left) && isSameScale(right, left)) return right;
+				if (isZero(right) && isSameScale(left, right)) return left;
+				return node;
+			case SUBTRACT:
+				if (isZero(right) && (options.isDoublePrecision() || isSameScale(left, right))) return left;
+				return node;
+			case MULTIPLY:
+				if (isOne(left) && (options.isDoublePrecision() || isUnscaled(left))) return right;
+				if (isOne(right) && (options.isDoublePrecision() || isUnscaled(right))) return left;
+				return node;
+			case DIVIDE:
+				if (isOne(right) && (options.isDoublePrecision() || getScale(left) == options.getCalculationScale())) return left;
+				return node;
+			default:
+				return node;
+		}
+	}
+	
+	/**
+	 * Adding 0 keeps the scale of the other operand, if it is at least the scale of the 0.
+	 * Using double precision, <code>-0.0 + 0</code> would be 0.0, so the identity is not used at all.
+	 */
+	private boolean isSameScale(Node operand, Node zero) {
+		if (options.isDoublePrecision()) {
+			return false;
+		}
+		return getScale(operand) >= ((NumberNode) zero).getValue().scale();
+	}
+	
+	/**
+	 * Multiplying adds the scales of both operands, so only a 1 without decimal places keeps the scale of the other operand.
+	 */
+	private boolean isUnscaled(Node one) {
+		return ((NumberNode) one).getValue().scale() == 0;
+	}
+	
+	/**
+	 * @return Scale of the BigDecimal result of the given node or -1 if it is not known before calculation.
+	 */
+	private int getScale(Node node) {
+		if (node instanceof NumberNode) {
+			return ((NumberNode) node).getValue().scale();
+		} else if (node instanceof ParameterNode) {
+			return options.getCalculationScale();
+		} else if (node instanceof VariableNode) {
+			Node fallback = ((VariableNode) node).getFallback();
+			return fallback == null || getScale(fallback) == options.getCalculationScale() ? options.getCalculationScale() : -1;
+		} else if (node instanceof LocalVariableNode) {
+			Node fallback = ((LocalVariableNode) node).getFallback();
+			return getScale(fallback) == options.getCalculationScale() ? options.getCalculationScale() : -1;
+		} else if (node instanceof NegateNode) {
+			return getScale(((NegateNode) node).getNode());
+		} else if (node instanceof OperatorNode) {
+			OperatorNode operatorNode = (OperatorNode) node;
+			int left = getScale(operatorNode.getLeft());
+			int right = getScale(operatorNode.getRight());
+			
+			switch (operatorNode.getOperator()) {
+				case DIVIDE:
+				case POW:
+				case LESS:
+				case LESS_OR_EQUAL:
+				case GREATER:
+				case GREATER_OR_EQUAL:
+				case EQUAL:
+				case NOT_EQUAL:
+					return options.getCalculationScale();
+				case MULTIPLY:
+					return left < 0 || right < 0 ? -1 : left + right;
+				default:
+					return left < 0 || right < 0 ? -1 : Math.max(left, right);
+			}
+		} else if (node instanceof LogicalNode) {
+			return options.getCalculationScale();
+		}
+		return -1;
+	}
+	
+	private static boolean isTrue(Node node) {
+		return Operator.isTrue(((NumberNode) node).getValue());
+	}
+	
+	private static boolean isZero(Node node) {
+		return node instanceof NumberNode && ((NumberNode) node).getValue().signum() == 0;
+	}
+	
+	private static boolean isOne(Node node) {
+		return node instanceof NumberNode && ((NumberNode) node).getValue().compareTo(BigDecimal.ONE) == 0;
+	}
+	
+	private static boolean areNumbers(Node[] nodes) {
+		for (Node node : nodes) {
+			if (!(node instanceof NumberNode)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
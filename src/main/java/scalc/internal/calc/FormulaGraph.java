@@ -0,0 +1,245 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+import scalc.exceptions.CalculationException;
+import scalc.interfaces.INumberConverter;
+import scalc.internal.converter.NumberConverters;
+import scalc.internal.nodes.AllParamsNode;
+import scalc.internal.nodes.Node;
+import scalc.internal.nodes.ScriptFunctionNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Named formulas, which use the results of other formulas as parameters. A parameter named like another formula depends on this formula,
+ * all other parameters are inputs of the graph. Like parameters, the names of formulas are case insensitive.<br/>
+ * The formulas are sorted topologically when the graph is created, so each formula comes after all formulas it depends on.
+ * Cyclic dependencies are rejected.
+ */
+public class FormulaGraph {
+	private static final int[] NO_FORMULAS = new int[0];
+	
+	private final String[] names;
+	private final SCalcOptions<?>[] options;
+	private final CompiledExpression[] expressions;
+	private final int[][] dependencies;
+	private final int[][] dependents;
+	private final boolean[] allParams;
+	private final Map<String, Integer> indices = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+	private final Map<String, int[]> inputDependents = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+	private final int[] allParamsFormulas;
+	private final NumberConverters converters;
+	
+	/**
+	 * @param names Names of the formulas in the order they were added
+	 * @param options Options of the formulas
+	 * @param expressions Compiled expressions of the formulas
+	 * @throws CalculationException If a name is used twice or the formulas depend on each other cyclically
+	 */
+	public FormulaGraph(List<String> names, List<SCalcOptions<?>> options, List<CompiledExpression> expressions) {
+		Map<String, Integer> addedIndices = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		Map<Class<?>, INumberConverter> addedConverters = new HashMap<>();
+		for (int i = 0; i < names.size(); i++) {
+			if (addedIndices.put(names.get(i), i) != null) {
+				throw new CalculationException(String.format("Formula '%s' is defined twice.", names.get(i)));
+			}
+		}
+		
+		List<List<Integer>> addedDependencies = new ArrayList<>();
+		for (CompiledExpression expression : expressions) {
+			List<Integer> formulaDependencies = new ArrayList<>();
+			for (String parameter : expression.getSlots().keySet()) {
+				Integer dependency = addedIndices.get(parameter);
+				if (dependency != null) {
+					formulaDependencies.add(dependency);
+				}
+			}
+			addedDependencies.add(formulaDependencies);
+		}
+		
+		int[] order = sort(names, addedDependencies);
+		int[] positions = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			positions[order[i]] = i;
+		}
+		
+		this.names = new String[order.length];
+		this.options = new SCalcOptions<?>[order.length];
+		this.expressions = new CompiledExpression[order.length];
+		this.dependencies = new int[order.length][];
+		this.allParams = new boolean[order.length];
+		
+		Map<String, List<Integer>> addedInputDependents = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		List<Integer> addedAllParamsFormulas = new ArrayList<>();
+		for (int i = 0; i < order.length; i++) {
+			int added = order[i];
+			this.names[i] = names.get(added);
+			this.options[i] = options.get(added);
+			this.expressions[i] = expressions.get(added);
+			this.dependencies[i] = addedDependencies.get(added).stream().mapToInt(dependency -> positions[dependency]).sorted().toArray();
+			this.allParams[i] = usesAllParams(expressions.get(added).getRoot(), Collections.newSetFromMap(new IdentityHashMap<>()));
+			this.indices.put(names.get(added), i);
+			
+			for (String parameter : expressions.get(added).getSlots().keySet()) {
+				if (!addedIndices.containsKey(parameter)) {
+					addedInputDependents.computeIfAbsent(parameter, key -> new ArrayList<>()).add(i);
+				}
+			}
+			if (allParams[i]) {
+				addedAllParamsFormulas.add(i);
+			}
+			if (options.get(added).getConverters() != null) {
+				addedConverters.putAll(options.get(added).getConverters());
+			}
+		}
+		
+		List<List<Integer>> addedDependents = new ArrayList<>();
+		for (int i = 0; i < order.length; i++) {
+			addedDependents.add(new ArrayList<>());
+		}
+		for (int i = 0; i < order.length; i++) {
+			for (int dependency : dependencies[i]) {
+				addedDependents.get(dependency).add(i);
+			}
+		}
+		this.dependents = addedDependents.stream().map(formulas -> formulas.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new);
+		
+		for (Map.Entry<String, List<Integer>> entry : addedInputDependents.entrySet()) {
+			inputDependents.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+		}
+		this.allParamsFormulas = addedAllParamsFormulas.stream().mapToInt(Integer::intValue).toArray();
+		this.converters = NumberConverters.of(addedConverters);
+	}
+	
+	/**
+	 * Sorts the formulas by depth first search, so each formula comes after its dependencies.
+	 * @return Indices of the added formulas in topological order
+	 */
+	private static int[] sort(List<String> names, List<List<Integer>> dependencies) {
+		int[] order = new int[names.size()];
+		int[] state = new int[names.size()];
+		int sorted = 0;
+		
+		for (int i = 0; i < names.size(); i++) {
+			sorted = visit(i, names, dependencies, state, new ArrayList<>(), order, sorted);
+		}
+		return order;
+	}
+	
+	private static int visit(int formula, List<String> names, List<List<Integer>> dependencies, int[] state, List<Integer> path, int[] order, int sorted) {
+		if (state[formula] == 2) {
+			return sorted;
+		}
+		
+		path.add(formula);
+		if (state[formula] == 1) {
+			StringBuilder cycle = new StringBuilder();
+			for (int i = path.indexOf(formula); i < path.size(); i++) {
+				if (cycle.length() > 0) {
+					cycle.append(" -> ");
+				}
+				cycle.append(names.get(path.get(i)));
+			}
+			throw new CalculationException("Cyclic dependency between formulas: " + cycle);
+		}
+		
+		state[formula] = 1;
+		for (int dependency : dependencies.get(formula)) {
+			sorted = visit(dependency, names, dependencies, state, path, order, sorted);
+		}
+		state[formula] = 2;
+		path.remove(path.size() - 1);
+		
+		order[sorted] = formula;
+		return sorted + 1;
+	}
+	
+	private static boolean usesAllParams(Node node, Set<Node> visitedBodies) {
+		if (node instanceof AllParamsNode) {
+			return true;
+		}
+		if (node instanceof ScriptFunctionNode) {
+			Node body = ((ScriptFunctionNode) node).getFunction().getBody();
+			if (visitedBodies.add(body) && usesAllParams(body, visitedBodies)) {
+				return true;
+			}
+		}
+		
+		for (Node child : NodeRewriter.children(node)) {
+			if (usesAllParams(child, visitedBodies)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	public int size() {
+		return names.length;
+	}
+	
+	/**
+	 * @return Index of the formula in topological order or null if there is no formula with this name.
+	 */
+	public Integer indexOf(String name) {
+		return indices.get(name);
+	}
+	
+	public String getName(int formula) {
+		return names[formula];
+	}
+	
+	public SCalcOptions<?> getOptions(int formula) {
+		return options[formula];
+	}
+	
+	public CompiledExpression getExpression(int formula) {
+		return expressions[formula];
+	}
+	
+	/**
+	 * @return Indices of the formulas, whose results are parameters of the given formula.
+	 */
+	public int[] getDependencies(int formula) {
+		return dependencies[formula];
+	}
+	
+	/**
+	 * @return Indices of the formulas, which use the result of the given formula as parameter.
+	 */
+	public int[] getDependents(int formula) {
+		return dependents[formula];
+	}
+	
+	/**
+	 * @return True if the formula uses ALL_PARAMS. Such formulas get all inputs of the graph, but only the results of formulas they use by name.
+	 */
+	public boolean isAllParams(int formula) {
+		return allParams[formula];
+	}
+	
+	/**
+	 * @return Indices of the formulas using the input with the given name, including all formulas using ALL_PARAMS.
+	 */
+	int[] getInputDependents(String name) {
+		int[] dependents = inputDependents.getOrDefault(name, NO_FORMULAS);
+		if (allParamsFormulas.length == 0) {
+			return dependents;
+		}
+		return Arrays.stream(new int[][] { dependents, allParamsFormulas }).flatMapToInt(Arrays::stream).distinct().toArray();
+	}
+	
+	/**
+	 * @return Converters of all formulas, used to convert the inputs of the graph.
+	 */
+	public NumberConverters getConverters() {
+		return converters;
+	}
+}
@@ -0,0 +1,106 @@
+package scalc.internal.calc;
+
+import scalc.SCalcFunctionCache;
+import scalc.SCalcOptions;
+import scalc.internal.SCalcLogger;
+import scalc.internal.nodes.FunctionNode;
+import scalc.internal.nodes.LocalVariableNode;
+import scalc.internal.nodes.Node;
+import scalc.internal.nodes.NumberNode;
+import scalc.internal.nodes.ProgramNode;
+import scalc.internal.nodes.ScriptFunction;
+import scalc.internal.nodes.ScriptFunctionNode;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Enables the function cache of the options for script functions, whose result only depends on their parameters:
+ * The body may only use the parameters of the function, constants, pure functions and other such script functions.
+ * Pure user functions already use the cache, see {@link SymbolTable}.
+ */
+class FunctionMemoizer {
+	private final Map<ScriptFunction, Boolean> memoizable = new IdentityHashMap<>();
+	
+	static void memoize(SCalcOptions<?> options, CompiledExpression compiledExpression) {
+		SCalcFunctionCache cache = options.getFunctionCache();
+		if (cache == null) {
+			return;
+		}
+		
+		FunctionMemoizer memoizer = new FunctionMemoizer();
+		memoizer.collect(compiledExpression.getRoot());
+		memoizer.resolve();
+		
+		List<String> memoized = new ArrayList<>();
+		for (Map.Entry<ScriptFunction, Boolean> function : memoizer.memoizable.entrySet()) {
+			if (function.getValue()) {
+				function.getKey().setCache(cache);
+				memoized.add(function.getKey().getName());
+			}
+		}
+		
+		SCalcLogger.debug(options, "Cached script functions. Expression: '%s'. Functions: %s", compiledExpression.getExpression(), memoized);
+	}
+	
+	private void collect(Node node) {
+		if (node instanceof ScriptFunctionNode) {
+			collect(((ScriptFunctionNode) node).getFunction());
+		} else if (node instanceof ProgramNode) {
+			for (ScriptFunction function : ((ProgramNode) node).getFunctions()) {
+				collect(function);
+			}
+		}
+		
+		for (Node child : NodeRewriter.children(node)) {
+			collect(child);
+		}
+	}
+	
+	private void collect(ScriptFunction function) {
+		if (memoizable.put(function, true) == null) {
+			collect(function.getBody());
+		}
+	}
+	
+	/**
+	 * All functions are assumed to be memoizable at first, so recursive functions can be memoized.
+	 * Functions using anything else than their parameters are removed until no more function changes.
+	 */
+	private void resolve() {
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (Map.Entry<ScriptFunction, Boolean> function : memoizable.entrySet()) {
+				if (function.getValue() && !dependsOnParametersOnly(function.getKey().getBody())) {
+					function.setValue(false);
+					changed = true;
+				}
+			}
+		}
+	}
+	
+	private boolean dependsOnParametersOnly(Node node) {
+		if (node instanceof ScriptFunctionNode) {
+			if (!memoizable.get(((ScriptFunctionNode) node).getFunction())) {
+				return false;
+			}
+		} else if (node instanceof FunctionNode) {
+			if (!((FunctionNode) node).getFunction().isPure()) {
+				return false;
+			}
+		} else if (!(node instanceof LocalVariableNode || node instanceof NumberNode) && NodeRewriter.children(node).length == 0) {
+			// parameters, script variables and ALL_PARAMS may change between calculations
+			return false;
+		}
+		
+		for (Node child : NodeRewriter.children(node)) {
+			if (!dependsOnParametersOnly(child)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
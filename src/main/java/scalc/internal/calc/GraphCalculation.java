@@ -0,0 +1,222 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+import scalc.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Calculation of a {@link FormulaGraph}, which keeps the inputs and the results of all formulas between calculations.<br/>
+ * A formula is only calculated if one of its inputs changed or the result of a formula it depends on changed, so a calculation after changing
+ * an input only recalculates the formulas downstream of this input. Each formula is an {@link IncrementalCalculation} on its own.
+ * The results of formulas are passed to the depending formulas with the calculation scale, not rounded to the result scale.
+ * Formulas with double precision keep their results as doubles, so infinite and NaN results are passed to dependents with double precision.<br/>
+ * A formula stays outdated until it is calculated successfully, so a failed calculation is repeated by the next one.
+ */
+public class GraphCalculation {
+	private final FormulaGraph graph;
+	private final IncrementalCalculation[] calculations;
+	private final Map<String, BigDecimal[]> inputs = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+	private final BigDecimal[] values;
+	private final double[] doubleValues;
+	private final boolean[] calculated;
+	private final Object[] results;
+	private final boolean[] outdated;
+	private final boolean[] recalculated;
+	
+	public GraphCalculation(FormulaGraph graph) {
+		this.graph = graph;
+		this.calculations = new IncrementalCalculation[graph.size()];
+		this.values = new BigDecimal[graph.size()];
+		this.doubleValues = new double[graph.size()];
+		this.calculated = new boolean[graph.size()];
+		this.results = new Object[graph.size()];
+		this.outdated = new boolean[graph.size()];
+		this.recalculated = new boolean[graph.size()];
+		
+		for (int i = 0; i < graph.size(); i++) {
+			calculations[i] = new IncrementalCalculation(graph.getOptions(i), graph.getExpression(i));
+		}
+		Arrays.fill(outdated, true);
+	}
+	
+	/**
+	 * Sets or replaces an input of the graph. The formulas using the input are only outdated if its values changed.
+	 */
+	public void put(String name, BigDecimal[] values) {
+		if (graph.indexOf(name) != null) {
+			throw new CalculationException(String.format("Parameter '%s' is the result of a formula and cannot be given.", name));
+		}
+		
+		BigDecimal[] previousValues = inputs.put(name, values);
+		if (Arrays.equals(previousValues, values)) {
+			return;
+		}
+		
+		for (int formula : graph.getInputDependents(name)) {
+			calculations[formula].getParameters().put(name, values);
+			outdated[formula] = true;
+		}
+	}
+	
+	/**
+	 * Removes all inputs. The results of the formulas are kept until the next calculation.
+	 */
+	public void clear() {
+		inputs.clear();
+		for (int i = 0; i < graph.size(); i++) {
+			calculations[i].getParameters().clear();
+			outdated[i] = true;
+		}
+	}
+	
+	/**
+	 * Calculates all outdated formulas in topological order. Using an executor, each formula is calculated as soon as all formulas
+	 * it depends on are calculated, so independent formulas are calculated in parallel.
+	 * @param executor Executor to calculate the formulas or null to calculate them in the calling thread
+	 * @return Results of all formulas in topological order, converted to the return types of the formulas
+	 */
+	public Object[] calc(Executor executor) {
+		Arrays.fill(recalculated, false);
+		
+		if (executor == null) {
+			for (int i = 0; i < graph.size(); i++) {
+				calculate(i);
+			}
+			return results.clone();
+		}
+		
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[graph.size()];
+		for (int i = 0; i < graph.size(); i++) {
+			int formula = i;
+			int[] dependencies = graph.getDependencies(formula);
+			if (dependencies.length == 0) {
+				futures[formula] = CompletableFuture.runAsync(() -> calculate(formula), executor);
+			} else {
+				CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[dependencies.length];
+				for (int d = 0; d < dependencies.length; d++) {
+					dependencyFutures[d] = futures[dependencies[d]];
+				}
+				futures[formula] = CompletableFuture.allOf(dependencyFutures).thenRunAsync(() -> calculate(formula), executor);
+			}
+		}
+		
+		try {
+			CompletableFuture.allOf(futures).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+		return results.clone();
+	}
+	
+	/**
+	 * Calculates the formula if it is outdated. If its result changed, the formulas depending on it are outdated until they are
+	 * calculated successfully, even if this calculation fails later.
+	 */
+	private void calculate(int formula) {
+		if (!outdated[formula]) {
+			return;
+		}
+		
+		IncrementalCalculation calculation = calculations[formula];
+		boolean changed;
+		try {
+			for (int dependency : graph.getDependencies(formula)) {
+				bindResult(calculation.getParameters(), dependency, formula);
+			}
+			changed = calculate(graph.getOptions(formula), calculation, formula);
+		} catch (Throwable e) {
+			String message = String.format("Unexpected error on calculation of formula '%s': %s", graph.getName(formula), graph.getOptions(formula).getExpression());
+			throw new CalculationException(message, e);
+		}
+		
+		if (changed) {
+			for (int dependent : graph.getDependents(formula)) {
+				outdated[dependent] = true;
+			}
+		}
+		calculated[formula] = true;
+		outdated[formula] = false;
+		recalculated[formula] = true;
+	}
+	
+	/**
+	 * Passes the result of a formula as parameter to a depending formula. Results of formulas with double precision are passed as
+	 * doubles to formulas with double precision, so they do not have to be finite.
+	 */
+	private void bindResult(Parameters parameters, int dependency, int formula) {
+		String name = graph.getName(dependency);
+		if (!graph.getOptions(dependency).isDoublePrecision()) {
+			parameters.put(name, new BigDecimal[] { values[dependency] });
+		} else if (graph.getOptions(formula).isDoublePrecision()) {
+			parameters.put(name, new double[] { doubleValues[dependency] });
+		} else if (Double.isFinite(doubleValues[dependency])) {
+			parameters.put(name, new BigDecimal[] { BigDecimal.valueOf(doubleValues[dependency]) });
+		} else {
+			throw new CalculationException(String.format("Result of formula '%s' is %s and cannot be used without double precision.", name, doubleValues[dependency]));
+		}
+	}
+	
+	/**
+	 * @return True if the result of the formula changed.
+	 */
+	private <RETURN_TYPE> boolean calculate(SCalcOptions<RETURN_TYPE> options, IncrementalCalculation calculation, int formula) {
+		CalculationMeasurement measurement = CalculationMeasurement.start(options, graph.getExpression(formula));
+		if (measurement == null) {
+			return calculateFormula(options, calculation, formula);
+		}
+		
+		try {
+			boolean changed = calculateFormula(options, calculation, formula);
+			measurement.finished();
+			return changed;
+		} catch (RuntimeException e) {
+			measurement.failed();
+			throw e;
+		}
+	}
+	
+	private <RETURN_TYPE> boolean calculateFormula(SCalcOptions<RETURN_TYPE> options, IncrementalCalculation calculation, int formula) {
+		if (options.isDoublePrecision()) {
+			double result = calculation.evaluateDouble();
+			results[formula] = SCalcController.toResultType(options, result);
+			boolean changed = !calculated[formula] || Double.compare(result, doubleValues[formula]) != 0;
+			doubleValues[formula] = result;
+			return changed;
+		}
+		
+		BigDecimal result = calculation.evaluate();
+		results[formula] = SCalcController.toResultType(options, result);
+		boolean changed = !calculated[formula] || result.compareTo(values[formula]) != 0;
+		values[formula] = result;
+		return changed;
+	}
+	
+	/**
+	 * @return Indices of the formulas calculated by the last calculation in topological order.
+	 */
+	public List<Integer> getRecalculated() {
+		List<Integer> formulas = new ArrayList<>();
+		for (int i = 0; i < recalculated.length; i++) {
+			if (recalculated[i]) {
+				formulas.add(i);
+			}
+		}
+		return formulas;
+	}
+	
+	public Map<String, BigDecimal[]> getInputs() {
+		return inputs;
+	}
+}
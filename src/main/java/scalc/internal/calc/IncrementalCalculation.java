@@ -0,0 +1,457 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+import scalc.interfaces.SCalcTrace;
+import scalc.internal.converter.StreamedValues;
+import scalc.internal.nodes.AllParamsNode;
+import scalc.internal.nodes.FunctionNode;
+import scalc.internal.nodes.LocalVariableNode;
+import scalc.internal.nodes.Node;
+import scalc.internal.nodes.NumberNode;
+import scalc.internal.nodes.ParameterNode;
+import scalc.internal.nodes.ProgramNode;
+import scalc.internal.nodes.ScriptFunction;
+import scalc.internal.nodes.ScriptFunctionNode;
+import scalc.internal.nodes.SharedNode;
+import scalc.internal.nodes.VariableNode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Calculation which keeps the results of its subexpressions between calculations. Each subexpression outside of script function bodies
+ * becomes a {@link SharedNode}, whose result is stored until one of the parameters it depends on changes. So a calculation after
+ * changing a parameter only recalculates the path from this parameter to the result.<br/>
+ * Subexpressions using functions which are not pure are calculated on each calculation. Using ALL_PARAMS, a subexpression depends on all parameters.
+ * Script variables depend on the parameters of all their assignments.
+ */
+public class IncrementalCalculation {
+	private final SCalcOptions<?> options;
+	private final CompiledExpression compiledExpression;
+	private final TrackedParameters parameters;
+	
+	private Tree optimizedTree;
+	private Tree originalTree;
+	private int recalculatedCount;
+	
+	public IncrementalCalculation(SCalcOptions<?> options, CompiledExpression compiledExpression) {
+		this.options = options;
+		this.compiledExpression = compiledExpression;
+		this.parameters = new TrackedParameters(options, compiledExpression);
+	}
+	
+	public BigDecimal evaluate() {
+		Tree tree = tree();
+		EvaluationContext context = tree.newContext();
+		SCalcTrace trace = context.getTrace();
+		if (trace == null) {
+			BigDecimal result = tree.root.evaluate(context);
+			recalculatedCount = context.getCalculatedSharedCount();
+			return result;
+		}
+		
+		try {
+			BigDecimal result = tree.root.evaluate(context);
+			recalculatedCount = context.getCalculatedSharedCount();
+			trace.finished(result);
+			return result;
+		} catch (RuntimeException e) {
+			trace.failed(e);
+			throw e;
+		}
+	}
+	
+	public double evaluateDouble() {
+		Tree tree = tree();
+		EvaluationContext context = tree.newContext();
+		SCalcTrace trace = context.getTrace();
+		if (trace == null) {
+			double result = tree.root.evaluateDouble(context);
+			recalculatedCount = context.getCalculatedSharedCount();
+			return result;
+		}
+		
+		try {
+			double result = tree.root.evaluateDouble(context);
+			recalculatedCount = context.getCalculatedSharedCount();
+			trace.finished(result);
+			return result;
+		} catch (RuntimeException e) {
+			trace.failed(e);
+			throw e;
+		}
+	}
+	
+	/**
+	 * The optimized tree cannot be used if a folded constant is given as parameter, like in {@link CompiledExpression}.
+	 */
+	private Tree tree() {
+		if (compiledExpression.isConstantGiven(parameters)) {
+			if (originalTree == null) {
+				originalTree = new Tree(compiledExpression.getOriginalRoot(), 0);
+			}
+			return originalTree;
+		}
+		
+		if (optimizedTree == null) {
+			optimizedTree = new Tree(compiledExpression.getRoot(), compiledExpression.getSharedCount());
+		}
+		return optimizedTree;
+	}
+	
+	public Parameters getParameters() {
+		return parameters;
+	}
+	
+	public CompiledExpression getCompiledExpression() {
+		return compiledExpression;
+	}
+	
+	/**
+	 * @return Number of subexpressions calculated by the last calculation.
+	 */
+	public int getRecalculatedCount() {
+		return recalculatedCount;
+	}
+	
+	/**
+	 * @return Number of subexpressions whose results are kept between calculations.
+	 */
+	public int getSubexpressionCount() {
+		return tree().sharedCount;
+	}
+	
+	/**
+	 * Parameters which remove the stored results depending on a parameter as soon as its values change.
+	 */
+	private class TrackedParameters extends Parameters {
+		private final Map<String, Object> givenValues = new HashMap<>();
+		
+		private TrackedParameters(SCalcOptions<?> options, CompiledExpression compiledExpression) {
+			super(options, compiledExpression);
+		}
+		
+		@Override
+		public void put(String name, BigDecimal[] values) {
+			Object previousValues = givenValues.put(name, values);
+			super.put(name, values);
+			invalidateChanged(name, previousValues, values);
+		}
+		
+		@Override
+		public void put(String name, double[] values) {
+			Object previousValues = givenValues.put(name, values);
+			super.put(name, values);
+			invalidateChanged(name, previousValues, values);
+		}
+		
+		private void invalidateChanged(String name, Object previousValues, Object values) {
+			if (!Objects.deepEquals(previousValues, values)) {
+				Integer slot = compiledExpression.getSlot(name);
+				invalidate(slot != null ? slot : Tree.NO_SLOT);
+			}
+		}
+		
+		/**
+		 * Streamed values cannot be compared, so they always invalidate the results depending on them.
+		 */
+		@Override
+		public void put(String name, StreamedValues values) {
+			givenValues.put(name, null);
+			super.put(name, values);
+			
+			Integer slot = compiledExpression.getSlot(name);
+			invalidate(slot != null ? slot : Tree.NO_SLOT);
+		}
+		
+		@Override
+		public void clear() {
+			for (String name : givenValues.keySet()) {
+				Integer slot = compiledExpression.getSlot(name);
+				invalidate(slot != null ? slot : Tree.NO_SLOT);
+			}
+			givenValues.clear();
+			super.clear();
+		}
+		
+		private void invalidate(int slot) {
+			if (optimizedTree != null) {
+				optimizedTree.invalidate(slot);
+			}
+			if (originalTree != null) {
+				originalTree.invalidate(slot);
+			}
+		}
+	}
+	
+	/**
+	 * Tree of shared nodes with their stored results and the shared nodes depending on each parameter slot.
+	 */
+	private class Tree {
+		private static final int NO_SLOT = -1;
+		
+		private final Node root;
+		private final int sharedCount;
+		private final BigDecimal[] shared;
+		private final double[] doubleShared;
+		private final boolean[] calculatedDoubleShared;
+		private final int[][] slotDependents;
+		private final int[] allParamsDependents;
+		private final int[] alwaysCalculated;
+		
+		private Tree(Node sourceRoot, int sourceSharedCount) {
+			TreeBuilder builder = new TreeBuilder(sourceSharedCount);
+			this.root = builder.rewrite(sourceRoot);
+			this.sharedCount = builder.nextIndex;
+			
+			this.shared = options.isDoublePrecision() ? null : new BigDecimal[sharedCount];
+			this.doubleShared = options.isDoublePrecision() ? new double[sharedCount] : null;
+			this.calculatedDoubleShared = options.isDoublePrecision() ? new boolean[sharedCount] : null;
+			
+			int slotCount = compiledExpression.getSlots().size();
+			Dependencies dependencies = new Dependencies(slotCount, compiledExpression.getVariableCount(), sharedCount);
+			dependencies.resolve(root);
+			
+			this.slotDependents = new int[slotCount][];
+			for (int slot = 0; slot < slotCount; slot++) {
+				this.slotDependents[slot] = dependencies.dependents(slot);
+			}
+			this.allParamsDependents = dependencies.dependents(dependencies.allParamsBit);
+			this.alwaysCalculated = dependencies.dependents(dependencies.alwaysBit);
+		}
+		
+		private EvaluationContext newContext() {
+			for (int index : alwaysCalculated) {
+				invalidateShared(index);
+			}
+			return new EvaluationContext(options, parameters, compiledExpression.getVariableCount(), shared, doubleShared, calculatedDoubleShared,
+					EvaluationContext.startTrace(options));
+		}
+		
+		/**
+		 * Removes the stored results depending on the slot. A parameter without slot is only used by ALL_PARAMS.
+		 */
+		private void invalidate(int slot) {
+			if (slot != NO_SLOT) {
+				for (int index : slotDependents[slot]) {
+					invalidateShared(index);
+				}
+			}
+			for (int index : allParamsDependents) {
+				invalidateShared(index);
+			}
+		}
+		
+		private void invalidateShared(int index) {
+			if (shared != null) {
+				shared[index] = null;
+			} else {
+				calculatedDoubleShared[index] = false;
+			}
+		}
+	}
+	
+	/**
+	 * Wraps each subexpression outside of script function bodies in a shared node. Shared nodes of the source tree keep their index.
+	 * Leaves, definition scripts and calls of functions which are not pure are calculated on each calculation anyway, so they are not wrapped.
+	 */
+	private static class TreeBuilder extends NodeRewriter {
+		private final Map<SharedNode, SharedNode> sharedNodes = new IdentityHashMap<>();
+		private int nextIndex;
+		private boolean inFunctionBody;
+		
+		private TreeBuilder(int sourceSharedCount) {
+			this.nextIndex = sourceSharedCount;
+		}
+		
+		@Override
+		Node rewrite(Node node) {
+			if (node instanceof SharedNode) {
+				SharedNode sharedNode = sharedNodes.get(node);
+				if (sharedNode == null) {
+					sharedNode = new SharedNode(((SharedNode) node).getIndex(), rewriteChildren(((SharedNode) node).getNode()));
+					sharedNodes.put((SharedNode) node, sharedNode);
+				}
+				return sharedNode;
+			}
+			
+			Node rewritten = rewriteChildren(node);
+			if (inFunctionBody || NodeRewriter.children(node).length == 0 || node instanceof ProgramNode
+					|| (node instanceof FunctionNode && !((FunctionNode) node).getFunction().isPure())) {
+				return rewritten;
+			}
+			return new SharedNode(nextIndex++, rewritten);
+		}
+		
+		@Override
+		Node rewriteBody(Node body) {
+			boolean outerFunctionBody = inFunctionBody;
+			inFunctionBody = true;
+			try {
+				return rewrite(body);
+			} finally {
+				inFunctionBody = outerFunctionBody;
+			}
+		}
+	}
+	
+	/**
+	 * Resolves the parameter slots each shared node depends on. Two additional bits mark nodes using ALL_PARAMS and nodes,
+	 * which have to be calculated on each calculation.
+	 */
+	private static class Dependencies {
+		private final int allParamsBit;
+		private final int alwaysBit;
+		private final BitSet[] variables;
+		private final BitSet[] shared;
+		private final Map<ScriptFunction, BitSet> functions = new IdentityHashMap<>();
+		
+		private Dependencies(int slotCount, int variableCount, int sharedCount) {
+			this.allParamsBit = slotCount;
+			this.alwaysBit = slotCount + 1;
+			this.variables = new BitSet[variableCount];
+			this.shared = new BitSet[sharedCount];
+			for (int i = 0; i < variableCount; i++) {
+				variables[i] = new BitSet();
+			}
+		}
+		
+		/**
+		 * Variables may be read before their (next) assignment, so the dependencies of variables are collected until they do not grow anymore.
+		 * Afterwards the dependencies of all shared nodes are resolved with the complete variable dependencies.
+		 */
+		private void resolve(Node root) {
+			if (root instanceof ProgramNode) {
+				boolean changed = true;
+				while (changed) {
+					changed = false;
+					clear();
+					for (ProgramNode.Assignment assignment : ((ProgramNode) root).getAssignments()) {
+						BitSet assignmentDependencies = of(assignment.getExpression(), true);
+						BitSet variable = variables[assignment.getSlot()];
+						if (!contains(variable, assignmentDependencies)) {
+							variable.or(assignmentDependencies);
+							changed = true;
+						}
+					}
+				}
+			}
+			
+			clear();
+			of(root, true);
+			
+			// shared nodes within function bodies are only reached by the dependencies of the functions so far
+			Set<ScriptFunction> called = Collections.newSetFromMap(new IdentityHashMap<>());
+			List<ScriptFunction> pending = new ArrayList<>();
+			collectCalls(root, called, pending);
+			while (!pending.isEmpty()) {
+				ScriptFunction function = pending.remove(pending.size() - 1);
+				of(function.getBody(), true);
+				collectCalls(function.getBody(), called, pending);
+			}
+		}
+		
+		private void clear() {
+			Arrays.fill(shared, null);
+			functions.clear();
+		}
+		
+		/**
+		 * @param includeFunctions If false, calls of script functions are ignored. Used for the bodies of functions, whose calls are
+		 * already collected by {@link #of(ScriptFunction)}.
+		 */
+		private BitSet of(Node node, boolean includeFunctions) {
+			if (node instanceof SharedNode && !includeFunctions) {
+				return of(((SharedNode) node).getNode(), false);
+			} else if (node instanceof SharedNode) {
+				int index = ((SharedNode) node).getIndex();
+				if (shared[index] == null) {
+					shared[index] = of(((SharedNode) node).getNode(), true);
+				}
+				return shared[index];
+			}
+			
+			BitSet result = new BitSet();
+			if (node instanceof ParameterNode) {
+				result.set(((ParameterNode) node).getSlot());
+			} else if (node instanceof AllParamsNode) {
+				result.set(allParamsBit);
+			} else if (node instanceof VariableNode) {
+				result.or(variables[((VariableNode) node).getSlot()]);
+				if (((VariableNode) node).getFallback() != null) {
+					result.or(of(((VariableNode) node).getFallback(), includeFunctions));
+				}
+			} else if (node instanceof LocalVariableNode) {
+				result.or(of(((LocalVariableNode) node).getFallback(), includeFunctions));
+			} else if (node instanceof FunctionNode && !((FunctionNode) node).getFunction().isPure()) {
+				result.set(alwaysBit);
+			} else if (node instanceof ScriptFunctionNode && includeFunctions) {
+				result.or(of(((ScriptFunctionNode) node).getFunction()));
+			}
+			
+			for (Node child : NodeRewriter.children(node)) {
+				result.or(of(child, includeFunctions));
+			}
+			return result;
+		}
+		
+		/**
+		 * @return Dependencies of the bodies of the function and all functions called by it, directly or indirectly.
+		 */
+		private BitSet of(ScriptFunction function) {
+			BitSet result = functions.get(function);
+			if (result != null) {
+				return result;
+			}
+			
+			result = new BitSet();
+			Set<ScriptFunction> called = Collections.newSetFromMap(new IdentityHashMap<>());
+			List<ScriptFunction> pending = new ArrayList<>();
+			pending.add(function);
+			called.add(function);
+			while (!pending.isEmpty()) {
+				ScriptFunction current = pending.remove(pending.size() - 1);
+				result.or(of(current.getBody(), false));
+				collectCalls(current.getBody(), called, pending);
+			}
+			
+			functions.put(function, result);
+			return result;
+		}
+		
+		private static void collectCalls(Node node, Set<ScriptFunction> called, List<ScriptFunction> pending) {
+			if (node instanceof ScriptFunctionNode && called.add(((ScriptFunctionNode) node).getFunction())) {
+				pending.add(((ScriptFunctionNode) node).getFunction());
+			}
+			for (Node child : NodeRewriter.children(node)) {
+				collectCalls(child, called, pending);
+			}
+		}
+		
+		private int[] dependents(int bit) {
+			int count = 0;
+			int[] dependents = new int[shared.length];
+			for (int index = 0; index < shared.length; index++) {
+				if (shared[index] != null && shared[index].get(bit)) {
+					dependents[count++] = index;
+				}
+			}
+			return Arrays.copyOf(dependents, count);
+		}
+		
+		private static boolean contains(BitSet set, BitSet subset) {
+			BitSet missing = (BitSet) subset.clone();
+			missing.andNot(set);
+			return missing.isEmpty();
+		}
+	}
+}
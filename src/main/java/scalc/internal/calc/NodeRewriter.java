@@ -0,0 +1,140 @@
+package scalc.internal.calc;
+
+import scalc.internal.nodes.ConditionalNode;
+import scalc.internal.nodes.FunctionNode;
+import scalc.internal.nodes.LogicalNode;
+import scalc.internal.nodes.NegateNode;
+import scalc.internal.nodes.Node;
+import scalc.internal.nodes.OperatorNode;
+import scalc.internal.nodes.ProgramNode;
+import scalc.internal.nodes.ProgramNode.Assignment;
+import scalc.internal.nodes.ScriptFunction;
+import scalc.internal.nodes.ScriptFunctionNode;
+import scalc.internal.nodes.SharedNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies a tree of nodes, while subclasses decide how each node is replaced. Script functions are copied once like in the
+ * ExpressionOptimizer, so recursive calls use the copy as well.
+ */
+abstract class NodeRewriter {
+	private static final Node[] NO_CHILDREN = new Node[0];
+	
+	private final Map<ScriptFunction, ScriptFunction> functions = new IdentityHashMap<>();
+	
+	/**
+	 * @return Replacement of the given node within the copied tree.
+	 */
+	abstract Node rewrite(Node node);
+	
+	/**
+	 * @return Replacement of the body of a copied script function.
+	 */
+	Node rewriteBody(Node body) {
+		return rewrite(body);
+	}
+	
+	/**
+	 * @return Copy of the node with rewritten children. Leaves and shared nodes are returned as they are,
+	 * because all occurrences of a shared node have to stay the same instance.
+	 */
+	Node rewriteChildren(Node node) {
+		if (node instanceof NegateNode) {
+			return new NegateNode(rewrite(((NegateNode) node).getNode()));
+		} else if (node instanceof OperatorNode) {
+			OperatorNode operatorNode = (OperatorNode) node;
+			return new OperatorNode(operatorNode.getOperator(), rewrite(operatorNode.getLeft()), rewrite(operatorNode.getRight()));
+		} else if (node instanceof LogicalNode) {
+			LogicalNode logicalNode = (LogicalNode) node;
+			return new LogicalNode(logicalNode.isAnd(), rewrite(logicalNode.getLeft()), rewrite(logicalNode.getRight()));
+		} else if (node instanceof ConditionalNode) {
+			ConditionalNode conditionalNode = (ConditionalNode) node;
+			return new ConditionalNode(conditionalNode.getName(), rewriteAll(conditionalNode.getConditions()),
+					rewriteAll(conditionalNode.getValues()), rewrite(conditionalNode.getOtherwise()));
+		} else if (node instanceof FunctionNode) {
+			FunctionNode functionNode = (FunctionNode) node;
+			return new FunctionNode(functionNode.getName(), functionNode.getFunction(), rewriteAll(functionNode.getArguments()));
+		} else if (node instanceof ScriptFunctionNode) {
+			ScriptFunctionNode functionNode = (ScriptFunctionNode) node;
+			return new ScriptFunctionNode(rewriteFunction(functionNode.getFunction()), rewriteAll(functionNode.getArguments()));
+		} else if (node instanceof ProgramNode) {
+			return rewriteProgram((ProgramNode) node);
+		}
+		return node;
+	}
+	
+	private Node rewriteProgram(ProgramNode node) {
+		List<ScriptFunction> programFunctions = new ArrayList<>();
+		for (ScriptFunction function : node.getFunctions()) {
+			programFunctions.add(rewriteFunction(function));
+		}
+		
+		Assignment[] assignments = new Assignment[node.getAssignments().length];
+		for (int i = 0; i < assignments.length; i++) {
+			Assignment assignment = node.getAssignments()[i];
+			assignments[i] = new Assignment(assignment.getName(), assignment.getSlot(), rewrite(assignment.getExpression()));
+		}
+		
+		return new ProgramNode(assignments, programFunctions, rewrite(node.getReturnStatement()));
+	}
+	
+	ScriptFunction rewriteFunction(ScriptFunction function) {
+		ScriptFunction copy = functions.get(function);
+		if (copy != null) {
+			return copy;
+		}
+		
+		copy = new ScriptFunction(function.getName(), function.getParameterNames());
+		copy.setCache(function.getCache());
+		functions.put(function, copy);
+		copy.setBody(rewriteBody(function.getBody()));
+		return copy;
+	}
+	
+	private Node[] rewriteAll(Node[] nodes) {
+		Node[] rewritten = new Node[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			rewritten[i] = rewrite(nodes[i]);
+		}
+		return rewritten;
+	}
+	
+	/**
+	 * @return Direct children of the node. Script function bodies are not part of the children of their calls.
+	 */
+	static Node[] children(Node node) {
+		if (node instanceof SharedNode) {
+			return new Node[] { ((SharedNode) node).getNode() };
+		} else if (node instanceof NegateNode) {
+			return new Node[] { ((NegateNode) node).getNode() };
+		} else if (node instanceof OperatorNode) {
+			return new Node[] { ((OperatorNode) node).getLeft(), ((OperatorNode) node).getRight() };
+		} else if (node instanceof LogicalNode) {
+			return new Node[] { ((LogicalNode) node).getLeft(), ((LogicalNode) node).getRight() };
+		} else if (node instanceof ConditionalNode) {
+			ConditionalNode conditionalNode = (ConditionalNode) node;
+			Node[] children = Arrays.copyOf(conditionalNode.getConditions(), conditionalNode.getConditions().length * 2 + 1);
+			System.arraycopy(conditionalNode.getValues(), 0, children, conditionalNode.getConditions().length, conditionalNode.getValues().length);
+			children[children.length - 1] = conditionalNode.getOtherwise();
+			return children;
+		} else if (node instanceof FunctionNode) {
+			return ((FunctionNode) node).getArguments();
+		} else if (node instanceof ScriptFunctionNode) {
+			return ((ScriptFunctionNode) node).getArguments();
+		} else if (node instanceof ProgramNode) {
+			ProgramNode programNode = (ProgramNode) node;
+			Node[] children = new Node[programNode.getAssignments().length + 1];
+			for (int i = 0; i < programNode.getAssignments().length; i++) {
+				children[i] = programNode.getAssignments()[i].getExpression();
+			}
+			children[children.length - 1] = programNode.getReturnStatement();
+			return children;
+		}
+		return NO_CHILDREN;
+	}
+}
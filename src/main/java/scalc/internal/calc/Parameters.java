@@ -0,0 +1,218 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+import scalc.internal.converter.StreamedValues;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parameter values of a calculator. Each named parameter is resolved to the slot of the compiled expression once, when it is added.
+ * Values bound to a slot are already scaled to the calculation scale. Using double precision, the values are kept as primitive doubles instead.
+ * Streamed values are kept as given and converted while they are consumed.
+ */
+public class Parameters {
+	private final SCalcOptions<?> options;
+	private final CompiledExpression compiledExpression;
+	private final BigDecimal[][] slotValues;
+	private final double[][] doubleSlotValues;
+	private final StreamedValues[] slotStreams;
+	private final Map<String, BigDecimal[]> values = new LinkedHashMap<>();
+	private final Map<String, double[]> doubleValues = new LinkedHashMap<>();
+	private final Map<String, StreamedValues> streams = new LinkedHashMap<>();
+	private final Map<String, Object> orderedValues = new LinkedHashMap<>();
+	
+	public Parameters(SCalcOptions<?> options, CompiledExpression compiledExpression) {
+		this.options = options;
+		this.compiledExpression = compiledExpression;
+		this.slotValues = new BigDecimal[compiledExpression.getSlots().size()][];
+		this.doubleSlotValues = options.isDoublePrecision() ? new double[compiledExpression.getSlots().size()][] : null;
+		this.slotStreams = new StreamedValues[compiledExpression.getSlots().size()];
+	}
+	
+	public void put(String name, BigDecimal[] values) {
+		removeStream(name);
+		this.values.put(name, values);
+		
+		if (options.isDoublePrecision()) {
+			putDoubles(name, values);
+			return;
+		}
+		
+		orderedValues.put(name, values);
+		Integer slot = compiledExpression.getSlot(name);
+		if (slot != null) {
+			slotValues[slot] = scale(values);
+		}
+	}
+	
+	private void putDoubles(String name, BigDecimal[] values) {
+		double[] doubles = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			doubles[i] = values[i].doubleValue();
+		}
+		this.doubleValues.put(name, doubles);
+		this.orderedValues.put(name, doubles);
+		
+		Integer slot = compiledExpression.getSlot(name);
+		if (slot != null) {
+			doubleSlotValues[slot] = doubles;
+		}
+	}
+	
+	/**
+	 * Binds values given as primitive doubles. Only used with double precision, so the values are stored as given without converting them.
+	 */
+	public void put(String name, double[] values) {
+		removeStream(name);
+		this.values.remove(name);
+		this.doubleValues.put(name, values);
+		this.orderedValues.put(name, values);
+		
+		Integer slot = compiledExpression.getSlot(name);
+		if (slot != null) {
+			doubleSlotValues[slot] = values;
+		}
+	}
+	
+	/**
+	 * Binds values, which are consumed one by one by the calculation instead of being collected into an array.
+	 */
+	public void put(String name, StreamedValues values) {
+		this.values.remove(name);
+		this.doubleValues.remove(name);
+		this.streams.put(name, values);
+		this.orderedValues.put(name, values);
+		
+		Integer slot = compiledExpression.getSlot(name);
+		if (slot != null) {
+			slotValues[slot] = null;
+			if (doubleSlotValues != null) {
+				doubleSlotValues[slot] = null;
+			}
+			slotStreams[slot] = values;
+		}
+	}
+	
+	private void removeStream(String name) {
+		if (streams.remove(name) != null) {
+			Integer slot = compiledExpression.getSlot(name);
+			if (slot != null) {
+				slotStreams[slot] = null;
+			}
+		}
+	}
+	
+	public void clear() {
+		values.clear();
+		Arrays.fill(slotValues, null);
+		streams.clear();
+		Arrays.fill(slotStreams, null);
+		orderedValues.clear();
+		
+		if (doubleSlotValues != null) {
+			doubleValues.clear();
+			Arrays.fill(doubleSlotValues, null);
+		}
+	}
+	
+	public boolean isBoundTo(CompiledExpression compiledExpression) {
+		return this.compiledExpression == compiledExpression;
+	}
+	
+	/**
+	 * @return Names of all parameters used by the expression by name.
+	 */
+	public Set<String> getNames() {
+		return compiledExpression.getSlots().keySet();
+	}
+	
+	/**
+	 * @return True if a parameter was given for the slot.
+	 */
+	boolean isBound(int slot) {
+		return slotStreams[slot] != null || (doubleSlotValues == null ? slotValues[slot] != null : doubleSlotValues[slot] != null);
+	}
+	
+	BigDecimal[] getSlotValues(int slot) {
+		return slotValues[slot];
+	}
+	
+	Collection<BigDecimal[]> getAllValues() {
+		return values.values();
+	}
+	
+	double[] getDoubleSlotValues(int slot) {
+		return doubleSlotValues[slot];
+	}
+	
+	Collection<double[]> getAllDoubleValues() {
+		return doubleValues.values();
+	}
+	
+	/**
+	 * @return Values of all parameters in the order they were added, regardless whether they were given as stream or not.
+	 * Each element is either an array of unscaled BigDecimals, an array of doubles (using double precision) or {@link StreamedValues}.
+	 */
+	Collection<Object> getAllInOrder() {
+		return orderedValues.values();
+	}
+	
+	StreamedValues getSlotStream(int slot) {
+		return slotStreams[slot];
+	}
+	
+	Collection<StreamedValues> getAllStreams() {
+		return streams.values();
+	}
+	
+	/**
+	 * @return Values of all parameters in the order they were added. Values given as primitive doubles are boxed by this call.
+	 */
+	public Map<String, Number[]> asMap() {
+		if (doubleSlotValues == null) {
+			return Collections.unmodifiableMap(values);
+		}
+		
+		Map<String, Number[]> map = new LinkedHashMap<>();
+		for (Map.Entry<String, double[]> entry : doubleValues.entrySet()) {
+			Number[] numbers = values.get(entry.getKey());
+			if (numbers == null) {
+				numbers = Arrays.stream(entry.getValue()).boxed().toArray(Number[]::new);
+			}
+			map.put(entry.getKey(), numbers);
+		}
+		return Collections.unmodifiableMap(map);
+	}
+	
+	private BigDecimal[] scale(BigDecimal[] values) {
+		BigDecimal[] scaledValues = new BigDecimal[values.length];
+		for (int i = 0; i < values.length; i++) {
+			scaledValues[i] = values[i].setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+		}
+		return scaledValues;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		for (Map.Entry<String, Number[]> entry : asMap().entrySet()) {
+			if (builder.length() > 1) {
+				builder.append(", ");
+			}
+			builder.append(entry.getKey()).append('=').append(Arrays.toString(entry.getValue()));
+		}
+		for (Map.Entry<String, StreamedValues> entry : streams.entrySet()) {
+			if (builder.length() > 1) {
+				builder.append(", ");
+			}
+			builder.append(entry.getKey()).append('=').append(entry.getValue());
+		}
+		return builder.append('}').toString();
+	}
+}
@@ -1,18 +1,21 @@
 package scalc.internal.calc;
 
-import scalc.SCalc;
 import scalc.SCalcOptions;
+import scalc.exceptions.CalculationException;
 import scalc.interfaces.SCalcExpressions;
-import scalc.internal.converter.ToNumberConverter;
+import scalc.internal.SCalcLogger;
+import scalc.internal.bytecode.BytecodeCompiler;
+import scalc.internal.bytecode.GeneratedExpression;
+import scalc.internal.jfr.FlightRecorderEvents;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
-import static scalc.internal.calc.DefinitionExpressionController.parseDefinitionExpression;
-import static scalc.internal.calc.SingleOperatorExpressionController.parseSingleOperatorExpression;
-import static scalc.internal.calc.StandardExpressionController.parseStandardExpression;
+import static scalc.internal.calc.DefinitionExpressionController.compileDefinitionExpression;
+import static scalc.internal.calc.DefinitionExpressionController.isDefinitionExpression;
+import static scalc.internal.calc.SingleOperatorExpressionController.compileSingleOperatorExpression;
+import static scalc.internal.calc.StandardExpressionController.compileStandardExpression;
 
 public class SCalcController {
     private static final List<String> SINGLE_OPERATOR_EXPRESSIONS = Arrays.asList(
@@ -23,26 +26,147 @@ public class SCalcController {
             SCalcExpressions.POW_EXPRESSION
     );
     
-    public static <RETURN_TYPE> RETURN_TYPE calc(SCalc<RETURN_TYPE> sCalc) {
-        SCalcOptions<RETURN_TYPE> options = sCalc.getOptions();
-
-        BigDecimal resolvedValue = calculateResult(sCalc);
-        resolvedValue = resolvedValue.setScale(options.getResultScale(), options.getResultRoundingMode());
-
-        return ToNumberConverter.toResultType(resolvedValue, options.getReturnType(), options.getConverters());
+    /**
+     * Parses the expression of the given options once, so it can be calculated multiple times.
+     * Expressions already compiled with the same options are taken from the {@link ExpressionCache}.
+     */
+    public static CompiledExpression compile(SCalcOptions<?> options) {
+        if (options.getExpression() == null) {
+            throw new CalculationException("No expression was given.");
+        }
+        
+        CompiledExpression compiledExpression = ExpressionCache.getInstance().get(options, SCalcController::compileExpression);
+        
+        SCalcLogger.debug(options,
+                "Optimized expression. Expression: '%s'. Optimized expression: '%s'",
+                options.getExpression(), compiledExpression);
+        
+        return compiledExpression;
     }
-
-    private static <RETURN_TYPE> BigDecimal calculateResult(SCalc<RETURN_TYPE> sCalc) {
-        SCalcOptions<RETURN_TYPE> options = sCalc.getOptions();
-        Map<String, Number[]> params = sCalc.getParams();
+    
+    private static CompiledExpression compileExpression(SCalcOptions<?> options) {
         String expression = options.getExpression();
-
+        Object event = FlightRecorderEvents.beginCompile();
+        
+        CompiledExpression compiledExpression;
         if (SINGLE_OPERATOR_EXPRESSIONS.contains(expression)) {
-            return parseSingleOperatorExpression(expression, options, params);
-        } else if (expression.contains(DefinitionExpressionController.EXPRESSION_SEPARATOR)) {
-            return parseDefinitionExpression(sCalc);
+            compiledExpression = compileSingleOperatorExpression(expression, options);
+        } else if (isDefinitionExpression(expression)) {
+            compiledExpression = compileDefinitionExpression(options, expression);
         } else {
-            return parseStandardExpression(options, params, expression);
+            compiledExpression = compileStandardExpression(options, expression);
+        }
+        
+        compiledExpression = ExpressionOptimizer.optimize(options, compiledExpression);
+        compiledExpression = CommonSubexpressionEliminator.eliminate(options, compiledExpression);
+        FunctionMemoizer.memoize(options, compiledExpression);
+        
+        GeneratedExpression generatedExpression = null;
+        if (options.isDoublePrecision() && options.isBytecodeGeneration() && !options.isDebug()) {
+            generatedExpression = BytecodeCompiler.compileDouble(options, expression, compiledExpression.getRoot());
+            if (generatedExpression != null) {
+                compiledExpression = compiledExpression.withGeneratedExpression(generatedExpression);
+            }
+        }
+        
+        FlightRecorderEvents.commitCompile(event, options, compiledExpression.getId(), generatedExpression != null);
+        return compiledExpression;
+    }
+    
+    public static <RETURN_TYPE> RETURN_TYPE calc(
+            SCalcOptions<RETURN_TYPE> options,
+            CompiledExpression compiledExpression,
+            Parameters params) {
+        
+        CalculationMeasurement measurement = CalculationMeasurement.start(options, compiledExpression);
+        if (measurement == null) {
+            return calculate(options, compiledExpression, params);
+        }
+        
+        try {
+            RETURN_TYPE result = calculate(options, compiledExpression, params);
+            measurement.finished();
+            return result;
+        } catch (RuntimeException e) {
+            measurement.failed();
+            throw e;
+        }
+    }
+    
+    private static <RETURN_TYPE> RETURN_TYPE calculate(
+            SCalcOptions<RETURN_TYPE> options,
+            CompiledExpression compiledExpression,
+            Parameters params) {
+
+        if (options.isDoublePrecision()) {
+            return calcDouble(options, compiledExpression, params);
         }
+        
+        BigDecimal resolvedValue = compiledExpression.evaluate(options, params);
+        return toResultType(options, resolvedValue);
+    }
+    
+    /**
+     * Calculates the given incremental calculation, which only recalculates subexpressions depending on changed parameters.
+     */
+    public static <RETURN_TYPE> RETURN_TYPE calc(
+            SCalcOptions<RETURN_TYPE> options,
+            IncrementalCalculation calculation) {
+        
+        CalculationMeasurement measurement = CalculationMeasurement.start(options, calculation.getCompiledExpression());
+        if (measurement == null) {
+            return calculate(options, calculation);
+        }
+        
+        try {
+            RETURN_TYPE result = calculate(options, calculation);
+            measurement.finished();
+            return result;
+        } catch (RuntimeException e) {
+            measurement.failed();
+            throw e;
+        }
+    }
+    
+    private static <RETURN_TYPE> RETURN_TYPE calculate(
+            SCalcOptions<RETURN_TYPE> options,
+            IncrementalCalculation calculation) {
+        
+        if (options.isDoublePrecision()) {
+            return toResultType(options, calculation.evaluateDouble());
+        }
+        return toResultType(options, calculation.evaluate());
+    }
+
+    private static <RETURN_TYPE> RETURN_TYPE calcDouble(
+            SCalcOptions<RETURN_TYPE> options,
+            CompiledExpression compiledExpression,
+            Parameters params) {
+        
+        double result = compiledExpression.evaluateDouble(options, params);
+        return toResultType(options, result);
+    }
+    
+    /**
+     * Converts the result of a double precision calculation to the return type. Double and Float results are not rounded.
+     */
+    public static <RETURN_TYPE> RETURN_TYPE toResultType(SCalcOptions<RETURN_TYPE> options, double result) {
+        Class<RETURN_TYPE> returnType = options.getReturnType();
+        if (returnType == Double.class) {
+            return returnType.cast(result);
+        } else if (returnType == Float.class) {
+            return returnType.cast((float)result);
+        }
+        
+        BigDecimal resolvedValue = BigDecimal.valueOf(result).setScale(options.getResultScale(), options.getResultRoundingMode());
+        return options.getResultConversion().apply(resolvedValue);
+    }
+    
+    /**
+     * Rounds the result to the result scale and converts it to the return type.
+     */
+    public static <RETURN_TYPE> RETURN_TYPE toResultType(SCalcOptions<RETURN_TYPE> options, BigDecimal result) {
+        BigDecimal resolvedValue = result.setScale(options.getResultScale(), options.getResultRoundingMode());
+        return options.getResultConversion().apply(resolvedValue);
     }
 }
@@ -0,0 +1,217 @@
+package scalc.internal.calc;
+
+import scalc.exceptions.CalculationException;
+import scalc.internal.functions.Functions;
+import scalc.internal.nodes.ConditionalNode;
+import scalc.internal.nodes.LogicalNode;
+import scalc.internal.nodes.NegateNode;
+import scalc.internal.nodes.Node;
+import scalc.internal.nodes.NumberNode;
+import scalc.internal.nodes.Operator;
+import scalc.internal.nodes.OperatorNode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses a single expression into a tree of nodes. Names and functions are resolved by the given symbol table.
+ */
+public class SCalcParser {
+	private final String expression;
+	private final SymbolTable symbols;
+	
+	private int pos = -1;
+	private char currentChar;
+	
+	SCalcParser(String expression, SymbolTable symbols) {
+		this.expression = expression.trim();
+		this.symbols = symbols;
+	}
+	
+	Node parse() {
+		if (expression.isEmpty()) {
+			return new NumberNode(symbols.scale(BigDecimal.ZERO));
+		}
+		
+		try {
+			nextChar();
+			Node x = parseExpression();
+			if (pos < expression.length()) throw new CalculationException("Unexpected character: " + currentChar);
+			return x;
+		} catch (Throwable e) {
+			String message = String.format("Unexpected error on parsing expression: %s", expression);
+			throw new CalculationException(message, e);
+		}
+	}
+	
+	private Node parseExpression() {
+		Node x = parseAnd();
+		for (; ; ) {
+			if (eat(LogicalNode.OR)) x = new LogicalNode(false, x, parseAnd());
+			else return x;
+		}
+	}
+	
+	private Node parseAnd() {
+		Node x = parseComparison();
+		for (; ; ) {
+			if (eat(LogicalNode.AND)) x = new LogicalNode(true, x, parseComparison());
+			else return x;
+		}
+	}
+	
+	private Node parseComparison() {
+		Node x = parseSum();
+		for (; ; ) {
+			if (eat("<=")) x = new OperatorNode(Operator.LESS_OR_EQUAL, x, parseSum());
+			else if (eat(">=")) x = new OperatorNode(Operator.GREATER_OR_EQUAL, x, parseSum());
+			else if (eat("==")) x = new OperatorNode(Operator.EQUAL, x, parseSum());
+			else if (eat("!=")) x = new OperatorNode(Operator.NOT_EQUAL, x, parseSum());
+			else if (eat('<')) x = new OperatorNode(Operator.LESS, x, parseSum());
+			else if (eat('>')) x = new OperatorNode(Operator.GREATER, x, parseSum());
+			else return x;
+		}
+	}
+	
+	private Node parseSum() {
+		Node x = parseTerm();
+		for (; ; ) {
+			if (eat('+')) x = new OperatorNode(Operator.ADD, x, parseTerm());
+			else if (eat('-')) x = new OperatorNode(Operator.SUBTRACT, x, parseTerm());
+			else return x;
+		}
+	}
+	
+	private Node parseTerm() {
+		Node x = parseFactor();
+		for (; ; ) {
+			if (eat('*')) x = new OperatorNode(Operator.MULTIPLY, x, parseFactor());
+			else if (eat('/')) x = new OperatorNode(Operator.DIVIDE, x, parseFactor());
+			else return x;
+		}
+	}
+	
+	private Node parseFactor() {
+		if (eat('+')) return parseFactor();
+		if (eat('-')) return new NegateNode(parseFactor());
+		
+		Node x;
+		int startPos = this.pos;
+		
+		if (eat('(')) {
+			x = parseExpression();
+			eat(')');
+		} else if (calculateIsValidNumberChar()) {
+			while (calculateIsValidNumberChar()) nextChar();
+			x = new NumberNode(symbols.scale(new BigDecimal(expression.substring(startPos, this.pos))));
+		} else if (calculateIsValidIdentifierStart()) {
+			while (calculateIsValidIdentifierChar() || calculateIsPropertySeparator()) nextChar();
+			String name = expression.substring(startPos, this.pos);
+			
+			if (eat('(')) {
+				x = parseFunction(name);
+			} else {
+				x = symbols.resolveName(name);
+			}
+		} else {
+			throw new CalculationException("Unexpected character: " + currentChar);
+		}
+		
+		return parsePow(x);
+	}
+	
+	private Node parsePow(Node x) {
+		if (eat('^')) return new OperatorNode(Operator.POW, x, parseFactor());
+		if (eat('²')) return new OperatorNode(Operator.POW, x, parsePow(new NumberNode(symbols.scale(new BigDecimal(2)))));
+		if (eat('³')) return new OperatorNode(Operator.POW, x, parsePow(new NumberNode(symbols.scale(new BigDecimal(3)))));
+		return x;
+	}
+	
+	private Node parseFunction(String name) {
+		List<Node> arguments = new ArrayList<>();
+		if (!eat(')')) {
+			do {
+				arguments.add(parseExpression());
+			} while (eat(','));
+			eat(')');
+		}
+		
+		if (name.equalsIgnoreCase(ConditionalNode.IF) || name.equalsIgnoreCase(ConditionalNode.CASE)) {
+			return parseConditional(name, arguments);
+		}
+		return symbols.resolveFunction(name, arguments.toArray(new Node[0]));
+	}
+	
+	private Node parseConditional(String name, List<Node> arguments) {
+		if (name.equalsIgnoreCase(ConditionalNode.IF) && arguments.size() != 3) {
+			throw new CalculationException(String.format("Function '%s' has to have 3 arguments. Format: if(condition, value, otherwise)", name));
+		}
+		if (arguments.size() < 3 || arguments.size() % 2 == 0) {
+			throw new CalculationException(String.format("Function '%s' has to have an odd number of at least 3 arguments. " +
+					"Format: case(condition, value, [condition, value, ...], otherwise)", name));
+		}
+		
+		int cases = arguments.size() / 2;
+		Node[] conditions = new Node[cases];
+		Node[] values = new Node[cases];
+		for (int i = 0; i < cases; i++) {
+			conditions[i] = arguments.get(2 * i);
+			values[i] = arguments.get(2 * i + 1);
+		}
+		
+		return new ConditionalNode(name, conditions, values, arguments.get(arguments.size() - 1));
+	}
+	
+	private void nextChar() {
+		currentChar = (++pos < expression.length()) ? expression.charAt(pos) : 0;
+	}
+	
+	private boolean eat(char charToEat) {
+		while (isValidWhitespace()) nextChar();
+		if (currentChar == charToEat) {
+			nextChar();
+			return true;
+		}
+		
+		return false;
+	}
+	
+	private boolean eat(String token) {
+		while (isValidWhitespace()) nextChar();
+		if (expression.startsWith(token, pos)) {
+			for (int i = 0; i < token.length(); i++) nextChar();
+			return true;
+		}
+		
+		return false;
+	}
+	
+	private boolean calculateIsValidNumberChar() {
+		return (currentChar >= '0' && currentChar <= '9') || currentChar == '.';
+	}
+	
+	private boolean calculateIsValidIdentifierStart() {
+		return Functions.calculateIsValidFunctionChar(currentChar) || Character.isLetter(currentChar);
+	}
+	
+	private boolean calculateIsValidIdentifierChar() {
+		return calculateIsValidIdentifierStart() || (currentChar >= '0' && currentChar <= '9');
+	}
+	
+	/**
+	 * Dots within names separate the properties of a path like order.lines.amount, which is a single parameter name.
+	 */
+	private boolean calculateIsPropertySeparator() {
+		if (currentChar != '.' || pos + 1 >= expression.length()) {
+			return false;
+		}
+		
+		char nextChar = expression.charAt(pos + 1);
+		return Functions.calculateIsValidFunctionChar(nextChar) || Character.isLetter(nextChar);
+	}
+	
+	private boolean isValidWhitespace() {
+		return currentChar == ' ' || currentChar == '\t' || currentChar == '\r' || currentChar == '\n';
+	}
+}
@@ -2,26 +2,18 @@ package scalc.internal.calc;
 
 import scalc.SCalcOptions;
 import scalc.internal.SCalcLogger;
-
-import java.math.BigDecimal;
-import java.util.Map;
-
-import static scalc.internal.calc.ExpressionResolver.resolveExpression;
+import scalc.internal.nodes.Node;
 
 public class StandardExpressionController {
-    public static <RETURN_TYPE> BigDecimal parseStandardExpression(
-            SCalcOptions<RETURN_TYPE> options,
-            Map<String, Number[]> params,
-            String expression) {
-        
-        String resolvedExpression = resolveExpression(options, expression, params);
-        SCalcExecutor executor = new SCalcExecutor(resolvedExpression, options);
-        BigDecimal result = executor.parse();
+    public static CompiledExpression compileStandardExpression(SCalcOptions<?> options, String expression) {
+        SymbolTable symbols = new SymbolTable(options);
+        Node root = new SCalcParser(expression, symbols).parse();
+        CompiledExpression compiledExpression = new CompiledExpression(expression, root, symbols.getSlots(), symbols.getVariableCount());
     
         SCalcLogger.debug(options,
-                "Calculated standard expression. Expression: '%s'. Resolved expression: '%s'. Result: %s",
-                expression, resolvedExpression, result);
+                "Compiled standard expression. Expression: '%s'. Compiled expression: '%s'",
+                expression, compiledExpression);
         
-        return result;
+        return compiledExpression;
     }
 }
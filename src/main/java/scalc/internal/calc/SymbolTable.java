@@ -0,0 +1,158 @@
+package scalc.internal.calc;
+
+import scalc.SCalcOptions;
+import scalc.exceptions.CalculationException;
+import scalc.interfaces.FunctionImpl;
+import scalc.interfaces.SCalcExpressions;
+import scalc.interfaces.SCalcFunction;
+import scalc.internal.constants.Constants;
+import scalc.internal.functions.FunctionImplAdapter;
+import scalc.internal.functions.Functions;
+import scalc.internal.functions.MemoizedFunction;
+import scalc.internal.nodes.AllParamsNode;
+import scalc.internal.nodes.FunctionNode;
+import scalc.internal.nodes.LocalVariableNode;
+import scalc.internal.nodes.Node;
+import scalc.internal.nodes.ParameterNode;
+import scalc.internal.nodes.ScriptFunction;
+import scalc.internal.nodes.ScriptFunctionNode;
+import scalc.internal.nodes.VariableNode;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Resolves names and functions while parsing an expression or definition script.<br/>
+ * Names are looked up in this order: parameters of the current script function, script variables, given parameters and
+ * predefined constants. Functions are looked up in this order: predefined functions, script functions and user functions.
+ */
+public class SymbolTable {
+	private final SCalcOptions<?> options;
+	private final Map<String, BigDecimal> constants = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+	private final Map<String, Integer> slots = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+	private final Map<String, Integer> variables = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+	private final Set<String> assignedVariables = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+	private final Map<String, ScriptFunction> scriptFunctions = new HashMap<>();
+	private final Map<String, SCalcFunction> memoizedFunctions = new HashMap<>();
+	
+	private ScriptFunction currentFunction;
+	
+	SymbolTable(SCalcOptions<?> options) {
+		this.options = options;
+	}
+	
+	Node resolveName(String name) {
+		if (SCalcExpressions.ALL_PARAMS.equalsIgnoreCase(name)) {
+			return new AllParamsNode();
+		}
+		
+		Node node = resolveGlobalName(name);
+		if (currentFunction != null) {
+			int index = currentFunction.getParameterIndex(name);
+			if (index >= 0) {
+				return new LocalVariableNode(name, index, node);
+			}
+		}
+		return node;
+	}
+	
+	private Node resolveGlobalName(String name) {
+		Integer variable = variables.get(name);
+		
+		// Variables used by script functions may not yet be assigned when the function is called
+		boolean isAssigned = currentFunction == null && assignedVariables.contains(name);
+		if (variable != null && isAssigned) {
+			return new VariableNode(name, variable, null);
+		}
+		
+		Node parameterNode = new ParameterNode(name, slots.computeIfAbsent(name, key -> slots.size()), resolveConstant(name));
+		if (variable == null) {
+			return parameterNode;
+		}
+		return new VariableNode(name, variable, parameterNode);
+	}
+	
+	Node resolveFunction(String name, Node[] arguments) {
+		SCalcFunction predefinedFunction = Functions.FUNCTIONS.get(name);
+		if (predefinedFunction != null) {
+			return new FunctionNode(name, predefinedFunction, arguments);
+		}
+		
+		ScriptFunction scriptFunction = scriptFunctions.get(name);
+		if (scriptFunction != null) {
+			return new ScriptFunctionNode(scriptFunction, arguments);
+		}
+		
+		FunctionImpl userFunction = options.getUserFunctions().get(name);
+		if (userFunction != null) {
+			return new FunctionNode(name, memoize(name, FunctionImplAdapter.adapt(userFunction)), arguments);
+		}
+		
+		throw new CalculationException("Unknown identifier: " + name);
+	}
+	
+	/**
+	 * @return The function using the function cache of the options if it is pure. All calls of the function use the same instance,
+	 * so they are still recognized as the same function.
+	 */
+	private SCalcFunction memoize(String name, SCalcFunction function) {
+		if (options.getFunctionCache() == null || !function.isPure()) {
+			return function;
+		}
+		return memoizedFunctions.computeIfAbsent(name, key -> new MemoizedFunction(function, options.getFunctionCache()));
+	}
+	
+	int declareVariable(String name) {
+		return variables.computeIfAbsent(name, key -> variables.size());
+	}
+	
+	void markAssigned(String name) {
+		assignedVariables.add(name);
+	}
+	
+	ScriptFunction declareFunction(String name, String[] parameterNames) {
+		ScriptFunction function = new ScriptFunction(name, parameterNames);
+		scriptFunctions.put(name, function);
+		return function;
+	}
+	
+	void enterFunction(ScriptFunction function) {
+		this.currentFunction = function;
+	}
+	
+	void exitFunction() {
+		this.currentFunction = null;
+	}
+	
+	BigDecimal scale(BigDecimal value) {
+		return value.setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+	}
+	
+	Map<String, Integer> getSlots() {
+		return slots;
+	}
+	
+	int getVariableCount() {
+		return variables.size();
+	}
+	
+	/**
+	 * @return Value of the predefined constant scaled to the calculation scale or null if there is no constant with this name.
+	 * Each used constant is scaled only once per expression, so all nodes share the same value.
+	 */
+	private BigDecimal resolveConstant(String name) {
+		BigDecimal constant = constants.get(name);
+		if (constant == null) {
+			BigDecimal value = Constants.PREDEFINED_CONSTANTS.get(name);
+			if (value != null) {
+				constant = scale(value);
+				constants.put(name, constant);
+			}
+		}
+		return constant;
+	}
+}
@@ -1,32 +1,36 @@
 package scalc.internal.constants;
 
-import scalc.SCalcOptions;
-
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.TreeMap;
 
 public class Constants {
 	public static final int HALF_UP_CONST_VALUE = 0;
 	public static final int HALF_EVEN_CONST_VALUE = 1;
 	public static final int HALF_DOWN_CONST_VALUE = 2;
 	
-	public static Map<String, Number> getPredefinedConstants(SCalcOptions<?> options) {
-		Map<String, Number> constants = new HashMap<>();
+	/**
+	 * Case insensitive mapping of all predefined constants to their unscaled values. Created once, so compiling an expression
+	 * only has to scale the constants it actually uses.
+	 */
+	public static final Map<String, BigDecimal> PREDEFINED_CONSTANTS = createPredefinedConstants();
+	
+	private static Map<String, BigDecimal> createPredefinedConstants() {
+		Map<String, BigDecimal> constants = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
 		
-		BigDecimal pi = new BigDecimal(Math.PI).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+		BigDecimal pi = new BigDecimal(Math.PI);
 		constants.put("PI", pi);
 		constants.put("π", pi);
 		
-		BigDecimal e = new BigDecimal(Math.E).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
-		constants.put("E", e);
+		constants.put("E", new BigDecimal(Math.E));
 		
 		// internal constants
-		constants.put(RoundingMode.HALF_UP.name(), HALF_UP_CONST_VALUE);
-		constants.put(RoundingMode.HALF_EVEN.name(), HALF_EVEN_CONST_VALUE);
-		constants.put(RoundingMode.HALF_DOWN.name(), HALF_DOWN_CONST_VALUE);
+		constants.put(RoundingMode.HALF_UP.name(), BigDecimal.valueOf(HALF_UP_CONST_VALUE));
+		constants.put(RoundingMode.HALF_EVEN.name(), BigDecimal.valueOf(HALF_EVEN_CONST_VALUE));
+		constants.put(RoundingMode.HALF_DOWN.name(), BigDecimal.valueOf(HALF_DOWN_CONST_VALUE));
 		
-		return constants;
+		return Collections.unmodifiableMap(constants);
 	}
 }
@@ -0,0 +1,222 @@
+package scalc.internal.converter;
+
+import scalc.exceptions.CalculationException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Reads the values of property paths like order.lines.amount from beans. Each property is resolved once per class to a method handle
+ * of its getter, record accessor or public field and cached. Properties of primitive number types are read without boxing their values.<br/>
+ * Collections and arrays on the path are flattened, so the path returns the values of all their elements. Maps are read by key.
+ */
+public class BeanProperties {
+    private static final PropertyAccessor MISSING = new PropertyAccessor(null, null, null);
+    private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType DOUBLE_GETTER = MethodType.methodType(double.class, Object.class);
+    private static final MethodType LONG_GETTER = MethodType.methodType(long.class, Object.class);
+
+    private static final ClassValue<Map<String, PropertyAccessor>> ACCESSORS = new ClassValue<Map<String, PropertyAccessor>>() {
+        @Override
+        protected Map<String, PropertyAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * @return True if the first property of the given path can be read from the bean.
+     */
+    public static boolean hasProperty(Object bean, String path) {
+        if (bean == null) {
+            return false;
+        }
+
+        int end = path.indexOf('.');
+        String property = end < 0 ? path : path.substring(0, end);
+        if (bean instanceof Map) {
+            return ((Map<?, ?>) bean).containsKey(property);
+        }
+        return accessor(bean.getClass(), property) != MISSING;
+    }
+
+    /**
+     * @return All values at the end of the given property path as BigDecimal.
+     * @throws CalculationException If a property on the path does not exist or cannot be read.
+     */
+    public static BigDecimal[] toBigDecimals(Object bean, String path, NumberConverters converters) {
+        BigDecimalBuffer buffer = new BigDecimalBuffer();
+        read(bean, path.split("\\."), 0, converters, buffer);
+        return buffer.toArray();
+    }
+
+    /**
+     * @return All values at the end of the given property path as primitive doubles. Used for calculations with double precision.
+     * @throws CalculationException If a property on the path does not exist or cannot be read.
+     */
+    public static double[] toDoubles(Object bean, String path, NumberConverters converters) {
+        DoubleBuffer buffer = new DoubleBuffer();
+        read(bean, path.split("\\."), 0, converters, buffer);
+        return buffer.toArray();
+    }
+
+    private static void read(Object object, String[] path, int index, NumberConverters converters, ValueBuffer buffer) {
+        if (object == null) {
+            buffer.add(0.0);
+        } else if (index == path.length) {
+            ToNumberConverter.flatten(object, Function.identity(), converters, buffer, 1);
+        } else if (object instanceof Collection) {
+            Collection<?> collection = (Collection<?>) object;
+            buffer.ensureCapacity(collection.size());
+            for (Object element : collection) {
+                read(element, path, index, converters, buffer);
+            }
+        } else if (object instanceof Object[]) {
+            Object[] array = (Object[]) object;
+            buffer.ensureCapacity(array.length);
+            for (Object element : array) {
+                read(element, path, index, converters, buffer);
+            }
+        } else if (object instanceof Map) {
+            read(((Map<?, ?>) object).get(path[index]), path, index + 1, converters, buffer);
+        } else {
+            PropertyAccessor accessor = accessor(object.getClass(), path[index]);
+            if (accessor == MISSING) {
+                throw new CalculationException(String.format("Cannot find property '%s' of %s.", path[index], object.getClass().getName()));
+            }
+
+            if (index == path.length - 1 && accessor.readPrimitive(object, buffer)) {
+                return;
+            }
+            read(accessor.read(object), path, index + 1, converters, buffer);
+        }
+    }
+
+    private static PropertyAccessor accessor(Class<?> type, String property) {
+        Map<String, PropertyAccessor> accessors = ACCESSORS.get(type);
+        PropertyAccessor accessor = accessors.get(property);
+        if (accessor == null) {
+            accessor = resolve(type, property);
+            accessors.put(property, accessor);
+        }
+        return accessor;
+    }
+
+    /**
+     * Resolves a property by its getter (getX or isX), its record style accessor (x) or its public field. The name is case insensitive like parameter names.
+     */
+    private static PropertyAccessor resolve(Class<?> type, String property) {
+        Method accessor = null;
+        int accessorPriority = Integer.MAX_VALUE;
+        for (Method method : type.getMethods()) {
+            if (method.getParameterCount() != 0 || method.getReturnType() == void.class
+                    || Modifier.isStatic(method.getModifiers()) || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+
+            int priority = getterPriority(method.getName(), property);
+            if (priority < accessorPriority) {
+                accessor = method;
+                accessorPriority = priority;
+            }
+        }
+
+        try {
+            if (accessor != null) {
+                return create(unreflect(accessor), accessor.getReturnType());
+            }
+
+            for (Field field : type.getFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && field.getName().equalsIgnoreCase(property)) {
+                    return create(MethodHandles.publicLookup().unreflectGetter(field), field.getType());
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new CalculationException(String.format("Cannot access property '%s' of %s.", property, type.getName()), e);
+        }
+        return MISSING;
+    }
+
+    private static int getterPriority(String methodName, String property) {
+        int length = property.length();
+        if (methodName.length() == length + 3 && methodName.startsWith("get") && methodName.regionMatches(true, 3, property, 0, length)) {
+            return 0;
+        } else if (methodName.length() == length + 2 && methodName.startsWith("is") && methodName.regionMatches(true, 2, property, 0, length)) {
+            return 1;
+        } else if (methodName.equalsIgnoreCase(property)) {
+            return 2;
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Public methods of classes, which are not public themselves, can only be called after making them accessible.
+     */
+    private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        try {
+            return MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            if (!method.trySetAccessible()) {
+                throw e;
+            }
+            return MethodHandles.lookup().unreflect(method);
+        }
+    }
+
+    private static PropertyAccessor create(MethodHandle handle, Class<?> propertyType) {
+        MethodHandle getter = handle.asType(OBJECT_GETTER);
+        if (propertyType == double.class || propertyType == float.class) {
+            return new PropertyAccessor(getter, handle.asType(DOUBLE_GETTER), null);
+        } else if (propertyType == long.class || propertyType == int.class || propertyType == short.class || propertyType == byte.class) {
+            return new PropertyAccessor(getter, null, handle.asType(LONG_GETTER));
+        }
+        return new PropertyAccessor(getter, null, null);
+    }
+
+    private static final class PropertyAccessor {
+        private final MethodHandle getter;
+        private final MethodHandle doubleGetter;
+        private final MethodHandle longGetter;
+
+        private PropertyAccessor(MethodHandle getter, MethodHandle doubleGetter, MethodHandle longGetter) {
+            this.getter = getter;
+            this.doubleGetter = doubleGetter;
+            this.longGetter = longGetter;
+        }
+
+        Object read(Object bean) {
+            try {
+                return (Object) getter.invokeExact(bean);
+            } catch (Throwable e) {
+                throw new CalculationException(String.format("Cannot read property of %s.", bean.getClass().getName()), e);
+            }
+        }
+
+        /**
+         * Adds the value of a property of a primitive number type to the buffer without boxing it.
+         * @return False if the property is no primitive number
+         */
+        boolean readPrimitive(Object bean, ValueBuffer buffer) {
+            try {
+                if (doubleGetter != null) {
+                    buffer.add((double) doubleGetter.invokeExact(bean));
+                    return true;
+                } else if (longGetter != null) {
+                    buffer.add((long) longGetter.invokeExact(bean));
+                    return true;
+                }
+                return false;
+            } catch (Throwable e) {
+                throw new CalculationException(String.format("Cannot read property of %s.", bean.getClass().getName()), e);
+            }
+        }
+    }
+}
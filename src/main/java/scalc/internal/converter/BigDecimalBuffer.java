@@ -0,0 +1,37 @@
+package scalc.internal.converter;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+class BigDecimalBuffer extends ValueBuffer {
+    private BigDecimal[] values = new BigDecimal[0];
+
+    @Override
+    void add(Number value) {
+        ensureCapacity(1);
+        values[size++] = NumberTypeConverter.toBigDecimal(value);
+    }
+
+    @Override
+    void add(long value) {
+        ensureCapacity(1);
+        values[size++] = BigDecimal.valueOf(value);
+    }
+
+    @Override
+    void add(double value) {
+        ensureCapacity(1);
+        values[size++] = BigDecimal.valueOf(value);
+    }
+
+    @Override
+    void ensureCapacity(int additional) {
+        if (size + additional > values.length) {
+            values = Arrays.copyOf(values, grow(values.length, size + additional));
+        }
+    }
+
+    BigDecimal[] toArray() {
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,34 @@
+package scalc.internal.converter;
+
+import java.util.Arrays;
+
+class DoubleBuffer extends ValueBuffer {
+    private double[] values = new double[0];
+
+    @Override
+    void add(Number value) {
+        add(value.doubleValue());
+    }
+
+    @Override
+    void add(long value) {
+        add((double) value);
+    }
+
+    @Override
+    void add(double value) {
+        ensureCapacity(1);
+        values[size++] = value;
+    }
+
+    @Override
+    void ensureCapacity(int additional) {
+        if (size + additional > values.length) {
+            values = Arrays.copyOf(values, grow(values.length, size + additional));
+        }
+    }
+
+    double[] toArray() {
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,34 @@
+package scalc.internal.converter;
+
+import java.util.Arrays;
+
+class NumberBuffer extends ValueBuffer {
+    private Number[] values = new Number[0];
+
+    @Override
+    void add(Number value) {
+        ensureCapacity(1);
+        values[size++] = value;
+    }
+
+    @Override
+    void add(long value) {
+        add((Number) value);
+    }
+
+    @Override
+    void add(double value) {
+        add((Number) value);
+    }
+
+    @Override
+    void ensureCapacity(int additional) {
+        if (size + additional > values.length) {
+            values = Arrays.copyOf(values, grow(values.length, size + additional));
+        }
+    }
+
+    Number[] toArray() {
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,177 @@
+package scalc.internal.converter;
+
+import scalc.exceptions.CalculationException;
+import scalc.interfaces.INumber;
+import scalc.interfaces.INumberConverter;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Type converters of a calculator, resolved once per class. The conversion of a parameter class is looked up on its first use,
+ * including converters registered for superclasses and interfaces, and cached in a {@link ClassValue}. So converting a value costs
+ * one cached dispatch. The registered converters must not change after creating the instance.<br/>
+ * Instances are shared by all calculators with equal converters, so the conversions are only resolved once and not per compiled formula.
+ */
+public class NumberConverters {
+    public static final NumberConverters NONE = new NumberConverters(Collections.emptyMap());
+    
+    private static final int SHARED_MAXIMUM_SIZE = 64;
+    private static final Map<Map<Class<?>, INumberConverter>, NumberConverters> SHARED = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, INumberConverter> converters;
+    private final ClassValue<Function<Object, Number>> parameterConversions = new ClassValue<Function<Object, Number>>() {
+        @Override
+        protected Function<Object, Number> computeValue(Class<?> type) {
+            return resolveParameterConversion(type);
+        }
+    };
+
+    private NumberConverters(Map<Class<?>, INumberConverter> converters) {
+        this.converters = converters;
+    }
+    
+    /**
+     * @param converters Registered converters, which must not change afterwards
+     * @return Converters shared with all previous calls for an equal map. If too many different maps are used, e.g. by registering
+     * new converter instances for each formula, the shared instances are dropped and resolved again.
+     */
+    public static NumberConverters of(Map<Class<?>, INumberConverter> converters) {
+        if (converters.isEmpty()) {
+            return NONE;
+        }
+        
+        NumberConverters shared = SHARED.get(converters);
+        if (shared != null) {
+            return shared;
+        }
+        if (SHARED.size() >= SHARED_MAXIMUM_SIZE) {
+            SHARED.clear();
+        }
+        return SHARED.computeIfAbsent(converters, NumberConverters::new);
+    }
+
+    /**
+     * @return The given parameter value as number. Null is converted to 0.
+     * @throws CalculationException If there is no converter for the class of the value or the converter fails.
+     */
+    public Number toNumber(Object object) {
+        if (object == null) {
+            return 0.0;
+        }
+        return parameterConversions.get(object.getClass()).apply(object);
+    }
+
+    private Function<Object, Number> resolveParameterConversion(Class<?> type) {
+        if (Number.class.isAssignableFrom(type)) {
+            return value -> (Number) value;
+        }
+        if (CharSequence.class.isAssignableFrom(type)) {
+            return NumberConverters::parse;
+        }
+        if (INumber.class.isAssignableFrom(type)) {
+            return value -> ((INumber) value).toBigDecimal();
+        }
+
+        INumberConverter converter = find(type);
+        if (converter == null) {
+            return value -> {
+                throw new CalculationException(String.format("Cannot find converter for '%s'.", value));
+            };
+        }
+        return value -> {
+            try {
+                return converter.toBigDecimal(value);
+            } catch (Throwable e) {
+                throw new CalculationException(String.format("Cannot parse number from '%s' using %s.", value, converter), e);
+            }
+        };
+    }
+
+    private static Number parse(Object object) {
+        String value = object.toString();
+        try {
+            return new BigDecimal(value);
+        } catch (Throwable e) {
+            throw new CalculationException(String.format("Cannot parse bigdecimal from string '%s'.", value), e);
+        }
+    }
+
+    /**
+     * Resolves the conversion of calculation results to the given type. Called once when the calculator is built.
+     * @return Function converting a result, which is already rounded to the result scale
+     */
+    @SuppressWarnings("unchecked")
+    public <RETURN_TYPE> Function<BigDecimal, RETURN_TYPE> resolveResultConversion(Class<RETURN_TYPE> returnType) {
+        if (BigDecimal.class.equals(returnType)) {
+            return value -> (RETURN_TYPE) value;
+        } else if (Double.class.equals(returnType) || double.class.equals(returnType)) {
+            return value -> (RETURN_TYPE) (Double) value.doubleValue();
+        } else if (Integer.class.equals(returnType) || int.class.equals(returnType)) {
+            return value -> (RETURN_TYPE) (Integer) value.intValue();
+        } else if (Long.class.equals(returnType) || long.class.equals(returnType)) {
+            return value -> (RETURN_TYPE) (Long) value.longValue();
+        } else if (Float.class.equals(returnType) || float.class.equals(returnType)) {
+            return value -> (RETURN_TYPE) (Float) value.floatValue();
+        } else if (Short.class.equals(returnType) || short.class.equals(returnType)) {
+            return value -> (RETURN_TYPE) (Short) value.shortValue();
+        } else if (Number.class.isAssignableFrom(returnType)) {
+            return value -> (RETURN_TYPE) NumberTypeConverter.convert(value, (Class) returnType);
+        }
+
+        INumberConverter converter = find(returnType);
+        if (converter == null) {
+            return value -> {
+                throw new CalculationException(String.format("Cannot find converter for '%s'.", returnType.getName()));
+            };
+        }
+        return value -> (RETURN_TYPE) converter.fromBigDecimal(value);
+    }
+
+    /**
+     * @return Converter registered for the given type or the closest superclass. If there is none, the converter registered for
+     * the first interface found by a breadth first search over the interfaces of the type and its superclasses. Null if there is none.
+     */
+    public INumberConverter find(Class<?> type) {
+        if (converters.isEmpty()) {
+            return null;
+        }
+
+        for (Class<?> superclass = type; superclass != null; superclass = superclass.getSuperclass()) {
+            INumberConverter converter = converters.get(superclass);
+            if (converter != null) {
+                return converter;
+            }
+        }
+
+        Deque<Class<?>> interfaces = new ArrayDeque<>();
+        for (Class<?> superclass = type; superclass != null; superclass = superclass.getSuperclass()) {
+            interfaces.addAll(Arrays.asList(superclass.getInterfaces()));
+        }
+
+        Set<Class<?>> visited = new HashSet<>();
+        while (!interfaces.isEmpty()) {
+            Class<?> anInterface = interfaces.poll();
+            if (visited.add(anInterface)) {
+                INumberConverter converter = converters.get(anInterface);
+                if (converter != null) {
+                    return converter;
+                }
+                interfaces.addAll(Arrays.asList(anInterface.getInterfaces()));
+            }
+        }
+        return null;
+    }
+
+    public Map<Class<?>, INumberConverter> getConverters() {
+        return converters;
+    }
+}
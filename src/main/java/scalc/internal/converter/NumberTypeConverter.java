@@ -3,6 +3,7 @@ package scalc.internal.converter;
 import scalc.exceptions.CalculationException;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -28,7 +29,7 @@ public class NumberTypeConverter {
         } else if (Short.class.equals(returnType) || short.class.equals(returnType)) {
             return (RETURN_TYPE)((Short)valueToConvert.shortValue());
         } else if (BigDecimal.class.equals(returnType)) {
-            return (RETURN_TYPE)new BigDecimal(valueToConvert.toString());
+            return (RETURN_TYPE)toBigDecimal(valueToConvert);
         } else if (AtomicInteger.class.equals(returnType)) {
 	        return (RETURN_TYPE)new AtomicInteger(valueToConvert.intValue());
         } else if (AtomicLong.class.equals(returnType)) {
@@ -40,4 +41,27 @@ public class NumberTypeConverter {
                 valueToConvert,
                 returnType.getName()));
     }
+    
+    /**
+     * Converts the given number without formatting and parsing it as string, if the type is known.
+     */
+    public static BigDecimal toBigDecimal(Number value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        
+        if (value instanceof BigDecimal) {
+            return (BigDecimal)value;
+        } else if (value instanceof Double) {
+            return BigDecimal.valueOf(value.doubleValue());
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof AtomicInteger || value instanceof AtomicLong) {
+            return BigDecimal.valueOf(value.longValue());
+        } else if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger)value);
+        }
+        
+        // Float and unknown types: keep the decimal representation of the value
+        return new BigDecimal(value.toString());
+    }
 }
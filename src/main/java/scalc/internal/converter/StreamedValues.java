@@ -0,0 +1,150 @@
+package scalc.internal.converter;
+
+import scalc.SCalcOptions;
+import scalc.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+import java.util.stream.BaseStream;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Values of a parameter given as Iterable, Iterator, Stream, DoubleStream or Spliterator. The values are converted one by one while they are consumed,
+ * so they are never collected into an array. Aggregate functions like sum(list) consume them in one pass with constant memory.<br/>
+ * Iterables can be consumed multiple times. All other sources can only be consumed once.
+ */
+public class StreamedValues {
+	private final Object source;
+	private final Function<Object, Object> paramExtractor;
+	private final NumberConverters converters;
+	private boolean consumed;
+	
+	@SuppressWarnings("unchecked")
+	public <T> StreamedValues(Object source, Function<T, Object> paramExtractor, NumberConverters converters) {
+		this.source = source;
+		this.paramExtractor = (Function<Object, Object>) paramExtractor;
+		this.converters = converters;
+	}
+	
+	/**
+	 * @return True if the given parameter value is a source of values, which should not be collected into an array.
+	 * Collections are already in memory and are not streamed.
+	 */
+	public static boolean isStreamed(Object object) {
+		return object instanceof BaseStream
+				|| object instanceof Spliterator
+				|| object instanceof Iterator
+				|| (object instanceof Iterable && !(object instanceof Collection));
+	}
+	
+	/**
+	 * Passes all values scaled to the calculation scale to the given action.
+	 */
+	public void forEach(SCalcOptions<?> options, Consumer<BigDecimal> action) {
+		if (isPrimitiveStream()) {
+			toDoubleSpliterator().forEachRemaining((double value) -> action.accept(
+					BigDecimal.valueOf(value).setScale(options.getCalculationScale(), options.getCalculationRoundingMode())));
+			return;
+		}
+		
+		forEachNumber(value -> action.accept(
+				NumberTypeConverter.toBigDecimal(value).setScale(options.getCalculationScale(), options.getCalculationRoundingMode())));
+	}
+	
+	/**
+	 * Passes all values as primitive doubles to the given action.
+	 */
+	public void forEachDouble(DoubleConsumer action) {
+		if (isPrimitiveStream()) {
+			toDoubleSpliterator().forEachRemaining(action);
+			return;
+		}
+		
+		forEachNumber(value -> action.accept(value.doubleValue()));
+	}
+	
+	/**
+	 * @return All values collected into an array, for uses which cannot consume the values one by one.
+	 */
+	public Number[] toNumbers() {
+		List<Number> numbers = new ArrayList<>();
+		if (isPrimitiveStream()) {
+			toDoubleSpliterator().forEachRemaining((double value) -> numbers.add(value));
+		} else {
+			forEachNumber(numbers::add);
+		}
+		return numbers.toArray(new Number[0]);
+	}
+	
+	private boolean isPrimitiveStream() {
+		return source instanceof DoubleStream || source instanceof IntStream || source instanceof LongStream || source instanceof Spliterator.OfPrimitive;
+	}
+	
+	private Spliterator.OfDouble toDoubleSpliterator() {
+		consume();
+		if (source instanceof DoubleStream) {
+			return ((DoubleStream) source).spliterator();
+		} else if (source instanceof IntStream) {
+			return ((IntStream) source).asDoubleStream().spliterator();
+		} else if (source instanceof LongStream) {
+			return ((LongStream) source).asDoubleStream().spliterator();
+		} else if (source instanceof Spliterator.OfDouble) {
+			return (Spliterator.OfDouble) source;
+		} else if (source instanceof Spliterator.OfInt) {
+			Spliterator.OfInt spliterator = (Spliterator.OfInt) source;
+			return StreamSupport.intStream(spliterator, false).asDoubleStream().spliterator();
+		}
+		
+		Spliterator.OfLong spliterator = (Spliterator.OfLong) source;
+		return StreamSupport.longStream(spliterator, false).asDoubleStream().spliterator();
+	}
+	
+	private void forEachNumber(Consumer<Number> action) {
+		Consumer<Object> elementAction = element -> {
+			if (element instanceof Collection || element instanceof Object[] || element instanceof int[] || element instanceof long[] || element instanceof double[]) {
+				for (Number number : ToNumberConverter.toNumbers(element, paramExtractor, converters)) {
+					action.accept(number);
+				}
+			} else {
+				action.accept(converters.toNumber(paramExtractor.apply(element)));
+			}
+		};
+		
+		if (source instanceof Iterable) {
+			((Iterable<?>) source).forEach(elementAction);
+			return;
+		}
+		
+		consume();
+		if (source instanceof Stream) {
+			((Stream<?>) source).sequential().forEach(elementAction);
+		} else if (source instanceof Spliterator) {
+			((Spliterator<?>) source).forEachRemaining(elementAction);
+		} else {
+			((Iterator<?>) source).forEachRemaining(elementAction);
+		}
+	}
+	
+	private void consume() {
+		if (consumed) {
+			throw new CalculationException("Parameter values given as Stream, Iterator or Spliterator can only be used once.");
+		}
+		consumed = true;
+	}
+	
+	@Override
+	public String toString() {
+		return source.getClass().getSimpleName();
+	}
+}
@@ -1,116 +1,85 @@
 package scalc.internal.converter;
 
-import scalc.exceptions.CalculationException;
-import scalc.interfaces.INumber;
-import scalc.interfaces.INumberConverter;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Map;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class ToNumberConverter {
-    public static <T> Number[] toNumbers(Object object, Function<T, Object> paramExtractor, Map<Class<?>, INumberConverter> converters) {
-		if (object == null) {
-			return new Number[] { 0.0 };
-		}
-		
-		if (object instanceof Collection) {
-			return ((Collection<T>) object).stream()
-					.map(o -> toNumbers(o, paramExtractor, converters))
-					.flatMap(Arrays::stream)
-					.collect(Collectors.toList())
-					.toArray(new Number[] {});
-		} else if (object instanceof Object[]) {
-			return Arrays.stream((Object[]) object)
-					.map(o -> toNumbers(o, paramExtractor, converters))
-					.flatMap(Arrays::stream)
-					.collect(Collectors.toList())
-					.toArray(new Number[] {});
-		} else if (object instanceof int[]) {
-			return Arrays.stream((int[]) object)
-					.boxed()
-					.map(o -> toNumbers(o, paramExtractor, converters))
-					.flatMap(Arrays::stream)
-					.collect(Collectors.toList())
-					.toArray(new Number[] {});
-		} else if (object instanceof long[]) {
-			return Arrays.stream((long[]) object)
-					.boxed()
-					.map(o -> toNumbers(o, paramExtractor, converters))
-					.flatMap(Arrays::stream)
-					.collect(Collectors.toList())
-					.toArray(new Number[] {});
-		} else if (object instanceof double[]) {
-			return Arrays.stream((double[]) object)
-					.boxed()
-					.map(o -> toNumbers(o, paramExtractor, converters))
-					.flatMap(Arrays::stream)
-					.collect(Collectors.toList())
-					.toArray(new Number[] {});
-		} else {
-			return new Number[] { toNumber(paramExtractor.apply((T)object), converters) };
-		}
+    /**
+     * @return All values of the given parameter. Collections and arrays are flattened in one pass, primitive values are boxed.
+     */
+    public static <T> Number[] toNumbers(Object object, Function<T, Object> paramExtractor, NumberConverters converters) {
+        NumberBuffer buffer = new NumberBuffer();
+        flatten(object, paramExtractor, converters, buffer, 1);
+        return buffer.toArray();
     }
 	
-    public static Number toNumber(Object object, Map<Class<?>, INumberConverter> converters) {
+    /**
+     * @return All values of the given parameter as BigDecimal. Primitive values are converted by BigDecimal.valueOf without boxing them.
+     */
+    public static <T> BigDecimal[] toBigDecimals(Object object, Function<T, Object> paramExtractor, NumberConverters converters) {
+        BigDecimalBuffer buffer = new BigDecimalBuffer();
+        flatten(object, paramExtractor, converters, buffer, 1);
+        return buffer.toArray();
+    }
+	
+    /**
+     * @return All values of the given parameter as primitive doubles. Used for calculations with double precision, so the values are never boxed.
+     */
+    public static <T> double[] toDoubles(Object object, Function<T, Object> paramExtractor, NumberConverters converters) {
+        DoubleBuffer buffer = new DoubleBuffer();
+        flatten(object, paramExtractor, converters, buffer, 1);
+        return buffer.toArray();
+    }
+	
+    /**
+     * Adds all values of the given parameter to the buffer. Nested collections and arrays are flattened in the same pass.
+     * The buffer is grown before the elements of each collection or array are added, assuming that the remaining siblings
+     * of a nested collection have the same size. So nested collections of equal size fill a buffer of the exact size.
+     * @param siblings Number of elements of the enclosing collection from this one to the last one
+     */
+    @SuppressWarnings("unchecked")
+    static <T> void flatten(Object object, Function<T, Object> paramExtractor, NumberConverters converters, ValueBuffer buffer, int siblings) {
         if (object == null) {
-            return 0.0;
-        }
-
-        if (object instanceof Number) {
-            return (Number)object;
-        }
-        if (object instanceof CharSequence) {
-            String value = object.toString();
-            try {
-                return new BigDecimal(value);
-            } catch (Throwable e) {
-                throw new CalculationException(String.format("Cannot parse bigdecimal from string '%s'.", value), e);
+            buffer.add(0.0);
+        } else if (object instanceof Collection) {
+            Collection<?> collection = (Collection<?>) object;
+            buffer.ensureCapacity(collection.size(), siblings);
+            int remaining = collection.size();
+            for (Object element : collection) {
+                flatten(element, paramExtractor, converters, buffer, remaining--);
             }
+        } else if (object instanceof Object[]) {
+            Object[] array = (Object[]) object;
+            buffer.ensureCapacity(array.length, siblings);
+            for (int i = 0; i < array.length; i++) {
+                flatten(array[i], paramExtractor, converters, buffer, array.length - i);
+            }
+        } else if (object instanceof double[]) {
+            double[] array = (double[]) object;
+            buffer.ensureCapacity(array.length, siblings);
+            for (double value : array) {
+                buffer.add(value);
+            }
+        } else if (object instanceof long[]) {
+            long[] array = (long[]) object;
+            buffer.ensureCapacity(array.length, siblings);
+            for (long value : array) {
+                buffer.add(value);
+            }
+        } else if (object instanceof int[]) {
+            int[] array = (int[]) object;
+            buffer.ensureCapacity(array.length, siblings);
+            for (int value : array) {
+                buffer.add(value);
+            }
+        } else if (StreamedValues.isStreamed(object)) {
+            for (Number value : new StreamedValues(object, paramExtractor, converters).toNumbers()) {
+                buffer.add(value);
+            }
+        } else {
+            buffer.add(converters.toNumber(paramExtractor.apply((T)object)));
         }
-	    if (object instanceof INumber) {
-	    	return ((INumber)object).toBigDecimal();
-	    }
-        
-        INumberConverter numberConverter = converters.get(object.getClass());
-        if (numberConverter == null) {
-            throw new CalculationException(String.format("Cannot find converter for '%s'.", object));
-        }
-
-        try {
-            return numberConverter.toBigDecimal(object);
-        } catch (Throwable e) {
-            throw new CalculationException(String.format("Cannot parse number from '%s' using %s.", object, numberConverter), e);
-        }
-    }
-
-    public static <RETURN_TYPE> RETURN_TYPE toResultType(
-            BigDecimal value,
-            Class<RETURN_TYPE> returnType,
-            Map<Class<?>, INumberConverter> converters) {
-
-        if (returnType.equals(BigDecimal.class)) {
-            return (RETURN_TYPE)value;
-        }
-
-        if (Number.class.isAssignableFrom(returnType)
-		        || double.class.equals(returnType)
-		        || int.class.equals(returnType)
-		        || short.class.equals(returnType)
-		        || long.class.equals(returnType)
-		        || float.class.equals(returnType)) {
-        	
-            return (RETURN_TYPE)NumberTypeConverter.convert(value, (Class)returnType);
-        }
-        
-        INumberConverter numberConverter = converters.get(returnType);
-        if (numberConverter == null) {
-            throw new CalculationException(String.format("Cannot find converter for '%s'.", returnType.getName()));
-        }
-
-        return (RETURN_TYPE)numberConverter.fromBigDecimal(value);
     }
 }
@@ -0,0 +1,37 @@
+package scalc.internal.converter;
+
+/**
+ * Growable buffer of flattened parameter values. Primitive values are added without boxing them.
+ */
+abstract class ValueBuffer {
+    protected int size;
+
+    abstract void add(Number value);
+
+    abstract void add(long value);
+
+    abstract void add(double value);
+
+    /**
+     * Grows the buffer, so the given number of further values fits without growing it again.
+     */
+    abstract void ensureCapacity(int additional);
+
+    /**
+     * Grows the buffer for the values of a nested collection or array, assuming that its remaining siblings have the same number of values.
+     */
+    void ensureCapacity(int count, int siblings) {
+        if (siblings <= 1) {
+            ensureCapacity(count);
+        } else {
+            ensureCapacity((int) Math.min((long) count * siblings, Integer.MAX_VALUE - 8));
+        }
+    }
+
+    /**
+     * @return New capacity for the given required size. Grows by at least half of the current capacity, so nested values grow it rarely.
+     */
+    static int grow(int capacity, int required) {
+        return Math.max(required, capacity + (capacity >> 1));
+    }
+}
@@ -1,26 +1,47 @@
 package scalc.internal.functions;
 
 import scalc.SCalcOptions;
-import scalc.exceptions.CalculationException;
-import scalc.interfaces.FunctionImpl;
+import scalc.interfaces.DoubleFunctionArguments;
+import scalc.interfaces.FunctionArguments;
+import scalc.interfaces.SCalcFunction;
 
 import java.math.BigDecimal;
-import java.util.List;
 
-public class AbsFunction implements FunctionImpl {
+public class AbsFunction implements SCalcFunction {
     public static final AbsFunction INSTANCE = new AbsFunction();
 
     @Override
-    public BigDecimal call(SCalcOptions<?> options, List<BigDecimal> functionParams) {
-        if (functionParams.size() != 1) {
-            throw new CalculationException("The abs function has to get exactly one parameter.");
-        }
-
-        BigDecimal firstParam = functionParams.get(0);
-        if (firstParam.compareTo(new BigDecimal(0).setScale(options.getCalculationScale(), options.getCalculationRoundingMode())) < 0) {
-            return firstParam.multiply(new BigDecimal(-1).setScale(options.getCalculationScale(), options.getCalculationRoundingMode()));
+    public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+        BigDecimal firstParam = arguments.get(0);
+        if (firstParam.signum() < 0) {
+            return firstParam.negate();
         } else {
             return firstParam;
         }
     }
-}
+
+    @Override
+    public double callDouble(SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+        return Math.abs(arguments.get(0));
+    }
+
+    @Override
+    public int getMinArguments() {
+        return 1;
+    }
+
+    @Override
+    public int getMaxArguments() {
+        return 1;
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+
+    @Override
+    public boolean isDoubleSupported() {
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package scalc.internal.functions;
+
+import scalc.SCalcOptions;
+import scalc.interfaces.SCalcFunction;
+
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Function, which can also fold its arguments one by one. Used if an argument is given as stream, so the values are aggregated
+ * while they are consumed instead of being collected as function arguments. The result equals the result of calling the function
+ * with all values as arguments.
+ */
+public interface AggregateFunction extends SCalcFunction {
+    Aggregation newAggregation(SCalcOptions<?> options);
+
+    DoubleAggregation newDoubleAggregation();
+
+    interface Aggregation extends Consumer<BigDecimal> {
+        BigDecimal getResult();
+    }
+
+    interface DoubleAggregation extends DoubleConsumer {
+        double getResult();
+    }
+}
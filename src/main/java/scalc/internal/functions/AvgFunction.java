@@ -1,22 +1,94 @@
 package scalc.internal.functions;
 
 import scalc.SCalcOptions;
-import scalc.interfaces.FunctionImpl;
+import scalc.interfaces.DoubleFunctionArguments;
+import scalc.interfaces.FunctionArguments;
 
 import java.math.BigDecimal;
-import java.util.List;
 
-public class AvgFunction implements FunctionImpl {
+public class AvgFunction implements AggregateFunction {
     public static final AvgFunction INSTANCE = new AvgFunction();
 
     @Override
-    public BigDecimal call(SCalcOptions<?> options, List<BigDecimal> functionParams) {
-        if (functionParams.isEmpty()) {
-            return new BigDecimal(0).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+    public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+        if (arguments.size() == 0) {
+            return BigDecimal.ZERO.setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
         }
 
-        BigDecimal sum = SumFunction.INSTANCE.call(options, functionParams);
-	    BigDecimal size = new BigDecimal(functionParams.size()).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+        BigDecimal sum = SumFunction.INSTANCE.call(options, arguments);
+	    BigDecimal size = new BigDecimal(arguments.size()).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
 	    return sum.divide(size, options.getCalculationScale(), options.getCalculationRoundingMode());
     }
-}
+
+    @Override
+    public double callDouble(SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+        if (arguments.size() == 0) {
+            return 0.0;
+        }
+
+        return SumFunction.INSTANCE.callDouble(options, arguments) / arguments.size();
+    }
+
+    @Override
+    public Aggregation newAggregation(SCalcOptions<?> options) {
+        Aggregation sum = SumFunction.INSTANCE.newAggregation(options);
+        return new Aggregation() {
+            private long count;
+
+            @Override
+            public void accept(BigDecimal value) {
+                sum.accept(value);
+                count++;
+            }
+
+            @Override
+            public BigDecimal getResult() {
+                if (count == 0) {
+                    return sum.getResult();
+                }
+
+                BigDecimal size = new BigDecimal(count).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+                return sum.getResult().divide(size, options.getCalculationScale(), options.getCalculationRoundingMode());
+            }
+        };
+    }
+
+    @Override
+    public DoubleAggregation newDoubleAggregation() {
+        return new DoubleAggregation() {
+            private double sum;
+            private long count;
+
+            @Override
+            public void accept(double value) {
+                sum += value;
+                count++;
+            }
+
+            @Override
+            public double getResult() {
+                return count == 0 ? 0.0 : sum / count;
+            }
+        };
+    }
+
+    @Override
+    public int getMinArguments() {
+        return 0;
+    }
+
+    @Override
+    public int getMaxArguments() {
+        return UNLIMITED_ARGUMENTS;
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+
+    @Override
+    public boolean isDoubleSupported() {
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package scalc.internal.functions;
+
+import scalc.SCalcOptions;
+import scalc.interfaces.DoubleFunctionArguments;
+import scalc.interfaces.FunctionArguments;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Key of a cached function result. Functions are compared by equals, so adapters of the same user function registered by different builders
+ * share their results. The calculation scale and rounding mode are
+ * part of the key, because functions may use them, and a cache may be shared by formulas with different options.
+ * Arguments with the same value but a different scale are different keys.
+ */
+public final class FunctionCallKey {
+	private final Object function;
+	private final int calculationScale;
+	private final RoundingMode calculationRoundingMode;
+	private final BigDecimal[] arguments;
+	private final double[] doubleArguments;
+	private final int hashCode;
+	
+	private FunctionCallKey(Object function, SCalcOptions<?> options, BigDecimal[] arguments, double[] doubleArguments) {
+		this.function = function;
+		this.calculationScale = options.getCalculationScale();
+		this.calculationRoundingMode = options.getCalculationRoundingMode();
+		this.arguments = arguments;
+		this.doubleArguments = doubleArguments;
+		this.hashCode = 31 * (31 * function.hashCode() + calculationScale)
+				+ (arguments != null ? Arrays.hashCode(arguments) : Arrays.hashCode(doubleArguments));
+	}
+	
+	/**
+	 * @param arguments Arguments of the call, which must not be modified afterwards.
+	 */
+	public static FunctionCallKey of(Object function, SCalcOptions<?> options, BigDecimal[] arguments) {
+		return new FunctionCallKey(function, options, arguments, null);
+	}
+	
+	/**
+	 * @param arguments Arguments of the call, which must not be modified afterwards.
+	 */
+	public static FunctionCallKey of(Object function, SCalcOptions<?> options, double[] arguments) {
+		return new FunctionCallKey(function, options, null, arguments);
+	}
+	
+	public static FunctionCallKey of(Object function, SCalcOptions<?> options, FunctionArguments arguments) {
+		BigDecimal[] values = new BigDecimal[arguments.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = arguments.get(i);
+		}
+		return of(function, options, values);
+	}
+	
+	public static FunctionCallKey of(Object function, SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+		double[] values = new double[arguments.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = arguments.get(i);
+		}
+		return of(function, options, values);
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof FunctionCallKey)) return false;
+		
+		FunctionCallKey key = (FunctionCallKey) o;
+		return hashCode == key.hashCode &&
+				function.equals(key.function) &&
+				calculationScale == key.calculationScale &&
+				calculationRoundingMode == key.calculationRoundingMode &&
+				Arrays.equals(arguments, key.arguments) &&
+				Arrays.equals(doubleArguments, key.doubleArguments);
+	}
+	
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+	
+	@Override
+	public String toString() {
+		return Objects.toString(function) + (arguments != null ? Arrays.toString(arguments) : Arrays.toString(doubleArguments));
+	}
+}
@@ -0,0 +1,86 @@
+package scalc.internal.functions;
+
+import scalc.SCalcOptions;
+import scalc.interfaces.FunctionArguments;
+import scalc.interfaces.FunctionImpl;
+import scalc.interfaces.SCalcFunction;
+import scalc.internal.nodes.Arguments;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adapts a user function implementing only FunctionImpl. The function gets a modifiable list of its parameters as before
+ * and accepts any number of arguments. It is only treated as pure if it was registered as pure.
+ */
+public class FunctionImplAdapter implements SCalcFunction {
+	private final FunctionImpl function;
+	private final boolean pure;
+	
+	private FunctionImplAdapter(FunctionImpl function, boolean pure) {
+		this.function = function;
+		this.pure = pure;
+	}
+	
+	/**
+	 * @return The given function if it already implements SCalcFunction, otherwise an adapter.
+	 */
+	public static SCalcFunction adapt(FunctionImpl function) {
+		if (function instanceof SCalcFunction) {
+			return (SCalcFunction) function;
+		}
+		return new FunctionImplAdapter(function, false);
+	}
+	
+	/**
+	 * @return Adapter declaring the given function as pure or not.
+	 */
+	public static SCalcFunction adapt(FunctionImpl function, boolean pure) {
+		return new FunctionImplAdapter(function, pure);
+	}
+	
+	@Override
+	public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+		if (arguments instanceof Arguments) {
+			return function.call(options, ((Arguments) arguments).toList());
+		}
+		
+		List<BigDecimal> functionParams = new ArrayList<>(arguments.size());
+		for (int i = 0; i < arguments.size(); i++) {
+			functionParams.add(arguments.get(i));
+		}
+		return function.call(options, functionParams);
+	}
+	
+	@Override
+	public BigDecimal call(SCalcOptions<?> options, List<BigDecimal> functionParams) {
+		return function.call(options, functionParams);
+	}
+	
+	@Override
+	public boolean isPure() {
+		return pure;
+	}
+	
+	public FunctionImpl getFunction() {
+		return function;
+	}
+	
+	/**
+	 * Adapters of the same function are equal, so formulas using them can share a cached compiled expression.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof FunctionImplAdapter)) return false;
+		
+		FunctionImplAdapter adapter = (FunctionImplAdapter) o;
+		return function == adapter.function && pure == adapter.pure;
+	}
+	
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(function) + Boolean.hashCode(pure);
+	}
+}
@@ -1,7 +1,7 @@
 package scalc.internal.functions;
 
 import scalc.exceptions.CalculationException;
-import scalc.interfaces.FunctionImpl;
+import scalc.interfaces.SCalcFunction;
 
 import java.util.Arrays;
 import java.util.List;
@@ -9,11 +9,11 @@ import java.util.Map;
 import java.util.TreeMap;
 
 public class Functions {
-    public static final Map<String, FunctionImpl> FUNCTIONS = getPredefinedFunctions();
+    public static final Map<String, SCalcFunction> FUNCTIONS = getPredefinedFunctions();
     public static final List<Character> FUNCTION_NAME_VALID_CHARS = Arrays.asList('√', '∑', 'ä', 'Ä', 'ö', 'Ö', 'ü', 'Ü', 'ß', '_');
 
-    private static Map<String, FunctionImpl> getPredefinedFunctions() {
-        Map<String, FunctionImpl> functions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private static Map<String, SCalcFunction> getPredefinedFunctions() {
+        Map<String, SCalcFunction> functions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
 
         functions.put("√", RootFunction.INSTANCE);
         functions.put("root", RootFunction.INSTANCE);
@@ -1,22 +1,43 @@
 package scalc.internal.functions;
 
 import scalc.SCalcOptions;
-import scalc.exceptions.CalculationException;
-import scalc.interfaces.FunctionImpl;
+import scalc.interfaces.DoubleFunctionArguments;
+import scalc.interfaces.FunctionArguments;
+import scalc.interfaces.SCalcFunction;
 
 import java.math.BigDecimal;
-import java.util.List;
 
-public class LogFunction implements FunctionImpl {
+public class LogFunction implements SCalcFunction {
     public static final LogFunction INSTANCE = new LogFunction();
 
     @Override
-    public BigDecimal call(SCalcOptions<?> options, List<BigDecimal> functionParams) {
-        if (functionParams.size() != 1) {
-            throw new CalculationException("The log function has to get exactly one parameter.");
-        }
-
-        BigDecimal firstParam = functionParams.get(0);
+    public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+        BigDecimal firstParam = arguments.get(0);
         return BigDecimal.valueOf(Math.log10(firstParam.doubleValue())).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
     }
-}
+
+    @Override
+    public double callDouble(SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+        return Math.log10(arguments.get(0));
+    }
+
+    @Override
+    public int getMinArguments() {
+        return 1;
+    }
+
+    @Override
+    public int getMaxArguments() {
+        return 1;
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+
+    @Override
+    public boolean isDoubleSupported() {
+        return true;
+    }
+}
\ No newline at end of file
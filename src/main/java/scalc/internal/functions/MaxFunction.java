@@ -1,22 +1,23 @@
 package scalc.internal.functions;
 
 import scalc.SCalcOptions;
-import scalc.interfaces.FunctionImpl;
+import scalc.interfaces.DoubleFunctionArguments;
+import scalc.interfaces.FunctionArguments;
 
 import java.math.BigDecimal;
-import java.util.List;
 
-public class MaxFunction implements FunctionImpl {
+public class MaxFunction implements AggregateFunction {
     public static final MaxFunction INSTANCE = new MaxFunction();
 
     @Override
-    public BigDecimal call(SCalcOptions<?> options, List<BigDecimal> functionParams) {
-        if (functionParams.isEmpty()) {
-            return new BigDecimal(0).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+    public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+        if (arguments.size() == 0) {
+            return BigDecimal.ZERO.setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
         }
 
-        BigDecimal result = functionParams.get(0);
-        for (BigDecimal param : functionParams) {
+        BigDecimal result = arguments.get(0);
+        for (int i = 1; i < arguments.size(); i++) {
+            BigDecimal param = arguments.get(i);
             if (param.compareTo(result) > 0) {
                 result = param;
             }
@@ -24,4 +25,81 @@ public class MaxFunction implements FunctionImpl {
 
         return result;
     }
-}
+
+    @Override
+    public double callDouble(SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+        if (arguments.size() == 0) {
+            return 0.0;
+        }
+
+        double result = arguments.get(0);
+        for (int i = 1; i < arguments.size(); i++) {
+            double param = arguments.get(i);
+            if (param > result) {
+                result = param;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public Aggregation newAggregation(SCalcOptions<?> options) {
+        return new Aggregation() {
+            private BigDecimal result;
+
+            @Override
+            public void accept(BigDecimal value) {
+                if (result == null || value.compareTo(result) > 0) {
+                    result = value;
+                }
+            }
+
+            @Override
+            public BigDecimal getResult() {
+                return result != null ? result : BigDecimal.ZERO.setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+            }
+        };
+    }
+
+    @Override
+    public DoubleAggregation newDoubleAggregation() {
+        return new DoubleAggregation() {
+            private double result;
+            private boolean empty = true;
+
+            @Override
+            public void accept(double value) {
+                if (empty || value > result) {
+                    result = value;
+                    empty = false;
+                }
+            }
+
+            @Override
+            public double getResult() {
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public int getMinArguments() {
+        return 0;
+    }
+
+    @Override
+    public int getMaxArguments() {
+        return UNLIMITED_ARGUMENTS;
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+
+    @Override
+    public boolean isDoubleSupported() {
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package scalc.internal.functions;
+
+import scalc.SCalcFunctionCache;
+import scalc.SCalcOptions;
+import scalc.interfaces.DoubleFunctionArguments;
+import scalc.interfaces.FunctionArguments;
+import scalc.interfaces.SCalcFunction;
+
+import java.math.BigDecimal;
+
+/**
+ * Pure function, whose results are cached by its arguments. Calculations with BigDecimal values and with
+ * double precision are cached separately.
+ */
+public class MemoizedFunction implements SCalcFunction {
+	private final SCalcFunction function;
+	private final SCalcFunctionCache cache;
+	
+	public MemoizedFunction(SCalcFunction function, SCalcFunctionCache cache) {
+		this.function = function;
+		this.cache = cache;
+	}
+	
+	@Override
+	public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+		return cache.get(FunctionCallKey.of(function, options, arguments), () -> function.call(options, arguments));
+	}
+	
+	@Override
+	public double callDouble(SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+		return cache.<Double>get(FunctionCallKey.of(function, options, arguments), () -> function.callDouble(options, arguments));
+	}
+	
+	@Override
+	public int getMinArguments() {
+		return function.getMinArguments();
+	}
+	
+	@Override
+	public int getMaxArguments() {
+		return function.getMaxArguments();
+	}
+	
+	@Override
+	public boolean isPure() {
+		return function.isPure();
+	}
+	
+	@Override
+	public boolean isDoubleSupported() {
+		return function.isDoubleSupported();
+	}
+	
+	public SCalcFunction getFunction() {
+		return function;
+	}
+}
@@ -1,33 +1,51 @@
 package scalc.internal.functions;
 
 import scalc.SCalcOptions;
-import scalc.exceptions.CalculationException;
-import scalc.interfaces.FunctionImpl;
+import scalc.interfaces.DoubleFunctionArguments;
+import scalc.interfaces.FunctionArguments;
+import scalc.interfaces.SCalcFunction;
 
 import java.math.BigDecimal;
-import java.util.List;
 
-public class RootFunction implements FunctionImpl {
-    public static final RootFunction INSTANCE = new RootFunction();
+/**
+ * Format: √(base, [default=2] power). Example: √(16) or √(16, 4)
+ */
+public class RootFunction implements SCalcFunction {
+	public static final RootFunction INSTANCE = new RootFunction();
 	
 	@Override
-    public BigDecimal call(SCalcOptions<?> options, List<BigDecimal> functionParams) {
-        if (functionParams.size() == 1) {
-	        BigDecimal value = functionParams.get(0);
-	        BigDecimal root = new BigDecimal(2).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
-	        return calc(options, value, root);
-        } else if (functionParams.size() == 2) {
-	        BigDecimal value = functionParams.get(0);
-	        BigDecimal root = functionParams.get(1);
-	        return calc(options, value, root);
-        }
+	public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+		BigDecimal value = arguments.get(0);
+		double root = arguments.size() > 1 ? arguments.get(1).doubleValue() : 2.0;
+		return new BigDecimal(String.valueOf(Math.pow(value.doubleValue(), 1.0 / root)))
+				.setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+	}
+	
+	@Override
+	public double callDouble(SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+		if (arguments.size() == 1) {
+			return Math.sqrt(arguments.get(0));
+		}
+		return Math.pow(arguments.get(0), 1.0 / arguments.get(1));
+	}
 	
-	    throw new CalculationException(String.format("Function '%s' has to have at least one argument and max. 2 arguments. " +
-			    "Format: √(base, [default=2] power). Example: √(16) or √(16, 4)", getClass().getSimpleName()));
-    }
+	@Override
+	public int getMinArguments() {
+		return 1;
+	}
 	
-	private BigDecimal calc(SCalcOptions<?> options, BigDecimal value, BigDecimal root) {
-		return new BigDecimal(String.valueOf(Math.pow(value.doubleValue(), 1.0 / root.doubleValue())))
-				.setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+	@Override
+	public int getMaxArguments() {
+		return 2;
+	}
+	
+	@Override
+	public boolean isPure() {
+		return true;
+	}
+	
+	@Override
+	public boolean isDoubleSupported() {
+		return true;
 	}
 }
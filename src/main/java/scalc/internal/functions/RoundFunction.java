@@ -2,44 +2,54 @@ package scalc.internal.functions;
 
 import scalc.SCalcOptions;
 import scalc.exceptions.CalculationException;
-import scalc.interfaces.FunctionImpl;
+import scalc.interfaces.DoubleFunctionArguments;
+import scalc.interfaces.FunctionArguments;
+import scalc.interfaces.SCalcFunction;
 import scalc.internal.constants.Constants;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.List;
 
-public class RoundFunction implements FunctionImpl {
+/**
+ * Format: round(value, [default=2] scale, [default=HALF_UP] roundingMode). Example: round(0.5, 1, HALF_DOWN)
+ */
+public class RoundFunction implements SCalcFunction {
 	public static final RoundFunction INSTANCE = new RoundFunction();
 	
-	private static final int DEFAULT_ROUND_SCALE = 2;
-	private static final RoundingMode DEFAULT_ROUNDING_MODE = RoundingMode.HALF_UP;
+	public static final int DEFAULT_ROUND_SCALE = 2;
+	public static final int DEFAULT_ROUNDING_MODE = Constants.HALF_UP_CONST_VALUE;
 	
 	@Override
-	public BigDecimal call(SCalcOptions<?> options, List<BigDecimal> functionParams) {
-		if (functionParams.size() == 1) {
-			BigDecimal value = functionParams.get(0);
-			return calc(value, DEFAULT_ROUND_SCALE, DEFAULT_ROUNDING_MODE);
-		} else if (functionParams.size() == 2) {
-			BigDecimal value = functionParams.get(0);
-			int scale = functionParams.get(1).intValue();
-			
-			return calc(value, scale, DEFAULT_ROUNDING_MODE);
-		} else if (functionParams.size() == 3) {
-			BigDecimal value = functionParams.get(0);
-			int scale = functionParams.get(1).intValue();
-			int roundingModeConst = functionParams.get(2).intValue();
-			RoundingMode roundingMode = mapRoundingMode(roundingModeConst);
-			
-			return calc(value, scale, roundingMode);
-		}
+	public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+		BigDecimal value = arguments.get(0);
+		int scale = arguments.size() > 1 ? arguments.get(1).intValue() : DEFAULT_ROUND_SCALE;
+		int roundingModeConst = arguments.size() > 2 ? arguments.get(2).intValue() : DEFAULT_ROUNDING_MODE;
+		
+		return value.setScale(scale, mapRoundingMode(roundingModeConst));
+	}
+	
+	@Override
+	public double callDouble(SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+		double value = arguments.get(0);
+		int scale = arguments.size() > 1 ? (int)arguments.get(1) : DEFAULT_ROUND_SCALE;
+		int roundingModeConst = arguments.size() > 2 ? (int)arguments.get(2) : DEFAULT_ROUNDING_MODE;
 		
-		throw new CalculationException(String.format("Function '%s' has to have at least one argument and max. 3 arguments. " +
-				"Format: round(value, [default=2] scale, [default=HALF_UP] roundingMode). Example: round(0.5, 1, HALF_DOWN)",
-				getClass().getSimpleName()));
+		return round(value, scale, roundingModeConst);
 	}
 	
-	private RoundingMode mapRoundingMode(int roundingModeConst) {
+	/**
+	 * Rounding is done on the decimal representation of the value, so the result is the same as using BigDecimals.
+	 * Infinity and NaN have no decimal representation and are returned unchanged.
+	 */
+	public static double round(double value, int scale, int roundingModeConst) {
+		RoundingMode roundingMode = mapRoundingMode(roundingModeConst);
+		if (!Double.isFinite(value)) {
+			return value;
+		}
+		return BigDecimal.valueOf(value).setScale(scale, roundingMode).doubleValue();
+	}
+	
+	private static RoundingMode mapRoundingMode(int roundingModeConst) {
 		if (roundingModeConst == Constants.HALF_UP_CONST_VALUE) {
 			return RoundingMode.HALF_UP;
 		} else if (roundingModeConst == Constants.HALF_EVEN_CONST_VALUE) {
@@ -52,7 +62,23 @@ public class RoundFunction implements FunctionImpl {
 				"Possible values: HALF_UP (0), HALF_EVEN (1), HALF_DOWN (2)", roundingModeConst));
 	}
 	
-	private BigDecimal calc(BigDecimal value, int scale, RoundingMode roundingMode) {
-		return value.setScale(scale, roundingMode);
+	@Override
+	public int getMinArguments() {
+		return 1;
+	}
+	
+	@Override
+	public int getMaxArguments() {
+		return 3;
+	}
+	
+	@Override
+	public boolean isPure() {
+		return true;
+	}
+	
+	@Override
+	public boolean isDoubleSupported() {
+		return true;
 	}
 }
@@ -1,27 +1,89 @@
 package scalc.internal.functions;
 
 import scalc.SCalcOptions;
-import scalc.interfaces.FunctionImpl;
-import scalc.internal.converter.NumberTypeConverter;
+import scalc.interfaces.DoubleFunctionArguments;
+import scalc.interfaces.FunctionArguments;
 
 import java.math.BigDecimal;
-import java.util.List;
 
-public class SumFunction implements FunctionImpl {
+public class SumFunction implements AggregateFunction {
     public static final SumFunction INSTANCE = new SumFunction();
 
     @Override
-    public BigDecimal call(SCalcOptions<?> options, List<BigDecimal> functionParams) {
-        if (functionParams == null || functionParams.isEmpty()) {
-            return new BigDecimal(0).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+    public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+        if (arguments.size() == 0) {
+            return BigDecimal.ZERO.setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
         }
 
-        BigDecimal result = NumberTypeConverter.convert(functionParams.get(0), BigDecimal.class);
-        for (int i = 1; i < functionParams.size(); i++) {
-            BigDecimal value = NumberTypeConverter.convert(functionParams.get(i), BigDecimal.class);
-            result = result.add(value);
+        BigDecimal result = arguments.get(0);
+        for (int i = 1; i < arguments.size(); i++) {
+            result = result.add(arguments.get(i));
         }
 
         return result;
     }
-}
+
+    @Override
+    public double callDouble(SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+        double result = 0.0;
+        for (int i = 0; i < arguments.size(); i++) {
+            result += arguments.get(i);
+        }
+
+        return result;
+    }
+
+    @Override
+    public Aggregation newAggregation(SCalcOptions<?> options) {
+        return new Aggregation() {
+            private BigDecimal result = BigDecimal.ZERO.setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+
+            @Override
+            public void accept(BigDecimal value) {
+                result = result.add(value);
+            }
+
+            @Override
+            public BigDecimal getResult() {
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public DoubleAggregation newDoubleAggregation() {
+        return new DoubleAggregation() {
+            private double result;
+
+            @Override
+            public void accept(double value) {
+                result += value;
+            }
+
+            @Override
+            public double getResult() {
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public int getMinArguments() {
+        return 0;
+    }
+
+    @Override
+    public int getMaxArguments() {
+        return UNLIMITED_ARGUMENTS;
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+
+    @Override
+    public boolean isDoubleSupported() {
+        return true;
+    }
+}
\ No newline at end of file
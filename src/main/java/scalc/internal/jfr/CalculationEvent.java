@@ -0,0 +1,24 @@
+package scalc.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scalc.Calculation")
+@Label("Calculation")
+@Description("Calculation of a compiled expression")
+@Category("SCalc")
+@StackTrace(false)
+class CalculationEvent extends jdk.jfr.Event {
+	@Label("Expression")
+	String expression;
+	
+	@Label("Expression Id")
+	@Description("Identifies the compiled expression in the compile events")
+	long expressionId;
+	
+	@Label("Failed")
+	boolean failed;
+}
@@ -0,0 +1,27 @@
+package scalc.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scalc.Compile")
+@Label("Expression Compilation")
+@Description("Parsing and optimization of an expression, which was not found in the expression cache")
+@Category("SCalc")
+@StackTrace(false)
+class CompileEvent extends jdk.jfr.Event {
+	@Label("Expression")
+	String expression;
+	
+	@Label("Expression Id")
+	@Description("Identifies the compiled expression in the calculation events")
+	long expressionId;
+	
+	@Label("Double Precision")
+	boolean doublePrecision;
+	
+	@Label("Bytecode Generated")
+	boolean bytecodeGenerated;
+}
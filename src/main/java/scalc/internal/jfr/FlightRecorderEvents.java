@@ -0,0 +1,133 @@
+package scalc.internal.jfr;
+
+import jdk.jfr.EventType;
+import scalc.SCalcOptions;
+
+/**
+ * Emits the events of SCalc to the JDK Flight Recorder. The events are enabled and configured by the settings of a recording,
+ * like any other JFR event (e.g. scalc.SlowFunctionCall#threshold=20 ms).<br/>
+ * The module jdk.jfr is optional for SCalc, so the events are only created if it is available. Events are passed around as Object
+ * and the begin methods return null if the event is not recorded. The check uses the cached event types, so calculations without
+ * a recording do not allocate an event.
+ */
+public final class FlightRecorderEvents {
+	private static final boolean AVAILABLE = isAvailable();
+	
+	private FlightRecorderEvents() {
+	}
+	
+	private static boolean isAvailable() {
+		try {
+			return EventTypes.COMPILE != null;
+		} catch (LinkageError e) {
+			// Module jdk.jfr is not available, no events are emitted
+			return false;
+		}
+	}
+	
+	/**
+	 * @return Started compile event or null if it is not recorded.
+	 */
+	public static Object beginCompile() {
+		if (!AVAILABLE || !EventTypes.COMPILE.isEnabled()) {
+			return null;
+		}
+		
+		CompileEvent event = new CompileEvent();
+		event.begin();
+		return event;
+	}
+	
+	/**
+	 * @param event Result of {@link #beginCompile()}, ignored if null
+	 * @param expressionId Id of the compiled expression, which identifies it in the calculation events
+	 */
+	public static void commitCompile(Object event, SCalcOptions<?> options, long expressionId, boolean bytecodeGenerated) {
+		if (event == null) {
+			return;
+		}
+		
+		CompileEvent compileEvent = (CompileEvent) event;
+		compileEvent.end();
+		if (compileEvent.shouldCommit()) {
+			compileEvent.expression = options.getExpression();
+			compileEvent.expressionId = expressionId;
+			compileEvent.doublePrecision = options.isDoublePrecision();
+			compileEvent.bytecodeGenerated = bytecodeGenerated;
+			compileEvent.commit();
+		}
+	}
+	
+	/**
+	 * @return Started calculation event or null if it is not recorded.
+	 */
+	public static Object beginCalculation() {
+		if (!AVAILABLE || !EventTypes.CALCULATION.isEnabled()) {
+			return null;
+		}
+		
+		CalculationEvent event = new CalculationEvent();
+		event.begin();
+		return event;
+	}
+	
+	/**
+	 * @param event Result of {@link #beginCalculation()}, ignored if null
+	 * @param expressionId Id of the calculated expression like in the compile event
+	 */
+	public static void commitCalculation(Object event, SCalcOptions<?> options, long expressionId, boolean failed) {
+		if (event == null) {
+			return;
+		}
+		
+		CalculationEvent calculationEvent = (CalculationEvent) event;
+		calculationEvent.end();
+		if (calculationEvent.shouldCommit()) {
+			calculationEvent.expression = options.getExpression();
+			calculationEvent.expressionId = expressionId;
+			calculationEvent.failed = failed;
+			calculationEvent.commit();
+		}
+	}
+	
+	/**
+	 * @return Started function call event or null if it is not recorded. The event is only committed if the call exceeds the threshold.
+	 */
+	public static Object beginFunctionCall() {
+		if (!AVAILABLE || !EventTypes.FUNCTION_CALL.isEnabled()) {
+			return null;
+		}
+		
+		FunctionCallEvent event = new FunctionCallEvent();
+		event.begin();
+		return event;
+	}
+	
+	/**
+	 * @param event Result of {@link #beginFunctionCall()}, ignored if null
+	 */
+	public static void commitFunctionCall(Object event, SCalcOptions<?> options, String function, int argumentCount) {
+		if (event == null) {
+			return;
+		}
+		
+		FunctionCallEvent functionCallEvent = (FunctionCallEvent) event;
+		functionCallEvent.end();
+		if (functionCallEvent.shouldCommit()) {
+			functionCallEvent.function = function;
+			functionCallEvent.expression = options.getExpression();
+			functionCallEvent.argumentCount = argumentCount;
+			functionCallEvent.commit();
+		}
+	}
+	
+	/**
+	 * Types of the events, which are only loaded if the module jdk.jfr is available. Checking whether a type is enabled
+	 * is cheaper than creating an event to ask it.
+	 */
+	private static final class EventTypes {
+		static final EventType COMPILE = EventType.getEventType(CompileEvent.class);
+		static final EventType CALCULATION = EventType.getEventType(CalculationEvent.class);
+		static final EventType FUNCTION_CALL = EventType.getEventType(FunctionCallEvent.class);
+	}
+}
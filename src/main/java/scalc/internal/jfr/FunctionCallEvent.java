@@ -0,0 +1,24 @@
+package scalc.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("scalc.SlowFunctionCall")
+@Label("Slow Function Call")
+@Description("Call of a user function taking longer than the threshold")
+@Category("SCalc")
+@Threshold("10 ms")
+class FunctionCallEvent extends jdk.jfr.Event {
+	@Label("Function")
+	String function;
+	
+	@Label("Expression")
+	String expression;
+	
+	@Label("Argument Count")
+	int argumentCount;
+}
@@ -0,0 +1,32 @@
+package scalc.internal.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the bytes allocated by the current thread. Requires the module jdk.management, which is optional for SCalc,
+ * so this class is only used after {@link #isSupported()} returned true.
+ */
+class AllocationCounter {
+	private static com.sun.management.ThreadMXBean threads;
+	
+	static boolean isSupported() {
+		try {
+			ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+			if (threadBean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean allocationThreads = (com.sun.management.ThreadMXBean) threadBean;
+				if (allocationThreads.isThreadAllocatedMemorySupported() && allocationThreads.isThreadAllocatedMemoryEnabled()) {
+					threads = allocationThreads;
+					return true;
+				}
+			}
+		} catch (Throwable ignored) {
+			// Management modules are not available, allocations are not measured
+		}
+		return false;
+	}
+	
+	static long allocatedBytes() {
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
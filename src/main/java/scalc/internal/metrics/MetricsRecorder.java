@@ -0,0 +1,130 @@
+package scalc.internal.metrics;
+
+import scalc.SCalcMetrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of a single expression. All counters are LongAdders, so threads calculating the same expression do not contend.<br/>
+ * Latencies are counted in buckets doubling from 1 microsecond up to about 1 second. Allocations are measured by the allocated bytes
+ * of the calculating thread for a random sample of calculations, because reading them is more expensive than most calculations.
+ */
+public class MetricsRecorder {
+	public static final int BUCKET_COUNT = 22;
+	
+	private static final boolean ALLOCATIONS_MEASURABLE = isAllocationMeasurable();
+	
+	private final String expression;
+	private final int allocationSampleRate;
+	private final LongAdder compilations = new LongAdder();
+	private final LongAdder compileNanos = new LongAdder();
+	private final LongAdder calculations = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+	private final LongAdder[] histogram = new LongAdder[BUCKET_COUNT];
+	private final LongAdder allocationSamples = new LongAdder();
+	private final LongAdder allocatedBytes = new LongAdder();
+	
+	/**
+	 * @param allocationSampleRate Allocations are measured for 1 of this number of calculations. 0 disables measuring them.
+	 */
+	public MetricsRecorder(String expression, int allocationSampleRate) {
+		this.expression = expression;
+		this.allocationSampleRate = ALLOCATIONS_MEASURABLE ? allocationSampleRate : 0;
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] = new LongAdder();
+		}
+	}
+	
+	private static boolean isAllocationMeasurable() {
+		try {
+			return AllocationCounter.isSupported();
+		} catch (LinkageError e) {
+			return false;
+		}
+	}
+	
+	public void compiled(long nanos) {
+		compilations.increment();
+		compileNanos.add(nanos);
+	}
+	
+	/**
+	 * @return Bytes allocated by the current thread so far or -1 if the allocations of this calculation are not measured.
+	 */
+	public long startAllocation() {
+		if (allocationSampleRate == 0 || ThreadLocalRandom.current().nextInt(allocationSampleRate) != 0) {
+			return -1;
+		}
+		return AllocationCounter.allocatedBytes();
+	}
+	
+	/**
+	 * @param startNanos Result of System.nanoTime() before the calculation
+	 * @param startAllocation Result of {@link #startAllocation()} before the calculation
+	 */
+	public void finished(long startNanos, long startAllocation) {
+		record(startNanos, startAllocation);
+	}
+	
+	public void failed(long startNanos, long startAllocation) {
+		errors.increment();
+		record(startNanos, startAllocation);
+	}
+	
+	private void record(long startNanos, long startAllocation) {
+		long nanos = System.nanoTime() - startNanos;
+		if (startAllocation >= 0) {
+			allocatedBytes.add(AllocationCounter.allocatedBytes() - startAllocation);
+			allocationSamples.increment();
+		}
+		
+		calculations.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+		histogram[bucket(nanos)].increment();
+	}
+	
+	/**
+	 * @return Index of the bucket counting the given latency. Bucket i counts latencies up to 2^i microseconds, the last bucket all longer ones.
+	 */
+	static int bucket(long nanos) {
+		int bucket = 64 - Long.numberOfLeadingZeros(Math.max(0, nanos - 1) / 1000);
+		return Math.min(bucket, BUCKET_COUNT - 1);
+	}
+	
+	/**
+	 * @return Upper bound of the given bucket in nanoseconds or Long.MAX_VALUE for the last bucket.
+	 */
+	public static long bucketUpperBound(int bucket) {
+		return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1000L << bucket;
+	}
+	
+	public SCalcMetrics.Snapshot snapshot() {
+		long[] counts = new long[histogram.length];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = histogram[i].sum();
+		}
+		
+		long samples = allocationSamples.sum();
+		return new SCalcMetrics.Snapshot(expression, compilations.sum(), compileNanos.sum(), calculations.sum(), errors.sum(),
+				totalNanos.sum(), maxNanos.get(), counts, samples == 0 ? -1 : allocatedBytes.sum() / samples);
+	}
+	
+	public void reset() {
+		compilations.reset();
+		compileNanos.reset();
+		calculations.reset();
+		errors.reset();
+		totalNanos.reset();
+		maxNanos.reset();
+		for (LongAdder bucket : histogram) {
+			bucket.reset();
+		}
+		allocationSamples.reset();
+		allocatedBytes.reset();
+	}
+}
@@ -0,0 +1,145 @@
+package scalc.internal.nodes;
+
+import scalc.SCalcOptions;
+import scalc.exceptions.CalculationException;
+import scalc.interfaces.SCalcExpressions;
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+import scalc.internal.converter.StreamedValues;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Represents the values of all given parameters in the order they were added, including parameters given as stream.
+ */
+public class AllParamsNode extends Node {
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		Arguments values = new Arguments(1);
+		evaluateInto(context, values);
+		
+		if (values.size() == 0) {
+			SCalcOptions<?> options = context.getOptions();
+			return BigDecimal.ZERO.setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+		}
+		if (values.size() > 1) {
+			throw new CalculationException(String.format("%s has %s values and can only be used as function parameter.", SCalcExpressions.ALL_PARAMS, values.size()));
+		}
+		
+		return values.get(0);
+	}
+	
+	@Override
+	public boolean hasSingleValue() {
+		return false;
+	}
+	
+	@Override
+	public void evaluateInto(EvaluationContext context, Arguments functionParams) {
+		forEach(context, functionParams::add);
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		DoubleArguments values = new DoubleArguments(1);
+		evaluateDoubleInto(context, values);
+		
+		if (values.size() == 0) {
+			return 0.0;
+		}
+		if (values.size() > 1) {
+			throw new CalculationException(String.format("%s has %s values and can only be used as function parameter.", SCalcExpressions.ALL_PARAMS, values.size()));
+		}
+		
+		return values.get(0);
+	}
+	
+	@Override
+	public void evaluateDoubleInto(EvaluationContext context, DoubleArguments functionParams) {
+		for (Object values : context.getAllParametersInOrder()) {
+			if (values instanceof double[]) {
+				functionParams.addAll((double[]) values);
+			} else {
+				forEachDouble(values, functionParams::add);
+			}
+		}
+	}
+	
+	@Override
+	public boolean isStreamed(EvaluationContext context) {
+		return !context.getAllStreamedParameters().isEmpty();
+	}
+	
+	@Override
+	public void aggregateInto(EvaluationContext context, Consumer<BigDecimal> aggregation) {
+		forEach(context, aggregation);
+	}
+	
+	@Override
+	public void aggregateDoubleInto(EvaluationContext context, DoubleConsumer aggregation) {
+		for (Object values : context.getAllParametersInOrder()) {
+			forEachDouble(values, aggregation);
+		}
+	}
+	
+	/**
+	 * Passes the values of all parameters in the order they were added, scaled to the calculation scale.
+	 */
+	private static void forEach(EvaluationContext context, Consumer<BigDecimal> action) {
+		SCalcOptions<?> options = context.getOptions();
+		for (Object values : context.getAllParametersInOrder()) {
+			if (values instanceof StreamedValues) {
+				((StreamedValues) values).forEach(options, action);
+			} else if (values instanceof double[]) {
+				for (double value : (double[]) values) {
+					action.accept(BigDecimal.valueOf(value).setScale(options.getCalculationScale(), options.getCalculationRoundingMode()));
+				}
+			} else {
+				for (BigDecimal value : (BigDecimal[]) values) {
+					action.accept(value.setScale(options.getCalculationScale(), options.getCalculationRoundingMode()));
+				}
+			}
+		}
+	}
+	
+	private static void forEachDouble(Object values, DoubleConsumer action) {
+		if (values instanceof StreamedValues) {
+			((StreamedValues) values).forEachDouble(action);
+		} else if (values instanceof double[]) {
+			for (double value : (double[]) values) {
+				action.accept(value);
+			}
+		} else {
+			for (BigDecimal value : (BigDecimal[]) values) {
+				action.accept(value.doubleValue());
+			}
+		}
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		Collection<double[]> columns = context.getAllParameters();
+		if (columns.isEmpty()) {
+			return context.fill(0.0);
+		}
+		if (columns.size() > 1) {
+			throw new CalculationException(String.format("%s has %s values and can only be used as function parameter.", SCalcExpressions.ALL_PARAMS, columns.size()));
+		}
+		
+		return columns.iterator().next();
+	}
+	
+	@Override
+	public void evaluateDoubleColumnInto(ColumnContext context, List<double[]> functionParams) {
+		functionParams.addAll(context.getAllParameters());
+	}
+	
+	@Override
+	public String toString() {
+		return SCalcExpressions.ALL_PARAMS;
+	}
+}
@@ -0,0 +1,60 @@
+package scalc.internal.nodes;
+
+import scalc.interfaces.FunctionArguments;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable list of function parameters. Sized by the number of arguments, so it only grows if
+ * an argument has multiple values.
+ */
+public class Arguments implements FunctionArguments {
+	private BigDecimal[] values;
+	private int size;
+	
+	public Arguments(int capacity) {
+		this.values = new BigDecimal[capacity];
+	}
+	
+	public void add(BigDecimal value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, Math.max(4, size * 2));
+		}
+		values[size++] = value;
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public BigDecimal get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return values[index];
+	}
+	
+	/**
+	 * @return The parameters as array with the exact size.
+	 */
+	public BigDecimal[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+	
+	/**
+	 * @return Modifiable copy of the parameters for functions implementing only FunctionImpl.
+	 */
+	public List<BigDecimal> toList() {
+		return new ArrayList<>(Arrays.asList(values).subList(0, size));
+	}
+	
+	@Override
+	public String toString() {
+		return Arrays.toString(Arrays.copyOf(values, size));
+	}
+}
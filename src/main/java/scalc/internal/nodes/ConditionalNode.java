@@ -0,0 +1,146 @@
+package scalc.internal.nodes;
+
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Lazily evaluated condition like <code>if(a > b, a, b)</code> or <code>case(a < 0, 0, a < 10, a, 10)</code>.
+ * The conditions are evaluated in order and only the value of the first true condition is calculated.
+ * If no condition is true, the last value is the result.
+ */
+public class ConditionalNode extends Node {
+	public static final String IF = "if";
+	public static final String CASE = "case";
+	
+	private final String name;
+	private final Node[] conditions;
+	private final Node[] values;
+	private final Node otherwise;
+	
+	public ConditionalNode(String name, Node[] conditions, Node[] values, Node otherwise) {
+		this.name = name;
+		this.conditions = conditions;
+		this.values = values;
+		this.otherwise = otherwise;
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		for (int i = 0; i < conditions.length; i++) {
+			if (Operator.isTrue(conditions[i].evaluate(context))) {
+				return values[i].evaluate(context);
+			}
+		}
+		return otherwise.evaluate(context);
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		for (int i = 0; i < conditions.length; i++) {
+			if (Operator.isTrue(conditions[i].evaluateDouble(context))) {
+				return values[i].evaluateDouble(context);
+			}
+		}
+		return otherwise.evaluateDouble(context);
+	}
+	
+	/**
+	 * Each condition is calculated for the rows not selected by a previous condition and each value only for the rows selecting it.
+	 */
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		double[] result = new double[context.getRowCount()];
+		int[] rows = allRows(context.getRowCount());
+		ColumnContext remaining = context;
+		
+		for (int i = 0; i < conditions.length && rows.length > 0; i++) {
+			double[] condition = conditions[i].evaluateDoubleColumn(remaining);
+			int[] selected = selectRows(condition, true);
+			int[] notSelected = selectRows(condition, false);
+			
+			if (selected.length > 0) {
+				double[] value = values[i].evaluateDoubleColumn(remaining.select(selected));
+				for (int row = 0; row < selected.length; row++) {
+					result[rows[selected[row]]] = value[row];
+				}
+			}
+			
+			rows = select(rows, notSelected);
+			remaining = remaining.select(notSelected);
+		}
+		
+		if (rows.length > 0) {
+			double[] value = otherwise.evaluateDoubleColumn(remaining);
+			for (int row = 0; row < rows.length; row++) {
+				result[rows[row]] = value[row];
+			}
+		}
+		
+		return result;
+	}
+	
+	private static int[] allRows(int rowCount) {
+		int[] rows = new int[rowCount];
+		for (int row = 0; row < rowCount; row++) {
+			rows[row] = row;
+		}
+		return rows;
+	}
+	
+	/**
+	 * @return Ascending rows of the given condition column which are true (or false).
+	 */
+	static int[] selectRows(double[] condition, boolean value) {
+		int count = 0;
+		for (double conditionValue : condition) {
+			if (Operator.isTrue(conditionValue) == value) {
+				count++;
+			}
+		}
+		
+		int[] rows = new int[count];
+		int index = 0;
+		for (int row = 0; row < condition.length; row++) {
+			if (Operator.isTrue(condition[row]) == value) {
+				rows[index++] = row;
+			}
+		}
+		return rows;
+	}
+	
+	private static int[] select(int[] rows, int[] selected) {
+		int[] result = new int[selected.length];
+		for (int i = 0; i < selected.length; i++) {
+			result[i] = rows[selected[i]];
+		}
+		return result;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public Node[] getConditions() {
+		return conditions;
+	}
+	
+	public Node[] getValues() {
+		return values;
+	}
+	
+	public Node getOtherwise() {
+		return otherwise;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(name).append('(');
+		for (int i = 0; i < conditions.length; i++) {
+			builder.append(conditions[i]).append(", ").append(values[i]).append(", ");
+		}
+		return builder.append(otherwise).append(')').toString();
+	}
+}
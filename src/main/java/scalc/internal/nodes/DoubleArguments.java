@@ -0,0 +1,65 @@
+package scalc.internal.nodes;
+
+import scalc.interfaces.DoubleFunctionArguments;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive function parameters. Sized by the number of arguments, so it only grows if
+ * an argument has multiple values.
+ */
+public class DoubleArguments implements DoubleFunctionArguments {
+	private double[] values;
+	private int size;
+	
+	public DoubleArguments(int capacity) {
+		this.values = new double[capacity];
+	}
+	
+	public void add(double value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, Math.max(4, size * 2));
+		}
+		values[size++] = value;
+	}
+	
+	public void addAll(double[] valuesToAdd) {
+		if (size + valuesToAdd.length > values.length) {
+			values = Arrays.copyOf(values, Math.max(size + valuesToAdd.length, size * 2));
+		}
+		System.arraycopy(valuesToAdd, 0, values, size, valuesToAdd.length);
+		size += valuesToAdd.length;
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public double get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return values[index];
+	}
+	
+	/**
+	 * Removes all parameters, so the instance can be reused for the next row of a batch.
+	 */
+	public void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * @return The parameters as array with the exact size. The internal array is returned if it is full.
+	 */
+	public double[] toArray() {
+		return size == values.length ? values : Arrays.copyOf(values, size);
+	}
+	
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+}
@@ -0,0 +1,214 @@
+package scalc.internal.nodes;
+
+import scalc.SCalcOptions;
+import scalc.exceptions.CalculationException;
+import scalc.interfaces.SCalcFunction;
+import scalc.interfaces.SCalcTrace;
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+import scalc.internal.functions.AggregateFunction;
+import scalc.internal.functions.Functions;
+import scalc.internal.jfr.FlightRecorderEvents;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class FunctionNode extends Node {
+	private final String name;
+	private final SCalcFunction function;
+	private final Node[] arguments;
+	private final boolean checkArgumentCount;
+	private final AggregateFunction aggregateFunction;
+	private final boolean userFunction;
+	
+	/**
+	 * @throws CalculationException If the number of arguments does not match the function. If an argument may represent
+	 * multiple values (like collection parameters), the number is checked on each calculation instead.
+	 */
+	public FunctionNode(String name, SCalcFunction function, Node[] arguments) {
+		this.name = name;
+		this.function = function;
+		this.arguments = arguments;
+		
+		int singleValues = 0;
+		for (Node argument : arguments) {
+			if (argument.hasSingleValue()) {
+				singleValues++;
+			}
+		}
+		
+		this.checkArgumentCount = singleValues < arguments.length;
+		this.aggregateFunction = checkArgumentCount && function instanceof AggregateFunction ? (AggregateFunction) function : null;
+		// Predefined functions take precedence over user functions with the same name
+		this.userFunction = Functions.FUNCTIONS.get(name) != function;
+		if (singleValues > function.getMaxArguments() || (!checkArgumentCount && singleValues < function.getMinArguments())) {
+			throw newArgumentCountException(arguments.length);
+		}
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		SCalcOptions<?> options = context.getOptions();
+		if (aggregateFunction != null && isStreamedArgument(context)) {
+			AggregateFunction.Aggregation aggregation = aggregateFunction.newAggregation(options);
+			for (Node argument : arguments) {
+				argument.aggregateInto(context, aggregation);
+			}
+			return aggregation.getResult();
+		}
+		
+		Arguments functionParams = new Arguments(arguments.length);
+		for (Node argument : arguments) {
+			argument.evaluateInto(context, functionParams);
+		}
+		validateArgumentCount(functionParams.size());
+		
+		BigDecimal result = call(options, functionParams);
+		
+		SCalcTrace trace = context.getTrace();
+		if (trace != null) {
+			trace.function(name, functionParams.toArray(), result);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		SCalcOptions<?> options = context.getOptions();
+		if (aggregateFunction != null && isStreamedArgument(context)) {
+			AggregateFunction.DoubleAggregation aggregation = aggregateFunction.newDoubleAggregation();
+			for (Node argument : arguments) {
+				argument.aggregateDoubleInto(context, aggregation);
+			}
+			return aggregation.getResult();
+		}
+		
+		DoubleArguments functionParams = new DoubleArguments(arguments.length);
+		for (Node argument : arguments) {
+			argument.evaluateDoubleInto(context, functionParams);
+		}
+		validateArgumentCount(functionParams.size());
+		
+		double result = callDouble(options, functionParams);
+		
+		SCalcTrace trace = context.getTrace();
+		if (trace != null) {
+			trace.function(name, functionParams.toArray(), result);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		SCalcOptions<?> options = context.getOptions();
+		
+		List<double[]> functionParams = new ArrayList<>(arguments.length);
+		for (Node argument : arguments) {
+			argument.evaluateDoubleColumnInto(context, functionParams);
+		}
+		validateArgumentCount(functionParams.size());
+		
+		double[][] columns = functionParams.toArray(new double[0][]);
+		double[] result = new double[context.getRowCount()];
+		DoubleArguments rowParams = new DoubleArguments(columns.length);
+		for (int row = 0; row < result.length; row++) {
+			rowParams.clear();
+			for (double[] column : columns) {
+				rowParams.add(column[row]);
+			}
+			
+			result[row] = callDouble(options, rowParams);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @return True if any argument is given as stream, so an aggregate function folds the values instead of collecting them.
+	 */
+	private boolean isStreamedArgument(EvaluationContext context) {
+		for (Node argument : arguments) {
+			if (argument.isStreamed(context)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Calls of user functions are recorded by the Flight Recorder if they take longer than the threshold of the event.
+	 */
+	private BigDecimal call(SCalcOptions<?> options, Arguments functionParams) {
+		Object event = userFunction ? FlightRecorderEvents.beginFunctionCall() : null;
+		if (event == null) {
+			return function.call(options, functionParams);
+		}
+		
+		try {
+			return function.call(options, functionParams);
+		} finally {
+			FlightRecorderEvents.commitFunctionCall(event, options, name, functionParams.size());
+		}
+	}
+	
+	private double callDouble(SCalcOptions<?> options, DoubleArguments functionParams) {
+		Object event = userFunction ? FlightRecorderEvents.beginFunctionCall() : null;
+		if (event == null) {
+			return convertAndCallDouble(options, functionParams);
+		}
+		
+		try {
+			return convertAndCallDouble(options, functionParams);
+		} finally {
+			FlightRecorderEvents.commitFunctionCall(event, options, name, functionParams.size());
+		}
+	}
+	
+	private double convertAndCallDouble(SCalcOptions<?> options, DoubleArguments functionParams) {
+		if (function.isDoubleSupported()) {
+			return function.callDouble(options, functionParams);
+		}
+		
+		Arguments bigDecimalParams = new Arguments(functionParams.size());
+		for (int i = 0; i < functionParams.size(); i++) {
+			bigDecimalParams.add(BigDecimal.valueOf(functionParams.get(i)).setScale(options.getCalculationScale(), options.getCalculationRoundingMode()));
+		}
+		return function.call(options, bigDecimalParams).doubleValue();
+	}
+	
+	private void validateArgumentCount(int count) {
+		if (checkArgumentCount && (count < function.getMinArguments() || count > function.getMaxArguments())) {
+			throw newArgumentCountException(count);
+		}
+	}
+	
+	private CalculationException newArgumentCountException(int count) {
+		String max = function.getMaxArguments() == SCalcFunction.UNLIMITED_ARGUMENTS ? "unlimited" : String.valueOf(function.getMaxArguments());
+		return new CalculationException(String.format("Function '%s' has to have at least %s and max. %s arguments, but got %s.",
+				name, function.getMinArguments(), max, count));
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public SCalcFunction getFunction() {
+		return function;
+	}
+	
+	public Node[] getArguments() {
+		return arguments;
+	}
+	
+	@Override
+	public String toString() {
+		return Arrays.stream(arguments)
+				.map(Node::toString)
+				.collect(Collectors.joining(", ", name + "(", ")"));
+	}
+}
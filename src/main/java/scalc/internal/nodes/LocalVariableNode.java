@@ -0,0 +1,98 @@
+package scalc.internal.nodes;
+
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Parameter of a script function. If the function was called with less parameters, the fallback node is evaluated.
+ */
+public class LocalVariableNode extends Node {
+	private final String name;
+	private final int index;
+	private final Node fallback;
+	
+	public LocalVariableNode(String name, int index, Node fallback) {
+		this.name = name;
+		this.index = index;
+		this.fallback = fallback;
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		BigDecimal value = context.getLocal(index);
+		if (value == null) {
+			return fallback.evaluate(context);
+		}
+		return value;
+	}
+	
+	@Override
+	public boolean hasSingleValue() {
+		return fallback.hasSingleValue();
+	}
+	
+	@Override
+	public void evaluateInto(EvaluationContext context, Arguments functionParams) {
+		BigDecimal value = context.getLocal(index);
+		if (value == null) {
+			fallback.evaluateInto(context, functionParams);
+		} else {
+			functionParams.add(value);
+		}
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		if (!context.isDoubleLocalGiven(index)) {
+			return fallback.evaluateDouble(context);
+		}
+		return context.getDoubleLocal(index);
+	}
+	
+	@Override
+	public void evaluateDoubleInto(EvaluationContext context, DoubleArguments functionParams) {
+		if (!context.isDoubleLocalGiven(index)) {
+			fallback.evaluateDoubleInto(context, functionParams);
+		} else {
+			functionParams.add(context.getDoubleLocal(index));
+		}
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		double[] values = context.getLocal(index);
+		if (values == null) {
+			return fallback.evaluateDoubleColumn(context);
+		}
+		return values;
+	}
+	
+	@Override
+	public void evaluateDoubleColumnInto(ColumnContext context, List<double[]> functionParams) {
+		double[] values = context.getLocal(index);
+		if (values == null) {
+			fallback.evaluateDoubleColumnInto(context, functionParams);
+		} else {
+			functionParams.add(values);
+		}
+	}
+	
+	public int getIndex() {
+		return index;
+	}
+	
+	/**
+	 * @return Node to evaluate if the parameter was not given.
+	 */
+	public Node getFallback() {
+		return fallback;
+	}
+	
+	@Override
+	public String toString() {
+		return name;
+	}
+}
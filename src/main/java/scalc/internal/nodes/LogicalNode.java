@@ -0,0 +1,79 @@
+package scalc.internal.nodes;
+
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+
+/**
+ * Short-circuit <code>&amp;&amp;</code> and <code>||</code>. The right operand is only calculated if the left one does not
+ * determine the result. The result is 1 (true) or 0 (false).
+ */
+public class LogicalNode extends Node {
+	public static final String AND = "&&";
+	public static final String OR = "||";
+	
+	private final boolean and;
+	private final Node left;
+	private final Node right;
+	
+	public LogicalNode(boolean and, Node left, Node right) {
+		this.and = and;
+		this.left = left;
+		this.right = right;
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		boolean result = Operator.isTrue(left.evaluate(context));
+		if (result == and) {
+			result = Operator.isTrue(right.evaluate(context));
+		}
+		return Operator.toBoolean(result, context.getOptions());
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		boolean result = Operator.isTrue(left.evaluateDouble(context));
+		if (result == and) {
+			result = Operator.isTrue(right.evaluateDouble(context));
+		}
+		return result ? 1.0 : 0.0;
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		double[] leftValues = left.evaluateDoubleColumn(context);
+		double[] result = new double[leftValues.length];
+		for (int row = 0; row < result.length; row++) {
+			result[row] = Operator.isTrue(leftValues[row]) ? 1.0 : 0.0;
+		}
+		
+		int[] undecided = ConditionalNode.selectRows(leftValues, and);
+		if (undecided.length > 0) {
+			double[] rightValues = right.evaluateDoubleColumn(context.select(undecided));
+			for (int row = 0; row < undecided.length; row++) {
+				result[undecided[row]] = Operator.isTrue(rightValues[row]) ? 1.0 : 0.0;
+			}
+		}
+		
+		return result;
+	}
+	
+	public boolean isAnd() {
+		return and;
+	}
+	
+	public Node getLeft() {
+		return left;
+	}
+	
+	public Node getRight() {
+		return right;
+	}
+	
+	@Override
+	public String toString() {
+		return "(" + left + " " + (and ? AND : OR) + " " + right + ")";
+	}
+}
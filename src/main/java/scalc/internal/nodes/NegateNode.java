@@ -0,0 +1,43 @@
+package scalc.internal.nodes;
+
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+
+public class NegateNode extends Node {
+	private final Node node;
+	
+	public NegateNode(Node node) {
+		this.node = node;
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		return node.evaluate(context).negate();
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		return -node.evaluateDouble(context);
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		double[] values = node.evaluateDoubleColumn(context);
+		double[] result = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			result[i] = -values[i];
+		}
+		return result;
+	}
+	
+	public Node getNode() {
+		return node;
+	}
+	
+	@Override
+	public String toString() {
+		return "-" + node;
+	}
+}
@@ -0,0 +1,94 @@
+package scalc.internal.nodes;
+
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Element of a compiled expression tree. Nodes are immutable and can be evaluated concurrently.
+ */
+public abstract class Node {
+	public abstract BigDecimal evaluate(EvaluationContext context);
+	
+	/**
+	 * Evaluates this node on primitive doubles. Used if the calculation is done with double precision.
+	 */
+	public abstract double evaluateDouble(EvaluationContext context);
+	
+	/**
+	 * Evaluates this node for all rows of a batch on primitive doubles. The returned column must not be modified.
+	 */
+	public abstract double[] evaluateDoubleColumn(ColumnContext context);
+	
+	/**
+	 * @return False if the node may represent any number of values when used as function parameter.
+	 */
+	public boolean hasSingleValue() {
+		return true;
+	}
+	
+	/**
+	 * Adds the value(s) of this node to the given function parameters.
+	 * Nodes representing multiple values (like collection parameters) add all of them.
+	 */
+	public void evaluateInto(EvaluationContext context, Arguments functionParams) {
+		functionParams.add(evaluate(context));
+	}
+	
+	/**
+	 * Primitive counterpart of {@link #evaluateInto(EvaluationContext, Arguments)}.
+	 */
+	public void evaluateDoubleInto(EvaluationContext context, DoubleArguments functionParams) {
+		functionParams.add(evaluateDouble(context));
+	}
+	
+	/**
+	 * Column counterpart of {@link #evaluateInto(EvaluationContext, Arguments)}.
+	 */
+	public void evaluateDoubleColumnInto(ColumnContext context, List<double[]> functionParams) {
+		functionParams.add(evaluateDoubleColumn(context));
+	}
+	
+	/**
+	 * @return True if the values of this node are given as stream in the current calculation.
+	 */
+	public boolean isStreamed(EvaluationContext context) {
+		return false;
+	}
+	
+	/**
+	 * Passes the value(s) of this node one by one to the given aggregation. Streamed values are consumed without collecting them.
+	 */
+	public void aggregateInto(EvaluationContext context, Consumer<BigDecimal> aggregation) {
+		if (hasSingleValue()) {
+			aggregation.accept(evaluate(context));
+			return;
+		}
+		
+		Arguments values = new Arguments(1);
+		evaluateInto(context, values);
+		for (int i = 0; i < values.size(); i++) {
+			aggregation.accept(values.get(i));
+		}
+	}
+	
+	/**
+	 * Primitive counterpart of {@link #aggregateInto(EvaluationContext, Consumer)}.
+	 */
+	public void aggregateDoubleInto(EvaluationContext context, DoubleConsumer aggregation) {
+		if (hasSingleValue()) {
+			aggregation.accept(evaluateDouble(context));
+			return;
+		}
+		
+		DoubleArguments values = new DoubleArguments(1);
+		evaluateDoubleInto(context, values);
+		for (int i = 0; i < values.size(); i++) {
+			aggregation.accept(values.get(i));
+		}
+	}
+}
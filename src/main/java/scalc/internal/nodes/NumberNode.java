@@ -0,0 +1,40 @@
+package scalc.internal.nodes;
+
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+
+public class NumberNode extends Node {
+	private final BigDecimal value;
+	private final double doubleValue;
+	
+	public NumberNode(BigDecimal value) {
+		this.value = value;
+		this.doubleValue = value.doubleValue();
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		return value;
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		return doubleValue;
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		return context.fill(doubleValue);
+	}
+	
+	public BigDecimal getValue() {
+		return value;
+	}
+	
+	@Override
+	public String toString() {
+		return value.toPlainString();
+	}
+}
@@ -0,0 +1,161 @@
+package scalc.internal.nodes;
+
+import scalc.SCalcOptions;
+import scalc.interfaces.SCalcExpressions;
+
+import java.math.BigDecimal;
+
+public enum Operator {
+	ADD(SCalcExpressions.SUM_EXPRESSION),
+	SUBTRACT(SCalcExpressions.SUBTRACT_EXPRESSION),
+	MULTIPLY(SCalcExpressions.MULTIPLY_EXPRESSION),
+	DIVIDE(SCalcExpressions.DIVIDE_EXPRESSION),
+	POW(SCalcExpressions.POW_EXPRESSION),
+	LESS("<"),
+	LESS_OR_EQUAL("<="),
+	GREATER(">"),
+	GREATER_OR_EQUAL(">="),
+	EQUAL("=="),
+	NOT_EQUAL("!=");
+	
+	private final String symbol;
+	
+	Operator(String symbol) {
+		this.symbol = symbol;
+	}
+	
+	public BigDecimal apply(BigDecimal left, BigDecimal right, SCalcOptions<?> options) {
+		switch (this) {
+			case ADD: return left.add(right);
+			case SUBTRACT: return left.subtract(right);
+			case MULTIPLY: return left.multiply(right);
+			case DIVIDE: return left.divide(right, options.getCalculationScale(), options.getCalculationRoundingMode());
+			case POW: return calculatePow(left, right, options);
+			case LESS:
+			case LESS_OR_EQUAL:
+			case GREATER:
+			case GREATER_OR_EQUAL:
+			case EQUAL:
+			case NOT_EQUAL:
+				return toBoolean(compare(left.compareTo(right)), options);
+			default: throw new IllegalStateException("Unknown operator: " + this);
+		}
+	}
+	
+	public double applyDouble(double left, double right) {
+		switch (this) {
+			case ADD: return left + right;
+			case SUBTRACT: return left - right;
+			case MULTIPLY: return left * right;
+			case DIVIDE: return left / right;
+			case POW: return Math.pow(left, right);
+			case LESS: return left < right ? 1.0 : 0.0;
+			case LESS_OR_EQUAL: return left <= right ? 1.0 : 0.0;
+			case GREATER: return left > right ? 1.0 : 0.0;
+			case GREATER_OR_EQUAL: return left >= right ? 1.0 : 0.0;
+			case EQUAL: return left == right ? 1.0 : 0.0;
+			case NOT_EQUAL: return left != right ? 1.0 : 0.0;
+			default: throw new IllegalStateException("Unknown operator: " + this);
+		}
+	}
+	
+	/**
+	 * Applies the operator row by row. The result column may be the same array as the left column.
+	 */
+	public void applyDouble(double[] left, double[] right, double[] result) {
+		switch (this) {
+			case ADD:
+				for (int i = 0; i < result.length; i++) result[i] = left[i] + right[i];
+				break;
+			case SUBTRACT:
+				for (int i = 0; i < result.length; i++) result[i] = left[i] - right[i];
+				break;
+			case MULTIPLY:
+				for (int i = 0; i < result.length; i++) result[i] = left[i] * right[i];
+				break;
+			case DIVIDE:
+				for (int i = 0; i < result.length; i++) result[i] = left[i] / right[i];
+				break;
+			case POW:
+				for (int i = 0; i < result.length; i++) result[i] = Math.pow(left[i], right[i]);
+				break;
+			case LESS:
+			case LESS_OR_EQUAL:
+			case GREATER:
+			case GREATER_OR_EQUAL:
+			case EQUAL:
+			case NOT_EQUAL:
+				for (int i = 0; i < result.length; i++) result[i] = applyDouble(left[i], right[i]);
+				break;
+			default:
+				throw new IllegalStateException("Unknown operator: " + this);
+		}
+	}
+	
+	/**
+	 * @return True if this is a comparison, which results in 1 (true) or 0 (false).
+	 */
+	public boolean isComparison() {
+		switch (this) {
+			case LESS:
+			case LESS_OR_EQUAL:
+			case GREATER:
+			case GREATER_OR_EQUAL:
+			case EQUAL:
+			case NOT_EQUAL:
+				return true;
+			default:
+				return false;
+		}
+	}
+	
+	private boolean compare(int comparison) {
+		switch (this) {
+			case LESS: return comparison < 0;
+			case LESS_OR_EQUAL: return comparison <= 0;
+			case GREATER: return comparison > 0;
+			case GREATER_OR_EQUAL: return comparison >= 0;
+			case EQUAL: return comparison == 0;
+			case NOT_EQUAL: return comparison != 0;
+			default: throw new IllegalStateException("Not a comparison: " + this);
+		}
+	}
+	
+	/**
+	 * Booleans are represented by 1 (true) and 0 (false) with the calculation scale.
+	 */
+	public static BigDecimal toBoolean(boolean value, SCalcOptions<?> options) {
+		return (value ? BigDecimal.ONE : BigDecimal.ZERO).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+	}
+	
+	/**
+	 * Every value except 0 is true.
+	 */
+	public static boolean isTrue(BigDecimal value) {
+		return value.signum() != 0;
+	}
+	
+	/**
+	 * Every value except 0 is true, including NaN.
+	 */
+	public static boolean isTrue(double value) {
+		return value != 0.0;
+	}
+	
+	public static BigDecimal calculatePow(BigDecimal value, BigDecimal power, SCalcOptions<?> options) {
+		return BigDecimal.valueOf(Math.pow(value.doubleValue(), power.doubleValue())).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+	}
+	
+	public static Operator forSymbol(String symbol) {
+		for (Operator operator : values()) {
+			if (operator.symbol.equals(symbol)) {
+				return operator;
+			}
+		}
+		return null;
+	}
+	
+	public String getSymbol() {
+		return symbol;
+	}
+}
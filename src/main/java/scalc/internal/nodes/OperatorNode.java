@@ -0,0 +1,76 @@
+package scalc.internal.nodes;
+
+import scalc.SCalcOptions;
+import scalc.interfaces.SCalcTrace;
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+
+public class OperatorNode extends Node {
+	private final Operator operator;
+	private final Node left;
+	private final Node right;
+	
+	public OperatorNode(Operator operator, Node left, Node right) {
+		this.operator = operator;
+		this.left = left;
+		this.right = right;
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		SCalcOptions<?> options = context.getOptions();
+		
+		BigDecimal leftValue = left.evaluate(context);
+		BigDecimal rightValue = right.evaluate(context);
+		BigDecimal result = operator.apply(leftValue, rightValue, options);
+		
+		SCalcTrace trace = context.getTrace();
+		if (trace != null) {
+			trace.term(operator.getSymbol(), leftValue, rightValue, result);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		double leftValue = left.evaluateDouble(context);
+		double rightValue = right.evaluateDouble(context);
+		double result = operator.applyDouble(leftValue, rightValue);
+		
+		SCalcTrace trace = context.getTrace();
+		if (trace != null) {
+			trace.term(operator.getSymbol(), leftValue, rightValue, result);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		double[] leftValues = left.evaluateDoubleColumn(context);
+		double[] rightValues = right.evaluateDoubleColumn(context);
+		double[] result = new double[context.getRowCount()];
+		operator.applyDouble(leftValues, rightValues, result);
+		return result;
+	}
+	
+	public Operator getOperator() {
+		return operator;
+	}
+	
+	public Node getLeft() {
+		return left;
+	}
+	
+	public Node getRight() {
+		return right;
+	}
+	
+	@Override
+	public String toString() {
+		return "(" + left + " " + operator.getSymbol() + " " + right + ")";
+	}
+}
@@ -0,0 +1,202 @@
+package scalc.internal.nodes;
+
+import scalc.SCalcOptions;
+import scalc.exceptions.CalculationException;
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+import scalc.internal.converter.StreamedValues;
+
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Named value within an expression. The value is bound to the parameter slot on each calculation.
+ * If no parameter is given, the default value (e.g. a predefined constant) is used. Streamed values are only collected
+ * if the parameter is not aggregated.
+ */
+public class ParameterNode extends Node {
+	private final String name;
+	private final int slot;
+	private final BigDecimal defaultValue;
+	private final double defaultDoubleValue;
+	
+	public ParameterNode(String name, int slot, BigDecimal defaultValue) {
+		this.name = name;
+		this.slot = slot;
+		this.defaultValue = defaultValue;
+		this.defaultDoubleValue = defaultValue == null ? 0.0 : defaultValue.doubleValue();
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		BigDecimal[] values = context.getParameter(slot);
+		if (values == null) {
+			StreamedValues streamedValues = context.getStreamedParameter(slot);
+			if (streamedValues == null) {
+				return resolveDefaultValue();
+			}
+			
+			Arguments collectedValues = new Arguments(1);
+			streamedValues.forEach(context.getOptions(), collectedValues::add);
+			values = collectedValues.toArray();
+		}
+		
+		if (values.length == 0) {
+			SCalcOptions<?> options = context.getOptions();
+			return BigDecimal.ZERO.setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+		}
+		if (values.length > 1) {
+			throw new CalculationException(String.format("Parameter '%s' has %s values and can only be used as function parameter.", name, values.length));
+		}
+		
+		return values[0];
+	}
+	
+	@Override
+	public boolean hasSingleValue() {
+		return false;
+	}
+	
+	@Override
+	public void evaluateInto(EvaluationContext context, Arguments functionParams) {
+		BigDecimal[] values = context.getParameter(slot);
+		if (values == null) {
+			StreamedValues streamedValues = context.getStreamedParameter(slot);
+			if (streamedValues != null) {
+				streamedValues.forEach(context.getOptions(), functionParams::add);
+			} else {
+				functionParams.add(resolveDefaultValue());
+			}
+			return;
+		}
+		
+		for (BigDecimal value : values) {
+			functionParams.add(value);
+		}
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		double[] values = context.getDoubleParameter(slot);
+		if (values == null) {
+			StreamedValues streamedValues = context.getStreamedParameter(slot);
+			if (streamedValues == null) {
+				return resolveDefaultDoubleValue();
+			}
+			
+			DoubleArguments collectedValues = new DoubleArguments(1);
+			streamedValues.forEachDouble(collectedValues::add);
+			values = collectedValues.toArray();
+		}
+		
+		if (values.length == 0) {
+			return 0.0;
+		}
+		if (values.length > 1) {
+			throw new CalculationException(String.format("Parameter '%s' has %s values and can only be used as function parameter.", name, values.length));
+		}
+		
+		return values[0];
+	}
+	
+	@Override
+	public void evaluateDoubleInto(EvaluationContext context, DoubleArguments functionParams) {
+		double[] values = context.getDoubleParameter(slot);
+		if (values == null) {
+			StreamedValues streamedValues = context.getStreamedParameter(slot);
+			if (streamedValues != null) {
+				streamedValues.forEachDouble(functionParams::add);
+			} else {
+				functionParams.add(resolveDefaultDoubleValue());
+			}
+			return;
+		}
+		
+		functionParams.addAll(values);
+	}
+	
+	@Override
+	public boolean isStreamed(EvaluationContext context) {
+		return context.getStreamedParameter(slot) != null;
+	}
+	
+	@Override
+	public void aggregateInto(EvaluationContext context, Consumer<BigDecimal> aggregation) {
+		StreamedValues streamedValues = context.getStreamedParameter(slot);
+		if (streamedValues != null) {
+			streamedValues.forEach(context.getOptions(), aggregation);
+			return;
+		}
+		
+		BigDecimal[] values = context.getParameter(slot);
+		if (values == null) {
+			aggregation.accept(resolveDefaultValue());
+			return;
+		}
+		for (BigDecimal value : values) {
+			aggregation.accept(value);
+		}
+	}
+	
+	@Override
+	public void aggregateDoubleInto(EvaluationContext context, DoubleConsumer aggregation) {
+		StreamedValues streamedValues = context.getStreamedParameter(slot);
+		if (streamedValues != null) {
+			streamedValues.forEachDouble(aggregation);
+			return;
+		}
+		
+		double[] values = context.getDoubleParameter(slot);
+		if (values == null) {
+			aggregation.accept(resolveDefaultDoubleValue());
+			return;
+		}
+		for (double value : values) {
+			aggregation.accept(value);
+		}
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		double[] values = context.getParameter(slot);
+		if (values == null) {
+			return context.fill(resolveDefaultDoubleValue());
+		}
+		return values;
+	}
+	
+	private BigDecimal resolveDefaultValue() {
+		if (defaultValue == null) {
+			throw new CalculationException("Unknown identifier: " + name);
+		}
+		return defaultValue;
+	}
+	
+	private double resolveDefaultDoubleValue() {
+		if (defaultValue == null) {
+			throw new CalculationException("Unknown identifier: " + name);
+		}
+		return defaultDoubleValue;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public int getSlot() {
+		return slot;
+	}
+	
+	/**
+	 * @return Value used if no parameter is given or null if the parameter is required.
+	 */
+	public BigDecimal getDefaultValue() {
+		return defaultValue;
+	}
+	
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,118 @@
+package scalc.internal.nodes;
+
+import scalc.SCalcOptions;
+import scalc.interfaces.SCalcTrace;
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Compiled definition expression: Variable assignments in the order of their definition followed by the return statement.
+ */
+public class ProgramNode extends Node {
+	private final Assignment[] assignments;
+	private final List<ScriptFunction> functions;
+	private final Node returnStatement;
+	
+	public ProgramNode(Assignment[] assignments, List<ScriptFunction> functions, Node returnStatement) {
+		this.assignments = assignments;
+		this.functions = functions;
+		this.returnStatement = returnStatement;
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		SCalcOptions<?> options = context.getOptions();
+		
+		for (Assignment assignment : assignments) {
+			BigDecimal result = assignment.getExpression().evaluate(context);
+			context.setVariable(assignment.getSlot(), result.setScale(options.getCalculationScale(), options.getCalculationRoundingMode()));
+			
+			SCalcTrace trace = context.getTrace();
+			if (trace != null) {
+				trace.variable(assignment.getName(), result);
+			}
+		}
+		
+		return returnStatement.evaluate(context);
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		for (Assignment assignment : assignments) {
+			double result = assignment.getExpression().evaluateDouble(context);
+			context.setDoubleVariable(assignment.getSlot(), result);
+			
+			SCalcTrace trace = context.getTrace();
+			if (trace != null) {
+				trace.variable(assignment.getName(), result);
+			}
+		}
+		
+		return returnStatement.evaluateDouble(context);
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		for (Assignment assignment : assignments) {
+			context.setVariable(assignment.getSlot(), assignment.getExpression().evaluateDoubleColumn(context));
+		}
+		
+		return returnStatement.evaluateDoubleColumn(context);
+	}
+	
+	public Assignment[] getAssignments() {
+		return assignments;
+	}
+	
+	public List<ScriptFunction> getFunctions() {
+		return functions;
+	}
+	
+	public Node getReturnStatement() {
+		return returnStatement;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (ScriptFunction function : functions) {
+			builder.append(function).append("; ");
+		}
+		for (Assignment assignment : assignments) {
+			builder.append(assignment).append("; ");
+		}
+		return builder.append("return ").append(returnStatement).append(";").toString();
+	}
+	
+	public static class Assignment {
+		private final String name;
+		private final int slot;
+		private final Node expression;
+		
+		public Assignment(String name, int slot, Node expression) {
+			this.name = name;
+			this.slot = slot;
+			this.expression = expression;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public int getSlot() {
+			return slot;
+		}
+		
+		public Node getExpression() {
+			return expression;
+		}
+		
+		@Override
+		public String toString() {
+			return name + " = " + expression;
+		}
+	}
+}
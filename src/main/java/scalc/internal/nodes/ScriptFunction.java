@@ -0,0 +1,135 @@
+package scalc.internal.nodes;
+
+import scalc.SCalcFunctionCache;
+import scalc.SCalcOptions;
+import scalc.exceptions.CalculationException;
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+import scalc.internal.functions.FunctionCallKey;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Function defined within a definition expression, like <code>f(x, y) = x * y</code>.
+ * The body is set once while compiling, so functions can call each other regardless of their definition order.
+ * If the result only depends on the parameters, it may be cached by a function cache when all parameters are given.
+ */
+public class ScriptFunction {
+	private final String name;
+	private final String[] parameterNames;
+	private Node body;
+	private SCalcFunctionCache cache;
+	
+	public ScriptFunction(String name, String[] parameterNames) {
+		this.name = name;
+		this.parameterNames = parameterNames;
+	}
+	
+	public BigDecimal call(EvaluationContext context, Arguments functionParams) {
+		if (functionParams.size() > parameterNames.length) {
+			throw new CalculationException(String.format("Function '%s' has %s parameters but was called with %s.",
+					name, parameterNames.length, functionParams.size()));
+		}
+		
+		SCalcOptions<?> options = context.getOptions();
+		BigDecimal[] locals = new BigDecimal[parameterNames.length];
+		for (int i = 0; i < functionParams.size(); i++) {
+			locals[i] = functionParams.get(i).setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+		}
+		
+		if (cache != null && functionParams.size() == parameterNames.length) {
+			return cache.get(FunctionCallKey.of(this, options, locals), () -> calculate(context, locals));
+		}
+		return calculate(context, locals);
+	}
+	
+	private BigDecimal calculate(EvaluationContext context, BigDecimal[] locals) {
+		BigDecimal[] callerLocals = context.enterFunction(locals);
+		try {
+			return body.evaluate(context);
+		} finally {
+			context.exitFunction(callerLocals);
+		}
+	}
+	
+	public double callDouble(EvaluationContext context, double[] functionParams) {
+		if (functionParams.length > parameterNames.length) {
+			throw new CalculationException(String.format("Function '%s' has %s parameters but was called with %s.",
+					name, parameterNames.length, functionParams.length));
+		}
+		
+		if (cache != null && functionParams.length == parameterNames.length) {
+			return cache.<Double>get(FunctionCallKey.of(this, context.getOptions(), functionParams), () -> calculateDouble(context, functionParams));
+		}
+		return calculateDouble(context, functionParams);
+	}
+	
+	private double calculateDouble(EvaluationContext context, double[] functionParams) {
+		double[] callerLocals = context.enterDoubleFunction(functionParams);
+		try {
+			return body.evaluateDouble(context);
+		} finally {
+			context.exitDoubleFunction(callerLocals);
+		}
+	}
+	
+	public double[] callDoubleColumns(ColumnContext context, List<double[]> functionParams) {
+		if (functionParams.size() > parameterNames.length) {
+			throw new CalculationException(String.format("Function '%s' has %s parameters but was called with %s.",
+					name, parameterNames.length, functionParams.size()));
+		}
+		
+		double[][] callerLocals = context.enterFunction(functionParams.toArray(new double[0][]));
+		try {
+			return body.evaluateDoubleColumn(context);
+		} finally {
+			context.exitFunction(callerLocals);
+		}
+	}
+	
+	public int getParameterIndex(String parameterName) {
+		for (int i = 0; i < parameterNames.length; i++) {
+			if (parameterNames[i].equalsIgnoreCase(parameterName)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	public int getParameterCount() {
+		return parameterNames.length;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public String[] getParameterNames() {
+		return parameterNames;
+	}
+	
+	public Node getBody() {
+		return body;
+	}
+	
+	public void setBody(Node body) {
+		this.body = body;
+	}
+	
+	public SCalcFunctionCache getCache() {
+		return cache;
+	}
+	
+	/**
+	 * @param cache Cache for the results of calls with all parameters. Only set if the result only depends on the parameters.
+	 */
+	public void setCache(SCalcFunctionCache cache) {
+		this.cache = cache;
+	}
+	
+	@Override
+	public String toString() {
+		return name + "(" + String.join(", ", parameterNames) + ") = " + body;
+	}
+}
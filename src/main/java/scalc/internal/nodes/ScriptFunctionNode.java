@@ -0,0 +1,80 @@
+package scalc.internal.nodes;
+
+import scalc.interfaces.SCalcTrace;
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ScriptFunctionNode extends Node {
+	private final ScriptFunction function;
+	private final Node[] arguments;
+	
+	public ScriptFunctionNode(ScriptFunction function, Node[] arguments) {
+		this.function = function;
+		this.arguments = arguments;
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		Arguments functionParams = new Arguments(arguments.length);
+		for (Node argument : arguments) {
+			argument.evaluateInto(context, functionParams);
+		}
+		
+		BigDecimal result = function.call(context, functionParams);
+		
+		SCalcTrace trace = context.getTrace();
+		if (trace != null) {
+			trace.function(function.getName(), functionParams.toArray(), result);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		DoubleArguments functionParams = new DoubleArguments(arguments.length);
+		for (Node argument : arguments) {
+			argument.evaluateDoubleInto(context, functionParams);
+		}
+		
+		double result = function.callDouble(context, functionParams.toArray());
+		
+		SCalcTrace trace = context.getTrace();
+		if (trace != null) {
+			trace.function(function.getName(), functionParams.toArray(), result);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		List<double[]> functionParams = new ArrayList<>(arguments.length);
+		for (Node argument : arguments) {
+			argument.evaluateDoubleColumnInto(context, functionParams);
+		}
+		
+		return function.callDoubleColumns(context, functionParams);
+	}
+	
+	public ScriptFunction getFunction() {
+		return function;
+	}
+	
+	public Node[] getArguments() {
+		return arguments;
+	}
+	
+	@Override
+	public String toString() {
+		return Arrays.stream(arguments)
+				.map(Node::toString)
+				.collect(Collectors.joining(", ", function.getName() + "(", ")"));
+	}
+}
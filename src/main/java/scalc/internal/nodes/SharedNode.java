@@ -0,0 +1,65 @@
+package scalc.internal.nodes;
+
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+
+/**
+ * Subexpression occurring multiple times within an expression. All occurrences share this node, which calculates
+ * the subexpression on first use and returns the stored result afterwards. The result is stored per calculation,
+ * so a subexpression within a branch of a condition is still only calculated if the branch is selected.
+ */
+public class SharedNode extends Node {
+	private final int index;
+	private final Node node;
+	
+	public SharedNode(int index, Node node) {
+		this.index = index;
+		this.node = node;
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		BigDecimal value = context.getShared(index);
+		if (value == null) {
+			value = node.evaluate(context);
+			context.setShared(index, value);
+		}
+		return value;
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		if (context.isDoubleSharedCalculated(index)) {
+			return context.getDoubleShared(index);
+		}
+		
+		double value = node.evaluateDouble(context);
+		context.setDoubleShared(index, value);
+		return value;
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		double[] values = context.getShared(index);
+		if (values == null) {
+			values = node.evaluateDoubleColumn(context);
+			context.setShared(index, values);
+		}
+		return values;
+	}
+	
+	public int getIndex() {
+		return index;
+	}
+	
+	public Node getNode() {
+		return node;
+	}
+	
+	@Override
+	public String toString() {
+		return node.toString();
+	}
+}
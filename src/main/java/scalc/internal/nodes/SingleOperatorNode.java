@@ -0,0 +1,80 @@
+package scalc.internal.nodes;
+
+import scalc.SCalcOptions;
+import scalc.interfaces.SCalcTrace;
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+
+/**
+ * Sets the operator between every given parameter value and calculates the result.
+ */
+public class SingleOperatorNode extends Node {
+	private final Operator operator;
+	
+	public SingleOperatorNode(Operator operator) {
+		this.operator = operator;
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		SCalcOptions<?> options = context.getOptions();
+		
+		BigDecimal result = null;
+		for (BigDecimal[] values : context.getAllParameters()) {
+			for (BigDecimal value : values) {
+				result = result == null ? value : operator.apply(result, value, options);
+			}
+		}
+		
+		if (result == null) {
+			return BigDecimal.ZERO.setScale(options.getCalculationScale(), options.getCalculationRoundingMode());
+		}
+		
+		SCalcTrace trace = context.getTrace();
+		if (trace != null) {
+			trace.aggregation(operator.getSymbol(), result);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		double result = 0.0;
+		boolean first = true;
+		for (double[] values : context.getAllDoubleParameters()) {
+			for (double value : values) {
+				result = first ? value : operator.applyDouble(result, value);
+				first = false;
+			}
+		}
+		
+		SCalcTrace trace = context.getTrace();
+		if (trace != null) {
+			trace.aggregation(operator.getSymbol(), result);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		double[] result = null;
+		for (double[] values : context.getAllParameters()) {
+			if (result == null) {
+				result = values.clone();
+			} else {
+				operator.applyDouble(result, values, result);
+			}
+		}
+		
+		return result == null ? context.fill(0.0) : result;
+	}
+	
+	@Override
+	public String toString() {
+		return operator.getSymbol();
+	}
+}
@@ -0,0 +1,98 @@
+package scalc.internal.nodes;
+
+import scalc.internal.calc.ColumnContext;
+import scalc.internal.calc.EvaluationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Variable assigned within a definition expression. If the variable is not assigned yet, the fallback node is evaluated.
+ */
+public class VariableNode extends Node {
+	private final String name;
+	private final int slot;
+	private final Node fallback;
+	
+	public VariableNode(String name, int slot, Node fallback) {
+		this.name = name;
+		this.slot = slot;
+		this.fallback = fallback;
+	}
+	
+	@Override
+	public BigDecimal evaluate(EvaluationContext context) {
+		BigDecimal value = context.getVariable(slot);
+		if (value == null && fallback != null) {
+			return fallback.evaluate(context);
+		}
+		return value;
+	}
+	
+	@Override
+	public boolean hasSingleValue() {
+		return fallback == null || fallback.hasSingleValue();
+	}
+	
+	@Override
+	public void evaluateInto(EvaluationContext context, Arguments functionParams) {
+		BigDecimal value = context.getVariable(slot);
+		if (value == null && fallback != null) {
+			fallback.evaluateInto(context, functionParams);
+		} else {
+			functionParams.add(value);
+		}
+	}
+	
+	@Override
+	public double evaluateDouble(EvaluationContext context) {
+		if (!context.isDoubleVariableAssigned(slot) && fallback != null) {
+			return fallback.evaluateDouble(context);
+		}
+		return context.getDoubleVariable(slot);
+	}
+	
+	@Override
+	public void evaluateDoubleInto(EvaluationContext context, DoubleArguments functionParams) {
+		if (!context.isDoubleVariableAssigned(slot) && fallback != null) {
+			fallback.evaluateDoubleInto(context, functionParams);
+		} else {
+			functionParams.add(context.getDoubleVariable(slot));
+		}
+	}
+	
+	@Override
+	public double[] evaluateDoubleColumn(ColumnContext context) {
+		double[] values = context.getVariable(slot);
+		if (values == null && fallback != null) {
+			return fallback.evaluateDoubleColumn(context);
+		}
+		return values;
+	}
+	
+	@Override
+	public void evaluateDoubleColumnInto(ColumnContext context, List<double[]> functionParams) {
+		double[] values = context.getVariable(slot);
+		if (values == null && fallback != null) {
+			fallback.evaluateDoubleColumnInto(context, functionParams);
+		} else {
+			functionParams.add(values);
+		}
+	}
+	
+	public int getSlot() {
+		return slot;
+	}
+	
+	/**
+	 * @return Node to evaluate if the variable is not assigned yet or null.
+	 */
+	public Node getFallback() {
+		return fallback;
+	}
+	
+	@Override
+	public String toString() {
+		return name;
+	}
+}
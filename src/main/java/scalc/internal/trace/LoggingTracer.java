@@ -0,0 +1,148 @@
+package scalc.internal.trace;
+
+import scalc.interfaces.SCalcTrace;
+import scalc.interfaces.SCalcTracer;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Tracer of the debug mode, which formats each step to a message for the debug logger. Steps are passed on to a registered tracer as well.
+ */
+public class LoggingTracer implements SCalcTracer {
+	private final Consumer<String> logger;
+	private final SCalcTracer next;
+	
+	/**
+	 * @param next Registered tracer or null
+	 */
+	public LoggingTracer(Consumer<String> logger, SCalcTracer next) {
+		this.logger = logger;
+		this.next = next;
+	}
+	
+	@Override
+	public SCalcTrace startCalculation(String expression) {
+		SCalcTrace nextTrace = next == null ? null : next.startCalculation(expression);
+		return new LoggingTrace(expression, nextTrace);
+	}
+	
+	private class LoggingTrace implements SCalcTrace {
+		private final String expression;
+		private final SCalcTrace next;
+		
+		private LoggingTrace(String expression, SCalcTrace next) {
+			this.expression = expression;
+			this.next = next;
+		}
+		
+		@Override
+		public void term(String operator, BigDecimal left, BigDecimal right, BigDecimal result) {
+			logTerm(operator, left, right, result);
+			if (next != null) {
+				next.term(operator, left, right, result);
+			}
+		}
+		
+		@Override
+		public void term(String operator, double left, double right, double result) {
+			logTerm(operator, left, right, result);
+			if (next != null) {
+				next.term(operator, left, right, result);
+			}
+		}
+		
+		private void logTerm(String operator, Object left, Object right, Object result) {
+			logger.accept(String.format("Calculated term. Expression: '%s'. Left: '%s'. Right: '%s'. Result: %s", operator, left, right, result));
+		}
+		
+		@Override
+		public void function(String name, BigDecimal[] arguments, BigDecimal result) {
+			logFunction(name, Arrays.toString(arguments), result);
+			if (next != null) {
+				next.function(name, arguments, result);
+			}
+		}
+		
+		@Override
+		public void function(String name, double[] arguments, double result) {
+			logFunction(name, Arrays.toString(arguments), result);
+			if (next != null) {
+				next.function(name, arguments, result);
+			}
+		}
+		
+		private void logFunction(String name, String arguments, Object result) {
+			logger.accept(String.format("Call function '%s'. Params: '%s'. Result: %s", name, arguments, result));
+		}
+		
+		@Override
+		public void variable(String name, BigDecimal value) {
+			logVariable(name, value);
+			if (next != null) {
+				next.variable(name, value);
+			}
+		}
+		
+		@Override
+		public void variable(String name, double value) {
+			logVariable(name, value);
+			if (next != null) {
+				next.variable(name, value);
+			}
+		}
+		
+		private void logVariable(String name, Object value) {
+			logger.accept(String.format("Calculated variable: '%s'. Result: %s", name, value));
+		}
+		
+		@Override
+		public void aggregation(String operator, BigDecimal result) {
+			logAggregation(operator, result);
+			if (next != null) {
+				next.aggregation(operator, result);
+			}
+		}
+		
+		@Override
+		public void aggregation(String operator, double result) {
+			logAggregation(operator, result);
+			if (next != null) {
+				next.aggregation(operator, result);
+			}
+		}
+		
+		private void logAggregation(String operator, Object result) {
+			logger.accept(String.format("Calculated single operator expression. Expression: '%s'. Result: %s", operator, result));
+		}
+		
+		@Override
+		public void finished(BigDecimal result) {
+			logResult(result);
+			if (next != null) {
+				next.finished(result);
+			}
+		}
+		
+		@Override
+		public void finished(double result) {
+			logResult(result);
+			if (next != null) {
+				next.finished(result);
+			}
+		}
+		
+		private void logResult(Object result) {
+			logger.accept(String.format("Calculated expression. Expression: '%s'. Result: %s", expression, result));
+		}
+		
+		@Override
+		public void failed(Throwable error) {
+			logger.accept(String.format("Calculation failed. Expression: '%s'. Error: %s", expression, error));
+			if (next != null) {
+				next.failed(error);
+			}
+		}
+	}
+}
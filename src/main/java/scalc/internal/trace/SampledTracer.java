@@ -0,0 +1,28 @@
+package scalc.internal.trace;
+
+import scalc.interfaces.SCalcTrace;
+import scalc.interfaces.SCalcTracer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes only every n-th calculation to the given tracer. All other calculations are not traced at all.
+ */
+public class SampledTracer implements SCalcTracer {
+	private final SCalcTracer tracer;
+	private final int sampleRate;
+	private final AtomicLong calculations = new AtomicLong();
+	
+	public SampledTracer(SCalcTracer tracer, int sampleRate) {
+		this.tracer = tracer;
+		this.sampleRate = sampleRate;
+	}
+	
+	@Override
+	public SCalcTrace startCalculation(String expression) {
+		if (calculations.getAndIncrement() % sampleRate != 0) {
+			return null;
+		}
+		return tracer.startCalculation(expression);
+	}
+}
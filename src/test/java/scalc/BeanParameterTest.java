@@ -0,0 +1,180 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+import scalc.test.model.Money;
+import scalc.test.model.MoneyConverter;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BeanParameterTest {
+	@Test
+	public void testCalc_PropertyPath() {
+		Order order = new Order(0.1, Arrays.asList(new Line(2, 10.5), new Line(1, 4.0), new Line(3, 0.5)));
+		
+		for (boolean doublePrecision : new boolean[] { false, true }) {
+			SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+					.expression("sum(order.lines.amount) * (1 - order.discount) + sum(order.lines.quantity)")
+					.doublePrecision(doublePrecision)
+					.bytecodeGeneration(doublePrecision)
+					.compile();
+			
+			Assertions.assertEquals(26.5 * 0.9 + 6, formula.calc(formula.bindings().beanParameter("order", order)), 0.0000001);
+		}
+	}
+	
+	@Test
+	public void testCalc_BeanProperties() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("quantity * price + tax")
+				.compile();
+		
+		Line line = new Line(3, 2.5);
+		Assertions.assertEquals(7.5 + 1, formula.calc(formula.bindings().beanParameter(line).parameter("tax", 1)), 0);
+	}
+	
+	@Test
+	public void testCalc_RecordAccessorsFieldsAndMaps() {
+		Map<String, Object> customer = new HashMap<>();
+		customer.put("bonus", 5);
+		
+		Map<String, Object> values = new HashMap<>();
+		values.put("customer", customer);
+		
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("point.x + point.y + point.weight + values.customer.bonus")
+				.compile();
+		
+		Assertions.assertEquals(1.0 + 2.0 + 0.5 + 5.0, formula.calc(formula.bindings()
+				.beanParameter("point", new Point(1, 2))
+				.beanParameter("values", values)), 0);
+	}
+	
+	@Test
+	public void testCalc_CollectionOfBeans() {
+		List<Line> lines = Arrays.asList(new Line(1, 1.5), new Line(2, 2.5), null);
+		
+		Assertions.assertEquals(6.5, SCalcBuilder.doubleInstance()
+				.expression("sum(lines.amount)")
+				.build()
+				.beanParameter("lines", lines)
+				.calc(), 0);
+	}
+	
+	@Test
+	public void testCalc_ConvertedProperty() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("item.price * 2 + 1")
+				.registerConverter(Money.class, MoneyConverter.class)
+				.compile();
+		
+		Assertions.assertEquals(5.0, formula.calc(formula.bindings().beanParameter("item", new Item(new Money(2)))), 0);
+	}
+	
+	@Test
+	public void testCalc_Session() {
+		SCalcSession<Double> session = SCalcBuilder.doubleInstance()
+				.expression("order.discount * 100 + sum(order.lines.amount)")
+				.compile()
+				.session();
+		
+		Assertions.assertEquals(15.0, session.beanParameter("order", new Order(0.1, Arrays.asList(new Line(1, 5.0)))).calc(), 0);
+		Assertions.assertEquals(30.0, session.beanParameter("order", new Order(0.2, Arrays.asList(new Line(2, 5.0)))).calc(), 0);
+	}
+	
+	@Test
+	public void testCalc_NumbersAndPaths() {
+		Assertions.assertEquals(3.5, SCalcBuilder.doubleInstance()
+				.expression("1.5 + p.x")
+				.build()
+				.beanParameter("p", new Point(2, 0))
+				.calc(), 0);
+	}
+	
+	@Test
+	public void testCalc_MissingProperty() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("order.unknown")
+				.compile();
+		
+		CalculationException exception = Assertions.assertThrows(CalculationException.class,
+				() -> formula.bindings().beanParameter("order", new Order(0, Arrays.asList())));
+		Assertions.assertEquals("Cannot find property 'unknown' of " + Order.class.getName() + ".", exception.getMessage());
+	}
+	
+	public static class Order {
+		private final double discount;
+		private final List<Line> lines;
+		
+		public Order(double discount, List<Line> lines) {
+			this.discount = discount;
+			this.lines = lines;
+		}
+		
+		public double getDiscount() {
+			return discount;
+		}
+		
+		public List<Line> getLines() {
+			return lines;
+		}
+	}
+	
+	public static class Line {
+		private final int quantity;
+		private final double price;
+		
+		public Line(int quantity, double price) {
+			this.quantity = quantity;
+			this.price = price;
+		}
+		
+		public int getQuantity() {
+			return quantity;
+		}
+		
+		public double getPrice() {
+			return price;
+		}
+		
+		public BigDecimal getAmount() {
+			return BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(quantity));
+		}
+	}
+	
+	public static class Point {
+		public final double weight = 0.5;
+		private final long x;
+		private final long y;
+		
+		public Point(long x, long y) {
+			this.x = x;
+			this.y = y;
+		}
+		
+		public long x() {
+			return x;
+		}
+		
+		public long y() {
+			return y;
+		}
+	}
+	
+	public static class Item {
+		private final Money price;
+		
+		public Item(Money price) {
+			this.price = price;
+		}
+		
+		public Money getPrice() {
+			return price;
+		}
+	}
+}
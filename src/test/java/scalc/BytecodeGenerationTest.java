@@ -0,0 +1,138 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+import scalc.internal.bytecode.BytecodeCompiler;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BytecodeGenerationTest {
+	private static final List<String> EXPRESSIONS = Arrays.asList(
+			"a + b * 2 - a / b",
+			"-a ^ 2 + b² + a³",
+			"√(a² - (b² / 2))",
+			"root(a, 3) + abs(-b) + round(a / 7, 3)",
+			"sin(a) + cos(b) + tan(a) + ln(b) + log(a)",
+			"sum(a, b, 3) + avg(a, b) + max(a, b, 1) - min(a, b, 1)",
+			"PI * a + E",
+			"f(x, y) = x * y + c; c = a + b; return f(a, b) - c;",
+			"f(x) = x * a; g(x, y) = f(x) + f(y); return g(b, 2) * g(a, b);",
+			"f(a, b) = √(a² - (b² / 2)) * 0.75 + max(a, b) / 3; return f(a, b) + sin(a);",
+			"if(a > 10, a * 2, b) + (a >= 5 && b < 1) + (a == 3 || a != 4) + (a <= 2)",
+			"if(a < 5, 1, if(a < 10, 2, 3)) * case(a > 15, a, b > 1, b, -a)",
+			"f(x, y) = if(x <= y, x, y); return case(a < 5, f(a, b), a < 10, f(b, a) + 1, f(a, 2) * 3) + f(if(a > 7, a, 7), b);"
+	);
+	
+	@Test
+	public void testCompile_Generated() {
+		Assertions.assertTrue(BytecodeCompiler.isSupported());
+		
+		for (String expression : EXPRESSIONS) {
+			SCalcFormula<Double> formula = generatedFormula(expression);
+			Assertions.assertNotNull(formula.getCompiledExpression().getGeneratedExpression(), expression);
+		}
+	}
+	
+	@Test
+	public void testCalc_SameResultAsInterpreter() {
+		for (String expression : EXPRESSIONS) {
+			SCalcFormula<Double> interpretedFormula = SCalcBuilder.doubleInstance()
+					.expression(expression)
+					.doublePrecision(true)
+					.compile();
+			SCalcFormula<Double> generatedFormula = generatedFormula(expression);
+			
+			for (int a = 1; a < 20; a++) {
+				double expected = interpretedFormula.calc("a", a, "b", 0.5);
+				double result = generatedFormula.calc("a", a, "b", 0.5);
+				
+				Assertions.assertEquals(expected, result, 0, expression);
+			}
+		}
+	}
+	
+	@Test
+	public void testCalc_DefaultValues() {
+		SCalcFormula<Double> formula = generatedFormula("a + PI");
+		
+		Assertions.assertEquals(3.0 + Math.PI, formula.calc("a", 3), 1e-10);
+		Assertions.assertEquals(5.0, formula.calc("a", 3, "PI", 2), 0);
+		Assertions.assertThrows(CalculationException.class, () -> formula.calc("PI", 2));
+	}
+	
+	@Test
+	public void testCalc_MultiValuedParamsInterpreted() {
+		SCalcFormula<Double> formula = generatedFormula("sum(values) * 2");
+		
+		Map<String, Object> params = new HashMap<>();
+		params.put("values", Arrays.asList(1, 2, 3));
+		
+		Assertions.assertNotNull(formula.getCompiledExpression().getGeneratedExpression());
+		Assertions.assertEquals(12.0, formula.calc(params), 0);
+		Assertions.assertEquals(8.0, formula.calc("values", 4), 0);
+	}
+	
+	@Test
+	public void testCompile_FallbackToInterpreter() {
+		SCalcFormula<Double> allParams = generatedFormula("sum(ALL_PARAMS)");
+		SCalcFormula<Double> userFunction = SCalcBuilder.doubleInstance()
+				.expression("twice(a) + 1")
+				.registerUserFunction("twice", (options, functionParams) -> functionParams.get(0).multiply(BigDecimal.valueOf(2)))
+				.doublePrecision(true)
+				.bytecodeGeneration(true)
+				.compile();
+		SCalcFormula<Double> singleOperator = SCalcBuilder.doubleInstance()
+				.multiplyExpression()
+				.doublePrecision(true)
+				.bytecodeGeneration(true)
+				.compile();
+		
+		Assertions.assertNull(allParams.getCompiledExpression().getGeneratedExpression());
+		Assertions.assertNull(userFunction.getCompiledExpression().getGeneratedExpression());
+		Assertions.assertNull(singleOperator.getCompiledExpression().getGeneratedExpression());
+		
+		Assertions.assertEquals(6.0, allParams.calc(1, 2, 3), 0);
+		Assertions.assertEquals(7.0, userFunction.calc("a", 3), 0);
+		Assertions.assertEquals(6.0, singleOperator.calc(1, 2, 3), 0);
+	}
+	
+	@Test
+	public void testCompile_ConstantExpression() {
+		Map<String, Double> expressions = new HashMap<>();
+		expressions.put("4", 4.0);
+		expressions.put("2 * 3", 6.0);
+		expressions.put("abs(4)", 4.0);
+		expressions.put("(√(16, 4) + 2) / (99.99 - 79.99 - 16)", 1.0);
+		
+		for (Map.Entry<String, Double> entry : expressions.entrySet()) {
+			SCalcFormula<Double> formula = generatedFormula(entry.getKey());
+			
+			Assertions.assertNotNull(formula.getCompiledExpression().getGeneratedExpression(), entry.getKey());
+			Assertions.assertEquals(entry.getValue(), formula.calc(), 1e-12, entry.getKey());
+		}
+	}
+	
+	@Test
+	public void testCompile_BigDecimalNotGenerated() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a + b")
+				.bytecodeGeneration(true)
+				.compile();
+		
+		Assertions.assertNull(formula.getCompiledExpression().getGeneratedExpression());
+		Assertions.assertEquals(3.0, formula.calc("a", 1, "b", 2), 0);
+	}
+	
+	private static SCalcFormula<Double> generatedFormula(String expression) {
+		return SCalcBuilder.doubleInstance()
+				.expression(expression)
+				.doublePrecision(true)
+				.bytecodeGeneration(true)
+				.compile();
+	}
+}
@@ -0,0 +1,162 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.interfaces.FunctionArguments;
+import scalc.interfaces.SCalcFunction;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CommonSubexpressionTest {
+	private static final String REPEATED_EXPRESSION = "(a*b - c) * 2 + (a*b - c)² - abs(a*b - c) + max(a*b - c, 0) + (a*b - c) / 4 + (a * b - c)";
+	
+	@Test
+	public void testCompile_DeduplicatedCount() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression(REPEATED_EXPRESSION)
+				.compile();
+		
+		Assertions.assertEquals(5, formula.getDeduplicatedCount());
+		Assertions.assertEquals(0, SCalcBuilder.doubleInstance().expression("a * b + c").compile().getDeduplicatedCount());
+	}
+	
+	@Test
+	public void testCalc_SameResult() {
+		double expected = 2 * 2 + 4 - 2 + 2 + 0.5 + 2;
+		
+		for (boolean doublePrecision : new boolean[] { false, true }) {
+			SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+					.expression(REPEATED_EXPRESSION)
+					.doublePrecision(doublePrecision)
+					.bytecodeGeneration(doublePrecision)
+					.compile();
+			
+			Assertions.assertEquals(expected, formula.calc("a", 2, "b", 2, "c", 2), 0);
+			Assertions.assertEquals(expected, formula.calc("a", 2, "b", 2, "c", 2), 0);
+		}
+	}
+	
+	@Test
+	public void testCalc_PureFunctionCalledOnce() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("slow(a) + slow(a) * 2 + slow(b)")
+				.registerFunction("slow", new CountingFunction(calls, true))
+				.compile();
+		
+		Assertions.assertEquals(1, formula.getDeduplicatedCount());
+		Assertions.assertEquals(7.0, formula.calc("a", 1, "b", 4), 0);
+		Assertions.assertEquals(2, calls.get());
+		
+		calls.set(0);
+		Assertions.assertEquals(10.0, formula.calc("a", 2, "b", 4), 0);
+		Assertions.assertEquals(2, calls.get());
+		
+		calls.set(0);
+		double[] results = formula.calcDoubleBatch(new SCalcColumns()
+				.column("a", new double[] { 1, 2, 3 })
+				.column("b", new double[] { 4, 4, 4 }));
+		Assertions.assertArrayEquals(new double[] { 7, 10, 13 }, results, 0);
+		Assertions.assertEquals(6, calls.get());
+	}
+	
+	@Test
+	public void testCalc_ImpureFunctionNotShared() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("counter(a) + counter(a)")
+				.registerFunction("counter", new CountingFunction(calls, false))
+				.compile();
+		
+		Assertions.assertEquals(0, formula.getDeduplicatedCount());
+		Assertions.assertEquals(6.0, formula.calc("a", 3), 0);
+		Assertions.assertEquals(2, calls.get());
+	}
+	
+	@Test
+	public void testCalc_SharedWithinBranchStaysLazy() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("if(a > 0, slow(a) + slow(a), 0) + if(a > 5, slow(a), 1)")
+				.registerFunction("slow", new CountingFunction(calls, true))
+				.doublePrecision(true)
+				.compile();
+		
+		Assertions.assertEquals(1.0, formula.calc("a", -1), 0);
+		Assertions.assertEquals(0, calls.get());
+		
+		Assertions.assertEquals(7.0, formula.calc("a", 3), 0);
+		Assertions.assertEquals(1, calls.get());
+		
+		Assertions.assertEquals(30.0, formula.calc("a", 10), 0);
+		Assertions.assertEquals(2, calls.get());
+	}
+	
+	@Test
+	public void testCalc_DefinitionExpression() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("f(x) = x + slow(a); d = slow(a) * 2; return f(b) + d + slow(a);")
+				.registerFunction("slow", new CountingFunction(calls, true))
+				.compile();
+		
+		Assertions.assertEquals(2, formula.getDeduplicatedCount());
+		Assertions.assertEquals(5.0 + 3 + 6 + 3, formula.calc("a", 3, "b", 5), 0);
+		Assertions.assertEquals(1, calls.get());
+	}
+	
+	@Test
+	public void testCalc_ReassignedVariableNotShared() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("x = a * 2; y = x + 1; x = b; z = x + 1; return y * 10 + z;")
+				.compile();
+		
+		Assertions.assertEquals(0, formula.getDeduplicatedCount());
+		Assertions.assertEquals(50.0 + 4, formula.calc("a", 2, "b", 3), 0);
+	}
+	
+	@Test
+	public void testCalc_DifferentConstantsNotShared() {
+		SCalcFormula<BigDecimal> formula = SCalcBuilder.bigDecimalInstance()
+				.expression("round(a, 2) + round(a, 2) + round(a, 1)")
+				.compile();
+		
+		Assertions.assertEquals(1, formula.getDeduplicatedCount());
+		Assertions.assertEquals(0, new BigDecimal("3.82").compareTo(formula.calc("a", new BigDecimal("1.2649"))));
+	}
+	
+	/**
+	 * Returns its argument and counts the calls.
+	 */
+	private static class CountingFunction implements SCalcFunction {
+		private final AtomicInteger calls;
+		private final boolean pure;
+		
+		private CountingFunction(AtomicInteger calls, boolean pure) {
+			this.calls = calls;
+			this.pure = pure;
+		}
+		
+		@Override
+		public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+			calls.incrementAndGet();
+			return arguments.get(0);
+		}
+		
+		@Override
+		public int getMinArguments() {
+			return 1;
+		}
+		
+		@Override
+		public int getMaxArguments() {
+			return 1;
+		}
+		
+		@Override
+		public boolean isPure() {
+			return pure;
+		}
+	}
+}
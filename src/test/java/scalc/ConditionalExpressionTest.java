@@ -0,0 +1,166 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConditionalExpressionTest {
+	@Test
+	public void testCalc_Comparisons() {
+		Assertions.assertEquals(1, calc("a < b", 1, 2));
+		Assertions.assertEquals(0, calc("a < b", 2, 2));
+		Assertions.assertEquals(1, calc("a <= b", 2, 2));
+		Assertions.assertEquals(0, calc("a > b", 2, 2));
+		Assertions.assertEquals(1, calc("a >= b", 2, 2));
+		Assertions.assertEquals(1, calc("a == b", 2, 2));
+		Assertions.assertEquals(0, calc("a != b", 2, 2));
+		
+		// comparisons have a lower precedence than arithmetic operators
+		Assertions.assertEquals(1, calc("a + 1 > 2 * b", 4, 2));
+		Assertions.assertEquals(3, calc("(a < b) + (a == 1) + 1", 1, 2));
+	}
+	
+	@Test
+	public void testCalc_ComparisonIgnoresScale() {
+		BigDecimal result = SCalcBuilder.bigDecimalInstance()
+				.expression("a == b")
+				.resultScale(2)
+				.build()
+				.parameter("a", new BigDecimal("1.5"))
+				.parameter("b", new BigDecimal("1.50000"))
+				.calc();
+		Assertions.assertEquals(new BigDecimal("1.00"), result);
+	}
+	
+	@Test
+	public void testCalc_LogicalOperators() {
+		Assertions.assertEquals(1, calc("a > 0 && b > 0", 1, 2));
+		Assertions.assertEquals(0, calc("a > 0 && b > 2", 1, 2));
+		Assertions.assertEquals(1, calc("a > 5 || b > 0", 1, 2));
+		Assertions.assertEquals(0, calc("a > 5 || b > 5", 1, 2));
+		
+		// && binds stronger than ||
+		Assertions.assertEquals(1, calc("a == 1 || a == 2 && b == 3", 1, 2));
+		Assertions.assertEquals(0, calc("(a == 1 || a == 2) && b == 3", 1, 2));
+	}
+	
+	@Test
+	public void testCalc_If() {
+		Assertions.assertEquals(7, calc("if(a > b, a, b)", 7, 3));
+		Assertions.assertEquals(3, calc("if(a > b, a, b)", 1, 3));
+		Assertions.assertEquals(10, calc("IF(a, 10, 20)", 1, 0));
+	}
+	
+	@Test
+	public void testCalc_Case() {
+		String expression = "case(a < 0, 0, a < 10, a, a < 100, a / 2, 50)";
+		
+		Assertions.assertEquals(0, calc(expression, -5, 0));
+		Assertions.assertEquals(5, calc(expression, 5, 0));
+		Assertions.assertEquals(25, calc(expression, 50, 0));
+		Assertions.assertEquals(50, calc(expression, 500, 0));
+	}
+	
+	@Test
+	public void testCalc_DefinitionExpression() {
+		SCalcFormula<Integer> formula = SCalcBuilder.integerInstance()
+				.expression("f(x) = if(x >= 10, x * 2, x); limit = a != 0; return if(limit == 1, f(a), -1);")
+				.compile();
+		
+		Assertions.assertEquals(40, formula.calc("a", 20));
+		Assertions.assertEquals(5, formula.calc("a", 5));
+		Assertions.assertEquals(-1, formula.calc("a", 0));
+	}
+	
+	@Test
+	public void testCalc_OnlySelectedBranchCalculated() {
+		for (boolean doublePrecision : new boolean[] { false, true }) {
+			AtomicInteger thenCalls = new AtomicInteger();
+			AtomicInteger elseCalls = new AtomicInteger();
+			SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+					.expression("if(a > 0, expensiveThen(a), expensiveElse(a))")
+					.registerUserFunction("expensiveThen", (options, functionParams) -> {
+						thenCalls.incrementAndGet();
+						return functionParams.get(0);
+					})
+					.registerUserFunction("expensiveElse", (options, functionParams) -> {
+						elseCalls.incrementAndGet();
+						return functionParams.get(0).negate();
+					})
+					.doublePrecision(doublePrecision)
+					.compile();
+			
+			Assertions.assertEquals(3.0, formula.calc("a", 3), 0);
+			Assertions.assertEquals(1, thenCalls.get());
+			Assertions.assertEquals(0, elseCalls.get());
+			
+			Assertions.assertEquals(3.0, formula.calc("a", -3), 0);
+			Assertions.assertEquals(1, thenCalls.get());
+			Assertions.assertEquals(1, elseCalls.get());
+		}
+	}
+	
+	@Test
+	public void testCalc_ShortCircuit() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("(a > 0 && counter() > 0) + (a > 0 || counter() > 0)")
+				.registerUserFunction("counter", (options, functionParams) -> BigDecimal.valueOf(calls.incrementAndGet()))
+				.compile();
+		
+		Assertions.assertEquals(1.0, formula.calc("a", -1), 0);
+		Assertions.assertEquals(1, calls.get());
+		Assertions.assertEquals(2.0, formula.calc("a", 1), 0);
+		Assertions.assertEquals(2, calls.get());
+	}
+	
+	@Test
+	public void testCalcBatch_OnlySelectedRowsCalculated() {
+		AtomicInteger expensiveRows = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("case(a < 0, 0, a < 10 && b > 0, expensive(a, b), a)")
+				.registerUserFunction("expensive", (options, functionParams) -> {
+					expensiveRows.incrementAndGet();
+					return functionParams.get(0).multiply(functionParams.get(1));
+				})
+				.doublePrecision(true)
+				.compile();
+		
+		double[] results = formula.calcDoubleBatch(new SCalcColumns()
+				.column("a", new double[] { -1, 2, 3, 20, 4 })
+				.column("b", new double[] { 5, 10, 0, 1, 2 }));
+		
+		Assertions.assertArrayEquals(new double[] { 0, 20, 3, 20, 8 }, results, 0);
+		Assertions.assertEquals(2, expensiveRows.get());
+	}
+	
+	@Test
+	public void testCompile_ConstantConditionFolded() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("if(PI > 3, a, b) + case(1 < 0, a, 2 > 1 && 1 > 0, b, a)")
+				.compile();
+		
+		Assertions.assertEquals("(a + b)", formula.getCompiledExpression().toString());
+		Assertions.assertEquals(3.0, formula.calc("a", 1, "b", 2), 0);
+		Assertions.assertEquals(4.0, formula.calc("a", 1, "b", 2, "PI", 2), 0);
+	}
+	
+	@Test
+	public void testCompile_InvalidArgumentCount() {
+		Assertions.assertThrows(CalculationException.class, () -> SCalcBuilder.doubleInstance().expression("if(a, b)").compile());
+		Assertions.assertThrows(CalculationException.class, () -> SCalcBuilder.doubleInstance().expression("if(a, b, 1, 2, 3)").compile());
+		Assertions.assertThrows(CalculationException.class, () -> SCalcBuilder.doubleInstance().expression("case(a, b, 1, 2)").compile());
+	}
+	
+	private static int calc(String expression, int a, int b) {
+		return SCalcBuilder.integerInstance()
+				.expression(expression)
+				.build()
+				.parameter("a", a)
+				.parameter("b", b)
+				.calc();
+	}
+}
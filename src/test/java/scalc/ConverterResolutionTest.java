@@ -0,0 +1,137 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+import scalc.interfaces.INumberConverter;
+import scalc.test.model.Money;
+import scalc.test.model.MoneyConverter;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConverterResolutionTest {
+	@Test
+	public void testCalc_SubclassOfConvertedType() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a + b")
+				.registerConverter(Money.class, MoneyConverter.class)
+				.compile();
+		
+		Assertions.assertEquals(15.0, formula.calc("a", new Money(10), "b", new Euro(5)), 0);
+	}
+	
+	@Test
+	public void testCalc_InterfaceConverter() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("sum(ALL_PARAMS)")
+				.registerConverter(Amount.class, new AmountConverter())
+				.compile();
+		
+		Assertions.assertEquals(7.5, formula.calc("a", new Price(2.5), "b", new Price(5)), 0);
+	}
+	
+	@Test
+	public void testCalc_ClassConverterBeforeInterfaceConverter() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a")
+				.registerConverter(Amount.class, new AmountConverter())
+				.registerConverter(Money.class, MoneyConverter.class)
+				.compile();
+		
+		Assertions.assertEquals(5.0, formula.calc("a", new Euro(5)), 0);
+	}
+	
+	@Test
+	public void testCalc_ResultConverterOfSuperclass() {
+		Money result = SCalcBuilder.instanceFor(Money.class)
+				.expression("a * 2")
+				.registerConverter(Money.class, MoneyConverter.class)
+				.build()
+				.parameter("a", new Euro(3))
+				.calc();
+		
+		Assertions.assertEquals(6.0, result.getValue(), 0);
+	}
+	
+	@Test
+	public void testCalc_ResultConversionResolvedAtBuild() {
+		SCalcFormula<AtomicLong> formula = SCalcBuilder.instanceFor(AtomicLong.class)
+				.expression("a / 2")
+				.resultScale(0)
+				.compile();
+		
+		Assertions.assertNotNull(formula.getOptions().getResultConversion());
+		Assertions.assertEquals(3L, formula.calc("a", 5).get());
+	}
+	
+	@Test
+	public void testCompile_ConvertersSharedByEqualRegistrations() {
+		MoneyConverter converter = new MoneyConverter();
+		SCalcFormula<Double> first = SCalcBuilder.doubleInstance()
+				.expression("a + 1")
+				.registerConverter(Money.class, converter)
+				.compile();
+		SCalcFormula<Double> second = SCalcBuilder.doubleInstance()
+				.expression("a * 2")
+				.registerConverter(Money.class, converter)
+				.compile();
+		
+		Assertions.assertSame(first.getOptions().getNumberConverters(), second.getOptions().getNumberConverters());
+		Assertions.assertEquals(11.0, first.calc("a", new Money(10)), 0);
+		Assertions.assertEquals(20.0, second.calc("a", new Euro(10)), 0);
+	}
+	
+	@Test
+	public void testCalc_MissingConverter() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a")
+				.compile();
+		
+		Assertions.assertThrows(CalculationException.class, () -> formula.calc("a", new Euro(5)));
+		Assertions.assertThrows(CalculationException.class, () -> SCalcBuilder.instanceFor(Euro.class).expression("1").build().calc());
+	}
+	
+	public static class Euro extends Money implements Amount {
+		public Euro(double value) {
+			super(value);
+		}
+		
+		/**
+		 * Amount in cents, so the test can tell which converter was used.
+		 */
+		@Override
+		public BigDecimal getAmount() {
+			return BigDecimal.valueOf(getValue() * 100);
+		}
+	}
+	
+	public interface Amount {
+		BigDecimal getAmount();
+	}
+	
+	public static class Price implements Amount {
+		private final double value;
+		
+		public Price(double value) {
+			this.value = value;
+		}
+		
+		@Override
+		public BigDecimal getAmount() {
+			return BigDecimal.valueOf(value);
+		}
+	}
+	
+	public static class AmountConverter implements INumberConverter<Amount> {
+		@Override
+		public BigDecimal toBigDecimal(Amount input) {
+			return input.getAmount();
+		}
+		
+		@Override
+		public Amount fromBigDecimal(BigDecimal input) {
+			return new Price(input.doubleValue());
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+public class DoublePrecisionTest {
+	private static final List<String> EXPRESSIONS = Arrays.asList(
+			"a + b * 2 - a / b",
+			"-a ^ 2 + b² + a³",
+			"√(a² - (b² / 2))",
+			"root(a, 3) + abs(-b) + round(a / 7, 3)",
+			"sin(a) + cos(b) + tan(a) + ln(b) + log(a)",
+			"sum(a, b, 3) + avg(a, b) + max(a, b, 1) - min(a, b, 1)",
+			"PI * a + E",
+			"f(x, y) = x * y + c; c = a + b; return f(a, b) - c;"
+	);
+	
+	@Test
+	public void testCalc_SameResultAsBigDecimal() {
+		for (String expression : EXPRESSIONS) {
+			SCalcFormula<Double> bigDecimalFormula = SCalcBuilder.doubleInstance()
+					.expression(expression)
+					.compile();
+			SCalcFormula<Double> doubleFormula = SCalcBuilder.doubleInstance()
+					.expression(expression)
+					.doublePrecision(true)
+					.compile();
+			
+			for (int a = 1; a < 20; a++) {
+				double expected = bigDecimalFormula.calc("a", a, "b", 0.5);
+				double result = doubleFormula.calc("a", a, "b", 0.5);
+				
+				Assertions.assertEquals(expected, result, 1e-8, expression);
+			}
+		}
+	}
+	
+	@Test
+	public void testCalc_MultiValuedParams() {
+		double result = SCalcBuilder.doubleInstance()
+				.expression("sum(values) + sum(ALL_PARAMS)")
+				.doublePrecision(true)
+				.build()
+				.parameter("values", Arrays.asList(1, 2, 3))
+				.parameter("other", 4)
+				.calc();
+		
+		Assertions.assertEquals(16.0, result, 0);
+	}
+	
+	@Test
+	public void testCalc_SingleOperatorExpression() {
+		double result = SCalcBuilder.doubleInstance()
+				.multiplyExpression()
+				.doublePrecision(true)
+				.build()
+				.parameter(2, 3.5, 4)
+				.calc();
+		
+		Assertions.assertEquals(28.0, result, 0);
+	}
+	
+	@Test
+	public void testCalc_UserFunction() {
+		double result = SCalcBuilder.doubleInstance()
+				.expression("half(a) + 1")
+				.registerUserFunction("half", (options, functionParams) -> functionParams.get(0).divide(new BigDecimal(2)))
+				.doublePrecision(true)
+				.build()
+				.parameter("a", 5)
+				.calc();
+		
+		Assertions.assertEquals(3.5, result, 0);
+	}
+	
+	@Test
+	public void testCalc_OtherReturnTypes() {
+		long longResult = SCalcBuilder.longInstance()
+				.expression("a / 2")
+				.doublePrecision(true)
+				.build()
+				.parameter("a", 7)
+				.calc();
+		BigDecimal bigDecimalResult = SCalcBuilder.bigDecimalInstance()
+				.expression("a / 3")
+				.resultScale(2)
+				.doublePrecision(true)
+				.build()
+				.parameter("a", 1)
+				.calc();
+		
+		Assertions.assertEquals(3L, longResult);
+		Assertions.assertEquals(new BigDecimal("0.33"), bigDecimalResult);
+	}
+	
+	@Test
+	public void testCalc_FloatingPointSemantics() {
+		double result = SCalcBuilder.doubleInstance()
+				.expression("1 / a")
+				.doublePrecision(true)
+				.build()
+				.parameter("a", 0)
+				.calc();
+		
+		Assertions.assertEquals(Double.POSITIVE_INFINITY, result, 0);
+	}
+	
+	@Test
+	public void testCalc_RoundNonFiniteValues() {
+		for (boolean bytecodeGeneration : new boolean[] { false, true }) {
+			SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+					.expression("round(a / b, 2)")
+					.doublePrecision(true)
+					.bytecodeGeneration(bytecodeGeneration)
+					.compile();
+			
+			Assertions.assertEquals(Double.POSITIVE_INFINITY, formula.calc("a", 1, "b", 0), 0);
+			Assertions.assertEquals(Double.NEGATIVE_INFINITY, formula.calc("a", -1, "b", 0), 0);
+			Assertions.assertTrue(Double.isNaN(formula.calc("a", 0, "b", 0)));
+			Assertions.assertEquals(0.33, formula.calc("a", 1, "b", 3), 0);
+			
+			double[] results = formula.calcDoubleBatch(new SCalcColumns()
+					.column("a", new double[] { 1, 1 })
+					.column("b", new double[] { 0, 4 }));
+			Assertions.assertArrayEquals(new double[] { Double.POSITIVE_INFINITY, 0.25 }, results, 0);
+		}
+	}
+	
+	@Test
+	public void testCalc_UnknownParameter() {
+		Assertions.assertThrows(CalculationException.class, () -> SCalcBuilder.doubleInstance()
+				.expression("a + b")
+				.doublePrecision(true)
+				.build()
+				.parameter("a", 1)
+				.calc());
+	}
+}
@@ -0,0 +1,124 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExpressionOptimizationTest {
+	@Test
+	public void testCompile_ConstantsFolded() {
+		SCalcFormula<Double> formula = compile("(√(16, 4) + 2) / (99.99 - 79.99 - 16)", false);
+		
+		Assertions.assertEquals("1.0000000000", optimizedTree(formula));
+		Assertions.assertEquals(1.0, formula.calc(), 0);
+	}
+	
+	@Test
+	public void testCompile_PredefinedFunctionsFolded() {
+		SCalcFormula<Double> formula = compile("sin(PI / 2) * a", false);
+		
+		Assertions.assertEquals("(1.0000000000 * a)", optimizedTree(formula));
+		Assertions.assertEquals(3.0, formula.calc("a", 3), 0);
+	}
+	
+	@Test
+	public void testCompile_IdentitiesKeepBigDecimalScale() {
+		Assertions.assertEquals("a", optimizedTree(compile("a + 0", false)));
+		Assertions.assertEquals("a", optimizedTree(compile("0 + a - 0", false)));
+		Assertions.assertEquals("a", optimizedTree(compile("a / 1", false)));
+		
+		// a * 1 would have twice the calculation scale
+		Assertions.assertEquals("(a * 1.0000000000)", optimizedTree(compile("a * 1", false)));
+		// the scale of a function result is not known
+		Assertions.assertEquals("(round(a, 2.0000000000) + 0.0000000000)", optimizedTree(compile("round(a, 2) + 0", false)));
+		
+		BigDecimal result = SCalcBuilder.bigDecimalInstance()
+				.expression("a + 0")
+				.resultScale(20)
+				.compile()
+				.calc("a", new BigDecimal("1.25"));
+		Assertions.assertEquals(new BigDecimal("1.25000000000000000000"), result);
+	}
+	
+	@Test
+	public void testCompile_IdentitiesDoublePrecision() {
+		Assertions.assertEquals("a", optimizedTree(compile("a * 1", true)));
+		Assertions.assertEquals("a", optimizedTree(compile("1 * a / 1 - 0", true)));
+		Assertions.assertEquals("a", optimizedTree(compile("sin(PI / 2) * a", true)));
+		
+		// -0.0 + 0 is 0.0
+		Assertions.assertEquals("(a + 0.0000000000)", optimizedTree(compile("a + 0", true)));
+		Assertions.assertEquals(-0.0, compile("a + 0", true).calc("a", -0.0), 0);
+	}
+	
+	@Test
+	public void testCompile_DefinitionExpressionFolded() {
+		SCalcFormula<Double> formula = compile("f(x) = x * (2 + 3); c = 2 ^ 3; return f(a) + c + PI;", false);
+		
+		Assertions.assertEquals("f(x) = (x * 5.0000000000); c = 8.0000000000; return ((f(a) + c) + 3.1415926536);", optimizedTree(formula));
+		Assertions.assertEquals(21.1415926536, formula.calc("a", 2), 1e-10);
+	}
+	
+	@Test
+	public void testCalc_OverwrittenConstant() {
+		SCalcFormula<Double> formula = compile("PI * a", false);
+		SCalcFormula<Double> doubleFormula = compile("PI * a", true);
+		
+		Assertions.assertEquals("(3.1415926536 * a)", optimizedTree(formula));
+		Assertions.assertEquals(6.0, formula.calc("a", 2, "PI", 3), 0);
+		Assertions.assertEquals(6.0, doubleFormula.calc("a", 2, "PI", 3), 0);
+		
+		double[] results = doubleFormula.calcDoubleBatch(new SCalcColumns()
+				.column("a", new double[] { 1, 2 })
+				.column("PI", new double[] { 3, 4 }));
+		Assertions.assertArrayEquals(new double[] { 3, 8 }, results, 0);
+	}
+	
+	@Test
+	public void testCompile_UserFunctionsNotFolded() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("counter(2) + 1")
+				.registerUserFunction("counter", (options, functionParams) -> BigDecimal.valueOf(calls.incrementAndGet()))
+				.compile();
+		
+		Assertions.assertEquals(2.0, formula.calc(), 0);
+		Assertions.assertEquals(3.0, formula.calc(), 0);
+	}
+	
+	@Test
+	public void testCompile_ErrorsNotFolded() {
+		SCalcFormula<Double> formula = compile("a + 1 / 0", false);
+		
+		Assertions.assertEquals("(a + (1.0000000000 / 0.0000000000))", optimizedTree(formula));
+		Assertions.assertThrows(CalculationException.class, () -> formula.calc("a", 1));
+	}
+	
+	@Test
+	public void testCompile_DebugDump() {
+		List<String> messages = new ArrayList<>();
+		SCalcBuilder.doubleInstance()
+				.expression("a * (2 + 3)")
+				.debug(true)
+				.debugLogger(messages::add)
+				.compile();
+		
+		Assertions.assertTrue(messages.stream().anyMatch(message -> message.contains("Optimized expression: '(a * 5.0000000000)'")), messages.toString());
+	}
+	
+	private static SCalcFormula<Double> compile(String expression, boolean doublePrecision) {
+		return SCalcBuilder.doubleInstance()
+				.expression(expression)
+				.doublePrecision(doublePrecision)
+				.compile();
+	}
+	
+	private static String optimizedTree(SCalcFormula<?> formula) {
+		return formula.getCompiledExpression().toString();
+	}
+}
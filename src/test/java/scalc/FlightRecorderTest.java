@@ -0,0 +1,133 @@
+package scalc;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class FlightRecorderTest {
+	@Test
+	public void testCompileAndCalc() throws IOException {
+		List<RecordedEvent> events;
+		try (Recording recording = new Recording()) {
+			recording.enable("scalc.Compile");
+			recording.enable("scalc.Calculation");
+			recording.start();
+			
+			SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+					.expression("a / b + 24")
+					.compile();
+			formula.calc("a", 1, "b", 2);
+			formula.calc("a", 3, "b", 2);
+			Assertions.assertThrows(CalculationException.class, () -> formula.calc("a", 1, "b", 0));
+			
+			recording.stop();
+			events = readEvents(recording);
+		}
+		
+		List<RecordedEvent> compileEvents = filter(events, "scalc.Compile", "a / b + 24");
+		Assertions.assertEquals(1, compileEvents.size());
+		Assertions.assertFalse(compileEvents.get(0).getBoolean("doublePrecision"));
+		
+		List<RecordedEvent> calculationEvents = filter(events, "scalc.Calculation", "a / b + 24");
+		Assertions.assertEquals(3, calculationEvents.size());
+		Assertions.assertEquals(1, calculationEvents.stream().filter(event -> event.getBoolean("failed")).count());
+		for (RecordedEvent event : calculationEvents) {
+			Assertions.assertEquals(compileEvents.get(0).getLong("expressionId"), event.getLong("expressionId"));
+			Assertions.assertFalse(event.getDuration().isNegative());
+		}
+	}
+	
+	@Test
+	public void testCompile_UniqueExpressionIds() throws IOException {
+		List<RecordedEvent> events;
+		try (Recording recording = new Recording()) {
+			recording.enable("scalc.Compile");
+			recording.start();
+			
+			SCalcBuilder.doubleInstance().expression("c * 3 + 7").compile();
+			SCalcBuilder.doubleInstance().expression("c * 3 + 8").compile();
+			
+			recording.stop();
+			events = readEvents(recording);
+		}
+		
+		List<RecordedEvent> first = filter(events, "scalc.Compile", "c * 3 + 7");
+		List<RecordedEvent> second = filter(events, "scalc.Compile", "c * 3 + 8");
+		Assertions.assertEquals(1, first.size());
+		Assertions.assertEquals(1, second.size());
+		Assertions.assertNotEquals(first.get(0).getLong("expressionId"), second.get(0).getLong("expressionId"));
+	}
+	
+	@Test
+	public void testSlowFunctionCall() throws IOException {
+		List<RecordedEvent> events;
+		try (Recording recording = new Recording()) {
+			recording.enable("scalc.SlowFunctionCall").withThreshold(Duration.ofMillis(10));
+			recording.start();
+			
+			SCalc<Double> sCalc = SCalcBuilder.doubleInstance()
+					.expression("slow(a) + fast(a, 2)")
+					.registerUserFunction("slow", (options, functionParams) -> {
+						sleep(50);
+						return functionParams.get(0);
+					})
+					.registerUserFunction("fast", (options, functionParams) -> functionParams.get(0))
+					.build();
+			Assertions.assertEquals(2.0, sCalc.parameter("a", 1).calc(), 0);
+			
+			recording.stop();
+			events = readEvents(recording);
+		}
+		
+		List<RecordedEvent> functionEvents = filter(events, "scalc.SlowFunctionCall", "slow(a) + fast(a, 2)");
+		Assertions.assertEquals(1, functionEvents.size());
+		Assertions.assertEquals("slow", functionEvents.get(0).getString("function"));
+		Assertions.assertEquals(1, functionEvents.get(0).getInt("argumentCount"));
+		Assertions.assertTrue(functionEvents.get(0).getDuration().toMillis() >= 10);
+	}
+	
+	@Test
+	public void testCalc_WithoutRecording() {
+		SCalcFormula<BigDecimal> formula = SCalcBuilder.bigDecimalInstance()
+				.expression("a * 2")
+				.compile();
+		
+		Assertions.assertEquals(0, new BigDecimal("4").compareTo(formula.calc("a", 2)));
+	}
+	
+	private static List<RecordedEvent> readEvents(Recording recording) throws IOException {
+		Path file = Files.createTempFile("scalc", ".jfr");
+		try {
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file);
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	private static List<RecordedEvent> filter(List<RecordedEvent> events, String name, String expression) {
+		return events.stream()
+				.filter(event -> event.getEventType().getName().equals(name))
+				.filter(event -> expression.equals(event.getString("expression")))
+				.collect(Collectors.toList());
+	}
+	
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.interfaces.DoubleFunctionArguments;
+import scalc.interfaces.FunctionArguments;
+import scalc.interfaces.FunctionImpl;
+import scalc.interfaces.SCalcFunction;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FunctionCacheTest {
+	@Test
+	public void testCalc_PureFunctionCached() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFunctionCache cache = new SCalcFunctionCache(100);
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("rate(a) * b")
+				.registerFunction("rate", new RateFunction(calls))
+				.functionCache(cache)
+				.compile();
+		
+		Assertions.assertEquals(4.0, formula.calc("a", 2, "b", 2), 0);
+		Assertions.assertEquals(6.0, formula.calc("a", 2, "b", 3), 0);
+		Assertions.assertEquals(9.0, formula.calc("a", 3, "b", 3), 0);
+		
+		Assertions.assertEquals(2, calls.get());
+		Assertions.assertEquals(1, cache.getHits());
+		Assertions.assertEquals(2, cache.getMisses());
+		Assertions.assertEquals(1.0 / 3, cache.getHitRate(), 1e-10);
+		Assertions.assertEquals(2, cache.getSize());
+	}
+	
+	@Test
+	public void testCalc_DoublePrecisionCached() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("rate(a) + 1")
+				.registerFunction("rate", new RateFunction(calls))
+				.functionCache(new SCalcFunctionCache(100))
+				.doublePrecision(true)
+				.compile();
+		
+		Assertions.assertEquals(5.0, formula.calc("a", 4), 0);
+		Assertions.assertEquals(5.0, formula.calc("a", 4), 0);
+		Assertions.assertEquals(-1, calls.get());
+		
+		double[] results = formula.calcDoubleBatch(new SCalcColumns().column("a", new double[] { 4, 5, 4, 5 }));
+		Assertions.assertArrayEquals(new double[] { 5, 6, 5, 6 }, results, 0);
+		Assertions.assertEquals(-2, calls.get());
+	}
+	
+	@Test
+	public void testCalc_UserFunctionSharedAcrossFormulas() {
+		AtomicInteger calls = new AtomicInteger();
+		FunctionImpl rate = (options, functionParams) -> {
+			calls.incrementAndGet();
+			return functionParams.get(0).multiply(BigDecimal.valueOf(2));
+		};
+		SCalcFunctionCache cache = new SCalcFunctionCache(100);
+		
+		SCalcFormula<Double> first = SCalcBuilder.doubleInstance()
+				.expression("rate(a)")
+				.registerUserFunction("rate", rate, true)
+				.functionCache(cache)
+				.compile();
+		SCalcFormula<Double> second = SCalcBuilder.doubleInstance()
+				.expression("rate(a) + 1")
+				.registerUserFunction("rate", rate, true)
+				.functionCache(cache)
+				.compile();
+		
+		Assertions.assertEquals(4.0, first.calc("a", 2), 0);
+		Assertions.assertEquals(5.0, second.calc("a", 2), 0);
+		
+		Assertions.assertEquals(1, calls.get());
+		Assertions.assertEquals(1, cache.getHits());
+		Assertions.assertEquals(1, cache.getMisses());
+	}
+	
+	@Test
+	public void testCalc_UserFunctionDeclaredPure() {
+		AtomicInteger pureCalls = new AtomicInteger();
+		AtomicInteger impureCalls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("lookup(a) + counter(a)")
+				.registerUserFunction("lookup", (options, functionParams) -> {
+					pureCalls.incrementAndGet();
+					return functionParams.get(0);
+				}, true)
+				.registerUserFunction("counter", (options, functionParams) -> BigDecimal.valueOf(impureCalls.incrementAndGet()))
+				.functionCache(new SCalcFunctionCache(100))
+				.compile();
+		
+		Assertions.assertEquals(6.0, formula.calc("a", 5), 0);
+		Assertions.assertEquals(7.0, formula.calc("a", 5), 0);
+		Assertions.assertEquals(1, pureCalls.get());
+		Assertions.assertEquals(2, impureCalls.get());
+	}
+	
+	@Test
+	public void testCalc_NotCachedWithoutCache() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("rate(a)")
+				.registerFunction("rate", new RateFunction(calls))
+				.compile();
+		
+		formula.calc("a", 1);
+		formula.calc("a", 1);
+		Assertions.assertEquals(2, calls.get());
+	}
+	
+	@Test
+	public void testCalc_ScriptFunctionCached() {
+		SCalcFunctionCache cache = new SCalcFunctionCache(100);
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("fib(n) = if(n < 2, n, fib(n - 1) + fib(n - 2)); return fib(a);")
+				.functionCache(cache)
+				.compile();
+		
+		Assertions.assertEquals(832040.0, formula.calc("a", 30), 0);
+		Assertions.assertEquals(31, cache.getMisses());
+		
+		cache.resetStatistics();
+		Assertions.assertEquals(832040.0, formula.calc("a", 30), 0);
+		Assertions.assertEquals(1, cache.getHits());
+		Assertions.assertEquals(0, cache.getMisses());
+	}
+	
+	@Test
+	public void testCalc_ScriptFunctionUsingParametersNotCached() {
+		SCalcFunctionCache cache = new SCalcFunctionCache(100);
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("f(x) = x * b; g(x) = f(x) + 1; h(x) = x * 2; return g(a) + h(a);")
+				.functionCache(cache)
+				.compile();
+		
+		Assertions.assertEquals(2.0 + 1 + 2, formula.calc("a", 1, "b", 2), 0);
+		Assertions.assertEquals(3.0 + 1 + 2, formula.calc("a", 1, "b", 3), 0);
+		Assertions.assertEquals(1, cache.getSize());
+		Assertions.assertEquals(1, cache.getHits());
+	}
+	
+	@Test
+	public void testCalc_ScriptFunctionWithMissingParameterNotCached() {
+		SCalcFunctionCache cache = new SCalcFunctionCache(100);
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("f(x, y) = x + y; return f(a);")
+				.functionCache(cache)
+				.compile();
+		
+		Assertions.assertEquals(3.0, formula.calc("a", 1, "y", 2), 0);
+		Assertions.assertEquals(4.0, formula.calc("a", 1, "y", 3), 0);
+		Assertions.assertEquals(0, cache.getSize());
+	}
+	
+	@Test
+	public void testCalc_SharedBetweenFormulas() {
+		AtomicInteger calls = new AtomicInteger();
+		RateFunction rate = new RateFunction(calls);
+		SCalcFunctionCache cache = new SCalcFunctionCache(100);
+		
+		SCalcBuilder.doubleInstance().expression("rate(a) + 1").registerFunction("rate", rate).functionCache(cache).compile().calc("a", 3);
+		SCalcBuilder.doubleInstance().expression("rate(a) * 2").registerFunction("rate", rate).functionCache(cache).compile().calc("a", 3);
+		
+		Assertions.assertEquals(1, calls.get());
+		
+		// results depend on the calculation scale
+		SCalcBuilder.doubleInstance().expression("rate(a)").registerFunction("rate", rate).functionCache(cache).calculationScale(2).compile().calc("a", 3);
+		Assertions.assertEquals(2, calls.get());
+	}
+	
+	@Test
+	public void testCalc_MaximumSize() {
+		SCalcFunctionCache cache = new SCalcFunctionCache(16);
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("rate(a)")
+				.registerFunction("rate", new RateFunction(new AtomicInteger()))
+				.functionCache(cache)
+				.compile();
+		
+		for (int i = 0; i < 100; i++) {
+			Assertions.assertEquals(i, formula.calc("a", i), 0);
+		}
+		
+		Assertions.assertTrue(cache.getSize() <= 16, String.valueOf(cache.getSize()));
+		Assertions.assertTrue(cache.getEvictions() >= 84, String.valueOf(cache.getEvictions()));
+		
+		// the most recently used result is kept
+		cache.resetStatistics();
+		formula.calc("a", 99);
+		Assertions.assertEquals(1, cache.getHits());
+		
+		cache.setMaximumSize(0);
+		Assertions.assertEquals(0, cache.getSize());
+		formula.calc("a", 99);
+		Assertions.assertEquals(0, cache.getSize());
+	}
+	
+	@Test
+	public void testCalc_ExpireAfterWrite() throws InterruptedException {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFunctionCache cache = new SCalcFunctionCache(100, Duration.ofMillis(20));
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("rate(a)")
+				.registerFunction("rate", new RateFunction(calls))
+				.functionCache(cache)
+				.compile();
+		
+		formula.calc("a", 1);
+		Thread.sleep(50);
+		formula.calc("a", 1);
+		
+		Assertions.assertEquals(2, calls.get());
+		Assertions.assertEquals(1, cache.getExpirations());
+		Assertions.assertEquals(Duration.ofMillis(20), cache.getExpireAfterWrite());
+	}
+	
+	@Test
+	public void testCache_InvalidOptions() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new SCalcFunctionCache(-1));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> new SCalcFunctionCache(1, Duration.ofSeconds(-1)));
+		Assertions.assertNull(new SCalcFunctionCache(1).getExpireAfterWrite());
+	}
+	
+	/**
+	 * Returns its argument. Counts BigDecimal calls up and primitive calls down.
+	 */
+	private static class RateFunction implements SCalcFunction {
+		private final AtomicInteger calls;
+		
+		private RateFunction(AtomicInteger calls) {
+			this.calls = calls;
+		}
+		
+		@Override
+		public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+			calls.incrementAndGet();
+			return arguments.get(0);
+		}
+		
+		@Override
+		public double callDouble(SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+			calls.decrementAndGet();
+			return arguments.get(0);
+		}
+		
+		@Override
+		public int getMinArguments() {
+			return 1;
+		}
+		
+		@Override
+		public int getMaxArguments() {
+			return 1;
+		}
+		
+		@Override
+		public boolean isPure() {
+			return true;
+		}
+		
+		@Override
+		public boolean isDoubleSupported() {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IncrementalSessionTest {
+	@Test
+	public void testCalc_OnlyChangedPathRecalculated() {
+		SCalcSession<Double> session = SCalcBuilder.doubleInstance()
+				.expression("(a + b) * (c + d) - (a + b) / 2")
+				.compile()
+				.session();
+		
+		Assertions.assertEquals(5, session.getNodeCount());
+		Assertions.assertEquals(3 * 7 - 1.5, session.parameter("a", 1, "b", 2, "c", 3, "d", 4).calc(), 0);
+		Assertions.assertEquals(5, session.getRecalculatedNodeCount());
+		
+		Assertions.assertEquals(3 * 8 - 1.5, session.parameter("c", 4).calc(), 0);
+		Assertions.assertEquals(3, session.getRecalculatedNodeCount());
+		
+		Assertions.assertEquals(3 * 8 - 1.5, session.calc(), 0);
+		Assertions.assertEquals(0, session.getRecalculatedNodeCount());
+		
+		Assertions.assertEquals(3 * 8 - 1.5, session.parameter("c", 4).calc(), 0);
+		Assertions.assertEquals(0, session.getRecalculatedNodeCount());
+	}
+	
+	@Test
+	public void testCalc_SameResultAsFormula() {
+		String expression = "f(x, y) = x * y + c; c = a + b; g(x, a) = f(x, 2) + a; return f(a, b) - c + g(b);";
+		
+		for (boolean doublePrecision : new boolean[] { false, true }) {
+			SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+					.expression(expression)
+					.doublePrecision(doublePrecision)
+					.compile();
+			SCalcSession<Double> session = formula.session();
+			
+			for (int a = 0; a < 3; a++) {
+				for (int b = 0; b < 3; b++) {
+					Double expected = formula.calc("a", a, "b", b);
+					Assertions.assertEquals(expected, session.parameter("a", a, "b", b).calc());
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testCalc_VariablesDependOnAllAssignments() {
+		SCalcSession<Double> session = SCalcBuilder.doubleInstance()
+				.expression("x = a * 2; y = x + 1; x = b; z = x + 1; return y * 10 + z + c;")
+				.compile()
+				.session();
+		
+		Assertions.assertEquals(30 + 3 + 1, session.parameter("a", 1, "b", 2, "c", 1).calc(), 0);
+		Assertions.assertEquals(50 + 3 + 1, session.parameter("a", 2).calc(), 0);
+		Assertions.assertEquals(50 + 4 + 1, session.parameter("b", 3).calc(), 0);
+		
+		Assertions.assertEquals(50 + 4 + 2, session.parameter("c", 2).calc(), 0);
+		Assertions.assertTrue(session.getRecalculatedNodeCount() < session.getNodeCount());
+	}
+	
+	@Test
+	public void testCalc_ImpureFunctionAlwaysCalculated() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcSession<Double> session = SCalcBuilder.doubleInstance()
+				.expression("counter() + a * b")
+				.registerFunction("counter", (options, arguments) -> BigDecimal.valueOf(calls.incrementAndGet()))
+				.compile()
+				.session();
+		
+		Assertions.assertEquals(7.0, session.parameter("a", 2, "b", 3).calc(), 0);
+		Assertions.assertEquals(8.0, session.calc(), 0);
+		Assertions.assertEquals(1, session.getRecalculatedNodeCount());
+		Assertions.assertEquals(2, calls.get());
+	}
+	
+	@Test
+	public void testCalc_AllParams() {
+		SCalcSession<Double> session = SCalcBuilder.doubleInstance()
+				.expression("sum(ALL_PARAMS) * 2 + a")
+				.compile()
+				.session();
+		
+		Assertions.assertEquals(6 * 2 + 1, session.parameter("a", 1, "b", 2, "c", 3).calc(), 0);
+		Assertions.assertEquals(7 * 2 + 1, session.parameter("x", 1).calc(), 0);
+		Assertions.assertEquals(7 * 2 + 1, session.calc(), 0);
+		Assertions.assertEquals(0, session.getRecalculatedNodeCount());
+		
+		Assertions.assertEquals(11 * 2 + 1, session.parameter("b", Arrays.asList(3, 3)).calc(), 0);
+	}
+	
+	@Test
+	public void testCalc_GivenConstant() {
+		SCalcSession<Double> session = SCalcBuilder.doubleInstance()
+				.expression("PI * 2 + a")
+				.resultScale(2)
+				.compile()
+				.session();
+		
+		Assertions.assertEquals(7.28, session.parameter("a", 1).calc(), 0);
+		Assertions.assertEquals(7.0, session.parameter("PI", 3).calc(), 0);
+		Assertions.assertEquals(9.0, session.parameter("PI", 4).calc(), 0);
+		Assertions.assertEquals(7.28, session.clear().parameter("a", 1).calc(), 0);
+	}
+	
+	@Test
+	public void testCalc_MissingParameterAfterClear() {
+		SCalcSession<BigDecimal> session = SCalcBuilder.bigDecimalInstance()
+				.expression("a * b + 1")
+				.resultScale(0)
+				.compile()
+				.session();
+		
+		Assertions.assertEquals(new BigDecimal("7"), session.parameter("a", 2, "b", 3).calc());
+		Assertions.assertThrows(CalculationException.class, () -> session.clear().calc());
+		Assertions.assertEquals(new BigDecimal("5"), session.parameter("a", 1, "b", 4).calc());
+	}
+}
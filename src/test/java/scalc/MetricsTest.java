@@ -0,0 +1,104 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class MetricsTest {
+	@Test
+	public void testCalc_CountsAndLatencies() {
+		SCalcMetrics metrics = new SCalcMetrics();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a / b")
+				.metrics(metrics)
+				.compile();
+		
+		for (int i = 1; i <= 9; i++) {
+			formula.calc("a", i, "b", 2);
+		}
+		Assertions.assertThrows(CalculationException.class, () -> formula.calc("a", 1, "b", 0));
+		
+		SCalcMetrics.Snapshot snapshot = metrics.getSnapshot("a / b");
+		Assertions.assertEquals("a / b", snapshot.getExpression());
+		Assertions.assertEquals(1, snapshot.getCompilations());
+		Assertions.assertTrue(snapshot.getCompileTimeNanos() > 0);
+		Assertions.assertEquals(10, snapshot.getCalculations());
+		Assertions.assertEquals(1, snapshot.getErrors());
+		Assertions.assertEquals(10, Arrays.stream(snapshot.getHistogram()).sum());
+		Assertions.assertTrue(snapshot.getMeanTimeNanos() > 0);
+		Assertions.assertTrue(snapshot.getMaxTimeNanos() >= snapshot.getMeanTimeNanos());
+		Assertions.assertTrue(snapshot.getPercentileNanos(50) <= snapshot.getPercentileNanos(99));
+		Assertions.assertTrue(snapshot.getPercentileNanos(99) <= snapshot.getMaxTimeNanos());
+		Assertions.assertNull(metrics.getSnapshot("unknown"));
+	}
+	
+	@Test
+	public void testCalc_Allocations() {
+		SCalcMetrics metrics = new SCalcMetrics(1);
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("sum(a) * 2")
+				.metrics(metrics)
+				.compile();
+		
+		for (int i = 0; i < 10; i++) {
+			formula.calc("a", Arrays.asList(1, 2, 3));
+		}
+		
+		Assertions.assertTrue(metrics.getSnapshot("sum(a) * 2").getAllocatedBytesPerCalculation() >= 0);
+		
+		SCalcMetrics withoutAllocations = new SCalcMetrics(0);
+		SCalcBuilder.doubleInstance().expression("1 + 1").metrics(withoutAllocations).build().calc();
+		Assertions.assertEquals(-1, withoutAllocations.getSnapshot("1 + 1").getAllocatedBytesPerCalculation());
+	}
+	
+	@Test
+	public void testCalc_SharedMetrics() {
+		SCalcMetrics metrics = new SCalcMetrics();
+		SCalcBuilder.doubleInstance().expression("a + 1").metrics(metrics).build().parameter("a", 1).calc();
+		SCalcBuilder.doubleInstance().expression("a + 1").metrics(metrics).doublePrecision(true).build().parameter("a", 1).calc();
+		SCalcBuilder.doubleInstance().expression("a + 2").metrics(metrics).build().parameter("a", 1).calc();
+		
+		Map<String, SCalcMetrics.Snapshot> snapshots = metrics.getSnapshots();
+		Assertions.assertEquals(Arrays.asList("a + 1", "a + 2"), Arrays.asList(snapshots.keySet().toArray()));
+		Assertions.assertEquals(2, snapshots.get("a + 1").getCompilations());
+		Assertions.assertEquals(2, snapshots.get("a + 1").getCalculations());
+		
+		metrics.reset();
+		Assertions.assertEquals(0, metrics.getSnapshot("a + 1").getCalculations());
+		Assertions.assertEquals(0, metrics.getSnapshot("a + 1").getMaxTimeNanos());
+	}
+	
+	@Test
+	public void testCalc_SessionsAndGraphs() {
+		SCalcMetrics metrics = new SCalcMetrics();
+		SCalcSession<Double> session = SCalcBuilder.doubleInstance()
+				.expression("a * 2")
+				.metrics(metrics)
+				.compile()
+				.session();
+		session.parameter("a", 1).calc();
+		session.parameter("a", 2).calc();
+		Assertions.assertEquals(2, metrics.getSnapshot("a * 2").getCalculations());
+		
+		SCalcGraph graph = new SCalcGraphBuilder()
+				.formula("net", SCalcBuilder.doubleInstance().expression("gross / 1.2").metrics(metrics).compile())
+				.formula("tax", SCalcBuilder.doubleInstance().expression("gross - net").metrics(metrics).compile())
+				.build();
+		graph.session().parameter("gross", 120).calc();
+		Assertions.assertEquals(1, metrics.getSnapshot("gross / 1.2").getCalculations());
+		Assertions.assertEquals(1, metrics.getSnapshot("gross - net").getCalculations());
+	}
+	
+	@Test
+	public void testCalc_WithoutMetrics() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a + 1")
+				.compile();
+		
+		Assertions.assertNull(formula.getCompiledExpression().getMetricsRecorder());
+		Assertions.assertEquals(2.0, formula.calc("a", 1), 0);
+	}
+}
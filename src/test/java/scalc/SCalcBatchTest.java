@@ -0,0 +1,203 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class SCalcBatchTest {
+	private static final List<String> EXPRESSIONS = Arrays.asList(
+			"a + b * 2 - a / b",
+			"-a ^ 2 + b² + a³",
+			"√(a² - (b² / 2)) + root(a, 3) + abs(-b) + round(a / 7, 3)",
+			"sum(a, b, 3) + avg(ALL_PARAMS) + max(a, b, 1) - min(a, b, 1)",
+			"PI * a + E",
+			"f(x, y) = x * y + c; c = a + b; g(x, a) = f(x, 2) + a; return f(a, b) - c + g(b);"
+	);
+	
+	@Test
+	public void testCalcBatch_SameResultAsSingleCalculation() {
+		int rows = 100;
+		double[] a = new double[rows];
+		BigDecimal[] b = new BigDecimal[rows];
+		for (int row = 0; row < rows; row++) {
+			a[row] = row + 1;
+			b[row] = BigDecimal.valueOf(row % 7).add(new BigDecimal("0.5"));
+		}
+		SCalcColumns columns = new SCalcColumns()
+				.column("a", a)
+				.column("b", b);
+		
+		for (boolean doublePrecision : new boolean[] { false, true }) {
+			for (String expression : EXPRESSIONS) {
+				SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+						.expression(expression)
+						.doublePrecision(doublePrecision)
+						.compile();
+				
+				double[] doubleResults = formula.calcDoubleBatch(columns);
+				BigDecimal[] bigDecimalResults = formula.calcBigDecimalBatch(columns);
+				
+				Assertions.assertEquals(rows, doubleResults.length);
+				Assertions.assertEquals(rows, bigDecimalResults.length);
+				for (int row = 0; row < rows; row++) {
+					double expected = formula.calc("a", a[row], "b", b[row]);
+					Assertions.assertEquals(expected, doubleResults[row], 1e-9, expression);
+					Assertions.assertEquals(expected, bigDecimalResults[row].doubleValue(), 1e-9, expression);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testCalcBatch_SingleOperatorExpression() {
+		SCalcColumns columns = new SCalcColumns()
+				.column("param0", new double[] { 1, 2, 3 })
+				.column("param1", new double[] { 4, 5, 6 });
+		
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.multiplyExpression()
+				.doublePrecision(true)
+				.compile();
+		
+		Assertions.assertArrayEquals(new double[] { 4, 10, 18 }, formula.calcDoubleBatch(columns), 0);
+	}
+	
+	@Test
+	public void testCalcBatch_ResultScale() {
+		SCalcFormula<BigDecimal> formula = SCalcBuilder.bigDecimalInstance()
+				.expression("a / 3")
+				.resultScale(2)
+				.compile();
+		
+		BigDecimal[] results = formula.calcBigDecimalBatch(new SCalcColumns().column("a", new double[] { 1, 2 }));
+		
+		Assertions.assertArrayEquals(new BigDecimal[] { new BigDecimal("0.33"), new BigDecimal("0.67") }, results);
+	}
+	
+	@Test
+	public void testCalcBatch_Empty() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a + 1")
+				.doublePrecision(true)
+				.compile();
+		
+		Assertions.assertEquals(0, formula.calcDoubleBatch(new SCalcColumns().column("a", new double[0])).length);
+	}
+	
+	@Test
+	public void testCalcBatch_DifferentRowCounts() {
+		Assertions.assertThrows(CalculationException.class, () -> new SCalcColumns()
+				.column("a", new double[] { 1, 2 })
+				.column("b", new double[] { 1 }));
+	}
+	
+	@Test
+	public void testCalcBatch_ErrorInRow() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("1 / a")
+				.compile();
+		
+		CalculationException exception = Assertions.assertThrows(CalculationException.class,
+				() -> formula.calcDoubleBatch(new SCalcColumns().column("a", new double[] { 1, 0 })));
+		Assertions.assertEquals("Calculation failed in row 1.", exception.getCause().getMessage());
+	}
+	
+	@Test
+	public void testCalcParallelBatch_SameResultAsBatch() {
+		int rows = 10000;
+		double[] a = new double[rows];
+		double[] b = new double[rows];
+		for (int row = 0; row < rows; row++) {
+			a[row] = row;
+			b[row] = row % 13 + 0.5;
+		}
+		SCalcColumns columns = new SCalcColumns()
+				.column("a", a)
+				.column("b", b);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			for (boolean doublePrecision : new boolean[] { false, true }) {
+				SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+						.expression("f(x) = x * b; return f(a) / 3 + max(a, b);")
+						.doublePrecision(doublePrecision)
+						.compile();
+				
+				double[] expected = formula.calcDoubleBatch(columns);
+				SCalcBatchResult commonPoolResult = formula.calcParallelBatch(columns);
+				SCalcBatchResult executorResult = formula.calcParallelBatch(columns, executor);
+				
+				Assertions.assertFalse(commonPoolResult.hasErrors());
+				Assertions.assertFalse(executorResult.hasErrors());
+				Assertions.assertArrayEquals(expected, commonPoolResult.getDoubleResults(), 0);
+				Assertions.assertArrayEquals(expected, executorResult.getDoubleResults(), 0);
+				Assertions.assertArrayEquals(formula.calcBigDecimalBatch(columns), executorResult.getBigDecimalResults());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testCalcParallelBatch_CollectErrors() {
+		int rows = 1000;
+		double[] a = new double[rows];
+		double[] mode = new double[rows];
+		for (int row = 0; row < rows; row++) {
+			a[row] = row + 0.125;
+			mode[row] = row % 100 == 0 ? 7 : 0;
+		}
+		SCalcColumns columns = new SCalcColumns()
+				.column("a", a)
+				.column("mode", mode);
+		
+		for (boolean doublePrecision : new boolean[] { false, true }) {
+			SCalcBatchResult result = SCalcBuilder.doubleInstance()
+					.expression("round(a, 2, mode)")
+					.doublePrecision(doublePrecision)
+					.compile()
+					.calcParallelBatch(columns);
+			
+			Assertions.assertEquals(rows, result.getRowCount());
+			Assertions.assertEquals(10, result.getErrors().size());
+			Assertions.assertEquals("Calculation failed in row 300.", result.getErrors().get(300).getMessage());
+			
+			double[] results = result.getDoubleResults();
+			BigDecimal[] bigDecimalResults = result.getBigDecimalResults();
+			Assertions.assertTrue(Double.isNaN(results[500]));
+			Assertions.assertNull(bigDecimalResults[500]);
+			Assertions.assertEquals(501.13, results[501], 0);
+			Assertions.assertEquals(501.13, bigDecimalResults[501].doubleValue(), 0);
+		}
+	}
+	
+	@Test
+	public void testCalcParallelBatch_NonFiniteValuesInFailedChunk() {
+		SCalcColumns columns = new SCalcColumns()
+				.column("a", new double[] { -1, 2 })
+				.column("b", new double[] { 1, Double.NaN });
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("positive(a) + b")
+				.registerUserFunction("positive", (options, functionParams) -> {
+					if (functionParams.get(0).signum() < 0) {
+						throw new IllegalArgumentException("Negative value");
+					}
+					return functionParams.get(0);
+				})
+				.doublePrecision(true)
+				.compile();
+		
+		SCalcBatchResult result = formula.calcParallelBatch(columns);
+		
+		Assertions.assertEquals(1, result.getErrors().size());
+		Assertions.assertTrue(result.getErrors().containsKey(0));
+		Assertions.assertTrue(Double.isNaN(result.getDoubleResults()[1]));
+		Assertions.assertTrue(Double.isNaN(formula.calc("a", 2, "b", Double.NaN)));
+	}
+}
@@ -0,0 +1,161 @@
+package scalc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.interfaces.FunctionImpl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public class SCalcCacheTest {
+	@AfterEach
+	public void tearDown() {
+		SCalcCache.setMaximumSize(1000);
+	}
+	
+	@Test
+	public void testCompile_SameExpressionIsCached() {
+		SCalcFormula<Double> first = SCalcBuilder.doubleInstance()
+				.expression("a * 2 + cacheTest")
+				.compile();
+		long hits = SCalcCache.getHits();
+		
+		SCalcFormula<Double> second = SCalcBuilder.doubleInstance()
+				.expression("a * 2 + cacheTest")
+				.compile();
+		
+		Assertions.assertEquals(hits + 1, SCalcCache.getHits());
+		Assertions.assertSame(first.getCompiledExpression(), second.getCompiledExpression());
+		Assertions.assertEquals(7.0, second.calc("a", 3, "cacheTest", 1), 0);
+	}
+	
+	@Test
+	public void testCompile_ResultOptionsShareExpression() {
+		SCalcFormula<Double> first = SCalcBuilder.doubleInstance()
+				.expression("a / 3 + resultOptionsTest")
+				.resultScale(2)
+				.compile();
+		SCalcFormula<BigDecimal> second = SCalcBuilder.bigDecimalInstance()
+				.expression("a / 3 + resultOptionsTest")
+				.resultScale(4, RoundingMode.DOWN)
+				.compile();
+		
+		Assertions.assertSame(first.getCompiledExpression(), second.getCompiledExpression());
+		Assertions.assertEquals(0.33, first.calc("a", 1, "resultOptionsTest", 0), 0);
+		Assertions.assertEquals(new BigDecimal("0.3333"), second.calc("a", 1, "resultOptionsTest", 0));
+	}
+	
+	@Test
+	public void testCompile_SemanticOptionsAreNotShared() {
+		SCalcFormula<BigDecimal> scale2 = SCalcBuilder.bigDecimalInstance()
+				.expression("a / 3")
+				.calculationScale(2)
+				.resultScale(4)
+				.compile();
+		SCalcFormula<BigDecimal> scale4 = SCalcBuilder.bigDecimalInstance()
+				.expression("a / 3")
+				.calculationScale(4)
+				.resultScale(4)
+				.compile();
+		SCalcFormula<BigDecimal> doublePrecision = SCalcBuilder.bigDecimalInstance()
+				.expression("a / 3")
+				.calculationScale(4)
+				.doublePrecision(true)
+				.compile();
+		
+		Assertions.assertNotSame(scale2.getCompiledExpression(), scale4.getCompiledExpression());
+		Assertions.assertNotSame(scale4.getCompiledExpression(), doublePrecision.getCompiledExpression());
+		Assertions.assertEquals(new BigDecimal("0.3300"), scale2.calc("a", 1));
+		Assertions.assertEquals(new BigDecimal("0.3333"), scale4.calc("a", 1));
+	}
+	
+	@Test
+	public void testCompile_UserFunctionsAreNotShared() {
+		FunctionImpl twice = (options, functionParams) -> functionParams.get(0).multiply(BigDecimal.valueOf(2));
+		FunctionImpl thrice = (options, functionParams) -> functionParams.get(0).multiply(BigDecimal.valueOf(3));
+		
+		double resultTwice = SCalcBuilder.doubleInstance()
+				.expression("userFunctionTest(a)")
+				.registerUserFunction("userFunctionTest", twice)
+				.build()
+				.parameter("a", 2)
+				.calc();
+		double resultThrice = SCalcBuilder.doubleInstance()
+				.expression("userFunctionTest(a)")
+				.registerUserFunction("userFunctionTest", thrice)
+				.build()
+				.parameter("a", 2)
+				.calc();
+		
+		Assertions.assertEquals(4.0, resultTwice, 0);
+		Assertions.assertEquals(6.0, resultThrice, 0);
+	}
+	
+	@Test
+	public void testCompile_LeastRecentlyUsedIsEvicted() {
+		SCalcCache.clear();
+		SCalcCache.setMaximumSize(2);
+		long evictions = SCalcCache.getEvictions();
+		
+		SCalcFormula<Double> first = compile("evictionTest + 1");
+		SCalcFormula<Double> second = compile("evictionTest + 2");
+		Assertions.assertSame(first.getCompiledExpression(), compile("evictionTest + 1").getCompiledExpression());
+		compile("evictionTest + 3");
+		
+		Assertions.assertEquals(2, SCalcCache.getSize());
+		Assertions.assertEquals(evictions + 1, SCalcCache.getEvictions());
+		Assertions.assertSame(first.getCompiledExpression(), compile("evictionTest + 1").getCompiledExpression());
+		Assertions.assertNotSame(second.getCompiledExpression(), compile("evictionTest + 2").getCompiledExpression());
+	}
+	
+	@Test
+	public void testCompile_EvictedInBatches() {
+		SCalcCache.clear();
+		SCalcCache.setMaximumSize(16);
+		long evictions = SCalcCache.getEvictions();
+		
+		SCalcFormula<Double> first = compile("batchEvictionTest + 0");
+		for (int i = 1; i < 16; i++) {
+			compile("batchEvictionTest + " + i);
+		}
+		Assertions.assertEquals(16, SCalcCache.getSize());
+		
+		Assertions.assertSame(first.getCompiledExpression(), compile("batchEvictionTest + 0").getCompiledExpression());
+		compile("batchEvictionTest + 16");
+		
+		Assertions.assertEquals(14, SCalcCache.getSize());
+		Assertions.assertEquals(evictions + 3, SCalcCache.getEvictions());
+		Assertions.assertSame(first.getCompiledExpression(), compile("batchEvictionTest + 0").getCompiledExpression());
+	}
+	
+	@Test
+	public void testCompile_Disabled() {
+		SCalcCache.setMaximumSize(0);
+		long misses = SCalcCache.getMisses();
+		
+		SCalcFormula<Double> first = compile("disabledTest + 1");
+		SCalcFormula<Double> second = compile("disabledTest + 1");
+		
+		Assertions.assertEquals(0, SCalcCache.getSize());
+		Assertions.assertEquals(misses + 2, SCalcCache.getMisses());
+		Assertions.assertNotSame(first.getCompiledExpression(), second.getCompiledExpression());
+	}
+	
+	@Test
+	public void testSummarize_UsesCache() {
+		SCalcUtil.summarize(Double.class, 1, 2);
+		long hits = SCalcCache.getHits();
+		
+		double result = SCalcUtil.summarize(Double.class, 1, 2, 3);
+		
+		Assertions.assertEquals(6.0, result, 0);
+		Assertions.assertEquals(hits + 1, SCalcCache.getHits());
+	}
+	
+	private static SCalcFormula<Double> compile(String expression) {
+		return SCalcBuilder.doubleInstance()
+				.expression(expression)
+				.compile();
+	}
+}
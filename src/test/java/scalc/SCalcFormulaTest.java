@@ -0,0 +1,112 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SCalcFormulaTest {
+	@Test
+	public void testCalc_Map() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a + b")
+				.compile();
+		
+		Map<String, Object> params = new HashMap<>();
+		params.put("a", 10);
+		params.put("b", 2.1);
+		
+		Assertions.assertEquals(12.1, formula.calc(params), 0);
+		Assertions.assertEquals(3.0, formula.calc("a", 1, "b", 2), 0);
+	}
+	
+	@Test
+	public void testCalc_Bindings() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("f(x) = x * 2; return f(a) + sum(b);")
+				.compile();
+		
+		SCalcBindings bindings = formula.bindings()
+				.parameter("a", 3)
+				.parameter("b", new int[] {1, 2, 3});
+		
+		Assertions.assertEquals(12.0, formula.calc(bindings), 0);
+		Assertions.assertEquals(12.0, formula.calc(bindings), 0);
+		
+		bindings.clear().parameter("a", 1, "b", 1);
+		Assertions.assertEquals(3.0, formula.calc(bindings), 0);
+	}
+	
+	@Test
+	public void testCalc_BindingsOfOtherFormula() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a + b")
+				.compile();
+		SCalcFormula<Double> otherFormula = SCalcBuilder.doubleInstance()
+				.expression("b + a")
+				.compile();
+		
+		Assertions.assertThrows(CalculationException.class, () -> formula.calc(otherFormula.bindings()));
+	}
+	
+	@Test
+	public void testCalc_DefaultParamNames() {
+		SCalcFormula<Integer> formula = SCalcBuilder.integerInstance()
+				.expression("param0 - param1")
+				.compile();
+		
+		Assertions.assertEquals(5, formula.calc(formula.bindings().parameter(10).parameter(5)));
+		Assertions.assertEquals(1, formula.calc(formula.bindings().parameter(3).parameter(2)));
+	}
+	
+	@Test
+	public void testCalc_Concurrent() throws Exception {
+		SCalcFormula<Long> formula = SCalcBuilder.longInstance()
+				.expression("f(a, b) = √(a² - (b² / 2)); c = a * 2; return f(a, b) + c;")
+				.compile();
+		
+		long[] expected = new long[2000];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = formula.calc("a", i, "b", i);
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (int thread = 0; thread < 4; thread++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < expected.length; i++) {
+						if (formula.calc("a", i, "b", i) != expected[i]) {
+							return false;
+						}
+					}
+					return true;
+				}));
+			}
+			
+			for (Future<Boolean> future : futures) {
+				Assertions.assertTrue(future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testCompile_BuilderChangedAfterwards() {
+		SCalcBuilder<Integer> builder = SCalcBuilder.integerInstance().expression("1 + 1");
+		SCalcFormula<Integer> formula = builder.compile();
+		
+		builder.expression("2 + 2");
+		
+		Assertions.assertEquals("1 + 1", formula.getOptions().getExpression());
+		Assertions.assertEquals(2, formula.calc());
+	}
+}
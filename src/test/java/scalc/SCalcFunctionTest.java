@@ -0,0 +1,164 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+import scalc.interfaces.DoubleFunctionArguments;
+import scalc.interfaces.FunctionArguments;
+import scalc.interfaces.SCalcFunction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SCalcFunctionTest {
+	@Test
+	public void testCompile_ArgumentCountOfPredefinedFunction() {
+		CalculationException exception = Assertions.assertThrows(CalculationException.class, () -> SCalcBuilder.doubleInstance()
+				.expression("abs(a + 1, 2)")
+				.compile());
+		Assertions.assertEquals("Function 'abs' has to have at least 1 and max. 1 arguments, but got 2.", exception.getCause().getMessage());
+		
+		Assertions.assertThrows(CalculationException.class, () -> SCalcBuilder.doubleInstance()
+				.expression("round()")
+				.compile());
+	}
+	
+	@Test
+	public void testCompile_ArgumentCountOfUserFunction() {
+		SCalcBuilder<Double> builder = SCalcBuilder.doubleInstance()
+				.registerFunction("clamp", new ClampFunction(new AtomicInteger()));
+		
+		CalculationException exception = Assertions.assertThrows(CalculationException.class, () -> builder
+				.expression("clamp(a * 2, 1)")
+				.compile());
+		Assertions.assertEquals("Function 'clamp' has to have at least 3 and max. 3 arguments, but got 2.", exception.getCause().getMessage());
+	}
+	
+	@Test
+	public void testCalc_ArgumentCountOfCollectionParameter() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("round(a)")
+				.compile();
+		
+		Assertions.assertEquals(1.25, formula.calc("a", Arrays.asList(1.254, 2)), 0);
+		Assertions.assertThrows(CalculationException.class, () -> formula.calc("a", Arrays.asList(1, 2, 3, 4)));
+		Assertions.assertThrows(CalculationException.class, () -> formula.calc("a", new ArrayList<>()));
+	}
+	
+	@Test
+	public void testCompile_PureFunctionFolded() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("clamp(15, 0, 10) * a")
+				.registerFunction("clamp", new ClampFunction(calls))
+				.compile();
+		
+		Assertions.assertEquals("(10.0000000000 * a)", formula.getCompiledExpression().toString());
+		Assertions.assertEquals(20.0, formula.calc("a", 2), 0);
+		Assertions.assertEquals(30.0, formula.calc("a", 3), 0);
+		Assertions.assertEquals(1, calls.get());
+	}
+	
+	@Test
+	public void testCompile_ImpureFunctionNotFolded() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("counter() + 1")
+				.registerFunction("counter", (options, arguments) -> BigDecimal.valueOf(calls.incrementAndGet()))
+				.compile();
+		
+		Assertions.assertEquals(2.0, formula.calc(), 0);
+		Assertions.assertEquals(3.0, formula.calc(), 0);
+	}
+	
+	@Test
+	public void testCalc_DoubleImplementation() {
+		AtomicInteger calls = new AtomicInteger();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("clamp(a, 0, 10)")
+				.registerFunction("clamp", new ClampFunction(calls))
+				.doublePrecision(true)
+				.compile();
+		
+		Assertions.assertEquals(10.0, formula.calc("a", 15), 0);
+		Assertions.assertEquals(-1.0, (double) calls.get(), 0);
+		
+		double[] results = formula.calcDoubleBatch(new SCalcColumns().column("a", new double[] { -5, 5, 15 }));
+		Assertions.assertArrayEquals(new double[] { 0, 5, 10 }, results, 0);
+	}
+	
+	@Test
+	public void testCalc_GlobalFunction() {
+		SCalcBuilder.registerGlobalFunction("clampGlobal", new ClampFunction(new AtomicInteger()));
+		try {
+			Assertions.assertEquals(0.0, SCalcBuilder.doubleInstance()
+					.expression("clampGlobal(a, 0, 10)")
+					.compile()
+					.calc("a", -3), 0);
+		} finally {
+			SCalcBuilder.removeGlobalUserFunction("clampGlobal");
+		}
+	}
+	
+	@Test
+	public void testCalc_LegacyFunctionGetsModifiableList() {
+		List<BigDecimal> received = new ArrayList<>();
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("first(a, 2, 3)")
+				.registerUserFunction("first", (options, functionParams) -> {
+					functionParams.add(BigDecimal.ONE);
+					received.addAll(functionParams);
+					return functionParams.get(0);
+				})
+				.compile();
+		
+		Assertions.assertEquals(5.0, formula.calc("a", 5), 0);
+		Assertions.assertEquals(4, received.size());
+	}
+	
+	/**
+	 * Counts BigDecimal calls up and primitive calls down.
+	 */
+	private static class ClampFunction implements SCalcFunction {
+		private final AtomicInteger calls;
+		
+		private ClampFunction(AtomicInteger calls) {
+			this.calls = calls;
+		}
+		
+		@Override
+		public BigDecimal call(SCalcOptions<?> options, FunctionArguments arguments) {
+			calls.incrementAndGet();
+			return arguments.get(0).max(arguments.get(1)).min(arguments.get(2));
+		}
+		
+		@Override
+		public double callDouble(SCalcOptions<?> options, DoubleFunctionArguments arguments) {
+			calls.decrementAndGet();
+			return Math.min(Math.max(arguments.get(0), arguments.get(1)), arguments.get(2));
+		}
+		
+		@Override
+		public int getMinArguments() {
+			return 3;
+		}
+		
+		@Override
+		public int getMaxArguments() {
+			return 3;
+		}
+		
+		@Override
+		public boolean isPure() {
+			return true;
+		}
+		
+		@Override
+		public boolean isDoubleSupported() {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class SCalcGraphTest {
+	private static SCalcGraph orderGraph() {
+		return new SCalcGraphBuilder()
+				.formula("total", SCalcBuilder.bigDecimalInstance().expression("gross + shipping").resultScale(2).compile())
+				.formula("gross", SCalcBuilder.bigDecimalInstance().expression("net * (1 + rate)").resultScale(2).compile())
+				.formula("shipping", SCalcBuilder.bigDecimalInstance().expression("if(net >= 100, 0, 4.95)").resultScale(2).compile())
+				.formula("weight", SCalcBuilder.doubleInstance().expression("items * 0.5").doublePrecision(true).compile())
+				.build();
+	}
+	
+	@Test
+	public void testBuild_TopologicalOrder() {
+		SCalcGraph graph = orderGraph();
+		
+		Assertions.assertEquals(Arrays.asList("gross", "shipping", "total", "weight"), graph.getFormulaNames());
+		Assertions.assertEquals(Arrays.asList("gross", "shipping"), graph.getDependencies("TOTAL"));
+		Assertions.assertEquals(Collections.emptyList(), graph.getDependencies("gross"));
+	}
+	
+	@Test
+	public void testBuild_CyclicDependency() {
+		CalculationException exception = Assertions.assertThrows(CalculationException.class, () -> new SCalcGraphBuilder()
+				.formula("a", SCalcBuilder.doubleInstance().expression("c + 1").compile())
+				.formula("b", SCalcBuilder.doubleInstance().expression("a * 2").compile())
+				.formula("c", SCalcBuilder.doubleInstance().expression("b - x").compile())
+				.build());
+		Assertions.assertEquals("Cyclic dependency between formulas: a -> c -> b -> a", exception.getMessage());
+		
+		exception = Assertions.assertThrows(CalculationException.class, () -> new SCalcGraphBuilder()
+				.formula("a", SCalcBuilder.doubleInstance().expression("a + 1").compile())
+				.build());
+		Assertions.assertEquals("Cyclic dependency between formulas: a -> a", exception.getMessage());
+	}
+	
+	@Test
+	public void testBuild_DuplicateName() {
+		Assertions.assertThrows(CalculationException.class, () -> new SCalcGraphBuilder()
+				.formula("a", SCalcBuilder.doubleInstance().expression("x").compile())
+				.formula("A", SCalcBuilder.doubleInstance().expression("y").compile())
+				.build());
+	}
+	
+	@Test
+	public void testCalc_Results() {
+		Map<String, Object> results = orderGraph().session()
+				.parameter("net", 50, "rate", "0.19", "items", 3)
+				.calc();
+		
+		Assertions.assertEquals(new BigDecimal("59.50"), results.get("gross"));
+		Assertions.assertEquals(new BigDecimal("4.95"), results.get("shipping"));
+		Assertions.assertEquals(new BigDecimal("64.45"), results.get("total"));
+		Assertions.assertEquals(1.5, results.get("weight"));
+	}
+	
+	@Test
+	public void testCalc_OnlyDownstreamRecalculated() {
+		SCalcGraphSession session = orderGraph().session();
+		
+		session.parameter("net", 50, "rate", "0.19", "items", 3).calc();
+		Assertions.assertEquals(Arrays.asList("gross", "shipping", "total", "weight"), session.getRecalculatedFormulas());
+		
+		session.parameter("items", 4).calc();
+		Assertions.assertEquals(Collections.singletonList("weight"), session.getRecalculatedFormulas());
+		Assertions.assertEquals(2.0, session.getResult("weight"));
+		
+		session.parameter("rate", "0.07").calc();
+		Assertions.assertEquals(Arrays.asList("gross", "total"), session.getRecalculatedFormulas());
+		Assertions.assertEquals(new BigDecimal("58.45"), session.getResult("total"));
+		
+		session.parameter("rate", "0.07", "items", 4).calc();
+		Assertions.assertEquals(Collections.emptyList(), session.getRecalculatedFormulas());
+	}
+	
+	@Test
+	public void testCalc_UnchangedResultStopsPropagation() {
+		SCalcGraphSession session = new SCalcGraphBuilder()
+				.formula("limited", SCalcBuilder.doubleInstance().expression("min(a, 10)").compile())
+				.formula("doubled", SCalcBuilder.doubleInstance().expression("limited * 2").compile())
+				.build()
+				.session();
+		
+		Assertions.assertEquals(20.0, session.parameter("a", 15).calc().get("doubled"));
+		Assertions.assertEquals(20.0, session.parameter("a", 12).calc().get("doubled"));
+		Assertions.assertEquals(Collections.singletonList("limited"), session.getRecalculatedFormulas());
+	}
+	
+	@Test
+	public void testCalc_ResultNotGivenAsInput() {
+		SCalcGraphSession session = orderGraph().session();
+		
+		Assertions.assertThrows(CalculationException.class, () -> session.parameter("gross", 100));
+		Assertions.assertThrows(CalculationException.class, () -> session.parameter(1, 2, 3));
+	}
+	
+	@Test
+	public void testCalc_FailedFormula() {
+		SCalcGraphSession session = orderGraph().session();
+		
+		CalculationException exception = Assertions.assertThrows(CalculationException.class, () -> session.parameter("net", 50, "rate", "0.19").calc());
+		Assertions.assertTrue(exception.getMessage().contains("'weight'"));
+		
+		Assertions.assertEquals(1.0, session.parameter("items", 2).calc().get("weight"));
+		Assertions.assertEquals(Collections.singletonList("weight"), session.getRecalculatedFormulas());
+	}
+	
+	@Test
+	public void testCalc_RecoveredAfterFailedFormula() {
+		SCalcGraphSession session = new SCalcGraphBuilder()
+				.formula("a", SCalcBuilder.bigDecimalInstance().expression("x").compile())
+				.formula("b", SCalcBuilder.bigDecimalInstance().expression("1 / (a - 5 + y)").compile())
+				.formula("c", SCalcBuilder.bigDecimalInstance().expression("a * 2").compile())
+				.build()
+				.session();
+		
+		session.parameter("x", 1, "y", 0).calc();
+		CalculationException exception = Assertions.assertThrows(CalculationException.class, () -> session.parameter("x", 5).calc());
+		Assertions.assertTrue(exception.getMessage().contains("'b'"));
+		
+		Map<String, Object> results = session.parameter("y", 1).calc();
+		Assertions.assertEquals(0, new BigDecimal("5").compareTo((BigDecimal) results.get("a")));
+		Assertions.assertEquals(0, BigDecimal.ONE.compareTo((BigDecimal) results.get("b")));
+		Assertions.assertEquals(0, new BigDecimal("10").compareTo((BigDecimal) results.get("c")));
+	}
+	
+	@Test
+	public void testCalc_NonFiniteDoubleResults() {
+		SCalcGraphSession session = new SCalcGraphBuilder()
+				.formula("inverse", SCalcBuilder.doubleInstance().expression("1 / x").doublePrecision(true).compile())
+				.formula("negated", SCalcBuilder.doubleInstance().expression("-inverse").doublePrecision(true).compile())
+				.build()
+				.session();
+		
+		Map<String, Object> results = session.parameter("x", 0).calc();
+		Assertions.assertEquals(Double.POSITIVE_INFINITY, results.get("inverse"));
+		Assertions.assertEquals(Double.NEGATIVE_INFINITY, results.get("negated"));
+		Assertions.assertEquals(-0.25, session.parameter("x", 4).calc().get("negated"));
+	}
+	
+	@Test
+	public void testCalc_NonFiniteDoubleResultWithoutDoublePrecision() {
+		SCalcGraphSession session = new SCalcGraphBuilder()
+				.formula("inverse", SCalcBuilder.doubleInstance().expression("1 / x").doublePrecision(true).compile())
+				.formula("exact", SCalcBuilder.bigDecimalInstance().expression("inverse * 2").compile())
+				.build()
+				.session();
+		
+		CalculationException exception = Assertions.assertThrows(CalculationException.class, () -> session.parameter("x", 0).calc());
+		Assertions.assertTrue(exception.getMessage().contains("'exact'"));
+		Assertions.assertEquals(0, new BigDecimal("0.5").compareTo((BigDecimal) session.parameter("x", 4).calc().get("exact")));
+	}
+	
+	@Test
+	public void testCalc_IndependentFormulasInParallel() {
+		CountDownLatch latch = new CountDownLatch(2);
+		SCalcBuilder<Double> builder = SCalcBuilder.doubleInstance()
+				.registerUserFunction("meet", (options, functionParams) -> {
+					latch.countDown();
+					try {
+						return latch.await(10, TimeUnit.SECONDS) ? functionParams.get(0) : BigDecimal.ZERO;
+					} catch (InterruptedException e) {
+						throw new IllegalStateException(e);
+					}
+				});
+		
+		SCalcGraph graph = new SCalcGraphBuilder()
+				.formula("left", builder.expression("meet(a) * 2").compile())
+				.formula("right", builder.expression("meet(b) * 3").compile())
+				.formula("sum", SCalcBuilder.doubleInstance().expression("left + right").compile())
+				.build();
+		
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Map<String, Object> results = graph.session().parameter("a", 1, "b", 2).calc(executor);
+			Assertions.assertEquals(8.0, results.get("sum"));
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
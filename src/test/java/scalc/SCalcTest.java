@@ -314,6 +314,20 @@ public class SCalcTest {
         Assertions.assertEquals(3.14, result, 0);
     }
 
+    @Test
+    public void calc_GlobalConstants_CalculationScale() {
+        BigDecimal result = SCalcBuilder.bigDecimalInstance()
+                .expression("PI + e + round(0.125, 2, half_down)")
+                .calculationScale(20)
+                .resultScale(20)
+                .buildAndCalc();
+
+        BigDecimal expected = new BigDecimal(Math.PI).setScale(20, RoundingMode.HALF_UP)
+                .add(new BigDecimal(Math.E).setScale(20, RoundingMode.HALF_UP))
+                .add(new BigDecimal("0.12"));
+        Assertions.assertEquals(expected.setScale(20, RoundingMode.HALF_UP), result);
+    }
+
     @Test
     public void calc_CaseInsensitiveNames() {
         Double result = SCalcBuilder.doubleInstance()
@@ -411,6 +425,17 @@ public class SCalcTest {
         Assertions.assertEquals(1.125, result, 0);
     }
 
+    @Test
+    public void calc_PowChar_NegativeParameter() {
+        Double result = SCalcBuilder.doubleInstance()
+                .expression("a² + a³")
+                .build()
+                .parameter("a", -2)
+                .calc();
+
+        Assertions.assertEquals(-4.0, result, 0);
+    }
+
     @Test
     public void calc_Min() {
         Double result = SCalcBuilder.doubleInstance()
@@ -1001,4 +1026,14 @@ public class SCalcTest {
 		
 		Assertions.assertEquals(155.0, result, 0);
 	}
+	
+	@Test
+	public void calc_DefinitionExpression_Reused() {
+		SCalc<Double> sCalc = SCalcBuilder.doubleInstance()
+				.expression("f(x) = x * faktor; faktor = 2; summe = a + b; return f(summe);")
+				.build();
+		
+		Assertions.assertEquals(6.0, sCalc.parameter("a", 1).parameter("b", 2).calc(), 0);
+		Assertions.assertEquals(20.0, sCalc.parameter("a", 4).parameter("b", 6).calc(), 0);
+	}
 }
\ No newline at end of file
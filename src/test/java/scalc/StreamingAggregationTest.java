@@ -0,0 +1,139 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class StreamingAggregationTest {
+	@Test
+	public void testCalc_AggregateFunctions() {
+		for (boolean doublePrecision : new boolean[] { false, true }) {
+			SCalcBuilder<Double> builder = SCalcBuilder.doubleInstance()
+					.doublePrecision(doublePrecision)
+					.bytecodeGeneration(doublePrecision);
+			
+			Assertions.assertEquals(10.0, builder.expression("sum(a)").compile().calc("a", Stream.of(1, 2, 3, 4)), 0);
+			Assertions.assertEquals(2.5, builder.expression("avg(a)").compile().calc("a", DoubleStream.of(1, 2, 3, 4)), 0);
+			Assertions.assertEquals(1.0, builder.expression("min(a, 5)").compile().calc("a", IntStream.rangeClosed(1, 4)), 0);
+			Assertions.assertEquals(4.0, builder.expression("max(a) * 1").compile().calc("a", Arrays.asList(1, 2, 3, 4).iterator()), 0);
+			Assertions.assertEquals(10.0, builder.expression("sum(a)").compile().calc("a", Arrays.asList(1, 2, 3, 4).spliterator()), 0);
+			Assertions.assertEquals(0.0, builder.expression("sum(a)").compile().calc("a", Stream.empty()), 0);
+		}
+	}
+	
+	@Test
+	public void testCalc_LargeStream() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("avg(a) + max(b)")
+				.doublePrecision(true)
+				.compile();
+		
+		Assertions.assertEquals(1.0 + 2_999_999.0, formula.calc(
+				"a", DoubleStream.generate(() -> 1.0).limit(3_000_000),
+				"b", IntStream.range(0, 3_000_000)), 0);
+	}
+	
+	@Test
+	public void testCalc_AllParams() {
+		SCalcFormula<BigDecimal> formula = SCalcBuilder.bigDecimalInstance()
+				.expression("sum(ALL_PARAMS)")
+				.resultScale(1)
+				.compile();
+		
+		Assertions.assertEquals(new BigDecimal("16.5"), formula.calc("a", 5, "b", Stream.of("1.5", 2, 3), "c", Arrays.asList(2, 3)));
+	}
+	
+	@Test
+	public void testCalc_AllParamsInInsertionOrder() {
+		for (boolean doublePrecision : new boolean[] { false, true }) {
+			SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+					.expression("round(ALL_PARAMS)")
+					.doublePrecision(doublePrecision)
+					.compile();
+			
+			Assertions.assertEquals(1.23, formula.calc("a", Stream.of(1.23456), "b", 2), 0);
+			Assertions.assertEquals(2.0, formula.calc("a", 2, "b", Stream.of(1.23456)), 0);
+		}
+	}
+	
+	@Test
+	public void testCalc_ReusableIterable() {
+		Iterable<Integer> values = new Range(1, 4);
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("sum(a) + max(a)")
+				.compile();
+		
+		Assertions.assertEquals(14.0, formula.calc("a", values), 0);
+		Assertions.assertEquals(14.0, formula.calc("a", values), 0);
+		Assertions.assertThrows(CalculationException.class, () -> formula.calc("a", Stream.of(1, 2, 3, 4)));
+	}
+	
+	@Test
+	public void testCalc_StreamAsSingleValue() {
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("round(a) + b")
+				.compile();
+		
+		Assertions.assertEquals(2.25, formula.calc("a", Stream.of(1.254, 2), "b", 1), 0);
+		Assertions.assertEquals(4.0, formula.calc("a", 1, "b", Stream.of(3)), 0);
+	}
+	
+	@Test
+	public void testCalc_ParamExtractor() {
+		List<Amount> amounts = Arrays.asList(new Amount(3), new Amount(4), new Amount(5));
+		Function<Amount, Object> extractor = amount -> amount.value;
+		
+		Assertions.assertEquals(12.0, SCalcBuilder.doubleInstance()
+				.expression("sum(a)")
+				.build()
+				.parameter(extractor, "a", amounts.stream())
+				.calc(), 0);
+	}
+	
+	@Test
+	public void testCalc_Session() {
+		SCalcSession<Double> session = SCalcBuilder.doubleInstance()
+				.expression("sum(a) * b")
+				.compile()
+				.session();
+		
+		Assertions.assertEquals(20.0, session.parameter("a", Stream.of(1, 2, 2), "b", 4).calc(), 0);
+		Assertions.assertEquals(25.0, session.parameter("b", 5).calc(), 0);
+		Assertions.assertEquals(10.0, session.parameter("a", Stream.of(2)).calc(), 0);
+	}
+	
+	private static class Amount {
+		private final int value;
+		
+		private Amount(int value) {
+			this.value = value;
+		}
+	}
+	
+	/**
+	 * Iterable, which is not a collection.
+	 */
+	private static class Range implements Iterable<Integer> {
+		private final int from;
+		private final int to;
+		
+		private Range(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		public Iterator<Integer> iterator() {
+			return IntStream.rangeClosed(from, to).iterator();
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package scalc;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scalc.exceptions.CalculationException;
+import scalc.interfaces.SCalcTrace;
+import scalc.interfaces.SCalcTracer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TracingTest {
+	@Test
+	public void testCalc_TraceSteps() {
+		for (boolean doublePrecision : new boolean[] { false, true }) {
+			SCalcTraceBuffer traces = new SCalcTraceBuffer(10);
+			SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+					.expression("a * b + max(c, 1)")
+					.doublePrecision(doublePrecision)
+					.bytecodeGeneration(doublePrecision)
+					.tracer(traces)
+					.compile();
+			
+			Assertions.assertEquals(11.0, formula.calc("a", 2, "b", 3, "c", 5), 0);
+			
+			List<SCalcTraceBuffer.Calculation> calculations = traces.getCalculations();
+			Assertions.assertEquals(1, calculations.size());
+			Assertions.assertEquals("a * b + max(c, 1)", calculations.get(0).getExpression());
+			Assertions.assertEquals(11.0, calculations.get(0).getResult().doubleValue(), 0);
+			
+			List<SCalcTraceBuffer.Step> steps = calculations.get(0).getSteps();
+			Assertions.assertEquals(Arrays.asList(SCalcTraceBuffer.StepType.TERM, SCalcTraceBuffer.StepType.FUNCTION, SCalcTraceBuffer.StepType.TERM),
+					steps.stream().map(SCalcTraceBuffer.Step::getType).collect(Collectors.toList()));
+			Assertions.assertEquals("*", steps.get(0).getName());
+			Assertions.assertEquals(2.0, steps.get(0).getOperands().get(0).doubleValue(), 0);
+			Assertions.assertEquals(3.0, steps.get(0).getOperands().get(1).doubleValue(), 0);
+			Assertions.assertEquals(6.0, steps.get(0).getResult().doubleValue(), 0);
+			Assertions.assertEquals("max", steps.get(1).getName());
+			Assertions.assertEquals(5.0, steps.get(1).getResult().doubleValue(), 0);
+		}
+	}
+	
+	@Test
+	public void testCalc_TraceVariables() {
+		SCalcTraceBuffer traces = new SCalcTraceBuffer(10);
+		SCalcBuilder.bigDecimalInstance()
+				.expression("x = a + 1; f(y) = y * 2; return f(x);")
+				.tracer(traces)
+				.build()
+				.parameter("a", 1)
+				.calc();
+		
+		List<SCalcTraceBuffer.Step> steps = traces.getCalculations().get(0).getSteps();
+		Assertions.assertTrue(steps.stream().anyMatch(step -> step.getType() == SCalcTraceBuffer.StepType.VARIABLE
+				&& step.getName().equals("x") && ((BigDecimal) step.getResult()).compareTo(new BigDecimal(2)) == 0), steps.toString());
+		Assertions.assertTrue(steps.stream().anyMatch(step -> step.getType() == SCalcTraceBuffer.StepType.FUNCTION
+				&& step.getName().equals("f") && ((BigDecimal) step.getResult()).compareTo(new BigDecimal(4)) == 0), steps.toString());
+	}
+	
+	@Test
+	public void testCalc_Sampling() {
+		SCalcTraceBuffer traces = new SCalcTraceBuffer(100);
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a + 1")
+				.tracer(traces, 3)
+				.compile();
+		
+		for (int i = 0; i < 9; i++) {
+			formula.calc("a", i);
+		}
+		
+		Assertions.assertEquals(Arrays.asList(1.0, 4.0, 7.0), traces.getCalculations().stream()
+				.map(calculation -> calculation.getResult().doubleValue())
+				.collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void testCalc_RingBuffer() {
+		SCalcTraceBuffer traces = new SCalcTraceBuffer(2);
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a + 1")
+				.doublePrecision(true)
+				.tracer(traces)
+				.compile();
+		
+		for (int i = 0; i < 5; i++) {
+			formula.calc("a", i);
+		}
+		
+		List<SCalcTraceBuffer.Calculation> calculations = traces.getCalculations();
+		Assertions.assertEquals(2, calculations.size());
+		Assertions.assertEquals(4.0, calculations.get(0).getResult().doubleValue(), 0);
+		Assertions.assertEquals(5.0, calculations.get(1).getResult().doubleValue(), 0);
+		Assertions.assertEquals(3, calculations.get(0).getSequence());
+		
+		traces.clear();
+		Assertions.assertTrue(traces.getCalculations().isEmpty());
+	}
+	
+	@Test
+	public void testCalc_FailedCalculation() {
+		SCalcTraceBuffer traces = new SCalcTraceBuffer(10);
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a / b")
+				.tracer(traces)
+				.compile();
+		
+		Assertions.assertThrows(CalculationException.class, () -> formula.calc("a", 1, "b", 0));
+		
+		SCalcTraceBuffer.Calculation calculation = traces.getCalculations().get(0);
+		Assertions.assertNull(calculation.getResult());
+		Assertions.assertNotNull(calculation.getError());
+	}
+	
+	@Test
+	public void testCalc_SkippedCalculationsAndDebugLogger() {
+		List<String> messages = new ArrayList<>();
+		List<String> traced = new ArrayList<>();
+		SCalcTracer tracer = expression -> traced.isEmpty() ? new SCalcTrace() {
+			@Override
+			public void term(String operator, BigDecimal left, BigDecimal right, BigDecimal result) {
+				traced.add(operator);
+			}
+		} : null;
+		
+		SCalcFormula<Double> formula = SCalcBuilder.doubleInstance()
+				.expression("a - 1")
+				.debug(true)
+				.debugLogger(messages::add)
+				.tracer(tracer)
+				.compile();
+		
+		formula.calc("a", 1);
+		formula.calc("a", 2);
+		
+		Assertions.assertEquals(Arrays.asList("-"), traced);
+		Assertions.assertTrue(messages.stream().anyMatch(message -> message.startsWith("Calculated term. Expression: '-'")), messages.toString());
+		Assertions.assertTrue(messages.stream().anyMatch(message -> message.startsWith("Calculated expression. Expression: 'a - 1'. Result: 1")), messages.toString());
+	}
+	
+	@Test
+	public void testCalc_Session() {
+		SCalcTraceBuffer traces = new SCalcTraceBuffer(10);
+		SCalcSession<Double> session = SCalcBuilder.doubleInstance()
+				.expression("a * 2 + b")
+				.tracer(traces)
+				.compile()
+				.session();
+		
+		session.parameter("a", 1, "b", 1).calc();
+		session.parameter("b", 2).calc();
+		
+		List<SCalcTraceBuffer.Calculation> calculations = traces.getCalculations();
+		Assertions.assertEquals(2, calculations.size());
+		Assertions.assertEquals(2, calculations.get(0).getSteps().size());
+		Assertions.assertEquals(1, calculations.get(1).getSteps().size());
+	}
+}
@@ -0,0 +1,76 @@
+package scalc.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import scalc.SCalcBuilder;
+import scalc.SCalcFormula;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregations of ALL_PARAMS over large arrays, given as primitive array, as list and as iterable.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AllParamsBenchmark {
+	@Param({ "100", "10000", "1000000" })
+	private int size;
+	
+	@Param({ "sum(ALL_PARAMS)", "max(ALL_PARAMS) - avg(ALL_PARAMS)" })
+	private String expression;
+	
+	@Param({ "false", "true" })
+	private boolean doublePrecision;
+	
+	private SCalcFormula<Double> formula;
+	private double[] values;
+	private List<Double> valueList;
+	
+	@Setup
+	public void setUp() {
+		formula = SCalcBuilder.doubleInstance()
+				.expression(expression)
+				.doublePrecision(doublePrecision)
+				.compile();
+		
+		values = new double[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = (i % 1000) / 8.0;
+		}
+		valueList = Arrays.asList(Arrays.stream(values).boxed().toArray(Double[]::new));
+	}
+	
+	@Benchmark
+	public double array() {
+		return formula.calc("values", values);
+	}
+	
+	@Benchmark
+	public double list() {
+		return formula.calc("values", valueList);
+	}
+	
+	/**
+	 * Values given as Iterable, which is not a collection, are consumed one by one without collecting them into an array.
+	 */
+	@Benchmark
+	public double iterable() {
+		Iterable<Double> iterable = valueList::iterator;
+		return formula.calc("values", iterable);
+	}
+}
@@ -0,0 +1,34 @@
+package scalc.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of this package with the GC profiler, which reports the allocation rate and the bytes allocated per operation.
+ * The results are written to target/jmh-result.json. Run all benchmarks with:<br/>
+ * <code>mvn test -Pbenchmarks</code><br/>
+ * Further JMH options can be given by the property benchmark.args, e.g. a regular expression to select benchmarks and parameters:<br/>
+ * <code>mvn test -Pbenchmarks -Dbenchmark.args="AllParamsBenchmark -p size=10000 -t 8"</code>
+ */
+public class Benchmarks {
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.parent(commandLineOptions)
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result("target/jmh-result.json");
+		if (commandLineOptions.getIncludes().isEmpty()) {
+			options.include(Benchmarks.class.getPackage().getName());
+		}
+		
+		new Runner(options.build()).run();
+	}
+}
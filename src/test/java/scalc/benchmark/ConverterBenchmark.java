@@ -0,0 +1,79 @@
+package scalc.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import scalc.SCalcBuilder;
+import scalc.SCalcFormula;
+import scalc.test.model.Money;
+import scalc.test.model.MoneyConverter;
+import scalc.test.model.Percentage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parameters and results of custom number types: converted by an INumberConverter registered for the type or a superclass,
+ * or implementing INumber.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterBenchmark {
+	@Param({ "MONEY", "SUBTYPE", "INUMBER" })
+	private String type;
+	
+	@Param({ "2", "20" })
+	private int parameterCount;
+	
+	private SCalcFormula<Double> formula;
+	private SCalcFormula<Money> moneyFormula;
+	private Object[] params;
+	
+	@Setup
+	public void setUp() {
+		formula = SCalcBuilder.doubleInstance()
+				.sumExpression()
+				.registerConverter(Money.class, MoneyConverter.class)
+				.compile();
+		moneyFormula = SCalcBuilder.instanceFor(Money.class)
+				.sumExpression()
+				.registerConverter(Money.class, MoneyConverter.class)
+				.compile();
+		
+		params = new Object[parameterCount];
+		for (int i = 0; i < parameterCount; i++) {
+			switch (type) {
+				case "MONEY": params[i] = new Money(i + 0.5); break;
+				case "SUBTYPE": params[i] = new Euro(i + 0.5); break;
+				default: params[i] = new Percentage(i + 0.5); break;
+			}
+		}
+	}
+	
+	@Benchmark
+	public double toDouble() {
+		return formula.calc(params);
+	}
+	
+	@Benchmark
+	public Money toMoney() {
+		return moneyFormula.calc(params);
+	}
+	
+	public static class Euro extends Money {
+		public Euro(double value) {
+			super(value);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package scalc.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import scalc.SCalcBuilder;
+import scalc.SCalcFormula;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Definition expressions with a chain of inner functions, each calling the previous one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DefinitionExpressionBenchmark {
+	@Param({ "1", "5", "20" })
+	private int functions;
+	
+	@Param({ "false", "true" })
+	private boolean doublePrecision;
+	
+	private SCalcFormula<Double> formula;
+	private long i;
+	
+	@Setup
+	public void setUp() {
+		StringBuilder expression = new StringBuilder("f0(x, y) = √(x² + y²) * 0.75;");
+		for (int function = 1; function < functions; function++) {
+			expression.append(String.format(" f%s(x, y) = f%s(x, y) + max(x, y) / %s;", function, function - 1, function + 1));
+		}
+		expression.append(String.format(" return f%s(a, b) - f0(b, a);", functions - 1));
+		
+		formula = SCalcBuilder.doubleInstance()
+				.expression(expression.toString())
+				.doublePrecision(doublePrecision)
+				.compile();
+	}
+	
+	@Benchmark
+	public double calc() {
+		i = (i + 1) % 1000;
+		return formula.calc("a", i, "b", i / 2.0);
+	}
+}
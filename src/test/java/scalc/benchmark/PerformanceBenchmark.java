@@ -0,0 +1,186 @@
+package scalc.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import scalc.SCalc;
+import scalc.SCalcBuilder;
+import scalc.SCalcColumns;
+import scalc.SCalcFormula;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH counterpart of scalc.PerformanceTest. Run with:<br/>
+ * <code>mvn test -Pbenchmarks -Dbenchmark.args=PerformanceBenchmark</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerformanceBenchmark {
+	private SCalc<Long> definitionExpression;
+	private SCalc<Long> standardExpression;
+	private SCalc<Double> sumExpression;
+	private SCalc<Double> mixedExpressionBigDecimal;
+	private SCalc<Double> mixedExpressionDouble;
+	private SCalc<Double> mixedExpressionGenerated;
+	private SCalcFormula<Double> constantExpression;
+	private SCalcFormula<Double> batchFormula;
+	private SCalcColumns batchColumns;
+	private double[] batchA;
+	private double[] batchB;
+	
+	private static final int ITERATIONS = 100000;
+	private static final int BATCH_ROWS = 1000;
+	
+	private long i;
+	
+	@Setup
+	public void setUp() {
+		definitionExpression = SCalcBuilder.instanceFor(Long.class)
+				.expression("f(a, b)=√(a² - (b² / 2)); return f(a, b);")
+				.resultScale(64)
+				.calculationScale(64)
+				.build();
+		
+		standardExpression = SCalcBuilder.instanceFor(Long.class)
+				.expression("√(a² - (b² / 2))")
+				.resultScale(64)
+				.calculationScale(64)
+				.build();
+		
+		sumExpression = SCalcBuilder.doubleInstance()
+				.sumExpression()
+				.build();
+		
+		mixedExpressionBigDecimal = SCalcBuilder.doubleInstance()
+				.expression("f(a, b) = √(a² - (b² / 2)) * 0.75 + max(a, b) / 3; return f(a, b) + sin(a);")
+				.build();
+		
+		mixedExpressionDouble = SCalcBuilder.doubleInstance()
+				.expression("f(a, b) = √(a² - (b² / 2)) * 0.75 + max(a, b) / 3; return f(a, b) + sin(a);")
+				.doublePrecision(true)
+				.build();
+		
+		mixedExpressionGenerated = SCalcBuilder.doubleInstance()
+				.expression("f(a, b) = √(a² - (b² / 2)) * 0.75 + max(a, b) / 3; return f(a, b) + sin(a);")
+				.doublePrecision(true)
+				.bytecodeGeneration(true)
+				.build();
+		
+		constantExpression = SCalcBuilder.doubleInstance()
+				.expression("(√(16, 4) + 2) / (99.99 - 79.99 - 16) * sin(PI / 2) * a")
+				.compile();
+		
+		batchFormula = mixedExpressionDouble.getFormula();
+		batchA = new double[BATCH_ROWS];
+		batchB = new double[BATCH_ROWS];
+		for (int row = 0; row < BATCH_ROWS; row++) {
+			batchA[row] = row;
+			batchB[row] = row / 2.0;
+		}
+		batchColumns = new SCalcColumns().column("a", batchA).column("b", batchB);
+	}
+	
+	@Benchmark
+	public long definitionExpression() {
+		i = (i + 1) % ITERATIONS;
+		return definitionExpression
+				.parameter("a", i)
+				.parameter("b", i)
+				.calc();
+	}
+	
+	@Benchmark
+	public long standardExpression() {
+		i = (i + 1) % ITERATIONS;
+		return standardExpression
+				.parameter("a", i)
+				.parameter("b", i)
+				.calc();
+	}
+	
+	@Benchmark
+	public double sumExpression() {
+		i = (i + 1) % ITERATIONS;
+		return sumExpression
+				.parameter(i, 10.5, 20)
+				.calc();
+	}
+	
+	@Benchmark
+	public double mixedExpressionBigDecimal() {
+		i = (i + 1) % ITERATIONS;
+		return mixedExpressionBigDecimal
+				.parameter("a", i)
+				.parameter("b", i)
+				.calc();
+	}
+	
+	@Benchmark
+	public double mixedExpressionDouble() {
+		i = (i + 1) % ITERATIONS;
+		return mixedExpressionDouble
+				.parameter("a", i)
+				.parameter("b", i)
+				.calc();
+	}
+	
+	@Benchmark
+	public double mixedExpressionGenerated() {
+		i = (i + 1) % ITERATIONS;
+		return mixedExpressionGenerated
+				.parameter("a", i)
+				.parameter("b", i)
+				.calc();
+	}
+	
+	@Benchmark
+	public double constantExpression() {
+		i = (i + 1) % ITERATIONS;
+		return constantExpression.calc("a", i);
+	}
+	
+	@Benchmark
+	public SCalcFormula<Long> compileDefinitionExpression() {
+		return SCalcBuilder.instanceFor(Long.class)
+				.expression("f(a, b)=√(a² - (b² / 2)); return f(a, b);")
+				.resultScale(64)
+				.calculationScale(64)
+				.compile();
+	}
+	
+	@Benchmark
+	public double[] batchRowByRowDouble() {
+		double[] results = new double[BATCH_ROWS];
+		for (int row = 0; row < BATCH_ROWS; row++) {
+			results[row] = batchFormula.calc("a", batchA[row], "b", batchB[row]);
+		}
+		return results;
+	}
+	
+	@Benchmark
+	public double[] batchColumnsDouble() {
+		return batchFormula.calcDoubleBatch(batchColumns);
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(PerformanceBenchmark.class.getSimpleName())
+				.build())
+				.run();
+	}
+}
@@ -0,0 +1,60 @@
+package scalc.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import scalc.SCalcBuilder;
+import scalc.SCalcFormula;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single operator expressions, which apply one operator to all given parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SingleOperatorBenchmark {
+	@Param({ "SUM", "SUBTRACT", "MULTIPLY", "DIVIDE", "POW" })
+	private String operator;
+	
+	@Param({ "2", "10", "100" })
+	private int parameterCount;
+	
+	private SCalcFormula<Double> formula;
+	private Object[] params;
+	
+	@Setup
+	public void setUp() {
+		SCalcBuilder<Double> builder = SCalcBuilder.doubleInstance();
+		switch (operator) {
+			case "SUM": builder.sumExpression(); break;
+			case "SUBTRACT": builder.subtractExpression(); break;
+			case "MULTIPLY": builder.multiplyExpression(); break;
+			case "DIVIDE": builder.divideExpression(); break;
+			default: builder.powExpression(); break;
+		}
+		formula = builder.compile();
+		
+		params = new Object[parameterCount];
+		for (int i = 0; i < parameterCount; i++) {
+			params[i] = 1.0 + (i % 3) / 10.0;
+		}
+	}
+	
+	@Benchmark
+	public double calc() {
+		return formula.calc(params);
+	}
+}
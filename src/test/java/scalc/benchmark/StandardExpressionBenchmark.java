@@ -0,0 +1,107 @@
+package scalc.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import scalc.SCalcBindings;
+import scalc.SCalcBuilder;
+import scalc.SCalcCache;
+import scalc.SCalcFormula;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Standard expressions of increasing size. Each term uses its own parameter and alternates between operators and functions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StandardExpressionBenchmark {
+	@Param({ "1", "10", "100" })
+	private int terms;
+	
+	@Param({ "false", "true" })
+	private boolean doublePrecision;
+	
+	private SCalcFormula<Double> formula;
+	private Map<String, Object> params;
+	private SCalcBindings bindings;
+	private String expression;
+	
+	@Setup
+	public void setUp() {
+		StringBuilder expressionBuilder = new StringBuilder();
+		params = new HashMap<>();
+		for (int i = 0; i < terms; i++) {
+			if (i > 0) {
+				expressionBuilder.append(i % 2 == 0 ? " + " : " - ");
+			}
+			
+			String parameter = "a" + i;
+			switch (i % 3) {
+				case 0: expressionBuilder.append(parameter).append(" * 1.5"); break;
+				case 1: expressionBuilder.append("√(").append(parameter).append("² + 1)"); break;
+				default: expressionBuilder.append("max(").append(parameter).append(", 2) / 3"); break;
+			}
+			params.put(parameter, i + 1);
+		}
+		expression = expressionBuilder.toString();
+		
+		formula = SCalcBuilder.doubleInstance()
+				.expression(expression)
+				.doublePrecision(doublePrecision)
+				.compile();
+		bindings = formula.bindings().parameter(params);
+	}
+	
+	@Benchmark
+	public double calc() {
+		return formula.calc(params);
+	}
+	
+	@Benchmark
+	public double calcBound() {
+		return formula.calc(bindings);
+	}
+	
+	/**
+	 * Compiles the expression without the expression cache, so it is parsed and optimized on each invocation.
+	 */
+	@Benchmark
+	public SCalcFormula<Double> compile(ExpressionCacheDisabled cacheDisabled) {
+		return SCalcBuilder.doubleInstance()
+				.expression(expression)
+				.doublePrecision(doublePrecision)
+				.compile();
+	}
+	
+	@State(Scope.Benchmark)
+	public static class ExpressionCacheDisabled {
+		private int maximumSize;
+		
+		@Setup
+		public void setUp() {
+			maximumSize = SCalcCache.getMaximumSize();
+			SCalcCache.setMaximumSize(0);
+		}
+		
+		@TearDown
+		public void tearDown() {
+			SCalcCache.setMaximumSize(maximumSize);
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package scalc.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import scalc.SCalc;
+import scalc.SCalcBuilder;
+import scalc.SCalcFormula;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of threads sharing one formula, compared to threads building their own SCalc from the shared expression cache.
+ * The number of threads can be changed by the JMH option -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ThroughputBenchmark {
+	private static final String EXPRESSION = "f(a, b) = √(a² - (b² / 2)) * 0.75 + max(a, b) / 3; return f(a, b) + sin(a);";
+	
+	@Param({ "false", "true" })
+	private boolean doublePrecision;
+	
+	private SCalcFormula<Double> formula;
+	
+	@Setup
+	public void setUp() {
+		formula = SCalcBuilder.doubleInstance()
+				.expression(EXPRESSION)
+				.doublePrecision(doublePrecision)
+				.compile();
+	}
+	
+	@Benchmark
+	public double sharedFormula() {
+		double a = ThreadLocalRandom.current().nextInt(1000);
+		return formula.calc("a", a, "b", a / 2);
+	}
+	
+	@Benchmark
+	public double cachedBuild() {
+		double a = ThreadLocalRandom.current().nextInt(1000);
+		SCalc<Double> sCalc = SCalcBuilder.doubleInstance()
+				.expression(EXPRESSION)
+				.doublePrecision(doublePrecision)
+				.build();
+		return sCalc.parameter("a", a, "b", a / 2).calc();
+	}
+}
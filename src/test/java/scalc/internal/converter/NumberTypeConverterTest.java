@@ -48,4 +48,18 @@ public class NumberTypeConverterTest {
     public void convert_UnsupportedType() {
         Assertions.assertThrows(CalculationException.class, () -> NumberTypeConverter.convert(120.1, Byte.class));
     }
+
+    @Test
+    public void toBigDecimal_Long() {
+        BigDecimal result = NumberTypeConverter.toBigDecimal(Long.MAX_VALUE);
+
+        Assertions.assertEquals(new BigDecimal(Long.MAX_VALUE), result);
+    }
+
+    @Test
+    public void toBigDecimal_Float() {
+        BigDecimal result = NumberTypeConverter.toBigDecimal(0.1F);
+
+        Assertions.assertEquals(new BigDecimal("0.1"), result);
+    }
 }
\ No newline at end of file
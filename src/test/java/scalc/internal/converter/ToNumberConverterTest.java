@@ -0,0 +1,53 @@
+package scalc.internal.converter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+public class ToNumberConverterTest {
+    @Test
+    public void toBigDecimals_PrimitiveArrays() {
+        BigDecimal[] result = ToNumberConverter.toBigDecimals(new Object[] { new int[] { 1, 2 }, new long[] { Long.MAX_VALUE }, new double[] { 0.1 } },
+                Function.identity(), NumberConverters.NONE);
+
+        Assertions.assertArrayEquals(new BigDecimal[] { BigDecimal.valueOf(1), BigDecimal.valueOf(2), BigDecimal.valueOf(Long.MAX_VALUE), new BigDecimal("0.1") }, result);
+    }
+
+    @Test
+    public void toDoubles_NestedCollections() {
+        List<Object> nested = Arrays.asList(1, Arrays.asList(2.5, Arrays.asList(3L, 4)), new Number[] { 5, new BigDecimal("6.5") }, null);
+
+        double[] result = ToNumberConverter.toDoubles(nested, Function.identity(), NumberConverters.NONE);
+
+        Assertions.assertArrayEquals(new double[] { 1, 2.5, 3, 4, 5, 6.5, 0 }, result, 0);
+    }
+
+    @Test
+    public void toDoubles_EqualSizedNestedCollections() {
+        List<List<Integer>> nested = Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6), Arrays.asList(7, 8, 9));
+
+        double[] result = ToNumberConverter.toDoubles(nested, Function.identity(), NumberConverters.NONE);
+
+        Assertions.assertArrayEquals(new double[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 }, result, 0);
+    }
+
+    @Test
+    public void toDoubles_ParamExtractor() {
+        Function<String, Object> extractor = String::length;
+
+        double[] result = ToNumberConverter.toDoubles(Arrays.asList("a", "abc", Arrays.asList("ab")), extractor, NumberConverters.NONE);
+
+        Assertions.assertArrayEquals(new double[] { 1, 3, 2 }, result, 0);
+    }
+
+    @Test
+    public void toNumbers_SingleValue() {
+        Number[] result = ToNumberConverter.toNumbers("12.5", Function.identity(), NumberConverters.NONE);
+
+        Assertions.assertArrayEquals(new Number[] { new BigDecimal("12.5") }, result);
+    }
+}